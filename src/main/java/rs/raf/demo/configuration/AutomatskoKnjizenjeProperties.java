@@ -0,0 +1,26 @@
+package rs.raf.demo.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "knjizenje.automatsko")
+public class AutomatskoKnjizenjeProperties {
+
+    /**
+     * Najveci broj outbox dogadjaja koji se obradjuje u jednoj transakciji.
+     */
+    private int serija = 200;
+
+    private String kupci = "2020";
+    private String dobavljaci = "4350";
+    private String prethodniPdv = "2700";
+    private String obracunatiPdv = "4700";
+    private String prihodi = "6120";
+    private String troskovi = "5010";
+    private String tekuciRacun = "2410";
+}
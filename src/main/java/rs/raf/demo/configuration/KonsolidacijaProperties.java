@@ -0,0 +1,48 @@
+package rs.raf.demo.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "konsolidacija")
+public class KonsolidacijaProperties {
+
+    /**
+     * Broj niti koje paralelno sabiraju salda knjiga.
+     */
+    private int niti = 4;
+
+    /**
+     * Najveci broj proteklih dana za koje se cuvaju salda jedne knjige.
+     */
+    private int kesDana = 64;
+
+    /**
+     * Naziv pod kojim se prikazuju knjizenja bez knjige (maticno preduzece).
+     */
+    private String maticnaKnjiga = "Maticno preduzece";
+
+    /**
+     * Pravila eliminacije medjusobnih odnosa pravnih lica iz grupe.
+     */
+    private List<Eliminacija> eliminacije = new ArrayList<>();
+
+    /**
+     * Dugovni saldo konta sa prefiksom duguje i potrazni saldo konta sa prefiksom
+     * potrazuje se medjusobno ponistavaju do manjeg od dva iznosa.
+     */
+    @Getter
+    @Setter
+    public static class Eliminacija {
+        private String naziv;
+        private String duguje;
+        private String potrazuje;
+    }
+}
@@ -0,0 +1,46 @@
+package rs.raf.demo.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.Min;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "faktura.numeracija")
+@Validated
+public class NumeracijaFakturaProperties {
+
+    /**
+     * Koliko brojeva jedna instanca rezervise odjednom.
+     */
+    @Min(1)
+    private int blok = 50;
+
+    /**
+     * Minimalan broj cifara rednog broja, dopunjava se nulama.
+     */
+    @Min(1)
+    private int cifre = 6;
+
+    /**
+     * Podrazumevani format, podrzava {serija}, {godina} i {broj}.
+     */
+    private String format = "{serija}-{godina}-{broj}";
+
+    /**
+     * Oznaka serije po tipu fakture.
+     */
+    private Map<String, String> serije = new HashMap<>();
+
+    /**
+     * Format po seriji, ako se razlikuje od podrazumevanog.
+     */
+    private Map<String, String> formati = new HashMap<>();
+}
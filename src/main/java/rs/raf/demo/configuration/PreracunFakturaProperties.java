@@ -0,0 +1,28 @@
+package rs.raf.demo.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "faktura.preracun")
+public class PreracunFakturaProperties {
+
+    /**
+     * Broj niti koje paralelno preracunavaju fakture jedne serije.
+     */
+    private int niti = 4;
+
+    /**
+     * Broj faktura koje se citaju, preracunavaju i upisuju u jednoj transakciji.
+     */
+    private int serija = 1000;
+
+    /**
+     * Najveci broj razlika koje probni rad belezi; ostale se samo broje.
+     */
+    private int maxRazlika = 1000;
+}
@@ -0,0 +1,42 @@
+package rs.raf.demo.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import rs.raf.demo.utils.TenantMetrike;
+import rs.raf.demo.utils.TenantRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Kada su tenanti ukljuceni, aplikacija koristi jedan Hikari pool (velicine
+ * spring.datasource.hikari.maximum-pool-size) koji dele svi tenanti, a
+ * repozitorijumi ga vide kroz {@link TenantRoutingDataSource}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "tenanti", name = "ukljuceni", havingValue = "true")
+public class TenantDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource zajednickiPool(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource zajednickiPool, TenantProperties properties, TenantMetrike metrike) throws SQLException {
+        String podrazumevanaSema;
+        try (Connection konekcija = zajednickiPool.getConnection()) {
+            podrazumevanaSema = konekcija.getCatalog();
+        }
+        return new TenantRoutingDataSource(zajednickiPool, podrazumevanaSema, properties.getSeme(),
+                properties.getMaxKonekcija(), properties.getCekanjeKonekcije(), metrike);
+    }
+}
@@ -0,0 +1,41 @@
+package rs.raf.demo.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "tenanti")
+public class TenantProperties {
+
+    /**
+     * Da li se zahtevi usmeravaju na semu tenanta iz JWT-a. Ako nije, sve ide na podrazumevanu semu.
+     */
+    private boolean ukljuceni = false;
+
+    /**
+     * Naziv JWT claim-a u kome je tenant.
+     */
+    private String claim = "tenant";
+
+    /**
+     * Sema baze po tenantu. Tenant koji nije naveden se odbija.
+     */
+    private Map<String, String> seme = new HashMap<>();
+
+    /**
+     * Najveci broj konekcija iz zajednickog pool-a koje jedan tenant moze istovremeno da drzi.
+     */
+    private int maxKonekcija = 5;
+
+    /**
+     * Koliko milisekundi zahtev ceka da se oslobodi konekcija tenanta pre nego sto odustane.
+     */
+    private long cekanjeKonekcije = 5000;
+}
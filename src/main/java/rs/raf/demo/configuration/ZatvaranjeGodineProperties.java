@@ -0,0 +1,38 @@
+package rs.raf.demo.configuration;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "zatvaranje-godine")
+public class ZatvaranjeGodineProperties {
+
+    /**
+     * Broj niti koje paralelno obradjuju particije.
+     */
+    private int niti = 4;
+
+    /**
+     * Najveci broj konta u jednoj particiji.
+     */
+    private int velicinaParticije = 200;
+
+    /**
+     * Konto na koji se zakljucuju prihodi i rashodi.
+     */
+    private String kontoRezultata = "3410";
+
+    /**
+     * Klase konta koje se prenose u pocetno stanje sledece godine.
+     */
+    private String klaseStanja = "01234";
+
+    /**
+     * Klase konta koje se zakljucuju na konto rezultata.
+     */
+    private String klaseUspeha = "56";
+}
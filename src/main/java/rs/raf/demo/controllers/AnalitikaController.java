@@ -0,0 +1,47 @@
+package rs.raf.demo.controllers;
+
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import rs.raf.demo.exceptions.OperationNotSupportedException;
+import rs.raf.demo.services.IKolonskaKnjigaService;
+import rs.raf.demo.services.impl.KolonskaKnjigaService;
+
+import java.time.LocalDate;
+
+@CrossOrigin
+@RestController
+@SecurityRequirement(name = "bearerAuth")
+@RequestMapping("/api/analitika")
+@ConditionalOnProperty(prefix = "analitika.kolonska-knjiga", name = "ukljucena", havingValue = "true")
+public class AnalitikaController {
+
+    private final IKolonskaKnjigaService kolonskaKnjigaService;
+
+    public AnalitikaController(KolonskaKnjigaService kolonskaKnjigaService) {
+        this.kolonskaKnjigaService = kolonskaKnjigaService;
+    }
+
+    @GetMapping(value = "/promet-po-kontima", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getPrometPoKontima(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate od,
+                                                @RequestParam(name = "do") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate doDatuma,
+                                                @RequestParam(required = false) String prefiks) {
+        if (doDatuma.isBefore(od)) {
+            throw new OperationNotSupportedException("Datum \"do\" je pre datuma \"od\"");
+        }
+        return ResponseEntity.ok(kolonskaKnjigaService.getPrometPoKontima(od, doDatuma.plusDays(1), prefiks));
+    }
+
+    @GetMapping(value = "/promet-po-mesecima", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getPrometPoMesecima(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate od,
+                                                 @RequestParam(name = "do") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate doDatuma,
+                                                 @RequestParam(required = false) String prefiks) {
+        if (doDatuma.isBefore(od)) {
+            throw new OperationNotSupportedException("Datum \"do\" je pre datuma \"od\"");
+        }
+        return ResponseEntity.ok(kolonskaKnjigaService.getPrometPoMesecima(od, doDatuma.plusDays(1), prefiks));
+    }
+}
@@ -6,7 +6,10 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.web.bind.annotation.*;
 import rs.raf.demo.requests.LoginRequest;
 import rs.raf.demo.responses.LoginResponse;
+import rs.raf.demo.services.ITenantService;
+import rs.raf.demo.services.impl.TenantService;
 import rs.raf.demo.utils.JwtUtil;
+import rs.raf.demo.utils.TenantKontekst;
 
 @RestController
 @CrossOrigin
@@ -15,22 +18,28 @@ public class AuthController {
 
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
+    private final ITenantService tenantService;
 
-    public AuthController(AuthenticationManager authenticationManager, JwtUtil jwtUtil) {
+    public AuthController(AuthenticationManager authenticationManager, JwtUtil jwtUtil, TenantService tenantService) {
         this.authenticationManager = authenticationManager;
         this.jwtUtil = jwtUtil;
+        this.tenantService = tenantService;
     }
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest){
+        String tenant;
         try {
+            // Korisnici su u semi tenanta, pa tenant mora biti postavljen pre provere lozinke.
+            tenant = tenantService.razresi(loginRequest.getTenant());
+            TenantKontekst.postavi(tenant);
             authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
         } catch (Exception e){
             e.printStackTrace();
             return ResponseEntity.status(401).build();
         }
 
-        return ResponseEntity.ok(new LoginResponse(jwtUtil.generateToken(loginRequest.getUsername())));
+        return ResponseEntity.ok(new LoginResponse(jwtUtil.generateToken(loginRequest.getUsername(), tenant)));
     }
 
 
@@ -0,0 +1,71 @@
+package rs.raf.demo.controllers;
+
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import rs.raf.demo.model.BilansPozicija;
+import rs.raf.demo.model.enums.TipBilansa;
+import rs.raf.demo.services.IBilansService;
+import rs.raf.demo.services.impl.BilansService;
+
+import javax.persistence.EntityNotFoundException;
+import javax.validation.Valid;
+import java.time.LocalDate;
+import java.util.Optional;
+
+@CrossOrigin
+@RestController
+@SecurityRequirement(name = "bearerAuth")
+@RequestMapping("/api/bilans")
+public class BilansController {
+
+    private final IBilansService bilansService;
+
+    public BilansController(BilansService bilansService) {
+        this.bilansService = bilansService;
+    }
+
+    @GetMapping(value = "/stanja", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getBilansStanja(@RequestParam(required = false) Integer godina) {
+        return ResponseEntity.ok(bilansService.getBilans(TipBilansa.BILANS_STANJA, godina == null ? LocalDate.now().getYear() : godina));
+    }
+
+    @GetMapping(value = "/uspeha", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getBilansUspeha(@RequestParam(required = false) Integer godina) {
+        return ResponseEntity.ok(bilansService.getBilans(TipBilansa.BILANS_USPEHA, godina == null ? LocalDate.now().getYear() : godina));
+    }
+
+    @GetMapping(value = "/pozicije", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getPozicije(@RequestParam(required = false) TipBilansa tipBilansa) {
+        if (tipBilansa == null) {
+            return ResponseEntity.ok(bilansService.findAll());
+        }
+        return ResponseEntity.ok(bilansService.findByTipBilansa(tipBilansa));
+    }
+
+    @PostMapping(value = "/pozicije", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> createPozicija(@Valid @RequestBody BilansPozicija bilansPozicija) {
+        return ResponseEntity.ok(bilansService.save(bilansPozicija));
+    }
+
+    @PutMapping(value = "/pozicije", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> updatePozicija(@Valid @RequestBody BilansPozicija bilansPozicija) {
+        if (bilansPozicija.getBilansPozicijaId() != null && bilansService.findById(bilansPozicija.getBilansPozicijaId()).isPresent()) {
+            return ResponseEntity.ok(bilansService.save(bilansPozicija));
+        }
+
+        throw new EntityNotFoundException();
+    }
+
+    @DeleteMapping(value = "/pozicije/{id}")
+    public ResponseEntity<?> deletePozicija(@PathVariable("id") Long id) {
+        Optional<BilansPozicija> optionalPozicija = bilansService.findById(id);
+        if (optionalPozicija.isPresent()) {
+            bilansService.deleteById(id);
+            return ResponseEntity.noContent().build();
+        }
+
+        throw new EntityNotFoundException();
+    }
+}
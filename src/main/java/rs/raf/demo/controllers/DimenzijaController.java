@@ -0,0 +1,95 @@
+package rs.raf.demo.controllers;
+
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import rs.raf.demo.exceptions.OperationNotSupportedException;
+import rs.raf.demo.model.Dimenzija;
+import rs.raf.demo.model.enums.Grupisanje;
+import rs.raf.demo.model.enums.TipDimenzije;
+import rs.raf.demo.requests.DimenzijeKontaRequest;
+import rs.raf.demo.services.IDimenzijaService;
+import rs.raf.demo.services.impl.DimenzijaService;
+
+import javax.persistence.EntityNotFoundException;
+import javax.validation.Valid;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@CrossOrigin
+@RestController
+@SecurityRequirement(name = "bearerAuth")
+@RequestMapping("/api/dimenzije")
+public class DimenzijaController {
+
+    private final IDimenzijaService dimenzijaService;
+
+    public DimenzijaController(DimenzijaService dimenzijaService) {
+        this.dimenzijaService = dimenzijaService;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getDimenzije(@RequestParam(required = false) TipDimenzije tip) {
+        return ResponseEntity.ok(tip == null ? dimenzijaService.findAll() : dimenzijaService.findByTip(tip));
+    }
+
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getDimenzija(@PathVariable("id") Long id) {
+        Optional<Dimenzija> optionalDimenzija = dimenzijaService.findById(id);
+        if (optionalDimenzija.isPresent()) {
+            return ResponseEntity.ok(optionalDimenzija.get());
+        }
+
+        throw new EntityNotFoundException();
+    }
+
+    @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> createDimenzija(@Valid @RequestBody Dimenzija dimenzija) {
+        dimenzija.setDimenzijaId(null);
+        return ResponseEntity.ok(dimenzijaService.save(dimenzija));
+    }
+
+    @PutMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> updateDimenzija(@Valid @RequestBody Dimenzija dimenzija) {
+        if (dimenzija.getDimenzijaId() == null || dimenzijaService.findById(dimenzija.getDimenzijaId()).isEmpty()) {
+            throw new EntityNotFoundException();
+        }
+        return ResponseEntity.ok(dimenzijaService.save(dimenzija));
+    }
+
+    @DeleteMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> deleteDimenzija(@PathVariable Long id) {
+        if (dimenzijaService.findById(id).isPresent()) {
+            dimenzijaService.deleteById(id);
+            return ResponseEntity.noContent().build();
+        }
+
+        throw new EntityNotFoundException();
+    }
+
+    @PutMapping(value = "/konto/{kontoId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> oznaciKonto(@PathVariable Long kontoId, @RequestBody DimenzijeKontaRequest request) {
+        return ResponseEntity.ok(dimenzijaService.oznaciKonto(kontoId, request));
+    }
+
+    @GetMapping(value = "/promet", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getPromet(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate od,
+                                       @RequestParam(name = "do") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate doDatuma,
+                                       @RequestParam(defaultValue = "KONTO") List<Grupisanje> grupisanje,
+                                       @RequestParam(required = false) Long mestoTroskova,
+                                       @RequestParam(required = false) Long projekat,
+                                       @RequestParam(required = false) Long zaposleni,
+                                       @RequestParam(required = false) String prefiks) {
+        if (doDatuma.isBefore(od)) {
+            throw new OperationNotSupportedException("Datum \"do\" je pre datuma \"od\"");
+        }
+        DimenzijeKontaRequest filter = new DimenzijeKontaRequest();
+        filter.setMestoTroskovaId(mestoTroskova);
+        filter.setProjekatId(projekat);
+        filter.setZaposleniId(zaposleni);
+        return ResponseEntity.ok(dimenzijaService.getPromet(od, doDatuma.plusDays(1), grupisanje, filter, prefiks));
+    }
+}
@@ -0,0 +1,36 @@
+package rs.raf.demo.controllers;
+
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import rs.raf.demo.services.IDnevnoStanjeService;
+import rs.raf.demo.services.impl.DnevnoStanjeService;
+
+import java.time.LocalDate;
+
+@CrossOrigin
+@RestController
+@SecurityRequirement(name = "bearerAuth")
+@RequestMapping("/api/dnevno-stanje")
+public class DnevnoStanjeController {
+
+    private final IDnevnoStanjeService dnevnoStanjeService;
+
+    public DnevnoStanjeController(DnevnoStanjeService dnevnoStanjeService) {
+        this.dnevnoStanjeService = dnevnoStanjeService;
+    }
+
+    @GetMapping(value = "/{konto}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getSaldo(@PathVariable("konto") String konto,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate naDan) {
+        return ResponseEntity.ok(dnevnoStanjeService.getSaldo(konto, naDan == null ? LocalDate.now() : naDan));
+    }
+
+    @PostMapping(value = "/obnovi")
+    public ResponseEntity<?> obnovi() {
+        dnevnoStanjeService.obnovi();
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -3,13 +3,24 @@ package rs.raf.demo.controllers;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import rs.raf.demo.exceptions.OperationNotSupportedException;
 import rs.raf.demo.model.Faktura;
+import rs.raf.demo.model.enums.DimenzijaFakture;
+import rs.raf.demo.model.enums.KursNaDan;
+import rs.raf.demo.requests.SimulacijaPorezaRequest;
+import rs.raf.demo.services.IFakturaAgregacijaService;
+import rs.raf.demo.services.IFakturaIndeksService;
 import rs.raf.demo.services.IFakturaService;
+import rs.raf.demo.services.ISimulacijaPorezaService;
+import rs.raf.demo.services.impl.FakturaAgregacijaService;
+import rs.raf.demo.services.impl.FakturaIndeksService;
 import rs.raf.demo.services.impl.FakturaService;
+import rs.raf.demo.services.impl.SimulacijaPorezaService;
 
 import rs.raf.demo.utils.ApiUtil;
 
@@ -19,6 +30,7 @@ import javax.persistence.EntityNotFoundException;
 import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,17 +42,30 @@ import java.util.Optional;
 public class FakturaRestController {
 
     private final IFakturaService fakturaService;
+    private final IFakturaIndeksService fakturaIndeksService;
+    private final IFakturaAgregacijaService fakturaAgregacijaService;
+    private final ISimulacijaPorezaService simulacijaPorezaService;
 
     private final SearchUtil<Faktura> searchUtil;
 
-    public FakturaRestController(FakturaService fakturaService) {
+    public FakturaRestController(FakturaService fakturaService, FakturaIndeksService fakturaIndeksService,
+                                 FakturaAgregacijaService fakturaAgregacijaService,
+                                 SimulacijaPorezaService simulacijaPorezaService) {
         this.fakturaService = fakturaService;
+        this.fakturaIndeksService = fakturaIndeksService;
+        this.fakturaAgregacijaService = fakturaAgregacijaService;
+        this.simulacijaPorezaService = simulacijaPorezaService;
         this.searchUtil = new SearchUtil<>();
     }
 
     @GetMapping(value = "/sume", produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<?> getSume(@RequestParam String tipFakture){
-        return ResponseEntity.ok(fakturaService.getSume(tipFakture));
+    public ResponseEntity<?> getSume(@RequestParam String tipFakture,
+                                     @RequestParam(required = false) String valuta,
+                                     @RequestParam(defaultValue = "DATUM_FAKTURE") KursNaDan kursNaDan){
+        if (valuta == null) {
+            return ResponseEntity.ok(fakturaService.getSume(tipFakture));
+        }
+        return ResponseEntity.ok(fakturaService.getSume(tipFakture, valuta, kursNaDan));
     }
 
     @GetMapping(value = "/all", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -57,16 +82,39 @@ public class FakturaRestController {
     public ResponseEntity<?> search(@RequestParam(name = "search") String search){
         Specification<Faktura> spec = this.searchUtil.getSpec(search);
 
-        List<Faktura> result = fakturaService.findAll(spec);
+        List<Faktura> result = fakturaIndeksService.findAll(spec, search);
 
         return ResponseEntity.ok(result);
     }
 
+    @GetMapping(value = "/agregacija", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> agregiraj(@RequestParam(required = false) List<DimenzijaFakture> dimenzije,
+                                       @RequestParam(defaultValue = "COUNT") List<String> mere,
+                                       @RequestParam(required = false) String search,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate od,
+                                       @RequestParam(name = "do", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate doDatuma) {
+        if (od != null && doDatuma != null && doDatuma.isBefore(od)) {
+            throw new OperationNotSupportedException("Datum \"do\" je pre datuma \"od\"");
+        }
+        return ResponseEntity.ok(fakturaAgregacijaService.agregiraj(dimenzije == null ? List.of() : dimenzije, mere, search, od,
+                doDatuma == null ? null : doDatuma.plusDays(1)));
+    }
+
+    @PostMapping(value = "/simulacija-poreza", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> simulirajPorez(@Valid @RequestBody SimulacijaPorezaRequest request) {
+        return ResponseEntity.ok(simulacijaPorezaService.simuliraj(request));
+    }
+
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> createFaktura(@Valid @RequestBody Faktura faktura){
         return ResponseEntity.ok(fakturaService.save(faktura));
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> importFakture(@Valid @RequestBody List<Faktura> fakture){
+        return ResponseEntity.ok(fakturaService.importuj(fakture));
+    }
+
     @PutMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> updateFaktura(@Valid @RequestBody Faktura faktura){
         Optional<Faktura> optionalFaktura = fakturaService.findById(faktura.getDokumentId());
@@ -6,13 +6,15 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import rs.raf.demo.model.Konto;
-import rs.raf.demo.services.impl.KontoService;
+import rs.raf.demo.model.GlavnaKnjigaStavka;
+import rs.raf.demo.services.IGlavnaKnjigaService;
+import rs.raf.demo.services.impl.GlavnaKnjigaService;
 import rs.raf.demo.utils.ApiUtil;
 import rs.raf.demo.utils.SearchUtil;
 
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import java.util.Map;
 
 
 @CrossOrigin
@@ -21,11 +23,24 @@ import javax.validation.constraints.Min;
 @RequestMapping("/api/glavna-knjiga")
 public class GlavnaKnjigaController {
 
-    private final KontoService kontoService;
-    private final SearchUtil<Konto> searchUtil;
+    /**
+     * Nazivi polja stavke konta koje klijenti koriste za pretragu i sortiranje,
+     * preslikani na kolone tabele glavne knjige.
+     */
+    private static final Map<String, String> KOLONE = Map.of(
+            "kontnaGrupa", "konto",
+            "kontnaGrupa.brojKonta", "konto",
+            "kontnaGrupa.nazivKonta", "nazivKonta",
+            "knjizenje", "brojNaloga",
+            "knjizenje.knjizenjeId", "brojNaloga",
+            "knjizenje.datumKnjizenja", "datum",
+            "datumKnjizenja", "datum");
 
-    public GlavnaKnjigaController(KontoService kontoService) {
-        this.kontoService = kontoService;
+    private final IGlavnaKnjigaService glavnaKnjigaService;
+    private final SearchUtil<GlavnaKnjigaStavka> searchUtil;
+
+    public GlavnaKnjigaController(GlavnaKnjigaService glavnaKnjigaService) {
+        this.glavnaKnjigaService = glavnaKnjigaService;
         this.searchUtil = new SearchUtil<>();
     }
 
@@ -38,9 +53,30 @@ public class GlavnaKnjigaController {
             @RequestParam(defaultValue = ApiUtil.DEFAULT_SIZE) @Min(ApiUtil.MIN_SIZE) @Max(ApiUtil.MAX_SIZE) Integer size,
             @RequestParam(defaultValue = "kontoId")  String[] sort
             ) {
-        Pageable pageSort = ApiUtil.resolveSortingAndPagination(page, size, sort);
-        if (search.length() > 0) search += ",";
-        Specification<Konto> spec = this.searchUtil.getSpec(search + "kontnaGrupa:" + kontnaGrupa + ",");
-        return ResponseEntity.ok(this.kontoService.findAllGlavnaKnjigaResponse(spec, pageSort));
+        String[] kolone = new String[sort.length];
+        for (int i = 0; i < sort.length; i++) {
+            String smer = sort[i].startsWith("-") || sort[i].startsWith("+") ? sort[i].substring(0, 1) : "";
+            kolone[i] = smer + KOLONE.getOrDefault(sort[i].substring(smer.length()), sort[i].substring(smer.length()));
+        }
+        Pageable pageSort = ApiUtil.resolveSortingAndPagination(page, size, kolone);
+
+        Specification<GlavnaKnjigaStavka> spec = (root, query, builder) -> builder.equal(root.get("konto"), kontnaGrupa);
+        if (search.length() > 0) {
+            spec = spec.and(this.searchUtil.getSpec(preslikaj(search)));
+        }
+        return ResponseEntity.ok(this.glavnaKnjigaService.findAll(spec, pageSort));
+    }
+
+    private static String preslikaj(String search) {
+        StringBuilder rezultat = new StringBuilder();
+        for (String uslov : search.split(",")) {
+            int operacija = 0;
+            while (operacija < uslov.length() && ":<>".indexOf(uslov.charAt(operacija)) < 0) {
+                operacija++;
+            }
+            String kljuc = uslov.substring(0, operacija);
+            rezultat.append(KOLONE.getOrDefault(kljuc, kljuc)).append(uslov.substring(operacija)).append(',');
+        }
+        return rezultat.toString();
     }
 }
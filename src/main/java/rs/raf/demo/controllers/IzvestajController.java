@@ -0,0 +1,119 @@
+package rs.raf.demo.controllers;
+
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import rs.raf.demo.exceptions.OperationNotSupportedException;
+import rs.raf.demo.model.enums.IntervalGrupisanja;
+import rs.raf.demo.model.enums.TipFakture;
+import rs.raf.demo.services.IMesecniPresekService;
+import rs.raf.demo.services.INovcaniTokService;
+import rs.raf.demo.services.IPdvService;
+import rs.raf.demo.services.IStarosnaStrukturaService;
+import rs.raf.demo.services.ITopPreduzecaService;
+import rs.raf.demo.services.impl.MesecniPresekService;
+import rs.raf.demo.services.impl.NovcaniTokService;
+import rs.raf.demo.services.impl.PdvService;
+import rs.raf.demo.services.impl.StarosnaStrukturaService;
+import rs.raf.demo.services.impl.TopPreduzecaService;
+import rs.raf.demo.utils.TenantKontekst;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+@CrossOrigin
+@RestController
+@SecurityRequirement(name = "bearerAuth")
+@Validated
+@RequestMapping("/api/izvestaji")
+public class IzvestajController {
+
+    private final IStarosnaStrukturaService starosnaStrukturaService;
+    private final INovcaniTokService novcaniTokService;
+    private final IPdvService pdvService;
+    private final ITopPreduzecaService topPreduzecaService;
+    private final IMesecniPresekService mesecniPresekService;
+
+    public IzvestajController(StarosnaStrukturaService starosnaStrukturaService,
+                              NovcaniTokService novcaniTokService,
+                              PdvService pdvService,
+                              TopPreduzecaService topPreduzecaService,
+                              MesecniPresekService mesecniPresekService) {
+        this.starosnaStrukturaService = starosnaStrukturaService;
+        this.novcaniTokService = novcaniTokService;
+        this.pdvService = pdvService;
+        this.topPreduzecaService = topPreduzecaService;
+        this.mesecniPresekService = mesecniPresekService;
+    }
+
+    @GetMapping(value = "/starosna-struktura", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getStarosnaStruktura(
+            @RequestParam(defaultValue = "IZLAZNA_FAKTURA") TipFakture tipFakture,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate naDan) {
+        LocalDate dan = naDan == null ? LocalDate.now() : naDan;
+        return ResponseEntity.ok(starosnaStrukturaService.getStarosnaStruktura(tipFakture, dan));
+    }
+
+    @GetMapping(value = "/starosna-struktura/csv", produces = "text/csv")
+    public ResponseEntity<StreamingResponseBody> exportStarosnaStruktura(
+            @RequestParam(defaultValue = "IZLAZNA_FAKTURA") TipFakture tipFakture,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate naDan) {
+        LocalDate dan = naDan == null ? LocalDate.now() : naDan;
+        // Telo se pise iz druge niti, pa tenant zahteva mora da se prenese.
+        String tenant = TenantKontekst.get();
+        StreamingResponseBody body = izlaz -> TenantKontekst.uz(tenant, () -> starosnaStrukturaService.izveziCsv(tipFakture, dan, izlaz));
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=starosna-struktura-" + dan + ".csv")
+                .body(body);
+    }
+
+    @GetMapping(value = "/novcani-tok", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getNovcaniTok(
+            @RequestParam(defaultValue = "90") @Min(1) @Max(366) Integer dana,
+            @RequestParam(defaultValue = "DAN") IntervalGrupisanja interval) {
+        return ResponseEntity.ok(novcaniTokService.getProjekcija(dana, interval));
+    }
+
+    @GetMapping(value = "/pdv", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getPdv(
+            @RequestParam YearMonth od,
+            @RequestParam(name = "do") YearMonth doMeseca) {
+        if (doMeseca.isBefore(od)) {
+            throw new OperationNotSupportedException("Period \"do\" je pre perioda \"od\"");
+        }
+        return ResponseEntity.ok(pdvService.getPdv(od, doMeseca));
+    }
+
+    @GetMapping(value = "/top-preduzeca", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getTopPreduzeca(
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) Integer n,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate od,
+            @RequestParam(name = "do") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate doDatuma,
+            @RequestParam(defaultValue = "IZLAZNA_FAKTURA") TipFakture tip) {
+        if (doDatuma.isBefore(od)) {
+            throw new OperationNotSupportedException("Datum \"do\" je pre datuma \"od\"");
+        }
+        return ResponseEntity.ok(topPreduzecaService.getTopPreduzeca(tip, od, doDatuma, n));
+    }
+
+    @GetMapping(value = "/uporedni", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getUporedniIzvestaj(
+            @RequestParam(required = false) Integer godina,
+            @RequestParam(defaultValue = "1") @Min(1) @Max(10) Integer prethodnih) {
+        int poslednja = godina == null ? LocalDate.now().getYear() : godina;
+        List<Integer> godine = new ArrayList<>();
+        for (int g = poslednja - prethodnih; g <= poslednja; g++) {
+            godine.add(g);
+        }
+        return ResponseEntity.ok(mesecniPresekService.getUporedniIzvestaj(godine));
+    }
+}
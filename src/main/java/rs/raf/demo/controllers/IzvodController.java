@@ -0,0 +1,47 @@
+package rs.raf.demo.controllers;
+
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import rs.raf.demo.model.Izvod;
+import rs.raf.demo.services.IIzvodService;
+import rs.raf.demo.services.impl.IzvodService;
+
+import javax.persistence.EntityNotFoundException;
+import java.io.IOException;
+import java.util.Date;
+import java.util.Optional;
+
+@CrossOrigin
+@RestController
+@SecurityRequirement(name = "bearerAuth")
+@RequestMapping("/api/izvod")
+public class IzvodController {
+
+    private final IIzvodService izvodService;
+
+    public IzvodController(IzvodService izvodService) {
+        this.izvodService = izvodService;
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> importIzvoda(@RequestParam String brojIzvoda,
+                                          @RequestParam String racun,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) Date datumIzvoda,
+                                          @RequestParam MultipartFile file) throws IOException {
+        return ResponseEntity.ok(izvodService.importuj(brojIzvoda, racun, datumIzvoda, file.getInputStream()));
+    }
+
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getIzvod(@PathVariable("id") Long id) {
+        Optional<Izvod> optionalIzvod = izvodService.findById(id);
+        if (optionalIzvod.isPresent()) {
+            return ResponseEntity.ok(optionalIzvod.get());
+        }
+
+        throw new EntityNotFoundException();
+    }
+}
@@ -0,0 +1,75 @@
+package rs.raf.demo.controllers;
+
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import rs.raf.demo.model.Knjiga;
+import rs.raf.demo.services.IKnjigaService;
+import rs.raf.demo.services.impl.KnjigaService;
+
+import javax.persistence.EntityNotFoundException;
+import javax.validation.Valid;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@CrossOrigin
+@RestController
+@SecurityRequirement(name = "bearerAuth")
+@RequestMapping("/api/knjige")
+public class KnjigaController {
+
+    private final IKnjigaService knjigaService;
+
+    public KnjigaController(KnjigaService knjigaService) {
+        this.knjigaService = knjigaService;
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getKnjige() {
+        return ResponseEntity.ok(knjigaService.findAll());
+    }
+
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getKnjiga(@PathVariable("id") Long id) {
+        Optional<Knjiga> optionalKnjiga = knjigaService.findById(id);
+        if (optionalKnjiga.isPresent()) {
+            return ResponseEntity.ok(optionalKnjiga.get());
+        }
+
+        throw new EntityNotFoundException();
+    }
+
+    @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> createKnjiga(@Valid @RequestBody Knjiga knjiga) {
+        knjiga.setKnjigaId(null);
+        return ResponseEntity.ok(knjigaService.save(knjiga));
+    }
+
+    @PutMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> updateKnjiga(@Valid @RequestBody Knjiga knjiga) {
+        if (knjiga.getKnjigaId() == null || knjigaService.findById(knjiga.getKnjigaId()).isEmpty()) {
+            throw new EntityNotFoundException();
+        }
+        return ResponseEntity.ok(knjigaService.save(knjiga));
+    }
+
+    @DeleteMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> deleteKnjiga(@PathVariable Long id) {
+        if (knjigaService.findById(id).isPresent()) {
+            knjigaService.deleteById(id);
+            return ResponseEntity.noContent().build();
+        }
+
+        throw new EntityNotFoundException();
+    }
+
+    @GetMapping(value = "/konsolidacija", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getKonsolidacija(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate naDan,
+                                              @RequestParam(required = false) List<Long> knjige,
+                                              @RequestParam(defaultValue = "true") boolean saMaticnom) {
+        return ResponseEntity.ok(knjigaService.getKonsolidacija(naDan, knjige == null ? List.of() : knjige, saMaticnom));
+    }
+}
@@ -0,0 +1,59 @@
+package rs.raf.demo.controllers;
+
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import rs.raf.demo.model.KursnaLista;
+import rs.raf.demo.services.IKursnaListaService;
+import rs.raf.demo.services.impl.KursnaListaService;
+
+import javax.persistence.EntityNotFoundException;
+import javax.validation.Valid;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
+
+@CrossOrigin
+@RestController
+@SecurityRequirement(name = "bearerAuth")
+@RequestMapping("/api/kursna-lista")
+public class KursnaListaController {
+
+    private final IKursnaListaService kursnaListaService;
+
+    public KursnaListaController(KursnaListaService kursnaListaService) {
+        this.kursnaListaService = kursnaListaService;
+    }
+
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getAllKursevi() {
+        return ResponseEntity.ok(kursnaListaService.findAll());
+    }
+
+    @GetMapping(value = "/{valuta}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getKursevi(@PathVariable("valuta") String valuta,
+                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate naDan) {
+        if (naDan == null) {
+            return ResponseEntity.ok(kursnaListaService.findByValuta(valuta));
+        }
+        return ResponseEntity.ok(Map.of("valuta", valuta, "naDan", naDan, "kurs", kursnaListaService.getKurs(valuta, naDan)));
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> createKurs(@Valid @RequestBody KursnaLista kursnaLista) {
+        return ResponseEntity.ok(kursnaListaService.save(kursnaLista));
+    }
+
+    @DeleteMapping(value = "/{id}")
+    public ResponseEntity<?> deleteKurs(@PathVariable("id") Long id) {
+        Optional<KursnaLista> optionalKurs = kursnaListaService.findById(id);
+        if (optionalKurs.isPresent()) {
+            kursnaListaService.deleteById(id);
+            return ResponseEntity.noContent().build();
+        }
+
+        throw new EntityNotFoundException();
+    }
+}
@@ -1,6 +1,7 @@
 package rs.raf.demo.controllers;
 
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -8,11 +9,16 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 import rs.raf.demo.model.Preduzece;
+import rs.raf.demo.services.IOtvoreneStavkeService;
 import rs.raf.demo.services.IService;
+import rs.raf.demo.services.impl.OtvoreneStavkeService;
 import rs.raf.demo.services.impl.PreduzeceService;
+import rs.raf.demo.utils.ApiUtil;
 
 import javax.persistence.EntityNotFoundException;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -24,9 +30,11 @@ import java.util.Optional;
 public class PreduzeceRestController {
 
     private final IService<Preduzece, Long> preduzeceService;
+    private final IOtvoreneStavkeService otvoreneStavkeService;
 
-    public PreduzeceRestController(PreduzeceService preduzeceService){
+    public PreduzeceRestController(PreduzeceService preduzeceService, OtvoreneStavkeService otvoreneStavkeService){
         this.preduzeceService = preduzeceService;
+        this.otvoreneStavkeService = otvoreneStavkeService;
     }
 
     @GetMapping(value = "/all",
@@ -46,6 +54,24 @@ public class PreduzeceRestController {
         throw new EntityNotFoundException();
     }
 
+    @GetMapping(value = "/{id}/otvorene-stavke",
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getOtvoreneStavke(
+            @PathVariable("id") Long id,
+            @RequestParam(defaultValue = ApiUtil.DEFAULT_PAGE) @Min(ApiUtil.MIN_PAGE) Integer page,
+            @RequestParam(defaultValue = ApiUtil.DEFAULT_SIZE) @Min(ApiUtil.MIN_SIZE) @Max(ApiUtil.MAX_SIZE) Integer size,
+            @RequestParam(defaultValue = "datumPlacanja") String[] sort
+    ){
+        Pageable pageSort = ApiUtil.resolveSortingAndPagination(page, size, sort);
+        return ResponseEntity.ok(otvoreneStavkeService.findOtvorene(id, pageSort));
+    }
+
+    @GetMapping(value = "/{id}/kartica",
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getKartica(@PathVariable("id") Long id){
+        return ResponseEntity.ok(otvoreneStavkeService.getKartica(id));
+    }
+
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE,
             produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<?> createPreduzece(@Valid @RequestBody Preduzece preduzece){
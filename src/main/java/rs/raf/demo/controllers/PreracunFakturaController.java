@@ -0,0 +1,49 @@
+package rs.raf.demo.controllers;
+
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import rs.raf.demo.services.IPreracunFakturaService;
+import rs.raf.demo.services.impl.PreracunFakturaService;
+import rs.raf.demo.utils.ApiUtil;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+@CrossOrigin
+@RestController
+@SecurityRequirement(name = "bearerAuth")
+@Validated
+@RequestMapping("/api/faktura/preracun")
+public class PreracunFakturaController {
+
+    private final IPreracunFakturaService preracunFakturaService;
+
+    public PreracunFakturaController(PreracunFakturaService preracunFakturaService) {
+        this.preracunFakturaService = preracunFakturaService;
+    }
+
+    @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> pokreniPreracun(@RequestParam(defaultValue = "true") boolean probniRad) {
+        return ResponseEntity.accepted().body(preracunFakturaService.pokreni(probniRad));
+    }
+
+    @PostMapping(value = "/{id}/nastavi", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> nastaviPreracun(@PathVariable("id") Long id) {
+        return ResponseEntity.accepted().body(preracunFakturaService.nastavi(id));
+    }
+
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getStatus(@PathVariable("id") Long id) {
+        return ResponseEntity.ok(preracunFakturaService.getStatus(id));
+    }
+
+    @GetMapping(value = "/{id}/razlike", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getRazlike(@PathVariable("id") Long id,
+            @RequestParam(defaultValue = ApiUtil.DEFAULT_PAGE) @Min(ApiUtil.MIN_PAGE) Integer page,
+            @RequestParam(defaultValue = ApiUtil.DEFAULT_SIZE) @Min(ApiUtil.MIN_SIZE) @Max(ApiUtil.MAX_SIZE) Integer size) {
+        return ResponseEntity.ok(preracunFakturaService.getRazlike(id, page, size));
+    }
+}
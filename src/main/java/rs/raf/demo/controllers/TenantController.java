@@ -0,0 +1,26 @@
+package rs.raf.demo.controllers;
+
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import rs.raf.demo.services.ITenantService;
+import rs.raf.demo.services.impl.TenantService;
+
+@CrossOrigin
+@RestController
+@SecurityRequirement(name = "bearerAuth")
+@RequestMapping("/api/tenanti")
+public class TenantController {
+
+    private final ITenantService tenantService;
+
+    public TenantController(TenantService tenantService) {
+        this.tenantService = tenantService;
+    }
+
+    @GetMapping(value = "/metrike", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getMetrike() {
+        return ResponseEntity.ok(tenantService.getMetrike());
+    }
+}
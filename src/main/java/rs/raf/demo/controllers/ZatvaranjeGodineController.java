@@ -0,0 +1,31 @@
+package rs.raf.demo.controllers;
+
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import rs.raf.demo.services.IZatvaranjeGodineService;
+import rs.raf.demo.services.impl.ZatvaranjeGodineService;
+
+@CrossOrigin
+@RestController
+@SecurityRequirement(name = "bearerAuth")
+@RequestMapping("/api/zatvaranje-godine")
+public class ZatvaranjeGodineController {
+
+    private final IZatvaranjeGodineService zatvaranjeGodineService;
+
+    public ZatvaranjeGodineController(ZatvaranjeGodineService zatvaranjeGodineService) {
+        this.zatvaranjeGodineService = zatvaranjeGodineService;
+    }
+
+    @PostMapping(value = "/{godina}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> pokreniZatvaranje(@PathVariable("godina") Integer godina) {
+        return ResponseEntity.accepted().body(zatvaranjeGodineService.pokreni(godina));
+    }
+
+    @GetMapping(value = "/{godina}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getStatus(@PathVariable("godina") Integer godina) {
+        return ResponseEntity.ok(zatvaranjeGodineService.getStatus(godina));
+    }
+}
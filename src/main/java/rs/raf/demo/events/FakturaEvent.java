@@ -0,0 +1,43 @@
+package rs.raf.demo.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import rs.raf.demo.model.Faktura;
+import rs.raf.demo.model.enums.TipFakture;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Objavljuje se kada je faktura sacuvana ili obrisana. Kod brisanja je faktura null.
+ * Sadrzi i datum izdavanja i tip fakture pre izmene (null za novu fakturu), pa
+ * kesevi mogu da ponisti i stare i nove stavke.
+ */
+@Getter
+@AllArgsConstructor
+public class FakturaEvent {
+
+    private final Long dokumentId;
+    private final Faktura faktura;
+    private final Date prethodniDatum;
+    private final TipFakture prethodniTip;
+
+    public boolean isObrisana() {
+        return faktura == null;
+    }
+
+    /**
+     * @return Datumi izdavanja pre i posle izmene, bez null vrednosti.
+     */
+    public List<Date> getDatumi() {
+        List<Date> datumi = new ArrayList<>(2);
+        if (prethodniDatum != null) {
+            datumi.add(prethodniDatum);
+        }
+        if (faktura != null && faktura.getDatumIzdavanja() != null) {
+            datumi.add(faktura.getDatumIzdavanja());
+        }
+        return datumi;
+    }
+}
@@ -0,0 +1,19 @@
+package rs.raf.demo.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Objavljuje se kada se promene stavke nekog knjizenja. Sadrzi sve datume
+ * knjizenja na koje je izmena uticala (stari i novi datum kod izmene datuma).
+ */
+@Getter
+@AllArgsConstructor
+public class KnjizenjeEvent {
+
+    private final Long knjizenjeId;
+    private final List<Date> datumi;
+}
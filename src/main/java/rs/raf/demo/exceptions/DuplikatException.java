@@ -0,0 +1,8 @@
+package rs.raf.demo.exceptions;
+
+public class DuplikatException extends RuntimeException {
+
+    public DuplikatException(String message) {
+        super(message);
+    }
+}
@@ -3,6 +3,7 @@ package rs.raf.demo.exceptions.handler;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.mapping.PropertyReferenceException;
 import org.springframework.http.HttpStatus;
@@ -11,7 +12,9 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+import rs.raf.demo.exceptions.DuplikatException;
 import rs.raf.demo.exceptions.OperationNotSupportedException;
+import rs.raf.demo.model.Faktura;
 import rs.raf.demo.responses.ErrorResponse;
 
 import javax.persistence.EntityNotFoundException;
@@ -59,4 +62,35 @@ public class MyExceptionHandler extends ResponseEntityExceptionHandler
         ErrorResponse error = new ErrorResponse("418 I am a teapot!", details);
         return new ResponseEntity<>(error, HttpStatus.I_AM_A_TEAPOT);
     }
-}
\ No newline at end of file
+
+    @ExceptionHandler(DuplikatException.class)
+    public final ResponseEntity<Object> handleDuplikat(Exception ex, WebRequest request) {
+        List<String> details = new ArrayList<>();
+        details.add(ex.getLocalizedMessage());
+        ErrorResponse error = new ErrorResponse("409 Conflict!", details);
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Samo krsenje jedinstvenosti broja fakture je duplikat (npr. kada dva uvoza
+     * istovremeno upisu istu fakturu); ostala krsenja integriteta su greske servera.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public final ResponseEntity<Object> handleDataIntegrityViolation(DataIntegrityViolationException ex, WebRequest request) {
+        if (jeKrsenje(ex, Faktura.UK_BROJ_NA_DAN)) {
+            return handleDuplikat(ex, request);
+        }
+        return handleAllExceptions(ex, request);
+    }
+
+    private static boolean jeKrsenje(Throwable ex, String ogranicenje) {
+        for (Throwable uzrok = ex; uzrok != null; uzrok = uzrok.getCause()) {
+            String naziv = uzrok instanceof org.hibernate.exception.ConstraintViolationException
+                    ? ((org.hibernate.exception.ConstraintViolationException) uzrok).getConstraintName() : uzrok.getMessage();
+            if (naziv != null && naziv.toLowerCase().contains(ogranicenje)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -6,24 +6,33 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import rs.raf.demo.services.impl.TenantService;
 import rs.raf.demo.services.impl.UserService;
 import rs.raf.demo.utils.JwtUtil;
+import rs.raf.demo.utils.TenantKontekst;
+import rs.raf.demo.utils.TenantMetrike;
 
+import javax.persistence.EntityNotFoundException;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtFilter extends OncePerRequestFilter {
 
     private final UserService userService;
     private final JwtUtil jwtUtil;
+    private final TenantService tenantService;
+    private final TenantMetrike tenantMetrike;
 
-    public JwtFilter(UserService userService, JwtUtil jwtUtil) {
+    public JwtFilter(UserService userService, JwtUtil jwtUtil, TenantService tenantService, TenantMetrike tenantMetrike) {
         this.userService = userService;
         this.jwtUtil = jwtUtil;
+        this.tenantService = tenantService;
+        this.tenantMetrike = tenantMetrike;
     }
 
     @Override
@@ -31,24 +40,39 @@ public class JwtFilter extends OncePerRequestFilter {
         String authHeader = httpServletRequest.getHeader("Authorization");
         String jwt = null;
         String username = null;
+        String tenant = null;
 
         if(authHeader != null && authHeader.startsWith("Bearer ")) {
             jwt = authHeader.substring(7);
             username = jwtUtil.extractUsername(jwt);
+            try {
+                tenant = tenantService.razresi(jwtUtil.extractTenant(jwt));
+            } catch (EntityNotFoundException e) {
+                httpServletResponse.sendError(HttpServletResponse.SC_FORBIDDEN, e.getMessage());
+                return;
+            }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userService.loadUserByUsername(username);
+        long pocetak = System.nanoTime();
+        TenantKontekst.postavi(tenant);
+        try {
+            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails userDetails = this.userService.loadUserByUsername(username);
 
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+                if (jwtUtil.validateToken(jwt, userDetails)) {
 
-                UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                usernamePasswordAuthenticationToken
-                        .setDetails(new WebAuthenticationDetailsSource().buildDetails(httpServletRequest));
-                SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
+                    UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities());
+                    usernamePasswordAuthenticationToken
+                            .setDetails(new WebAuthenticationDetailsSource().buildDetails(httpServletRequest));
+                    SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
+                }
             }
+            filterChain.doFilter(httpServletRequest, httpServletResponse);
+        } finally {
+            tenantMetrike.zahtev(TenantKontekst.get(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pocetak),
+                    httpServletResponse.getStatus() >= 500);
+            TenantKontekst.ocisti();
         }
-        filterChain.doFilter(httpServletRequest, httpServletResponse);
     }
 }
@@ -0,0 +1,44 @@
+package rs.raf.demo.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import rs.raf.demo.model.enums.TipBilansa;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Mapiranje konta na poziciju bilansa. Konto pripada poziciji sa najduzim
+ * prefiksom koji se poklapa sa njegovim brojem. Znak 1 znaci saldo duguje - potrazuje,
+ * a -1 potrazuje - duguje.
+ */
+@Entity
+@Getter
+@Setter
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_bilans_pozicija_tip_prefiks", columnNames = {"tipBilansa", "prefiksKonta"}))
+public class BilansPozicija {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long bilansPozicijaId;
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    @NotNull(message = "Tip bilansa je obavezan")
+    private TipBilansa tipBilansa;
+    @Column(nullable = false)
+    @NotBlank(message = "Oznaka je obavezna")
+    private String oznaka;
+    @Column(nullable = false)
+    @NotBlank(message = "Naziv je obavezan")
+    private String naziv;
+    @Column(nullable = false)
+    @NotBlank(message = "Grupa je obavezna")
+    private String grupa;
+    @Column(nullable = false)
+    @NotBlank(message = "Prefiks konta je obavezan")
+    private String prefiksKonta;
+    @Column(nullable = false)
+    @NotNull(message = "Znak je obavezan")
+    private Integer znak;
+}
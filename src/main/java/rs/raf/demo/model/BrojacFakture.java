@@ -0,0 +1,17 @@
+package rs.raf.demo.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+@Entity
+@Getter
+@Setter
+public class BrojacFakture {
+
+    @Id
+    private String serija;
+    @Column(nullable = false)
+    private Long sledeciBroj;
+}
@@ -0,0 +1,34 @@
+package rs.raf.demo.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import rs.raf.demo.model.enums.TipDimenzije;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Vrednost analiticke dimenzije (mesto troskova, projekat, zaposleni). Stavke
+ * knjizenja cuvaju samo id vrednosti, pa se sifra i naziv citaju iz recnika.
+ */
+@Entity
+@Getter
+@Setter
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_dimenzija_tip_sifra", columnNames = {"tipDimenzije", "sifra"}))
+public class Dimenzija {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long dimenzijaId;
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    @NotNull(message = "Tip dimenzije je obavezan")
+    private TipDimenzije tipDimenzije;
+    @Column(nullable = false)
+    @NotBlank(message = "Sifra je obavezna")
+    private String sifra;
+    @Column(nullable = false)
+    @NotBlank(message = "Naziv je obavezan")
+    private String naziv;
+}
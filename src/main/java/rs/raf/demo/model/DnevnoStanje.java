@@ -0,0 +1,36 @@
+package rs.raf.demo.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import rs.raf.demo.utils.Novac;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * Promet konta u jednom danu i kumulativni promet zakljucno sa tim danem.
+ * Red postoji samo za dane u kojima je konto imao promet.
+ */
+@Entity
+@Getter
+@Setter
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_dnevno_stanje_konto_datum", columnNames = {"brojKonta", "datum"}),
+       indexes = @Index(name = "idx_dnevno_stanje_datum", columnList = "datum"))
+public class DnevnoStanje {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long dnevnoStanjeId;
+    @Column(nullable = false)
+    private String brojKonta;
+    @Column(nullable = false)
+    private Date datum;
+    @Column(nullable = false, columnDefinition = Novac.KOLONA)
+    private Double dugujeDan;
+    @Column(nullable = false, columnDefinition = Novac.KOLONA)
+    private Double potrazujeDan;
+    @Column(nullable = false, columnDefinition = Novac.KOLONA)
+    private Double dugujeUkupno;
+    @Column(nullable = false, columnDefinition = Novac.KOLONA)
+    private Double potrazujeUkupno;
+}
@@ -1,40 +1,54 @@
 package rs.raf.demo.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 import rs.raf.demo.model.enums.TipFakture;
+import rs.raf.demo.utils.Novac;
 
 import javax.persistence.*;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Date;
 
 @Entity
 @Getter
 @Setter
 @PrimaryKeyJoinColumn(name = "fakturaId")
+@Table(uniqueConstraints = @UniqueConstraint(name = Faktura.UK_BROJ_NA_DAN,
+        columnNames = {"preduzeceId", "brojFakture", "datumIzdavanjaDan"}))
 public class Faktura extends Dokument{
 
+    public static final String UK_BROJ_NA_DAN = "uk_faktura_preduzece_broj_datum";
+
     @Column(nullable = false)
     private String brojFakture;
     @Column(nullable = false)
     private Date datumIzdavanja;
+    /**
+     * Dan izdavanja, za jedinstvenost broja fakture po danu; postavlja se pri upisu.
+     */
+    @JsonIgnore
     @Column(nullable = false)
-    private Date datumPlacanja;
+    private LocalDate datumIzdavanjaDan;
     @Column(nullable = false)
+    private Date datumPlacanja;
+    @Column(nullable = false, columnDefinition = Novac.KOLONA)
     private Double prodajnaVrednost;
     @Column
     private Double rabatProcenat;
-    @Column
+    @Column(columnDefinition = Novac.KOLONA)
     private Double rabat;
     @Column(nullable = false)
     private Double porezProcenat;
-    @Column(nullable = false)
+    @Column(nullable = false, columnDefinition = Novac.KOLONA)
     private Double porez;
-    @Column(nullable = false)
+    @Column(nullable = false, columnDefinition = Novac.KOLONA)
     private Double iznos;
     @Column(nullable = false)
     private String valuta;
     @Column(nullable = false)
     private Double kurs;
-    @Column(nullable = false)
+    @Column(nullable = false, columnDefinition = Novac.KOLONA)
     private Double naplata;
     @Column
     private String komentar;
@@ -44,4 +58,11 @@ public class Faktura extends Dokument{
     @ManyToOne
     @JoinColumn(name = "preduzeceId")
     private Preduzece preduzece;
+
+    @PrePersist
+    @PreUpdate
+    private void postaviDanIzdavanja() {
+        datumIzdavanjaDan = datumIzdavanja == null ? null
+                : datumIzdavanja.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,40 @@
+package rs.raf.demo.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import rs.raf.demo.utils.Novac;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * Stavka glavne knjige za citanje. Jedan red po stavci konta, sa svim poljima
+ * koja prikazuje glavna knjiga, pa pregled ne spaja tabele.
+ */
+@Entity
+@Getter
+@Setter
+@Table(indexes = {
+        @Index(name = "idx_glavna_knjiga_konto_id", columnList = "konto,kontoId"),
+        @Index(name = "idx_glavna_knjiga_konto_datum", columnList = "konto,datum"),
+        @Index(name = "idx_glavna_knjiga_broj_naloga", columnList = "brojNaloga")
+})
+public class GlavnaKnjigaStavka {
+
+    @Id
+    private Long kontoId;
+    @Column(nullable = false)
+    private Long brojNaloga;
+    @Column
+    private Date datum;
+    @Column(columnDefinition = Novac.KOLONA)
+    private Double potrazuje;
+    @Column(columnDefinition = Novac.KOLONA)
+    private Double duguje;
+    @Column(columnDefinition = Novac.KOLONA)
+    private Double saldo;
+    @Column
+    private String nazivKonta;
+    @Column(nullable = false)
+    private String konto;
+}
@@ -0,0 +1,26 @@
+package rs.raf.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.util.Date;
+import java.util.List;
+
+@Entity
+@Getter
+@Setter
+@PrimaryKeyJoinColumn(name = "izvodId")
+public class Izvod extends Dokument {
+
+    @Column(nullable = false)
+    private String brojIzvoda;
+    @Column(nullable = false)
+    private Date datumIzvoda;
+    @Column(nullable = false)
+    private String racun;
+    @JsonIgnore
+    @OneToMany(mappedBy = "izvod")
+    private List<StavkaIzvoda> stavke;
+}
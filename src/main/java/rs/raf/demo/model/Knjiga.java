@@ -0,0 +1,27 @@
+package rs.raf.demo.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotBlank;
+
+/**
+ * Poslovna knjiga jednog pravnog lica iz grupe. Knjizenja bez knjige pripadaju
+ * maticnom preduzecu.
+ */
+@Entity
+@Getter
+@Setter
+public class Knjiga {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long knjigaId;
+    @Column(nullable = false, unique = true)
+    @NotBlank(message = "Sifra je obavezna")
+    private String sifra;
+    @Column(nullable = false)
+    @NotBlank(message = "Naziv je obavezan")
+    private String naziv;
+}
@@ -12,6 +12,7 @@ import java.util.List;
 @Entity
 @Getter
 @Setter
+@Table(indexes = @Index(name = "idx_knjizenje_datum", columnList = "datumKnjizenja"))
 public class Knjizenje {
 
     @Id
@@ -23,6 +24,9 @@ public class Knjizenje {
     @ManyToOne
     @JoinColumn(name = "knjizenje")
     private Dokument dokument;
+    @ManyToOne
+    @JoinColumn(name = "knjigaId")
+    private Knjiga knjiga;
     @OneToMany(mappedBy = "knjizenje", fetch =  FetchType.EAGER)
     private List<Konto> konto;
 }
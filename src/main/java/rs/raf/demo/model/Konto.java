@@ -2,6 +2,7 @@ package rs.raf.demo.model;
 
 import lombok.Getter;
 import lombok.Setter;
+import rs.raf.demo.utils.Novac;
 
 import javax.persistence.*;
 
@@ -13,9 +14,9 @@ public class Konto {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long kontoId;
-    @Column
+    @Column(columnDefinition = Novac.KOLONA)
     private Double potrazuje;
-    @Column
+    @Column(columnDefinition = Novac.KOLONA)
     private Double duguje;
     @ManyToOne
     @JoinColumn(name = "kontnaGrupaId")
@@ -23,4 +24,10 @@ public class Konto {
     @ManyToOne
     @JoinColumn(name = "knjizenjeId")
     private Knjizenje knjizenje;
+    @Column
+    private Long mestoTroskovaId;
+    @Column
+    private Long projekatId;
+    @Column
+    private Long zaposleniId;
 }
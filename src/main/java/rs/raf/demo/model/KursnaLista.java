@@ -0,0 +1,31 @@
+package rs.raf.demo.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import java.util.Date;
+
+@Entity
+@Getter
+@Setter
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_kursna_lista_valuta_datum", columnNames = {"valuta", "datumVazenja"}))
+public class KursnaLista {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long kursnaListaId;
+    @Column(nullable = false)
+    @NotBlank(message = "Valuta je obavezna")
+    private String valuta;
+    @Column(nullable = false)
+    @NotNull(message = "Datum vazenja je obavezan")
+    private Date datumVazenja;
+    @Column(nullable = false)
+    @NotNull(message = "Kurs je obavezan")
+    @Positive
+    private Double kurs;
+}
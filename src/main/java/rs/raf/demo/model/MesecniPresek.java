@@ -0,0 +1,35 @@
+package rs.raf.demo.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import rs.raf.demo.utils.Novac;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * Zbirni podaci zavrsenog meseca. Kljuc je period u obliku godina * 100 + mesec.
+ */
+@Entity
+@Getter
+@Setter
+@Table(indexes = @Index(name = "idx_mesecni_presek_godina", columnList = "godina"))
+public class MesecniPresek {
+
+    @Id
+    private Integer period;
+    @Column(nullable = false)
+    private Integer godina;
+    @Column(nullable = false)
+    private Integer mesec;
+    @Column(nullable = false, columnDefinition = Novac.KOLONA)
+    private Double prihodi;
+    @Column(nullable = false, columnDefinition = Novac.KOLONA)
+    private Double rashodi;
+    @Column(nullable = false, columnDefinition = Novac.KOLONA)
+    private Double izlazniPdv;
+    @Column(nullable = false, columnDefinition = Novac.KOLONA)
+    private Double ulazniPdv;
+    @Column(nullable = false)
+    private Date azuriran;
+}
@@ -0,0 +1,33 @@
+package rs.raf.demo.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import rs.raf.demo.model.enums.StatusPerioda;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * Stanje zatvaranja poslovne godine. Godina bez zapisa je otvorena.
+ */
+@Entity
+@Getter
+@Setter
+public class ObracunskiPeriod {
+
+    @Id
+    private Integer godina;
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private StatusPerioda status;
+    @Column
+    private Long zakljucnoKnjizenjeId;
+    @Column
+    private Long pocetnoKnjizenjeId;
+    @Column(nullable = false)
+    private Date pocetak;
+    @Column
+    private Date zavrsetak;
+    @Column(length = 1000)
+    private String greska;
+}
@@ -0,0 +1,45 @@
+package rs.raf.demo.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import rs.raf.demo.model.enums.TipFakture;
+import rs.raf.demo.utils.Novac;
+
+import javax.persistence.*;
+import java.util.Date;
+
+@Entity
+@Getter
+@Setter
+@Table(indexes = {
+        @Index(name = "idx_otvorena_stavka_preduzece", columnList = "preduzeceId, otvorena, datumPlacanja"),
+        @Index(name = "idx_otvorena_stavka_dospece", columnList = "otvorena, datumPlacanja")
+})
+public class OtvorenaStavka {
+
+    @Id
+    private Long fakturaId;
+    @Column
+    private Long preduzeceId;
+    @Column
+    @Enumerated(EnumType.STRING)
+    private TipFakture tipFakture;
+    @Column(nullable = false)
+    private String brojFakture;
+    @Column(nullable = false)
+    private Date datumIzdavanja;
+    @Column(nullable = false)
+    private Date datumPlacanja;
+    @Column(nullable = false, columnDefinition = Novac.KOLONA)
+    private Double iznos;
+    @Column(nullable = false, columnDefinition = Novac.KOLONA)
+    private Double placeno;
+    @Column(nullable = false, columnDefinition = Novac.KOLONA)
+    private Double preostalo;
+    @Column(nullable = false)
+    private String valuta;
+    @Column(nullable = false)
+    private Double kurs;
+    @Column(nullable = false)
+    private Boolean otvorena;
+}
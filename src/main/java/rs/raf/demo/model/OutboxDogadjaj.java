@@ -0,0 +1,33 @@
+package rs.raf.demo.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import rs.raf.demo.model.enums.TipDokumenta;
+
+import javax.persistence.*;
+import java.util.Date;
+
+@Entity
+@Getter
+@Setter
+@Table(indexes = @Index(name = "idx_outbox_obradjen", columnList = "obradjen, outboxId"))
+public class OutboxDogadjaj {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long outboxId;
+    @Column(nullable = false)
+    private Long dokumentId;
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private TipDokumenta tipDokumenta;
+    @Column(nullable = false)
+    private Date kreiran;
+    @Column(nullable = false)
+    private Boolean obradjen;
+    /**
+     * Dogadjaj brisanja: dispecer uklanja knjizenje dokumenta, pa tek onda sam dokument.
+     */
+    @Column(nullable = false)
+    private Boolean brisanje;
+}
@@ -47,6 +47,6 @@ public class Preduzece {
     private String komentar;
 
     @JsonIgnore
-    @OneToMany(mappedBy = "preduzece", fetch =  FetchType.EAGER)
+    @OneToMany(mappedBy = "preduzece", fetch =  FetchType.LAZY)
     private List<Faktura> fakture;
 }
@@ -0,0 +1,55 @@
+package rs.raf.demo.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import rs.raf.demo.model.enums.StatusPreracuna;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * Paketni preracun rabata, poreza i iznosa faktura. Posle svake serije se u istoj
+ * transakciji pamti poslednja obradjena faktura, pa se prekinut preracun nastavlja
+ * od nje. Probni rad nista ne upisuje u fakture, vec samo belezi razlike.
+ */
+@Entity
+@Getter
+@Setter
+public class PreracunFaktura {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long preracunId;
+    @Column(nullable = false)
+    private Boolean probniRad;
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private StatusPreracuna status;
+    @Column(nullable = false)
+    private Long poslednjiDokumentId;
+    @Column(nullable = false)
+    private Long obradjeno;
+    @Column(nullable = false)
+    private Long izmenjeno;
+    /**
+     * Procitane fakture iz zatvorenih godina, koje se ne preracunavaju.
+     */
+    @Column(nullable = false)
+    private Long preskoceno;
+    /**
+     * Zbir razlika poreza svih izmenjenih faktura, preracunat u RSD po kursu fakture.
+     */
+    @Column(nullable = false)
+    private Double razlikaPoreza;
+    /**
+     * Zbir razlika iznosa u RSD, kao i razlika poreza.
+     */
+    @Column(nullable = false)
+    private Double razlikaIznosa;
+    @Column(nullable = false)
+    private Date pocetak;
+    @Column
+    private Date zavrsetak;
+    @Column(length = 1000)
+    private String greska;
+}
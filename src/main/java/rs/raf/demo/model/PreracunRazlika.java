@@ -0,0 +1,38 @@
+package rs.raf.demo.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+/**
+ * Faktura cije bi se vrednosti promenile preracunom, zabelezena u probnom radu.
+ */
+@Entity
+@Getter
+@Setter
+@Table(indexes = @Index(name = "idx_preracun_razlika_preracun", columnList = "preracunId,dokumentId"))
+public class PreracunRazlika {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long razlikaId;
+    @Column(nullable = false)
+    private Long preracunId;
+    @Column(nullable = false)
+    private Long dokumentId;
+    @Column
+    private String brojFakture;
+    @Column
+    private Double stariRabat;
+    @Column
+    private Double noviRabat;
+    @Column
+    private Double stariPorez;
+    @Column
+    private Double noviPorez;
+    @Column
+    private Double stariIznos;
+    @Column
+    private Double noviIznos;
+}
@@ -0,0 +1,24 @@
+package rs.raf.demo.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+/**
+ * Zapis da je knjizenje promenjeno, upisan u istoj transakciji kao i sama
+ * izmena. Sluzi da se posle ucitavanja snimka kolonske knjige ponovo procitaju
+ * samo knjizenja promenjena posle snimka. Id raste sa svakom promenom, pa
+ * snimak kao oznaku pamti id do koga su sve promene vec u njemu.
+ */
+@Entity
+@Getter
+@Setter
+public class PromenaKnjizenja {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long promenaId;
+    @Column(nullable = false)
+    private Long knjizenjeId;
+}
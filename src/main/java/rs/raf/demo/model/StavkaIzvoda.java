@@ -0,0 +1,33 @@
+package rs.raf.demo.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.util.Date;
+
+@Entity
+@Getter
+@Setter
+public class StavkaIzvoda {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long stavkaIzvodaId;
+    @Column(nullable = false)
+    private Date datum;
+    @Column(nullable = false)
+    private String racunPartnera;
+    @Column
+    private String pozivNaBroj;
+    @Column(nullable = false)
+    private Double iznos;
+    @JsonIgnore
+    @ManyToOne
+    @JoinColumn(name = "izvodId")
+    private Izvod izvod;
+    @ManyToOne
+    @JoinColumn(name = "fakturaId")
+    private Faktura faktura;
+}
@@ -0,0 +1,33 @@
+package rs.raf.demo.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import rs.raf.demo.model.enums.FazaZatvaranja;
+
+import javax.persistence.*;
+
+/**
+ * Opseg konta koji se pri zatvaranju godine obradjuje u jednoj transakciji.
+ * Zavrsene particije se preskacu kada se zatvaranje ponovo pokrene.
+ */
+@Entity
+@Getter
+@Setter
+@Table(indexes = @Index(name = "idx_zatvaranje_particija_godina", columnList = "godina,faza"))
+public class ZatvaranjeParticija {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long particijaId;
+    @Column(nullable = false)
+    private Integer godina;
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private FazaZatvaranja faza;
+    @Column(nullable = false)
+    private String prviKonto;
+    @Column(nullable = false)
+    private String poslednjiKonto;
+    @Column(nullable = false)
+    private Boolean zavrsena;
+}
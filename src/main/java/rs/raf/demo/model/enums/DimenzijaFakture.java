@@ -0,0 +1,9 @@
+package rs.raf.demo.model.enums;
+
+/**
+ * Atributi fakture po kojima se moze grupisati u agregacijama. Vremenske
+ * dimenzije su kalendarske (npr. MESEC je 2021-03, a ne samo mart).
+ */
+public enum DimenzijaFakture {
+    GODINA, KVARTAL, MESEC, DAN, TIP_FAKTURE, TIP_DOKUMENTA, VALUTA, PREDUZECE, POREZ_PROCENAT
+}
@@ -0,0 +1,5 @@
+package rs.raf.demo.model.enums;
+
+public enum FazaZatvaranja {
+    ZAKLJUCAK, OTVARANJE
+}
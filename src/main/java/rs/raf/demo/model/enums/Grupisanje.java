@@ -0,0 +1,8 @@
+package rs.raf.demo.model.enums;
+
+/**
+ * Kolone po kojima se moze grupisati promet stavki knjizenja.
+ */
+public enum Grupisanje {
+    KONTO, MESEC, MESTO_TROSKOVA, PROJEKAT, ZAPOSLENI
+}
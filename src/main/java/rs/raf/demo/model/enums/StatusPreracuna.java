@@ -0,0 +1,5 @@
+package rs.raf.demo.model.enums;
+
+public enum StatusPreracuna {
+    U_TOKU, GRESKA, ZAVRSEN
+}
@@ -0,0 +1,5 @@
+package rs.raf.demo.model.enums;
+
+public enum TipDimenzije {
+    MESTO_TROSKOVA, PROJEKAT, ZAPOSLENI
+}
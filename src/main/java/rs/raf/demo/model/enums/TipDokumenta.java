@@ -2,4 +2,5 @@ package rs.raf.demo.model.enums;
 
 public enum TipDokumenta {
     FAKTURA,
+    IZVOD,
 }
@@ -0,0 +1,33 @@
+package rs.raf.demo.relations;
+
+import rs.raf.demo.exceptions.OperationNotSupportedException;
+import rs.raf.demo.model.enums.TipDokumenta;
+
+import javax.persistence.criteria.*;
+
+public class TipDokumentaRelations<T> extends RacunRelations<T>{
+
+    private final Expression<TipDokumenta> tipDokumentaExpression;
+    private final TipDokumenta tipDokumentaValue;
+
+    public TipDokumentaRelations(Root<T> root, CriteriaBuilder builder, String key, String val) {
+        super(root, builder, key, val);
+        tipDokumentaExpression = root.get("tipDokumenta").as(TipDokumenta.class);
+        tipDokumentaValue = TipDokumenta.valueOf(val);
+    }
+
+    @Override
+    public Predicate greaterThanOrEqualTo() {
+        throw new OperationNotSupportedException(String.format("Relacija > nije implementirana za TipDokumenta [key:%s,val%s]", key, val));
+    }
+
+    @Override
+    public Predicate lessThanOrEqualTo() {
+        throw new OperationNotSupportedException(String.format("Relacija < nije implementirana za TipDokumenta [key:%s,val%s]",key,val));
+    }
+
+    @Override
+    public Predicate equalTo() {
+        return this.builder.equal(tipDokumentaExpression,tipDokumentaValue);
+    }
+}
@@ -0,0 +1,14 @@
+package rs.raf.demo.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import rs.raf.demo.model.BilansPozicija;
+import rs.raf.demo.model.enums.TipBilansa;
+
+import java.util.List;
+
+@Repository
+public interface BilansPozicijaRepository extends JpaRepository<BilansPozicija, Long> {
+
+    List<BilansPozicija> findByTipBilansaOrderByOznaka(TipBilansa tipBilansa);
+}
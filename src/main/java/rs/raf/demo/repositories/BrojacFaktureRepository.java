@@ -0,0 +1,23 @@
+package rs.raf.demo.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import rs.raf.demo.model.BrojacFakture;
+
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
+@Repository
+public interface BrojacFaktureRepository extends JpaRepository<BrojacFakture, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from BrojacFakture b where b.serija = :serija")
+    Optional<BrojacFakture> findBySerijaForUpdate(String serija);
+
+    @Modifying
+    @Query("update BrojacFakture b set b.sledeciBroj = :vraceniBroj where b.serija = :serija and b.sledeciBroj = :ocekivaniBroj")
+    int vratiBrojeve(String serija, Long ocekivaniBroj, Long vraceniBroj);
+}
@@ -0,0 +1,14 @@
+package rs.raf.demo.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import rs.raf.demo.model.Dimenzija;
+import rs.raf.demo.model.enums.TipDimenzije;
+
+import java.util.List;
+
+@Repository
+public interface DimenzijaRepository extends JpaRepository<Dimenzija, Long> {
+
+    List<Dimenzija> findByTipDimenzijeOrderBySifra(TipDimenzije tipDimenzije);
+}
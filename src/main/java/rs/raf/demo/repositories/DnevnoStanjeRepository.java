@@ -0,0 +1,30 @@
+package rs.raf.demo.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import rs.raf.demo.model.DnevnoStanje;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DnevnoStanjeRepository extends JpaRepository<DnevnoStanje, Long> {
+
+    Optional<DnevnoStanje> findFirstByBrojKontaAndDatumLessThanEqualOrderByDatumDesc(String brojKonta, Date datum);
+
+    Optional<DnevnoStanje> findFirstByBrojKontaAndDatumLessThanOrderByDatumDesc(String brojKonta, Date datum);
+
+    List<DnevnoStanje> findByDatum(Date datum);
+
+    @Modifying
+    @Query("update DnevnoStanje d set d.dugujeUkupno = d.dugujeUkupno + :duguje, d.potrazujeUkupno = d.potrazujeUkupno + :potrazuje" +
+           " where d.brojKonta = :brojKonta and d.datum > :datum")
+    void pomeriKasnije(String brojKonta, Date datum, double duguje, double potrazuje);
+
+    @Modifying
+    @Query("delete from DnevnoStanje d where d.brojKonta = :brojKonta")
+    void obrisiZaKonto(String brojKonta);
+}
@@ -1,5 +1,6 @@
 package rs.raf.demo.repositories;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -7,6 +8,8 @@ import org.springframework.stereotype.Repository;
 import rs.raf.demo.model.Faktura;
 import rs.raf.demo.model.enums.TipFakture;
 
+import java.time.LocalDate;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,4 +33,44 @@ public interface FakturaRepository extends JpaRepository<Faktura, Long> {
 
     @Query("select f.naplata from Faktura f where f.tipFakture = :tipFakture")
     List<Double> findNaplataForTipFakture(TipFakture tipFakture);
+
+    @Query("select f.dokumentId, p.preduzeceId, f.brojFakture, f.datumIzdavanja from Faktura f left join f.preduzece p" +
+           " where f.dokumentId > :posleId order by f.dokumentId")
+    List<Object[]> findKljuceviDuplikata(Long posleId, Pageable pageable);
+
+    @Query("select case when count(f) > 0 then true else false end from Faktura f left join f.preduzece p where f.brojFakture = :brojFakture" +
+           " and f.datumIzdavanjaDan = :dan and (p.preduzeceId = :preduzeceId or (:preduzeceId is null and p is null))")
+    boolean existsDuplikat(Long preduzeceId, String brojFakture, LocalDate dan);
+
+    @Query("select f from Faktura f join fetch f.preduzece p where f.naplata < f.iznos and p.racun is not null")
+    List<Faktura> findOtvoreneSaRacunom();
+
+    @Query("select f from Faktura f where f.naplata < f.iznos and f.dokumentId > :posleId order by f.dokumentId")
+    List<Faktura> findOtvorene(Long posleId, Pageable pageable);
+
+    @Query("select year(f.datumIzdavanja), month(f.datumIzdavanja), f.tipFakture, f.porezProcenat," +
+           " sum((f.prodajnaVrednost - coalesce(f.rabat, 0)) * f.kurs), sum(f.porez * f.kurs)" +
+           " from Faktura f where f.datumIzdavanja >= :od and f.datumIzdavanja < :doDatuma" +
+           " group by year(f.datumIzdavanja), month(f.datumIzdavanja), f.tipFakture, f.porezProcenat")
+    List<Object[]> findPdvPoMesecimaIStopama(Date od, Date doDatuma);
+
+    @Query("select f.valuta, year(f.datumIzdavanja), month(f.datumIzdavanja), day(f.datumIzdavanja)," +
+           " sum(f.porez), sum(f.prodajnaVrednost), sum(coalesce(f.rabat, 0)), sum(f.naplata)" +
+           " from Faktura f where f.tipFakture = :tipFakture" +
+           " group by f.valuta, year(f.datumIzdavanja), month(f.datumIzdavanja), day(f.datumIzdavanja)")
+    List<Object[]> findSumePoValutiIDanu(TipFakture tipFakture);
+
+    @Query("select p.preduzeceId, p.naziv, count(f), sum(f.iznos * f.kurs) from Faktura f join f.preduzece p" +
+           " where f.tipFakture = :tipFakture and f.datumIzdavanja >= :od and f.datumIzdavanja < :doDatuma" +
+           " group by p.preduzeceId, p.naziv order by sum(f.iznos * f.kurs) desc")
+    List<Object[]> findTopPreduzeca(TipFakture tipFakture, Date od, Date doDatuma, Pageable pageable);
+
+    @Query("select f.dokumentId, f.tipFakture, f.valuta, f.tipDokumenta, p.preduzeceId, f.datumIzdavanja" +
+           " from Faktura f left join f.preduzece p where f.dokumentId > :posleId order by f.dokumentId")
+    List<Object[]> findAtributeZaIndeks(Long posleId, Pageable pageable);
+
+    @Query("select f.tipFakture, f.valuta, p.preduzeceId, f.datumIzdavanja, f.kurs, f.prodajnaVrednost, f.rabatProcenat," +
+           " f.rabat, f.porezProcenat, f.porez, f.iznos, f.dokumentId" +
+           " from Faktura f left join f.preduzece p where f.dokumentId > :posleId order by f.dokumentId")
+    List<Object[]> findIznoseZaSimulaciju(Long posleId, Pageable pageable);
 }
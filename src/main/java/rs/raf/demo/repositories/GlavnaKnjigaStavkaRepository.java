@@ -0,0 +1,37 @@
+package rs.raf.demo.repositories;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import rs.raf.demo.model.GlavnaKnjigaStavka;
+
+@Repository
+public interface GlavnaKnjigaStavkaRepository extends JpaRepository<GlavnaKnjigaStavka, Long> {
+
+    String PROJEKCIJA = "insert into GlavnaKnjigaStavka (kontoId, brojNaloga, datum, potrazuje, duguje, saldo, nazivKonta, konto)" +
+                        " select k.kontoId, kn.knjizenjeId, kn.datumKnjizenja, k.potrazuje, k.duguje," +
+                        " coalesce(k.duguje, 0) - coalesce(k.potrazuje, 0), kg.nazivKonta, kg.brojKonta" +
+                        " from Konto k join k.knjizenje kn join k.kontnaGrupa kg";
+
+    Page<GlavnaKnjigaStavka> findAll(Specification<GlavnaKnjigaStavka> spec, Pageable pageSort);
+
+    @Modifying
+    @Query("delete from GlavnaKnjigaStavka s where s.brojNaloga = :brojNaloga")
+    void obrisiNalog(Long brojNaloga);
+
+    @Modifying
+    @Query(PROJEKCIJA + " where kn.knjizenjeId = :knjizenjeId")
+    int prenesiNalog(Long knjizenjeId);
+
+    @Modifying
+    @Query(PROJEKCIJA)
+    int prenesiSve();
+
+    @Modifying
+    @Query("update GlavnaKnjigaStavka s set s.nazivKonta = :nazivKonta where s.konto = :konto")
+    void azurirajNazivKonta(String konto, String nazivKonta);
+}
@@ -0,0 +1,9 @@
+package rs.raf.demo.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import rs.raf.demo.model.Izvod;
+
+@Repository
+public interface IzvodRepository extends JpaRepository<Izvod, Long> {
+}
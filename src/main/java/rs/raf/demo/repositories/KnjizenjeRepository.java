@@ -4,13 +4,26 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import rs.raf.demo.model.Knjizenje;
 
+import java.util.Date;
+import java.util.Optional;
 
 
 @Repository
 public interface KnjizenjeRepository extends JpaRepository<Knjizenje, Long> {
 
     Page<Knjizenje> findAll(Specification<Knjizenje> spec, Pageable pageSort);
+
+    Optional<Knjizenje> findFirstByDokumentDokumentId(Long dokumentId);
+
+    @Query("select min(k.datumKnjizenja) from Knjizenje k")
+    Date findPrviDatumKnjizenja();
+
+    boolean existsByKnjigaKnjigaId(Long knjigaId);
+
+    @Query("select d.dokumentId from Knjizenje k join k.dokument d where k.knjizenjeId = :knjizenjeId")
+    Optional<Long> findDokumentId(Long knjizenjeId);
 }
\ No newline at end of file
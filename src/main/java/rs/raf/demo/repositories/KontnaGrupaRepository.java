@@ -1,9 +1,15 @@
 package rs.raf.demo.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import rs.raf.demo.model.KontnaGrupa;
 
+import java.util.List;
+
 @Repository
 public interface KontnaGrupaRepository extends JpaRepository<KontnaGrupa, String> {
+
+    @Query("select kg.brojKonta from KontnaGrupa kg order by kg.brojKonta")
+    List<String> findBrojeviKonta();
 }
@@ -4,14 +4,27 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import rs.raf.demo.model.Konto;
 
+import java.util.Date;
 import java.util.List;
 
 @Repository
 public interface KontoRepository extends JpaRepository<Konto, Long> {
 
+    /**
+     * Pocetna stanja ponavljaju salda iz prethodnih godina, pa se izostavljaju iz kumulativnih salda.
+     */
+    String BEZ_POCETNIH = " and not exists (select p from ObracunskiPeriod p where p.pocetnoKnjizenjeId = kn.knjizenjeId)";
+
+    /**
+     * Zakljucna knjizenja ponistavaju prihode i rashode godine, pa se izostavljaju i iz izvestaja o prometu.
+     */
+    String BEZ_ZAKLJUCNIH_I_POCETNIH = " and not exists (select p from ObracunskiPeriod p" +
+                                       " where p.pocetnoKnjizenjeId = kn.knjizenjeId or p.zakljucnoKnjizenjeId = kn.knjizenjeId)";
+
     public List<Konto> findAll();
 
     List<Konto> findKontoByKontnaGrupaBrojKonta(String kontnaGrupaId);
@@ -20,4 +33,79 @@ public interface KontoRepository extends JpaRepository<Konto, Long> {
 
     Page<Konto> findAll(Specification<Konto> spec, Pageable pageSort);
 
+    @Query("select year(kn.datumKnjizenja), month(kn.datumKnjizenja), kg.brojKonta, sum(coalesce(k.duguje, 0)), sum(coalesce(k.potrazuje, 0))" +
+           " from Konto k join k.knjizenje kn join k.kontnaGrupa kg" +
+           " where kn.datumKnjizenja >= :od and kn.datumKnjizenja < :doDatuma" + BEZ_ZAKLJUCNIH_I_POCETNIH +
+           " group by year(kn.datumKnjizenja), month(kn.datumKnjizenja), kg.brojKonta")
+    List<Object[]> findPrometPoMesecimaIKontima(Date od, Date doDatuma);
+
+    @Query("select kg.brojKonta, sum(coalesce(k.duguje, 0)), sum(coalesce(k.potrazuje, 0))" +
+           " from Konto k join k.knjizenje kn join k.kontnaGrupa kg" +
+           " where kn.datumKnjizenja >= :od and kn.datumKnjizenja < :doDatuma" + BEZ_ZAKLJUCNIH_I_POCETNIH +
+           " group by kg.brojKonta")
+    List<Object[]> findPrometPoKontima(Date od, Date doDatuma);
+
+    @Query("select kg.brojKonta, sum(coalesce(k.duguje, 0)), sum(coalesce(k.potrazuje, 0))" +
+           " from Konto k join k.knjizenje kn join k.kontnaGrupa kg" +
+           " where kn.datumKnjizenja < :doDatuma" + BEZ_POCETNIH + " group by kg.brojKonta")
+    List<Object[]> findPrometPoKontimaDo(Date doDatuma);
+
+    @Query("select kg.brojKonta, sum(coalesce(k.duguje, 0)), sum(coalesce(k.potrazuje, 0))" +
+           " from Konto k join k.knjizenje kn join k.kontnaGrupa kg" +
+           " where kn.datumKnjizenja < :doDatuma and kg.brojKonta between :prviKonto and :poslednjiKonto" + BEZ_POCETNIH +
+           " group by kg.brojKonta")
+    List<Object[]> findPrometPoKontimaDo(Date doDatuma, String prviKonto, String poslednjiKonto);
+
+    @Query("select kg.brojKonta, sum(coalesce(k.duguje, 0)), sum(coalesce(k.potrazuje, 0))" +
+           " from Konto k join k.knjizenje kn join k.kontnaGrupa kg" +
+           " where kn.datumKnjizenja >= :od and kn.datumKnjizenja < :doDatuma" + BEZ_POCETNIH +
+           " group by kg.brojKonta")
+    List<Object[]> findPrometPoKontimaBezPocetnih(Date od, Date doDatuma);
+
+    @Query("select kg.brojKonta, sum(coalesce(k.duguje, 0)), sum(coalesce(k.potrazuje, 0))" +
+           " from Konto k join k.knjizenje kn join k.kontnaGrupa kg left join kn.knjiga kj" +
+           " where kn.datumKnjizenja < :doDatuma and (kj.knjigaId = :knjigaId or (:knjigaId is null and kj is null))" +
+           BEZ_POCETNIH + " group by kg.brojKonta")
+    List<Object[]> findPrometPoKontimaKnjigeDo(Long knjigaId, Date doDatuma);
+
+    @Query("select year(kn.datumKnjizenja), month(kn.datumKnjizenja), day(kn.datumKnjizenja)," +
+           " sum(coalesce(k.duguje, 0)), sum(coalesce(k.potrazuje, 0))" +
+           " from Konto k join k.knjizenje kn where k.kontnaGrupa.brojKonta = :brojKonta" + BEZ_POCETNIH +
+           " group by year(kn.datumKnjizenja), month(kn.datumKnjizenja), day(kn.datumKnjizenja)" +
+           " order by year(kn.datumKnjizenja), month(kn.datumKnjizenja), day(kn.datumKnjizenja)")
+    List<Object[]> findDnevniPrometKonta(String brojKonta);
+
+    @Query("select k.kontoId, kn.knjizenjeId, kn.datumKnjizenja, kg.brojKonta, k.duguje, k.potrazuje," +
+           " k.mestoTroskovaId, k.projekatId, k.zaposleniId" +
+           " from Konto k join k.knjizenje kn join k.kontnaGrupa kg" +
+           " where k.kontoId > :posle" + BEZ_ZAKLJUCNIH_I_POCETNIH + " order by k.kontoId")
+    List<Object[]> findStavkePosle(Long posle, Pageable pageable);
+
+    @Query("select count(k) from Konto k join k.knjizenje kn where 1 = 1" + BEZ_ZAKLJUCNIH_I_POCETNIH)
+    long countStavkeZaAnalitiku();
+
+    @Query("select k.kontoId, kn.knjizenjeId, kn.datumKnjizenja, kg.brojKonta, k.duguje, k.potrazuje," +
+           " k.mestoTroskovaId, k.projekatId, k.zaposleniId" +
+           " from Konto k join k.knjizenje kn join k.kontnaGrupa kg" +
+           " where kn.knjizenjeId = :knjizenjeId" + BEZ_ZAKLJUCNIH_I_POCETNIH)
+    List<Object[]> findStavkeKnjizenja(Long knjizenjeId);
+
+    /**
+     * Promet po najsitnijoj kombinaciji meseca, konta i dimenzija, koju pozivalac sabira po trazenim kolonama.
+     * Filter dimenzije koji je null se ne primenjuje.
+     */
+    @Query("select year(kn.datumKnjizenja), month(kn.datumKnjizenja), kg.brojKonta," +
+           " k.mestoTroskovaId, k.projekatId, k.zaposleniId," +
+           " sum(coalesce(k.duguje, 0)), sum(coalesce(k.potrazuje, 0)), count(k)" +
+           " from Konto k join k.knjizenje kn join k.kontnaGrupa kg" +
+           " where kn.datumKnjizenja >= :od and kn.datumKnjizenja < :doDatuma and kg.brojKonta like concat(:prefiks, '%')" +
+           " and (:mestoTroskovaId is null or k.mestoTroskovaId = :mestoTroskovaId)" +
+           " and (:projekatId is null or k.projekatId = :projekatId)" +
+           " and (:zaposleniId is null or k.zaposleniId = :zaposleniId)" + BEZ_ZAKLJUCNIH_I_POCETNIH +
+           " group by year(kn.datumKnjizenja), month(kn.datumKnjizenja), kg.brojKonta," +
+           " k.mestoTroskovaId, k.projekatId, k.zaposleniId")
+    List<Object[]> findPrometPoDimenzijama(Date od, Date doDatuma, String prefiks,
+                                           Long mestoTroskovaId, Long projekatId, Long zaposleniId);
+
+    boolean existsByMestoTroskovaIdOrProjekatIdOrZaposleniId(Long mestoTroskovaId, Long projekatId, Long zaposleniId);
 }
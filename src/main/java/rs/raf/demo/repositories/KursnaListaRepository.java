@@ -0,0 +1,13 @@
+package rs.raf.demo.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import rs.raf.demo.model.KursnaLista;
+
+import java.util.List;
+
+@Repository
+public interface KursnaListaRepository extends JpaRepository<KursnaLista, Long> {
+
+    List<KursnaLista> findByValutaOrderByDatumVazenja(String valuta);
+}
@@ -0,0 +1,14 @@
+package rs.raf.demo.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import rs.raf.demo.model.MesecniPresek;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MesecniPresekRepository extends JpaRepository<MesecniPresek, Integer> {
+
+    List<MesecniPresek> findByGodinaInOrderByPeriod(Collection<Integer> godine);
+}
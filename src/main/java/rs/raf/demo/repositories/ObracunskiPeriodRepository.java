@@ -0,0 +1,18 @@
+package rs.raf.demo.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import rs.raf.demo.model.ObracunskiPeriod;
+import rs.raf.demo.model.enums.StatusPerioda;
+
+import java.util.Set;
+
+@Repository
+public interface ObracunskiPeriodRepository extends JpaRepository<ObracunskiPeriod, Integer> {
+
+    boolean existsByGodinaAndStatus(Integer godina, StatusPerioda status);
+
+    @Query("select p.godina from ObracunskiPeriod p where p.status = :status")
+    Set<Integer> findGodineByStatus(StatusPerioda status);
+}
@@ -0,0 +1,23 @@
+package rs.raf.demo.repositories;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import rs.raf.demo.model.OtvorenaStavka;
+import rs.raf.demo.responses.KarticaPreduzecaResponse;
+
+import java.util.List;
+
+@Repository
+public interface OtvorenaStavkaRepository extends JpaRepository<OtvorenaStavka, Long> {
+
+    Page<OtvorenaStavka> findByPreduzeceIdAndOtvorenaTrue(Long preduzeceId, Pageable pageable);
+
+    @Query("select new rs.raf.demo.responses.KarticaPreduzecaResponse(o.preduzeceId, o.tipFakture," +
+           " sum(case when o.otvorena = true then 1 else 0 end)," +
+           " sum(o.iznos * o.kurs), sum(o.placeno * o.kurs), sum(o.preostalo * o.kurs))" +
+           " from OtvorenaStavka o where o.preduzeceId = :preduzeceId group by o.preduzeceId, o.tipFakture")
+    List<KarticaPreduzecaResponse> findKartica(Long preduzeceId);
+}
@@ -0,0 +1,24 @@
+package rs.raf.demo.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import rs.raf.demo.model.OutboxDogadjaj;
+
+import javax.persistence.LockModeType;
+import java.util.List;
+
+@Repository
+public interface OutboxDogadjajRepository extends JpaRepository<OutboxDogadjaj, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from OutboxDogadjaj o where o.obradjen = false order by o.outboxId")
+    List<OutboxDogadjaj> findNeobradjeni(Pageable pageable);
+
+    @Modifying
+    @Query("update OutboxDogadjaj o set o.obradjen = true where o.outboxId in :ids")
+    int oznaciObradjene(List<Long> ids);
+}
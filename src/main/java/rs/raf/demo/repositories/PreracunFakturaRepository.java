@@ -0,0 +1,9 @@
+package rs.raf.demo.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import rs.raf.demo.model.PreracunFaktura;
+
+@Repository
+public interface PreracunFakturaRepository extends JpaRepository<PreracunFaktura, Long> {
+}
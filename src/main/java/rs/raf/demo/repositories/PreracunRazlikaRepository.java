@@ -0,0 +1,15 @@
+package rs.raf.demo.repositories;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import rs.raf.demo.model.PreracunRazlika;
+
+@Repository
+public interface PreracunRazlikaRepository extends JpaRepository<PreracunRazlika, Long> {
+
+    Page<PreracunRazlika> findByPreracunIdOrderByDokumentId(Long preracunId, Pageable pageable);
+
+    long countByPreracunId(Long preracunId);
+}
@@ -0,0 +1,25 @@
+package rs.raf.demo.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import rs.raf.demo.model.PromenaKnjizenja;
+
+import java.util.List;
+
+@Repository
+public interface PromenaKnjizenjaRepository extends JpaRepository<PromenaKnjizenja, Long> {
+
+    @Query("select distinct p.knjizenjeId from PromenaKnjizenja p where p.promenaId > :oznaka")
+    List<Long> findKnjizenjaPosle(long oznaka);
+
+    @Query("select coalesce(max(p.promenaId), 0) from PromenaKnjizenja p")
+    long findPoslednjaOznaka();
+
+    @Transactional
+    @Modifying
+    @Query("delete from PromenaKnjizenja p where p.promenaId <= :oznaka")
+    int obrisiDo(long oznaka);
+}
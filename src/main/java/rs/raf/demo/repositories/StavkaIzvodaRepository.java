@@ -0,0 +1,17 @@
+package rs.raf.demo.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import rs.raf.demo.model.StavkaIzvoda;
+
+import java.util.List;
+
+@Repository
+public interface StavkaIzvodaRepository extends JpaRepository<StavkaIzvoda, Long> {
+
+    @Query("select distinct f.dokumentId from StavkaIzvoda s join s.faktura f where s.izvod.dokumentId = :izvodId")
+    List<Long> findFaktureIzvoda(Long izvodId);
+
+    boolean existsByFakturaDokumentId(Long fakturaId);
+}
@@ -0,0 +1,24 @@
+package rs.raf.demo.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import rs.raf.demo.model.ZatvaranjeParticija;
+import rs.raf.demo.model.enums.FazaZatvaranja;
+
+import java.util.List;
+
+@Repository
+public interface ZatvaranjeParticijaRepository extends JpaRepository<ZatvaranjeParticija, Long> {
+
+    List<ZatvaranjeParticija> findByGodinaAndFazaOrderByPrviKonto(Integer godina, FazaZatvaranja faza);
+
+    long countByGodina(Integer godina);
+
+    long countByGodinaAndZavrsenaTrue(Integer godina);
+
+    @Modifying
+    @Query("update ZatvaranjeParticija p set p.zavrsena = true where p.particijaId = :particijaId")
+    void oznaciZavrsenu(Long particijaId);
+}
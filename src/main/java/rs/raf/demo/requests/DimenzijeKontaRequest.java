@@ -0,0 +1,10 @@
+package rs.raf.demo.requests;
+
+import lombok.Data;
+
+@Data
+public class DimenzijeKontaRequest {
+    private Long mestoTroskovaId;
+    private Long projekatId;
+    private Long zaposleniId;
+}
@@ -0,0 +1,24 @@
+package rs.raf.demo.requests;
+
+import lombok.Data;
+import rs.raf.demo.model.enums.TipFakture;
+
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Hipoteticka stopa poreza za fakture koje odgovaraju svim zadatim uslovima;
+ * uslov koji nije zadat vazi za sve fakture.
+ */
+@Data
+public class PromenaStopeRequest {
+    private Double porezProcenat;
+    private TipFakture tipFakture;
+    private String valuta;
+    private Long preduzeceId;
+    @NotNull
+    @DecimalMin("0")
+    @DecimalMax("100")
+    private Double novaStopa;
+}
@@ -0,0 +1,23 @@
+package rs.raf.demo.requests;
+
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+public class SimulacijaPorezaRequest {
+    private LocalDate od;
+    /**
+     * Poslednji dan koji ulazi u simulaciju.
+     */
+    private LocalDate doDatuma;
+    /**
+     * Faktura dobija stopu iz prve promene cijim uslovima odgovara.
+     */
+    @Valid
+    @NotEmpty
+    private List<PromenaStopeRequest> promene;
+}
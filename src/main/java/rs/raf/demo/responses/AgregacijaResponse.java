@@ -0,0 +1,13 @@
+package rs.raf.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class AgregacijaResponse {
+    Map<String, Object> grupa;
+    Map<String, Number> mere;
+}
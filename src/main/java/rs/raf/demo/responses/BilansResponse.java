@@ -0,0 +1,18 @@
+package rs.raf.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import rs.raf.demo.model.enums.TipBilansa;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class BilansResponse {
+    TipBilansa tipBilansa;
+    Integer godina;
+    List<BilansStavkaResponse> stavke;
+    Map<String, Double> ukupnoPoGrupama;
+    List<String> nerasporedjeniKonti;
+}
@@ -0,0 +1,13 @@
+package rs.raf.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BilansStavkaResponse {
+    String oznaka;
+    String naziv;
+    String grupa;
+    Double iznos;
+}
@@ -0,0 +1,12 @@
+package rs.raf.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class EliminacijaResponse {
+    String naziv;
+    Double iznos;
+    Double neusaglaseno;
+}
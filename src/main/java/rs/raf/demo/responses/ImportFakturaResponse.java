@@ -0,0 +1,13 @@
+package rs.raf.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ImportFakturaResponse {
+    Integer sacuvano;
+    List<String> duplikati;
+}
@@ -0,0 +1,13 @@
+package rs.raf.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ImportIzvodaResponse {
+    Long izvodId;
+    Integer brojStavki;
+    Integer uparenih;
+    Integer neuparenih;
+}
@@ -0,0 +1,16 @@
+package rs.raf.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import rs.raf.demo.model.enums.TipFakture;
+
+@Data
+@AllArgsConstructor
+public class KarticaPreduzecaResponse {
+    Long preduzeceId;
+    TipFakture tipFakture;
+    Long brojOtvorenih;
+    Double fakturisano;
+    Double placeno;
+    Double preostalo;
+}
@@ -0,0 +1,16 @@
+package rs.raf.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class KonsolidacijaResponse {
+    LocalDate naDan;
+    List<String> knjige;
+    List<KonsolidacijaStavkaResponse> stavke;
+    List<EliminacijaResponse> eliminacije;
+}
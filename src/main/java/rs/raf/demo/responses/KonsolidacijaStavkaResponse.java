@@ -0,0 +1,17 @@
+package rs.raf.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class KonsolidacijaStavkaResponse {
+    String brojKonta;
+    Map<String, Double> saldaPoKnjigama;
+    Double duguje;
+    Double potrazuje;
+    Double eliminacija;
+    Double saldo;
+}
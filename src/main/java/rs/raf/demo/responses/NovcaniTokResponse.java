@@ -0,0 +1,16 @@
+package rs.raf.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class NovcaniTokResponse {
+    LocalDate od;
+    LocalDate doDatuma;
+    Double priliv;
+    Double odliv;
+    Double neto;
+}
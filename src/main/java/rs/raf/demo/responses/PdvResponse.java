@@ -0,0 +1,16 @@
+package rs.raf.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class PdvResponse {
+    String period;
+    List<PdvStavkaResponse> stavke;
+    Double izlazniPdv;
+    Double ulazniPdv;
+    Double obaveza;
+}
@@ -0,0 +1,14 @@
+package rs.raf.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import rs.raf.demo.model.enums.TipFakture;
+
+@Data
+@AllArgsConstructor
+public class PdvStavkaResponse {
+    TipFakture tipFakture;
+    Double porezProcenat;
+    Double osnovica;
+    Double porez;
+}
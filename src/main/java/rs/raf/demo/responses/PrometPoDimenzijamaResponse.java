@@ -0,0 +1,16 @@
+package rs.raf.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class PrometPoDimenzijamaResponse {
+    Map<String, String> grupa;
+    Double duguje;
+    Double potrazuje;
+    Double saldo;
+    Long brojStavki;
+}
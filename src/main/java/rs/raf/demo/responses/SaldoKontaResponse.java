@@ -0,0 +1,16 @@
+package rs.raf.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class SaldoKontaResponse {
+    String konto;
+    LocalDate naDan;
+    Double duguje;
+    Double potrazuje;
+    Double saldo;
+}
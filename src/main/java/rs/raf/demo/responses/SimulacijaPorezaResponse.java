@@ -0,0 +1,19 @@
+package rs.raf.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SimulacijaPorezaResponse {
+    Integer brojFaktura;
+    Integer brojIzmenjenih;
+    List<SimulacijaStavkaResponse> stavke;
+    Double izlazniPdv;
+    Double simuliraniIzlazniPdv;
+    Double ulazniPdv;
+    Double simuliraniUlazniPdv;
+    Double razlikaPdvObaveze;
+}
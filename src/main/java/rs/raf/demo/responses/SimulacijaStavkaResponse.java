@@ -0,0 +1,21 @@
+package rs.raf.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import rs.raf.demo.model.enums.TipFakture;
+
+@Data
+@AllArgsConstructor
+public class SimulacijaStavkaResponse {
+    TipFakture tipFakture;
+    Double porezProcenat;
+    Double novaStopa;
+    Long brojFaktura;
+    Double osnovica;
+    Double porez;
+    Double simuliraniPorez;
+    Double razlikaPoreza;
+    Double iznos;
+    Double simuliraniIznos;
+    Double razlikaIznosa;
+}
@@ -0,0 +1,13 @@
+package rs.raf.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class StarosnaStrukturaResponse {
+    List<String> intervali;
+    List<StarosnaStrukturaStavka> stavke;
+}
@@ -0,0 +1,15 @@
+package rs.raf.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class StarosnaStrukturaStavka {
+    Long preduzeceId;
+    String naziv;
+    List<Double> iznosi;
+    Double ukupno;
+}
@@ -0,0 +1,13 @@
+package rs.raf.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TopPreduzeceResponse {
+    Long preduzeceId;
+    String naziv;
+    Long brojFaktura;
+    Double promet;
+}
@@ -0,0 +1,16 @@
+package rs.raf.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class UporedniMesecResponse {
+    Integer mesec;
+    Map<Integer, Double> prihodi;
+    Map<Integer, Double> rashodi;
+    Map<Integer, Double> rezultat;
+    Map<Integer, Double> pdvObaveza;
+}
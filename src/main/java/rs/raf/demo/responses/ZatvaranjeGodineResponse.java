@@ -0,0 +1,19 @@
+package rs.raf.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import rs.raf.demo.model.enums.StatusPerioda;
+
+import java.util.Date;
+
+@Data
+@AllArgsConstructor
+public class ZatvaranjeGodineResponse {
+    Integer godina;
+    StatusPerioda status;
+    Long ukupnoParticija;
+    Long zavrsenoParticija;
+    Date pocetak;
+    Date zavrsetak;
+    String greska;
+}
@@ -0,0 +1,14 @@
+package rs.raf.demo.services;
+
+import rs.raf.demo.model.BilansPozicija;
+import rs.raf.demo.model.enums.TipBilansa;
+import rs.raf.demo.responses.BilansResponse;
+
+import java.util.List;
+
+public interface IBilansService extends IService<BilansPozicija, Long> {
+
+    List<BilansPozicija> findByTipBilansa(TipBilansa tipBilansa);
+
+    BilansResponse getBilans(TipBilansa tipBilansa, int godina);
+}
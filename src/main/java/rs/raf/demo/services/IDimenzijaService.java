@@ -0,0 +1,21 @@
+package rs.raf.demo.services;
+
+import rs.raf.demo.model.Dimenzija;
+import rs.raf.demo.model.Konto;
+import rs.raf.demo.model.enums.Grupisanje;
+import rs.raf.demo.model.enums.TipDimenzije;
+import rs.raf.demo.requests.DimenzijeKontaRequest;
+import rs.raf.demo.responses.PrometPoDimenzijamaResponse;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface IDimenzijaService extends IService<Dimenzija, Long> {
+
+    List<Dimenzija> findByTip(TipDimenzije tipDimenzije);
+
+    Konto oznaciKonto(Long kontoId, DimenzijeKontaRequest request);
+
+    List<PrometPoDimenzijamaResponse> getPromet(LocalDate od, LocalDate doDatuma, List<Grupisanje> grupisanje,
+                                                DimenzijeKontaRequest filter, String prefiks);
+}
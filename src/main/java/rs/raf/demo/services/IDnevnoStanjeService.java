@@ -0,0 +1,12 @@
+package rs.raf.demo.services;
+
+import rs.raf.demo.responses.SaldoKontaResponse;
+
+import java.time.LocalDate;
+
+public interface IDnevnoStanjeService {
+
+    SaldoKontaResponse getSaldo(String brojKonta, LocalDate naDan);
+
+    void obnovi();
+}
@@ -0,0 +1,13 @@
+package rs.raf.demo.services;
+
+import rs.raf.demo.model.enums.DimenzijaFakture;
+import rs.raf.demo.responses.AgregacijaResponse;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface IFakturaAgregacijaService {
+
+    List<AgregacijaResponse> agregiraj(List<DimenzijaFakture> dimenzije, List<String> mere, String search,
+                                       LocalDate od, LocalDate doDatuma);
+}
@@ -0,0 +1,19 @@
+package rs.raf.demo.services;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.data.jpa.domain.Specification;
+import rs.raf.demo.model.Faktura;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface IFakturaIndeksService {
+
+    /**
+     * @return Id-jevi faktura koje mogu da zadovolje uslove pretrage, ili prazan Optional
+     * ako nijedan uslov ne moze da se resi indeksom.
+     */
+    Optional<RoaringBitmap> kandidati(String search);
+
+    List<Faktura> findAll(Specification<Faktura> spec, String search);
+}
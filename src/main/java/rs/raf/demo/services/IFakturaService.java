@@ -4,6 +4,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import rs.raf.demo.model.Faktura;
+import rs.raf.demo.model.enums.KursNaDan;
+import rs.raf.demo.responses.ImportFakturaResponse;
 
 import java.util.List;
 import java.util.Map;
@@ -15,4 +17,8 @@ public interface IFakturaService extends IService<Faktura, Long>{
     Page<Faktura> findAll(Pageable pageSort);
 
     Map<String, Double> getSume(String tipFakture);
+
+    Map<String, Double> getSume(String tipFakture, String valuta, KursNaDan kursNaDan);
+
+    ImportFakturaResponse importuj(List<Faktura> fakture);
 }
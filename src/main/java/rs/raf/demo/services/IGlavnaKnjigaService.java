@@ -0,0 +1,12 @@
+package rs.raf.demo.services;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import rs.raf.demo.model.GlavnaKnjigaStavka;
+import rs.raf.demo.responses.GlavnaKnjigaResponse;
+
+public interface IGlavnaKnjigaService {
+
+    Page<GlavnaKnjigaResponse> findAll(Specification<GlavnaKnjigaStavka> spec, Pageable pageSort);
+}
@@ -0,0 +1,12 @@
+package rs.raf.demo.services;
+
+import rs.raf.demo.model.Izvod;
+import rs.raf.demo.responses.ImportIzvodaResponse;
+
+import java.io.InputStream;
+import java.util.Date;
+
+public interface IIzvodService extends IService<Izvod, Long> {
+
+    ImportIzvodaResponse importuj(String brojIzvoda, String racun, Date datumIzvoda, InputStream ulaz);
+}
@@ -0,0 +1,12 @@
+package rs.raf.demo.services;
+
+import rs.raf.demo.model.Knjiga;
+import rs.raf.demo.responses.KonsolidacijaResponse;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface IKnjigaService extends IService<Knjiga, Long> {
+
+    KonsolidacijaResponse getKonsolidacija(LocalDate naDan, List<Long> knjige, boolean saMaticnom);
+}
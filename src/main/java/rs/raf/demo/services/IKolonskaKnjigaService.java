@@ -0,0 +1,17 @@
+package rs.raf.demo.services;
+
+import rs.raf.demo.model.enums.Grupisanje;
+import rs.raf.demo.responses.PrometResponse;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface IKolonskaKnjigaService {
+
+    List<PrometResponse> getPrometPoKontima(LocalDate od, LocalDate doDatuma, String prefiks);
+
+    List<PrometResponse> getPrometPoMesecima(LocalDate od, LocalDate doDatuma, String prefiks);
+
+    List<Object[]> grupisi(LocalDate od, LocalDate doDatuma, String prefiks,
+                           Long mestoTroskovaId, Long projekatId, Long zaposleniId, List<Grupisanje> grupisanje);
+}
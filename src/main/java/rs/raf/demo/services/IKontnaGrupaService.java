@@ -8,4 +8,5 @@ public interface IKontnaGrupaService extends IService<KontnaGrupa, String> {
     Page<KontnaGrupa> findAll(Pageable sort);
     KontnaGrupa update(String id);
     KontnaGrupa findKontnaGrupaById(String id);
+    KontnaGrupa findOrCreate(String brojKonta);
 }
@@ -0,0 +1,15 @@
+package rs.raf.demo.services;
+
+import rs.raf.demo.model.KursnaLista;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface IKursnaListaService extends IService<KursnaLista, Long> {
+
+    List<KursnaLista> findByValuta(String valuta);
+
+    double getKurs(String valuta, LocalDate naDan);
+
+    double konvertuj(double iznos, String izValute, String uValutu, long epochDan);
+}
@@ -0,0 +1,10 @@
+package rs.raf.demo.services;
+
+import rs.raf.demo.responses.UporedniMesecResponse;
+
+import java.util.List;
+
+public interface IMesecniPresekService {
+
+    List<UporedniMesecResponse> getUporedniIzvestaj(List<Integer> godine);
+}
@@ -0,0 +1,11 @@
+package rs.raf.demo.services;
+
+import rs.raf.demo.model.enums.IntervalGrupisanja;
+import rs.raf.demo.responses.NovcaniTokResponse;
+
+import java.util.List;
+
+public interface INovcaniTokService {
+
+    List<NovcaniTokResponse> getProjekcija(int dana, IntervalGrupisanja interval);
+}
@@ -0,0 +1,17 @@
+package rs.raf.demo.services;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import rs.raf.demo.model.OtvorenaStavka;
+import rs.raf.demo.responses.KarticaPreduzecaResponse;
+
+import java.util.List;
+
+public interface IOtvoreneStavkeService {
+
+    Page<OtvorenaStavka> findOtvorene(Long preduzeceId, Pageable pageSort);
+
+    List<KarticaPreduzecaResponse> getKartica(Long preduzeceId);
+
+    void osvezi();
+}
@@ -0,0 +1,11 @@
+package rs.raf.demo.services;
+
+import rs.raf.demo.responses.PdvResponse;
+
+import java.time.YearMonth;
+import java.util.List;
+
+public interface IPdvService {
+
+    List<PdvResponse> getPdv(YearMonth od, YearMonth doMeseca);
+}
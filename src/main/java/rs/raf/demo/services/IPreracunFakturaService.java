@@ -0,0 +1,16 @@
+package rs.raf.demo.services;
+
+import org.springframework.data.domain.Page;
+import rs.raf.demo.model.PreracunFaktura;
+import rs.raf.demo.model.PreracunRazlika;
+
+public interface IPreracunFakturaService {
+
+    PreracunFaktura pokreni(boolean probniRad);
+
+    PreracunFaktura nastavi(Long preracunId);
+
+    PreracunFaktura getStatus(Long preracunId);
+
+    Page<PreracunRazlika> getRazlike(Long preracunId, int page, int size);
+}
@@ -0,0 +1,9 @@
+package rs.raf.demo.services;
+
+import rs.raf.demo.requests.SimulacijaPorezaRequest;
+import rs.raf.demo.responses.SimulacijaPorezaResponse;
+
+public interface ISimulacijaPorezaService {
+
+    SimulacijaPorezaResponse simuliraj(SimulacijaPorezaRequest request);
+}
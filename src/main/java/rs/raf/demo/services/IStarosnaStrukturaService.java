@@ -0,0 +1,14 @@
+package rs.raf.demo.services;
+
+import rs.raf.demo.model.enums.TipFakture;
+import rs.raf.demo.responses.StarosnaStrukturaResponse;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+public interface IStarosnaStrukturaService {
+
+    StarosnaStrukturaResponse getStarosnaStruktura(TipFakture tipFakture, LocalDate naDan);
+
+    void izveziCsv(TipFakture tipFakture, LocalDate naDan, OutputStream izlaz);
+}
@@ -0,0 +1,12 @@
+package rs.raf.demo.services;
+
+import java.util.Map;
+
+public interface ITenantService {
+
+    String razresi(String tenant);
+
+    Map<String, Map<String, Number>> getMetrike();
+
+    void zaSvakog(Runnable posao);
+}
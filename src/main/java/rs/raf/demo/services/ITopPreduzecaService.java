@@ -0,0 +1,12 @@
+package rs.raf.demo.services;
+
+import rs.raf.demo.model.enums.TipFakture;
+import rs.raf.demo.responses.TopPreduzeceResponse;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ITopPreduzecaService {
+
+    List<TopPreduzeceResponse> getTopPreduzeca(TipFakture tipFakture, LocalDate od, LocalDate doDatuma, int n);
+}
@@ -0,0 +1,12 @@
+package rs.raf.demo.services;
+
+import rs.raf.demo.responses.ZatvaranjeGodineResponse;
+
+public interface IZatvaranjeGodineService {
+
+    ZatvaranjeGodineResponse pokreni(int godina);
+
+    ZatvaranjeGodineResponse getStatus(int godina);
+
+    boolean isZatvorena(int godina);
+}
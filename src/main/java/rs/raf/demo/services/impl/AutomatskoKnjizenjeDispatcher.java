@@ -0,0 +1,211 @@
+package rs.raf.demo.services.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.raf.demo.configuration.AutomatskoKnjizenjeProperties;
+import rs.raf.demo.events.FakturaEvent;
+import rs.raf.demo.events.KnjizenjeEvent;
+import rs.raf.demo.model.Faktura;
+import rs.raf.demo.model.Knjizenje;
+import rs.raf.demo.model.KontnaGrupa;
+import rs.raf.demo.model.Konto;
+import rs.raf.demo.model.OutboxDogadjaj;
+import rs.raf.demo.model.enums.TipFakture;
+import rs.raf.demo.repositories.FakturaRepository;
+import rs.raf.demo.repositories.KnjizenjeRepository;
+import rs.raf.demo.repositories.KontoRepository;
+import rs.raf.demo.repositories.OutboxDogadjajRepository;
+import rs.raf.demo.repositories.StavkaIzvodaRepository;
+import rs.raf.demo.services.IKontnaGrupaService;
+import rs.raf.demo.services.ITenantService;
+import rs.raf.demo.utils.Novac;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Obradjuje outbox dogadjaje faktura i za svaku fakturu pravi (ili osvezava)
+ * njeno automatsko knjizenje. Dogadjaji se citaju po redosledu upisa, a vise
+ * dogadjaja za isti dokument u jednoj seriji se svodi na poslednji. Kod brisanja
+ * se uklanja knjizenje fakture, pa tek onda faktura na koju ono pokazuje.
+ */
+@Component
+public class AutomatskoKnjizenjeDispatcher {
+
+    private final Logger log = LoggerFactory.getLogger(AutomatskoKnjizenjeDispatcher.class);
+
+    private final OutboxDogadjajRepository outboxDogadjajRepository;
+    private final StavkaIzvodaRepository stavkaIzvodaRepository;
+    private final FakturaRepository fakturaRepository;
+    private final KnjizenjeRepository knjizenjeRepository;
+    private final KontoRepository kontoRepository;
+    private final IKontnaGrupaService kontnaGrupaService;
+    private final ObracunskiPeriodService obracunskiPeriodService;
+    private final AutomatskoKnjizenjeProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ITenantService tenantService;
+
+    @Autowired
+    public AutomatskoKnjizenjeDispatcher(OutboxDogadjajRepository outboxDogadjajRepository,
+                                         FakturaRepository fakturaRepository,
+                                         KnjizenjeRepository knjizenjeRepository,
+                                         KontoRepository kontoRepository,
+                                         KontnaGrupaService kontnaGrupaService,
+                                         ObracunskiPeriodService obracunskiPeriodService,
+                                         AutomatskoKnjizenjeProperties properties,
+                                         PlatformTransactionManager transactionManager,
+                                         ApplicationEventPublisher eventPublisher,
+                                         TenantService tenantService,
+                                         StavkaIzvodaRepository stavkaIzvodaRepository) {
+        this.outboxDogadjajRepository = outboxDogadjajRepository;
+        this.fakturaRepository = fakturaRepository;
+        this.knjizenjeRepository = knjizenjeRepository;
+        this.kontoRepository = kontoRepository;
+        this.kontnaGrupaService = kontnaGrupaService;
+        this.obracunskiPeriodService = obracunskiPeriodService;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.tenantService = tenantService;
+        this.stavkaIzvodaRepository = stavkaIzvodaRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${knjizenje.automatsko.interval:1000}")
+    public void obradi() {
+        tenantService.zaSvakog(() -> {
+            Integer obradjeno;
+            do {
+                obradjeno = transactionTemplate.execute(status -> obradiSeriju());
+            } while (obradjeno != null && obradjeno >= properties.getSerija());
+        });
+    }
+
+    private int obradiSeriju() {
+        List<OutboxDogadjaj> dogadjaji = outboxDogadjajRepository.findNeobradjeni(PageRequest.of(0, properties.getSerija()));
+        if (dogadjaji.isEmpty()) {
+            return 0;
+        }
+
+        // Za svaki dokument vazi poslednji dogadjaj: true ako je dokument obrisan.
+        Map<Long, Boolean> dokumenti = new LinkedHashMap<>();
+        for (OutboxDogadjaj dogadjaj : dogadjaji) {
+            dokumenti.remove(dogadjaj.getDokumentId());
+            dokumenti.put(dogadjaj.getDokumentId(), Boolean.TRUE.equals(dogadjaj.getBrisanje()));
+        }
+
+        Map<Long, Faktura> fakture = fakturaRepository.findAllById(dokumenti.keySet()).stream()
+                .collect(Collectors.toMap(Faktura::getDokumentId, f -> f));
+        // Serija koristi samo nekoliko konta iz podesavanja, pa se kontne grupe traze jednom.
+        Map<String, KontnaGrupa> kontneGrupe = new HashMap<>();
+        List<Konto> stavke = new ArrayList<>();
+        dokumenti.forEach((dokumentId, brisanje) -> {
+            Faktura faktura = fakture.get(dokumentId);
+            if (faktura != null && brisanje) {
+                obrisi(faktura);
+            } else if (faktura != null) {
+                stavke.addAll(proknjizi(faktura, kontneGrupe));
+            }
+        });
+        kontoRepository.saveAll(stavke);
+
+        outboxDogadjajRepository.oznaciObradjene(dogadjaji.stream()
+                .map(OutboxDogadjaj::getOutboxId)
+                .collect(Collectors.toList()));
+        return dogadjaji.size();
+    }
+
+    private List<Konto> proknjizi(Faktura faktura, Map<String, KontnaGrupa> kontneGrupe) {
+        Knjizenje knjizenje = knjizenjeRepository.findFirstByDokumentDokumentId(faktura.getDokumentId())
+                .orElseGet(Knjizenje::new);
+        // Postojece knjizenje iz zatvorene godine se ne menja, a novo se iz zatvorene godine
+        // prebacuje u prvu otvorenu, pa serija nikad ne pada zbog zatvorene godine.
+        if (knjizenje.getKnjizenjeId() != null && obracunskiPeriodService.isZatvorena(knjizenje.getDatumKnjizenja())) {
+            log.warn("Faktura {} je proknjizena u zatvorenoj godini, izmena se ne knjizi", faktura.getBrojFakture());
+            return Collections.emptyList();
+        }
+        // Stare stavke se menjaju na mestu po kontu, pa ostaju dimenzije koje su im dodeljene.
+        Map<String, Deque<Konto>> stare = new HashMap<>();
+        List<Date> datumi = new ArrayList<>();
+        if (knjizenje.getKonto() != null && !knjizenje.getKonto().isEmpty()) {
+            for (Konto konto : knjizenje.getKonto()) {
+                stare.computeIfAbsent(konto.getKontnaGrupa().getBrojKonta(), k -> new ArrayDeque<>()).add(konto);
+            }
+            datumi.add(knjizenje.getDatumKnjizenja());
+        }
+        knjizenje.setDokument(faktura);
+        knjizenje.setDatumKnjizenja(obracunskiPeriodService.uOtvoreniPeriod(faktura.getDatumIzdavanja()));
+        knjizenje = knjizenjeRepository.save(knjizenje);
+        datumi.add(knjizenje.getDatumKnjizenja());
+        eventPublisher.publishEvent(new KnjizenjeEvent(knjizenje.getKnjizenjeId(), datumi));
+
+        // Iznosi se preracunavaju u dinarske pare, a ukupan iznos je zbir osnovice i poreza,
+        // pa je nalog uravnotezen i kada zaokruzivanje po kursu odstupi za paru.
+        int skala = Novac.skala(faktura.getValuta());
+        double kurs = faktura.getKurs() == null ? 1.0 : faktura.getKurs();
+        long rabat = faktura.getRabat() == null ? 0 : Novac.uJedinice(faktura.getRabat(), skala);
+        long osnovicaPare = Novac.konvertuj(Novac.uJedinice(faktura.getProdajnaVrednost(), skala) - rabat, skala, kurs, Novac.PODRAZUMEVANA_SKALA);
+        long porezPare = Novac.konvertuj(Novac.uJedinice(faktura.getPorez(), skala), skala, kurs, Novac.PODRAZUMEVANA_SKALA);
+        double osnovica = Novac.uIznos(osnovicaPare, Novac.PODRAZUMEVANA_SKALA);
+        double porez = Novac.uIznos(porezPare, Novac.PODRAZUMEVANA_SKALA);
+        double iznos = Novac.uIznos(osnovicaPare + porezPare, Novac.PODRAZUMEVANA_SKALA);
+
+        List<Konto> stavke = new ArrayList<>();
+        if (faktura.getTipFakture() == TipFakture.ULAZNA_FAKTURA) {
+            stavke.add(stavka(knjizenje, kontneGrupe, stare, properties.getTroskovi(), osnovica, 0.0));
+            stavke.add(stavka(knjizenje, kontneGrupe, stare, properties.getPrethodniPdv(), porez, 0.0));
+            stavke.add(stavka(knjizenje, kontneGrupe, stare, properties.getDobavljaci(), 0.0, iznos));
+        } else {
+            stavke.add(stavka(knjizenje, kontneGrupe, stare, properties.getKupci(), iznos, 0.0));
+            stavke.add(stavka(knjizenje, kontneGrupe, stare, properties.getPrihodi(), 0.0, osnovica));
+            stavke.add(stavka(knjizenje, kontneGrupe, stare, properties.getObracunatiPdv(), 0.0, porez));
+        }
+        // Stavke na kontima kojih vise nema u podesavanjima se brisu.
+        List<Konto> visak = stare.values().stream().flatMap(Collection::stream).collect(Collectors.toList());
+        if (!visak.isEmpty()) {
+            kontoRepository.deleteAll(visak);
+        }
+        return stavke;
+    }
+
+    private void obrisi(Faktura faktura) {
+        Optional<Knjizenje> knjizenje = knjizenjeRepository.findFirstByDokumentDokumentId(faktura.getDokumentId());
+        if (knjizenje.isPresent() && obracunskiPeriodService.isZatvorena(knjizenje.get().getDatumKnjizenja())) {
+            log.warn("Faktura {} je proknjizena u zatvorenoj godini i ne brise se", faktura.getBrojFakture());
+            return;
+        }
+        if (stavkaIzvodaRepository.existsByFakturaDokumentId(faktura.getDokumentId())) {
+            log.warn("Faktura {} je uparena sa stavkom izvoda i ne brise se", faktura.getBrojFakture());
+            return;
+        }
+        knjizenje.ifPresent(staro -> {
+            if (staro.getKonto() != null) {
+                kontoRepository.deleteAll(staro.getKonto());
+            }
+            knjizenjeRepository.delete(staro);
+            eventPublisher.publishEvent(new KnjizenjeEvent(staro.getKnjizenjeId(),
+                    Collections.singletonList(staro.getDatumKnjizenja())));
+        });
+        fakturaRepository.delete(faktura);
+        eventPublisher.publishEvent(new FakturaEvent(faktura.getDokumentId(), null,
+                faktura.getDatumIzdavanja(), faktura.getTipFakture()));
+    }
+
+    private Konto stavka(Knjizenje knjizenje, Map<String, KontnaGrupa> kontneGrupe, Map<String, Deque<Konto>> stare,
+                         String brojKonta, double duguje, double potrazuje) {
+        Deque<Konto> naKontu = stare.get(brojKonta);
+        Konto konto = naKontu == null || naKontu.isEmpty() ? new Konto() : naKontu.poll();
+        konto.setKnjizenje(knjizenje);
+        konto.setKontnaGrupa(kontneGrupe.computeIfAbsent(brojKonta, kontnaGrupaService::findOrCreate));
+        konto.setDuguje(duguje);
+        konto.setPotrazuje(potrazuje);
+        return konto;
+    }
+}
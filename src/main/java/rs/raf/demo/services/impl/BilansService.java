@@ -0,0 +1,225 @@
+package rs.raf.demo.services.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import rs.raf.demo.events.KnjizenjeEvent;
+import rs.raf.demo.model.BilansPozicija;
+import rs.raf.demo.model.enums.TipBilansa;
+import rs.raf.demo.repositories.BilansPozicijaRepository;
+import rs.raf.demo.repositories.KontoRepository;
+import rs.raf.demo.responses.BilansResponse;
+import rs.raf.demo.responses.BilansStavkaResponse;
+import rs.raf.demo.services.IBilansService;
+import rs.raf.demo.utils.Novac;
+import rs.raf.demo.utils.PoTenantu;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bilans stanja i bilans uspeha. Promet svih konta se dobija jednim upitom
+ * grupisanim po broju konta, a konta se rasporedjuju na pozicije po najduzem
+ * prefiksu iz tabele mapiranja. Bilansi zavrsenih godina se cuvaju i ponovo
+ * racunaju samo ako se promeni mapiranje ili knjizenje iz te godine. Svako ponistavanje
+ * povecava verziju kesa, a bilans izracunat uz stariju verziju se ne upisuje u kes.
+ */
+@Service
+public class BilansService implements IBilansService {
+
+    private final BilansPozicijaRepository bilansPozicijaRepository;
+    private final KontoRepository kontoRepository;
+    private final PoTenantu<Map<TipBilansa, TreeMap<Integer, BilansResponse>>> zatvoreneGodine = new PoTenantu<>(BilansService::noveGodine);
+    private final PoTenantu<AtomicLong> verzija = new PoTenantu<>(AtomicLong::new);
+
+    @Autowired
+    public BilansService(BilansPozicijaRepository bilansPozicijaRepository, KontoRepository kontoRepository) {
+        this.bilansPozicijaRepository = bilansPozicijaRepository;
+        this.kontoRepository = kontoRepository;
+    }
+
+    private static Map<TipBilansa, TreeMap<Integer, BilansResponse>> noveGodine() {
+        Map<TipBilansa, TreeMap<Integer, BilansResponse>> godine = new EnumMap<>(TipBilansa.class);
+        for (TipBilansa tipBilansa : TipBilansa.values()) {
+            godine.put(tipBilansa, new TreeMap<>());
+        }
+        return godine;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void pripremiMapiranje() {
+        if (bilansPozicijaRepository.count() > 0) {
+            return;
+        }
+        List<BilansPozicija> pozicije = new ArrayList<>();
+        pozicije.add(pozicija(TipBilansa.BILANS_STANJA, "A.I", "Stalna imovina", "AKTIVA", "0", 1));
+        pozicije.add(pozicija(TipBilansa.BILANS_STANJA, "A.II", "Zalihe", "AKTIVA", "1", 1));
+        pozicije.add(pozicija(TipBilansa.BILANS_STANJA, "A.III", "Kratkorocna potrazivanja, plasmani i gotovina", "AKTIVA", "2", 1));
+        pozicije.add(pozicija(TipBilansa.BILANS_STANJA, "P.I", "Kapital", "PASIVA", "3", -1));
+        pozicije.add(pozicija(TipBilansa.BILANS_STANJA, "P.II", "Dugorocna rezervisanja i obaveze", "PASIVA", "4", -1));
+        pozicije.add(pozicija(TipBilansa.BILANS_STANJA, "P.III", "Kratkorocne obaveze", "PASIVA", "42", -1));
+        pozicije.add(pozicija(TipBilansa.BILANS_STANJA, "P.III", "Kratkorocne obaveze", "PASIVA", "43", -1));
+        pozicije.add(pozicija(TipBilansa.BILANS_STANJA, "P.III", "Kratkorocne obaveze", "PASIVA", "45", -1));
+        pozicije.add(pozicija(TipBilansa.BILANS_STANJA, "P.III", "Kratkorocne obaveze", "PASIVA", "46", -1));
+        pozicije.add(pozicija(TipBilansa.BILANS_STANJA, "P.III", "Kratkorocne obaveze", "PASIVA", "47", -1));
+        pozicije.add(pozicija(TipBilansa.BILANS_STANJA, "P.III", "Kratkorocne obaveze", "PASIVA", "48", -1));
+        pozicije.add(pozicija(TipBilansa.BILANS_STANJA, "P.III", "Kratkorocne obaveze", "PASIVA", "49", -1));
+        pozicije.add(pozicija(TipBilansa.BILANS_STANJA, "P.IV", "Rezultat tekuce godine", "PASIVA", "5", -1));
+        pozicije.add(pozicija(TipBilansa.BILANS_STANJA, "P.IV", "Rezultat tekuce godine", "PASIVA", "6", -1));
+        pozicije.add(pozicija(TipBilansa.BILANS_USPEHA, "R.I", "Poslovni rashodi", "RASHODI", "5", 1));
+        pozicije.add(pozicija(TipBilansa.BILANS_USPEHA, "R.II", "Finansijski rashodi", "RASHODI", "56", 1));
+        pozicije.add(pozicija(TipBilansa.BILANS_USPEHA, "R.III", "Ostali rashodi", "RASHODI", "57", 1));
+        pozicije.add(pozicija(TipBilansa.BILANS_USPEHA, "R.III", "Ostali rashodi", "RASHODI", "58", 1));
+        pozicije.add(pozicija(TipBilansa.BILANS_USPEHA, "R.III", "Ostali rashodi", "RASHODI", "59", 1));
+        pozicije.add(pozicija(TipBilansa.BILANS_USPEHA, "PR.I", "Poslovni prihodi", "PRIHODI", "6", -1));
+        pozicije.add(pozicija(TipBilansa.BILANS_USPEHA, "PR.II", "Finansijski prihodi", "PRIHODI", "66", -1));
+        pozicije.add(pozicija(TipBilansa.BILANS_USPEHA, "PR.III", "Ostali prihodi", "PRIHODI", "67", -1));
+        pozicije.add(pozicija(TipBilansa.BILANS_USPEHA, "PR.III", "Ostali prihodi", "PRIHODI", "68", -1));
+        pozicije.add(pozicija(TipBilansa.BILANS_USPEHA, "PR.III", "Ostali prihodi", "PRIHODI", "69", -1));
+        bilansPozicijaRepository.saveAll(pozicije);
+    }
+
+    @Override
+    public BilansPozicija save(BilansPozicija bilansPozicija) {
+        BilansPozicija sacuvana = bilansPozicijaRepository.save(bilansPozicija);
+        ponisti();
+        return sacuvana;
+    }
+
+    @Override
+    public Optional<BilansPozicija> findById(Long id) {
+        return bilansPozicijaRepository.findById(id);
+    }
+
+    @Override
+    public List<BilansPozicija> findAll() {
+        return bilansPozicijaRepository.findAll();
+    }
+
+    @Override
+    public List<BilansPozicija> findByTipBilansa(TipBilansa tipBilansa) {
+        return bilansPozicijaRepository.findByTipBilansaOrderByOznaka(tipBilansa);
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        bilansPozicijaRepository.deleteById(id);
+        ponisti();
+    }
+
+    @Override
+    public BilansResponse getBilans(TipBilansa tipBilansa, int godina) {
+        boolean zatvorena = godina < LocalDate.now().getYear();
+        long pocetnaVerzija;
+        synchronized (zatvoreneGodine.get()) {
+            BilansResponse bilans = zatvorena ? zatvoreneGodine.get().get(tipBilansa).get(godina) : null;
+            if (bilans != null) {
+                return bilans;
+            }
+            pocetnaVerzija = verzija.get().get();
+        }
+
+        BilansResponse bilans = izracunaj(tipBilansa, godina);
+        if (zatvorena) {
+            synchronized (zatvoreneGodine.get()) {
+                if (verzija.get().get() == pocetnaVerzija) {
+                    zatvoreneGodine.get().get(tipBilansa).put(godina, bilans);
+                }
+            }
+        }
+        return bilans;
+    }
+
+    /**
+     * Posle potvrde knjizenja ponistava bilanse godina na koje je ono uticalo.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onKnjizenjeEvent(KnjizenjeEvent event) {
+        synchronized (zatvoreneGodine.get()) {
+            verzija.get().incrementAndGet();
+            for (Date datum : event.getDatumi()) {
+                if (datum == null) {
+                    continue;
+                }
+                int godina = datum.toInstant().atZone(ZoneId.systemDefault()).getYear();
+                // Bilans stanja je kumulativan, pa izmena utice i na sve kasnije godine.
+                zatvoreneGodine.get().get(TipBilansa.BILANS_STANJA).tailMap(godina).clear();
+                zatvoreneGodine.get().get(TipBilansa.BILANS_USPEHA).remove(godina);
+            }
+        }
+    }
+
+    private void ponisti() {
+        synchronized (zatvoreneGodine.get()) {
+            verzija.get().incrementAndGet();
+            zatvoreneGodine.get().values().forEach(TreeMap::clear);
+        }
+    }
+
+    private BilansResponse izracunaj(TipBilansa tipBilansa, int godina) {
+        List<BilansPozicija> mapiranje = bilansPozicijaRepository.findByTipBilansaOrderByOznaka(tipBilansa);
+        List<BilansPozicija> pozicije = new ArrayList<>(mapiranje);
+        pozicije.sort(Comparator.comparingInt((BilansPozicija p) -> p.getPrefiksKonta().length()).reversed());
+
+        Date kraj = Date.from(LocalDate.of(godina + 1, 1, 1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        List<Object[]> promet = tipBilansa == TipBilansa.BILANS_STANJA
+                ? kontoRepository.findPrometPoKontimaDo(kraj)
+                : kontoRepository.findPrometPoKontima(Date.from(LocalDate.of(godina, 1, 1).atStartOfDay(ZoneId.systemDefault()).toInstant()), kraj);
+
+        Map<String, BilansStavkaResponse> stavke = new LinkedHashMap<>();
+        for (BilansPozicija pozicija : mapiranje) {
+            stavke.putIfAbsent(pozicija.getOznaka(), new BilansStavkaResponse(pozicija.getOznaka(), pozicija.getNaziv(), pozicija.getGrupa(), 0.0));
+        }
+        // Konta iz klasa koje bilans ne pokriva ne ulaze u bilans i ne prijavljuju se kao nerasporedjena.
+        Set<Character> klase = new HashSet<>();
+        mapiranje.forEach(pozicija -> klase.add(pozicija.getPrefiksKonta().charAt(0)));
+        Map<String, Long> poPozicijama = new HashMap<>();
+        Map<String, Long> poGrupama = new TreeMap<>();
+        List<String> nerasporedjeni = new ArrayList<>();
+        for (Object[] red : promet) {
+            String brojKonta = (String) red[0];
+            BilansPozicija pozicija = pronadji(pozicije, brojKonta);
+            if (pozicija == null) {
+                if (!brojKonta.isEmpty() && klase.contains(brojKonta.charAt(0))) {
+                    nerasporedjeni.add(brojKonta);
+                }
+                continue;
+            }
+            long saldo = pozicija.getZnak() * (Novac.uJedinice(((Number) red[1]).doubleValue(), Novac.PODRAZUMEVANA_SKALA)
+                    - Novac.uJedinice(((Number) red[2]).doubleValue(), Novac.PODRAZUMEVANA_SKALA));
+            poPozicijama.merge(pozicija.getOznaka(), saldo, Long::sum);
+            poGrupama.merge(pozicija.getGrupa(), saldo, Long::sum);
+        }
+        poPozicijama.forEach((oznaka, saldo) -> stavke.get(oznaka).setIznos(Novac.uIznos(saldo, Novac.PODRAZUMEVANA_SKALA)));
+        Map<String, Double> ukupno = new TreeMap<>();
+        poGrupama.forEach((grupa, saldo) -> ukupno.put(grupa, Novac.uIznos(saldo, Novac.PODRAZUMEVANA_SKALA)));
+        Collections.sort(nerasporedjeni);
+
+        return new BilansResponse(tipBilansa, godina, Collections.unmodifiableList(new ArrayList<>(stavke.values())),
+                Collections.unmodifiableMap(ukupno), Collections.unmodifiableList(nerasporedjeni));
+    }
+
+    private static BilansPozicija pronadji(List<BilansPozicija> pozicije, String brojKonta) {
+        for (BilansPozicija pozicija : pozicije) {
+            if (brojKonta.startsWith(pozicija.getPrefiksKonta())) {
+                return pozicija;
+            }
+        }
+        return null;
+    }
+
+    private static BilansPozicija pozicija(TipBilansa tipBilansa, String oznaka, String naziv, String grupa, String prefiksKonta, int znak) {
+        BilansPozicija pozicija = new BilansPozicija();
+        pozicija.setTipBilansa(tipBilansa);
+        pozicija.setOznaka(oznaka);
+        pozicija.setNaziv(naziv);
+        pozicija.setGrupa(grupa);
+        pozicija.setPrefiksKonta(prefiksKonta);
+        pozicija.setZnak(znak);
+        return pozicija;
+    }
+}
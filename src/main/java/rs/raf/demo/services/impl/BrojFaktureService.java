@@ -0,0 +1,126 @@
+package rs.raf.demo.services.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.raf.demo.configuration.NumeracijaFakturaProperties;
+import rs.raf.demo.model.BrojacFakture;
+import rs.raf.demo.model.Faktura;
+import rs.raf.demo.repositories.BrojacFaktureRepository;
+import rs.raf.demo.utils.FakturaUtil;
+import rs.raf.demo.utils.PoTenantu;
+
+import javax.annotation.PreDestroy;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dodeljuje brojeve fakturama. Svaka instanca aplikacije rezervise blok brojeva
+ * po seriji i godini, tako da se baza ne dira za svaku fakturu.
+ */
+@Service
+public class BrojFaktureService {
+
+    private final Logger log = LoggerFactory.getLogger(BrojFaktureService.class);
+
+    private final BrojacFaktureRepository brojacFaktureRepository;
+    private final NumeracijaFakturaProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final PoTenantu<Map<String, Blok>> blokovi = new PoTenantu<>(ConcurrentHashMap::new);
+
+    @Autowired
+    public BrojFaktureService(BrojacFaktureRepository brojacFaktureRepository,
+                              NumeracijaFakturaProperties properties,
+                              PlatformTransactionManager transactionManager) {
+        this.brojacFaktureRepository = brojacFaktureRepository;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public String sledeciBroj(Faktura faktura) {
+        String tip = faktura.getTipFakture() == null ? "" : faktura.getTipFakture().name();
+        String serija = properties.getSerije().getOrDefault(tip, tip);
+        Date datum = faktura.getDatumIzdavanja() == null ? new Date() : faktura.getDatumIzdavanja();
+        int godina = datum.toInstant().atZone(ZoneId.systemDefault()).getYear();
+
+        String kljuc = serija + "-" + godina;
+        long broj = blokovi.get().computeIfAbsent(kljuc, Blok::new).sledeci();
+        String format = properties.getFormati().getOrDefault(serija, properties.getFormat());
+        return FakturaUtil.formatirajBrojFakture(format, serija, godina, broj, properties.getCifre());
+    }
+
+    private long rezervisiBlok(String kljuc) {
+        try {
+            return rezervisi(kljuc);
+        } catch (DataIntegrityViolationException e) {
+            // Druga instanca je istovremeno otvorila istu seriju, brojac sada postoji.
+            return rezervisi(kljuc);
+        }
+    }
+
+    private long rezervisi(String kljuc) {
+        Long pocetak = transactionTemplate.execute(status -> {
+            BrojacFakture brojac = brojacFaktureRepository.findBySerijaForUpdate(kljuc).orElseGet(() -> {
+                BrojacFakture novi = new BrojacFakture();
+                novi.setSerija(kljuc);
+                novi.setSledeciBroj(1L);
+                return novi;
+            });
+            long prvi = brojac.getSledeciBroj();
+            brojac.setSledeciBroj(prvi + properties.getBlok());
+            brojacFaktureRepository.saveAndFlush(brojac);
+            return prvi;
+        });
+        return pocetak == null ? 1L : pocetak;
+    }
+
+    @PreDestroy
+    public void oslobodiNeiskorisceneBrojeve() {
+        blokovi.zaSvaki(tenant -> tenant.forEach((kljuc, blok) -> {
+            synchronized (blok) {
+                if (blok.sledeci >= blok.kraj) {
+                    return;
+                }
+                Integer vraceno = null;
+                try {
+                    vraceno = transactionTemplate.execute(status ->
+                            brojacFaktureRepository.vratiBrojeve(kljuc, blok.kraj, blok.sledeci));
+                } catch (RuntimeException e) {
+                    log.warn("Neuspesno vracanje brojeva serije {}: {}", kljuc, e.getMessage());
+                }
+                if (vraceno != null && vraceno > 0) {
+                    log.info("Serija {}: vraceni neiskorisceni brojevi {}-{}", kljuc, blok.sledeci, blok.kraj - 1);
+                } else {
+                    log.warn("Serija {}: neiskorisceni brojevi {}-{} ostaju preskoceni", kljuc, blok.sledeci, blok.kraj - 1);
+                }
+                blok.kraj = blok.sledeci;
+            }
+        }));
+    }
+
+    private class Blok {
+        private final String kljuc;
+        private long sledeci;
+        private long kraj;
+
+        Blok(String kljuc) {
+            this.kljuc = kljuc;
+        }
+
+        synchronized long sledeci() {
+            if (sledeci >= kraj) {
+                sledeci = rezervisiBlok(kljuc);
+                kraj = sledeci + properties.getBlok();
+            }
+            return sledeci++;
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package rs.raf.demo.services.impl;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import rs.raf.demo.exceptions.OperationNotSupportedException;
+import rs.raf.demo.model.Dimenzija;
+import rs.raf.demo.model.Konto;
+import rs.raf.demo.model.enums.Grupisanje;
+import rs.raf.demo.model.enums.TipDimenzije;
+import rs.raf.demo.repositories.DimenzijaRepository;
+import rs.raf.demo.repositories.KontoRepository;
+import rs.raf.demo.requests.DimenzijeKontaRequest;
+import rs.raf.demo.responses.PrometPoDimenzijamaResponse;
+import rs.raf.demo.services.IDimenzijaService;
+import rs.raf.demo.services.IKolonskaKnjigaService;
+import rs.raf.demo.utils.TenantKontekst;
+
+import javax.persistence.EntityNotFoundException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Analiticke dimenzije stavki knjizenja i promet grupisan po njima. Kada je
+ * ukljucena kolonska knjiga, grupisanje za podrazumevanog tenanta se radi nad
+ * njom; inace baza vraca promet po najsitnijoj kombinaciji meseca, konta i
+ * dimenzija, koji se ovde sabira po trazenim kolonama.
+ */
+@Service
+public class DimenzijaService implements IDimenzijaService {
+
+    private final DimenzijaRepository dimenzijaRepository;
+    private final KontoRepository kontoRepository;
+    private final KontoService kontoService;
+    private final ObjectProvider<IKolonskaKnjigaService> kolonskaKnjigaService;
+
+    @Autowired
+    public DimenzijaService(DimenzijaRepository dimenzijaRepository, KontoRepository kontoRepository,
+                            KontoService kontoService, ObjectProvider<IKolonskaKnjigaService> kolonskaKnjigaService) {
+        this.dimenzijaRepository = dimenzijaRepository;
+        this.kontoRepository = kontoRepository;
+        this.kontoService = kontoService;
+        this.kolonskaKnjigaService = kolonskaKnjigaService;
+    }
+
+    @Override
+    public Dimenzija save(Dimenzija dimenzija) {
+        if (dimenzija.getDimenzijaId() != null) {
+            dimenzijaRepository.findById(dimenzija.getDimenzijaId()).ifPresent(postojeca -> {
+                if (postojeca.getTipDimenzije() != dimenzija.getTipDimenzije()) {
+                    throw new OperationNotSupportedException("Tip dimenzije se ne moze menjati");
+                }
+            });
+        }
+        return dimenzijaRepository.save(dimenzija);
+    }
+
+    @Override
+    public Optional<Dimenzija> findById(Long id) {
+        return dimenzijaRepository.findById(id);
+    }
+
+    @Override
+    public List<Dimenzija> findAll() {
+        return dimenzijaRepository.findAll();
+    }
+
+    @Override
+    public List<Dimenzija> findByTip(TipDimenzije tipDimenzije) {
+        return dimenzijaRepository.findByTipDimenzijeOrderBySifra(tipDimenzije);
+    }
+
+    /**
+     * Id-jevi svih dimenzija su iz iste tabele, pa je dovoljno proveriti sve tri kolone stavki.
+     */
+    @Override
+    public void deleteById(Long id) {
+        if (kontoRepository.existsByMestoTroskovaIdOrProjekatIdOrZaposleniId(id, id, id)) {
+            throw new OperationNotSupportedException("Dimenzija je dodeljena stavkama knjizenja i ne moze se obrisati");
+        }
+        dimenzijaRepository.deleteById(id);
+    }
+
+    @Override
+    @Transactional
+    public Konto oznaciKonto(Long kontoId, DimenzijeKontaRequest request) {
+        Konto konto = kontoRepository.findById(kontoId).orElseThrow(EntityNotFoundException::new);
+        konto.setMestoTroskovaId(proveri(request.getMestoTroskovaId(), TipDimenzije.MESTO_TROSKOVA));
+        konto.setProjekatId(proveri(request.getProjekatId(), TipDimenzije.PROJEKAT));
+        konto.setZaposleniId(proveri(request.getZaposleniId(), TipDimenzije.ZAPOSLENI));
+        return kontoService.save(konto);
+    }
+
+    /**
+     * @param doDatuma Prvi dan koji vise nije u intervalu.
+     */
+    @Override
+    public List<PrometPoDimenzijamaResponse> getPromet(LocalDate od, LocalDate doDatuma, List<Grupisanje> grupisanje,
+                                                       DimenzijeKontaRequest filter, String prefiks) {
+        List<Grupisanje> kolone = grupisanje.stream().distinct().collect(Collectors.toList());
+        IKolonskaKnjigaService kolonska = TenantKontekst.isPodrazumevani() ? kolonskaKnjigaService.getIfAvailable() : null;
+        List<Object[]> redovi = kolonska != null
+                ? kolonska.grupisi(od, doDatuma, prefiks, filter.getMestoTroskovaId(), filter.getProjekatId(), filter.getZaposleniId(), kolone)
+                : grupisiIzBaze(od, doDatuma, prefiks, filter, kolone);
+
+        Map<Long, Dimenzija> recnik = dimenzijaRepository.findAll().stream()
+                .collect(Collectors.toMap(Dimenzija::getDimenzijaId, Function.identity()));
+        List<PrometPoDimenzijamaResponse> promet = new ArrayList<>();
+        for (Object[] red : redovi) {
+            Map<String, String> grupa = new LinkedHashMap<>();
+            for (int i = 0; i < kolone.size(); i++) {
+                grupa.put(naziv(kolone.get(i)), vrednost(kolone.get(i), red[i], recnik));
+            }
+            double duguje = (Double) red[kolone.size()];
+            double potrazuje = (Double) red[kolone.size() + 1];
+            promet.add(new PrometPoDimenzijamaResponse(grupa, duguje, potrazuje, duguje - potrazuje, (Long) red[kolone.size() + 2]));
+        }
+        promet.sort(Comparator.comparing(p -> String.join("\u0000", p.getGrupa().values().stream()
+                .map(v -> v == null ? "" : v).collect(Collectors.toList()))));
+        return promet;
+    }
+
+    private List<Object[]> grupisiIzBaze(LocalDate od, LocalDate doDatuma, String prefiks,
+                                         DimenzijeKontaRequest filter, List<Grupisanje> kolone) {
+        Map<List<Object>, Object[]> grupe = new HashMap<>();
+        for (Object[] red : kontoRepository.findPrometPoDimenzijama(datum(od), datum(doDatuma), prefiks == null ? "" : prefiks,
+                filter.getMestoTroskovaId(), filter.getProjekatId(), filter.getZaposleniId())) {
+            List<Object> kljuc = new ArrayList<>();
+            for (Grupisanje kolona : kolone) {
+                switch (kolona) {
+                    case KONTO:
+                        kljuc.add(red[2]);
+                        break;
+                    case MESEC:
+                        kljuc.add(YearMonth.of((Integer) red[0], (Integer) red[1]).toString());
+                        break;
+                    case MESTO_TROSKOVA:
+                        kljuc.add(red[3]);
+                        break;
+                    case PROJEKAT:
+                        kljuc.add(red[4]);
+                        break;
+                    default:
+                        kljuc.add(red[5]);
+                }
+            }
+            Object[] zbir = grupe.computeIfAbsent(kljuc, k -> {
+                Object[] novi = Arrays.copyOf(k.toArray(), k.size() + 3);
+                novi[k.size()] = 0.0;
+                novi[k.size() + 1] = 0.0;
+                novi[k.size() + 2] = 0L;
+                return novi;
+            });
+            zbir[kolone.size()] = (Double) zbir[kolone.size()] + ((Number) red[6]).doubleValue();
+            zbir[kolone.size() + 1] = (Double) zbir[kolone.size() + 1] + ((Number) red[7]).doubleValue();
+            zbir[kolone.size() + 2] = (Long) zbir[kolone.size() + 2] + (Long) red[8];
+        }
+        return new ArrayList<>(grupe.values());
+    }
+
+    private Long proveri(Long dimenzijaId, TipDimenzije tip) {
+        if (dimenzijaId == null) {
+            return null;
+        }
+        Dimenzija dimenzija = dimenzijaRepository.findById(dimenzijaId).orElseThrow(EntityNotFoundException::new);
+        if (dimenzija.getTipDimenzije() != tip) {
+            throw new OperationNotSupportedException("Dimenzija " + dimenzija.getSifra() + " nije tipa " + tip);
+        }
+        return dimenzijaId;
+    }
+
+    private static String naziv(Grupisanje kolona) {
+        switch (kolona) {
+            case KONTO:
+                return "konto";
+            case MESEC:
+                return "mesec";
+            case MESTO_TROSKOVA:
+                return "mestoTroskova";
+            case PROJEKAT:
+                return "projekat";
+            default:
+                return "zaposleni";
+        }
+    }
+
+    private static String vrednost(Grupisanje kolona, Object vrednost, Map<Long, Dimenzija> recnik) {
+        if (vrednost == null || kolona == Grupisanje.KONTO || kolona == Grupisanje.MESEC) {
+            return (String) vrednost;
+        }
+        Dimenzija dimenzija = recnik.get(vrednost);
+        return dimenzija == null ? String.valueOf(vrednost) : dimenzija.getSifra() + " - " + dimenzija.getNaziv();
+    }
+
+    private static Date datum(LocalDate dan) {
+        return Date.from(dan.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,202 @@
+package rs.raf.demo.services.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.raf.demo.events.KnjizenjeEvent;
+import rs.raf.demo.model.DnevnoStanje;
+import rs.raf.demo.repositories.DnevnoStanjeRepository;
+import rs.raf.demo.repositories.KnjizenjeRepository;
+import rs.raf.demo.repositories.KontnaGrupaRepository;
+import rs.raf.demo.repositories.KontoRepository;
+import rs.raf.demo.responses.SaldoKontaResponse;
+import rs.raf.demo.services.IDnevnoStanjeService;
+import rs.raf.demo.services.ITenantService;
+import rs.raf.demo.utils.Novac;
+import rs.raf.demo.utils.TenantKontekst;
+
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Dnevna stanja konta. Svaki red cuva promet dana i kumulativni promet do
+ * kraja tog dana, pa je saldo na neki dan jedno citanje poslednjeg reda pre
+ * tog dana. Kada se promeni knjizenje, ponovo se racuna promet samo za njegov
+ * dan, a razlika se jednim upitom dodaje svim kasnijim redovima konta. Promet
+ * i razlike se racunaju u parama, pa se stanja porede tacno.
+ */
+@Service
+public class DnevnoStanjeService implements IDnevnoStanjeService {
+
+    private final Logger log = LoggerFactory.getLogger(DnevnoStanjeService.class);
+
+    private final DnevnoStanjeRepository dnevnoStanjeRepository;
+    private final KontoRepository kontoRepository;
+    private final KnjizenjeRepository knjizenjeRepository;
+    private final KontnaGrupaRepository kontnaGrupaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ITenantService tenantService;
+    private final ExecutorService izvrsilac = Executors.newSingleThreadExecutor();
+    private final Object brava = new Object();
+
+    @Autowired
+    public DnevnoStanjeService(DnevnoStanjeRepository dnevnoStanjeRepository,
+                               KontoRepository kontoRepository,
+                               KnjizenjeRepository knjizenjeRepository,
+                               KontnaGrupaRepository kontnaGrupaRepository,
+                               PlatformTransactionManager transactionManager,
+                               TenantService tenantService) {
+        this.dnevnoStanjeRepository = dnevnoStanjeRepository;
+        this.kontoRepository = kontoRepository;
+        this.knjizenjeRepository = knjizenjeRepository;
+        this.kontnaGrupaRepository = kontnaGrupaRepository;
+        this.tenantService = tenantService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void pripremi() {
+        tenantService.zaSvakog(() -> {
+            if (dnevnoStanjeRepository.count() == 0 && knjizenjeRepository.count() > 0) {
+                obnoviSve();
+            }
+        });
+    }
+
+    @PreDestroy
+    public void zaustavi() {
+        izvrsilac.shutdownNow();
+    }
+
+    @Override
+    public SaldoKontaResponse getSaldo(String brojKonta, LocalDate naDan) {
+        Optional<DnevnoStanje> stanje = dnevnoStanjeRepository
+                .findFirstByBrojKontaAndDatumLessThanEqualOrderByDatumDesc(brojKonta, datum(naDan));
+        long duguje = stanje.map(s -> pare(s.getDugujeUkupno())).orElse(0L);
+        long potrazuje = stanje.map(s -> pare(s.getPotrazujeUkupno())).orElse(0L);
+        return new SaldoKontaResponse(brojKonta, naDan, iznos(duguje), iznos(potrazuje), iznos(duguje - potrazuje));
+    }
+
+    @Override
+    public void obnovi() {
+        izvrsilac.execute(TenantKontekst.prenesi(this::obnoviSve));
+    }
+
+    /**
+     * Pravi dnevna stanja iz glavne knjige, konto po konto, svaki u svojoj transakciji.
+     */
+    private void obnoviSve() {
+        List<String> brojeviKonta = kontnaGrupaRepository.findBrojeviKonta();
+        for (String brojKonta : brojeviKonta) {
+            synchronized (brava) {
+                transactionTemplate.executeWithoutResult(status -> obnoviKonto(brojKonta));
+            }
+        }
+        log.info("Dnevna stanja obnovljena za {} konta", brojeviKonta.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onKnjizenjeEvent(KnjizenjeEvent event) {
+        event.getDatumi().stream()
+                .filter(Objects::nonNull)
+                .map(datum -> datum.toInstant().atZone(ZoneId.systemDefault()).toLocalDate())
+                .distinct()
+                .forEach(dan -> {
+                    synchronized (brava) {
+                        transactionTemplate.executeWithoutResult(status -> osveziDan(dan));
+                    }
+                });
+    }
+
+    private void obnoviKonto(String brojKonta) {
+        dnevnoStanjeRepository.obrisiZaKonto(brojKonta);
+        List<DnevnoStanje> stanja = new ArrayList<>();
+        long dugujeUkupno = 0;
+        long potrazujeUkupno = 0;
+        for (Object[] red : kontoRepository.findDnevniPrometKonta(brojKonta)) {
+            LocalDate dan = LocalDate.of(((Number) red[0]).intValue(), ((Number) red[1]).intValue(), ((Number) red[2]).intValue());
+            long duguje = pare(red[3]);
+            long potrazuje = pare(red[4]);
+            dugujeUkupno += duguje;
+            potrazujeUkupno += potrazuje;
+            stanja.add(stanje(brojKonta, datum(dan), iznos(duguje), iznos(potrazuje), iznos(dugujeUkupno), iznos(potrazujeUkupno)));
+        }
+        dnevnoStanjeRepository.saveAll(stanja);
+    }
+
+    private void osveziDan(LocalDate dan) {
+        Date datum = datum(dan);
+        Map<String, long[]> promet = new HashMap<>();
+        for (Object[] red : kontoRepository.findPrometPoKontimaBezPocetnih(datum, datum(dan.plusDays(1)))) {
+            promet.put((String) red[0], new long[]{pare(red[1]), pare(red[2])});
+        }
+        Map<String, DnevnoStanje> postojeca = new HashMap<>();
+        for (DnevnoStanje stanje : dnevnoStanjeRepository.findByDatum(datum)) {
+            postojeca.put(stanje.getBrojKonta(), stanje);
+        }
+
+        Set<String> konta = new HashSet<>(promet.keySet());
+        konta.addAll(postojeca.keySet());
+        for (String brojKonta : konta) {
+            long[] novo = promet.getOrDefault(brojKonta, new long[2]);
+            DnevnoStanje stanje = postojeca.get(brojKonta);
+            long razlikaDuguje = novo[0] - (stanje == null ? 0 : pare(stanje.getDugujeDan()));
+            long razlikaPotrazuje = novo[1] - (stanje == null ? 0 : pare(stanje.getPotrazujeDan()));
+            if (razlikaDuguje == 0 && razlikaPotrazuje == 0) {
+                continue;
+            }
+
+            if (stanje == null) {
+                Optional<DnevnoStanje> prethodno = dnevnoStanjeRepository
+                        .findFirstByBrojKontaAndDatumLessThanOrderByDatumDesc(brojKonta, datum);
+                stanje = stanje(brojKonta, datum, iznos(novo[0]), iznos(novo[1]),
+                        iznos(prethodno.map(p -> pare(p.getDugujeUkupno())).orElse(0L) + novo[0]),
+                        iznos(prethodno.map(p -> pare(p.getPotrazujeUkupno())).orElse(0L) + novo[1]));
+            } else {
+                stanje.setDugujeDan(iznos(novo[0]));
+                stanje.setPotrazujeDan(iznos(novo[1]));
+                stanje.setDugujeUkupno(iznos(pare(stanje.getDugujeUkupno()) + razlikaDuguje));
+                stanje.setPotrazujeUkupno(iznos(pare(stanje.getPotrazujeUkupno()) + razlikaPotrazuje));
+            }
+            dnevnoStanjeRepository.save(stanje);
+            dnevnoStanjeRepository.pomeriKasnije(brojKonta, datum, iznos(razlikaDuguje), iznos(razlikaPotrazuje));
+        }
+    }
+
+    private static DnevnoStanje stanje(String brojKonta, Date datum, double duguje, double potrazuje,
+                                       double dugujeUkupno, double potrazujeUkupno) {
+        DnevnoStanje stanje = new DnevnoStanje();
+        stanje.setBrojKonta(brojKonta);
+        stanje.setDatum(datum);
+        stanje.setDugujeDan(duguje);
+        stanje.setPotrazujeDan(potrazuje);
+        stanje.setDugujeUkupno(dugujeUkupno);
+        stanje.setPotrazujeUkupno(potrazujeUkupno);
+        return stanje;
+    }
+
+    private static long pare(Object iznos) {
+        return Novac.uJedinice(((Number) iznos).doubleValue(), Novac.PODRAZUMEVANA_SKALA);
+    }
+
+    private static double iznos(long pare) {
+        return Novac.uIznos(pare, Novac.PODRAZUMEVANA_SKALA);
+    }
+
+    private static Date datum(LocalDate dan) {
+        return Date.from(dan.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
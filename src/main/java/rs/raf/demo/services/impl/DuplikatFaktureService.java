@@ -0,0 +1,146 @@
+package rs.raf.demo.services.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import rs.raf.demo.model.Faktura;
+import rs.raf.demo.repositories.FakturaRepository;
+import rs.raf.demo.utils.BloomFilter;
+import rs.raf.demo.utils.TenantKontekst;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Prepoznaje duplirane fakture po (preduzece, brojFakture, datumIzdavanja).
+ * Bloom filter odbacuje vecinu novih faktura bez upita, a samo moguci
+ * duplikati se proveravaju u bazi.
+ */
+@Service
+public class DuplikatFaktureService {
+
+    private static final long MIN_KAPACITET = 1024;
+    private static final int VELICINA_STRANE = 5000;
+
+    private final Logger log = LoggerFactory.getLogger(DuplikatFaktureService.class);
+
+    private final FakturaRepository fakturaRepository;
+
+    @Value("${faktura.duplikati.verovatnoca-greske:0.01}")
+    private double verovatnocaGreske = 0.01;
+    @Value("${faktura.duplikati.rezerva:2.0}")
+    private double rezerva = 2.0;
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter filterUIzgradnji;
+    private volatile long kapacitet;
+    private long brojElemenata;
+    private final AtomicBoolean izgradnjaZakazana = new AtomicBoolean();
+    private final ExecutorService izvrsilac = Executors.newSingleThreadExecutor();
+
+    @Autowired
+    public DuplikatFaktureService(FakturaRepository fakturaRepository) {
+        this.fakturaRepository = fakturaRepository;
+    }
+
+    @PreDestroy
+    public void zaustavi() {
+        izvrsilac.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void izgradi() {
+        long brojFaktura = fakturaRepository.count();
+        long noviKapacitet = Math.max(MIN_KAPACITET, (long) (brojFaktura * rezerva));
+        BloomFilter novi = new BloomFilter(noviKapacitet, verovatnocaGreske);
+        filterUIzgradnji = novi;
+
+        long ucitano = 0;
+        long poslednjiId = 0;
+        List<Object[]> kljucevi;
+        do {
+            kljucevi = fakturaRepository.findKljuceviDuplikata(poslednjiId, PageRequest.of(0, VELICINA_STRANE));
+            for (Object[] k : kljucevi) {
+                novi.add(kljuc((Long) k[1], (String) k[2], (Date) k[3]));
+                poslednjiId = (Long) k[0];
+            }
+            ucitano += kljucevi.size();
+        } while (kljucevi.size() == VELICINA_STRANE);
+
+        filter = novi;
+        filterUIzgradnji = null;
+        kapacitet = noviKapacitet;
+        brojElemenata = ucitano;
+        log.info("Bloom filter faktura: {} kljuceva, {} bitova, {} hes funkcija", brojElemenata, novi.getBrojBitova(), novi.getBrojHesova());
+    }
+
+    public boolean jeDuplikat(Faktura faktura) {
+        if (faktura.getBrojFakture() == null || faktura.getDatumIzdavanja() == null) {
+            return false;
+        }
+        Long preduzeceId = faktura.getPreduzece() == null ? null : faktura.getPreduzece().getPreduzeceId();
+        BloomFilter f = TenantKontekst.isPodrazumevani() ? filter : null;
+        if (f != null && !f.mightContain(kljuc(preduzeceId, faktura.getBrojFakture(), faktura.getDatumIzdavanja()))) {
+            return false;
+        }
+
+        return fakturaRepository.existsDuplikat(preduzeceId, faktura.getBrojFakture(), uDan(faktura.getDatumIzdavanja()));
+    }
+
+    /**
+     * Dodaje kljuc sacuvane fakture u filter. Kada filter preraste kapacitet, ponovo se
+     * gradi u pozadini, a do tada se koristi postojeci (sa nesto vise laznih pogodaka).
+     */
+    public void zabelezi(Faktura faktura) {
+        if (faktura.getBrojFakture() == null || faktura.getDatumIzdavanja() == null || !TenantKontekst.isPodrazumevani()) {
+            return;
+        }
+        Long preduzeceId = faktura.getPreduzece() == null ? null : faktura.getPreduzece().getPreduzeceId();
+        String kljuc = kljuc(preduzeceId, faktura.getBrojFakture(), faktura.getDatumIzdavanja());
+
+        BloomFilter uIzgradnji = filterUIzgradnji;
+        if (uIzgradnji != null) {
+            uIzgradnji.add(kljuc);
+        }
+        BloomFilter f = filter;
+        if (f == null) {
+            return;
+        }
+        f.add(kljuc);
+
+        boolean prepunjen;
+        synchronized (this) {
+            prepunjen = ++brojElemenata > kapacitet;
+        }
+        if (prepunjen && izgradnjaZakazana.compareAndSet(false, true)) {
+            izvrsilac.execute(() -> {
+                try {
+                    izgradi();
+                } catch (RuntimeException e) {
+                    log.error("Ponovna izgradnja Bloom filtera nije uspela", e);
+                } finally {
+                    izgradnjaZakazana.set(false);
+                }
+            });
+        }
+    }
+
+    private static String kljuc(Long preduzeceId, String brojFakture, Date datumIzdavanja) {
+        return preduzeceId + "|" + brojFakture + "|" + uDan(datumIzdavanja).toEpochDay();
+    }
+
+    private static LocalDate uDan(Date datum) {
+        return datum.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+}
@@ -0,0 +1,249 @@
+package rs.raf.demo.services.impl;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import rs.raf.demo.events.FakturaEvent;
+import rs.raf.demo.exceptions.OperationNotSupportedException;
+import rs.raf.demo.model.Faktura;
+import rs.raf.demo.model.enums.DimenzijaFakture;
+import rs.raf.demo.model.enums.Mera;
+import rs.raf.demo.responses.AgregacijaResponse;
+import rs.raf.demo.services.IFakturaAgregacijaService;
+import rs.raf.demo.utils.PoTenantu;
+import rs.raf.demo.utils.SearchUtil;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Agregacije nad fakturama po proizvoljnim dimenzijama i merama. Zahtev se
+ * prevodi u jedan grupisani upit u kome se primenjuju i filteri iz pretrage.
+ * Rezultati za intervale koji su u celosti u zavrsenim mesecima se cuvaju dok
+ * se ne promeni neka faktura iz intervala.
+ */
+@Service
+public class FakturaAgregacijaService implements IFakturaAgregacijaService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${faktura.agregacija.kes:200}")
+    private int velicinaKesa = 200;
+
+    private final SearchUtil<Faktura> searchUtil = new SearchUtil<>();
+    private final PoTenantu<Map<String, Zapis>> zatvoreniPeriodi = new PoTenantu<>(() -> new LinkedHashMap<>(16, 0.75f, true));
+    private final PoTenantu<AtomicLong> verzija = new PoTenantu<>(AtomicLong::new);
+
+    /**
+     * @param mere     Mere u obliku MERA:polje (npr. SUM:iznos), a COUNT moze i bez polja.
+     * @param doDatuma Prvi dan koji vise nije u intervalu, ili null ako interval nije ogranicen.
+     */
+    @Override
+    public List<AgregacijaResponse> agregiraj(List<DimenzijaFakture> dimenzije, List<String> mere, String search,
+                                              LocalDate od, LocalDate doDatuma) {
+        boolean zatvoren = doDatuma != null && !doDatuma.isAfter(YearMonth.now().atDay(1));
+        String kljuc = dimenzije + "|" + mere + "|" + search + "|" + od + "|" + doDatuma;
+        long pocetnaVerzija;
+        synchronized (zatvoreniPeriodi.get()) {
+            Zapis zapis = zatvoren ? zatvoreniPeriodi.get().get(kljuc) : null;
+            if (zapis != null) {
+                return zapis.rezultat;
+            }
+            pocetnaVerzija = verzija.get().get();
+        }
+
+        List<AgregacijaResponse> rezultat = Collections.unmodifiableList(izracunaj(dimenzije, mere, search, od, doDatuma));
+        if (zatvoren) {
+            synchronized (zatvoreniPeriodi.get()) {
+                // Izmena potvrdjena tokom racunanja mozda nije usla u rezultat, pa se on ne cuva.
+                if (verzija.get().get() != pocetnaVerzija) {
+                    return rezultat;
+                }
+                zatvoreniPeriodi.get().put(kljuc, new Zapis(datum(od), datum(doDatuma), rezultat));
+                Iterator<Zapis> najstariji = zatvoreniPeriodi.get().values().iterator();
+                while (zatvoreniPeriodi.get().size() > velicinaKesa) {
+                    najstariji.next();
+                    najstariji.remove();
+                }
+            }
+        }
+        return rezultat;
+    }
+
+    /**
+     * Posle potvrde izmene ponistava rezultate ciji interval sadrzi datum fakture
+     * pre ili posle izmene.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFakturaEvent(FakturaEvent event) {
+        List<Date> datumi = event.getDatumi();
+        synchronized (zatvoreniPeriodi.get()) {
+            verzija.get().incrementAndGet();
+            zatvoreniPeriodi.get().values().removeIf(zapis -> datumi.stream().anyMatch(zapis::sadrzi));
+        }
+    }
+
+    private List<AgregacijaResponse> izracunaj(List<DimenzijaFakture> dimenzije, List<String> mere, String search,
+                                               LocalDate od, LocalDate doDatuma) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Faktura> root = query.from(Faktura.class);
+        Path<Date> datumIzdavanja = root.get("datumIzdavanja");
+
+        List<Expression<?>> grupisanje = new ArrayList<>();
+        List<Integer> pocetakDimenzije = new ArrayList<>();
+        for (DimenzijaFakture dimenzija : dimenzije) {
+            pocetakDimenzije.add(grupisanje.size());
+            grupisanje.addAll(izrazi(dimenzija, root, datumIzdavanja, cb));
+        }
+        List<Selection<?>> kolone = new ArrayList<>(grupisanje);
+        for (String mera : mere) {
+            kolone.add(mera(mera, root, cb));
+        }
+
+        List<Predicate> uslovi = new ArrayList<>();
+        if (search != null && !search.isBlank()) {
+            uslovi.add(searchUtil.getSpec(search).toPredicate(root, query, cb));
+        }
+        if (od != null) {
+            uslovi.add(cb.greaterThanOrEqualTo(datumIzdavanja, datum(od)));
+        }
+        if (doDatuma != null) {
+            uslovi.add(cb.lessThan(datumIzdavanja, datum(doDatuma)));
+        }
+
+        query.multiselect(kolone).where(uslovi.toArray(new Predicate[0]));
+        if (!grupisanje.isEmpty()) {
+            query.groupBy(grupisanje);
+            List<Order> redosled = new ArrayList<>();
+            grupisanje.forEach(izraz -> redosled.add(cb.asc(izraz)));
+            query.orderBy(redosled);
+        }
+
+        List<AgregacijaResponse> rezultat = new ArrayList<>();
+        for (Tuple red : entityManager.createQuery(query).getResultList()) {
+            Map<String, Object> grupa = new LinkedHashMap<>();
+            for (int i = 0; i < dimenzije.size(); i++) {
+                grupa.put(dimenzije.get(i).name(), vrednost(dimenzije.get(i), red, pocetakDimenzije.get(i)));
+            }
+            Map<String, Number> vrednosti = new LinkedHashMap<>();
+            for (int i = 0; i < mere.size(); i++) {
+                vrednosti.put(mere.get(i), (Number) red.get(grupisanje.size() + i));
+            }
+            rezultat.add(new AgregacijaResponse(grupa, vrednosti));
+        }
+        return rezultat;
+    }
+
+    private static List<Expression<?>> izrazi(DimenzijaFakture dimenzija, Root<Faktura> root, Path<Date> datum, CriteriaBuilder cb) {
+        Expression<Integer> godina = cb.function("year", Integer.class, datum);
+        Expression<Integer> mesec = cb.function("month", Integer.class, datum);
+        switch (dimenzija) {
+            case GODINA:
+                return List.of(godina);
+            case KVARTAL:
+                return List.of(godina, cb.<Integer>selectCase()
+                        .when(cb.le(mesec, 3), 1)
+                        .when(cb.le(mesec, 6), 2)
+                        .when(cb.le(mesec, 9), 3)
+                        .otherwise(4));
+            case MESEC:
+                return List.of(godina, mesec);
+            case DAN:
+                return List.of(godina, mesec, cb.function("day", Integer.class, datum));
+            case TIP_FAKTURE:
+                return List.of(root.get("tipFakture"));
+            case TIP_DOKUMENTA:
+                return List.of(root.get("tipDokumenta"));
+            case VALUTA:
+                return List.of(root.get("valuta"));
+            case PREDUZECE:
+                return List.of(root.join("preduzece", JoinType.LEFT).get("preduzeceId"));
+            default:
+                return List.of(root.get("porezProcenat"));
+        }
+    }
+
+    private static Object vrednost(DimenzijaFakture dimenzija, Tuple red, int pocetak) {
+        switch (dimenzija) {
+            case KVARTAL:
+                return red.get(pocetak) + "-Q" + red.get(pocetak + 1);
+            case MESEC:
+                return YearMonth.of(broj(red, pocetak), broj(red, pocetak + 1)).toString();
+            case DAN:
+                return LocalDate.of(broj(red, pocetak), broj(red, pocetak + 1), broj(red, pocetak + 2)).toString();
+            default:
+                return red.get(pocetak);
+        }
+    }
+
+    private static Expression<? extends Number> mera(String mera, Root<Faktura> root, CriteriaBuilder cb) {
+        String[] delovi = mera.split(":", 2);
+        Mera vrsta;
+        try {
+            vrsta = Mera.valueOf(delovi[0].trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new OperationNotSupportedException("Nepoznata mera " + delovi[0]);
+        }
+        if (delovi.length == 1) {
+            if (vrsta != Mera.COUNT) {
+                throw new OperationNotSupportedException("Mera " + vrsta + " zahteva polje, npr. " + vrsta + ":iznos");
+            }
+            return cb.count(root);
+        }
+
+        Path<Double> polje;
+        try {
+            polje = root.get(delovi[1].trim());
+        } catch (IllegalArgumentException e) {
+            throw new OperationNotSupportedException("Nepoznato polje " + delovi[1]);
+        }
+        if (polje.getJavaType() != Double.class) {
+            throw new OperationNotSupportedException("Polje " + delovi[1] + " nije iznos");
+        }
+        switch (vrsta) {
+            case SUM:
+                return cb.sum(polje);
+            case COUNT:
+                return cb.count(polje);
+            case AVG:
+                return cb.avg(polje);
+            case MIN:
+                return cb.min(polje);
+            default:
+                return cb.max(polje);
+        }
+    }
+
+    private static int broj(Tuple red, int indeks) {
+        return ((Number) red.get(indeks)).intValue();
+    }
+
+    private static Date datum(LocalDate dan) {
+        return dan == null ? null : Date.from(dan.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static final class Zapis {
+        private final Date od;
+        private final Date doDatuma;
+        private final List<AgregacijaResponse> rezultat;
+
+        Zapis(Date od, Date doDatuma, List<AgregacijaResponse> rezultat) {
+            this.od = od;
+            this.doDatuma = doDatuma;
+            this.rezultat = rezultat;
+        }
+
+        boolean sadrzi(Date datum) {
+            return (od == null || !datum.before(od)) && datum.before(doDatuma);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package rs.raf.demo.services.impl;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import rs.raf.demo.events.FakturaEvent;
+import rs.raf.demo.model.Faktura;
+import rs.raf.demo.model.enums.TipDokumenta;
+import rs.raf.demo.model.enums.TipFakture;
+import rs.raf.demo.repositories.FakturaRepository;
+import rs.raf.demo.services.IFakturaIndeksService;
+import rs.raf.demo.utils.BitmapIndeks;
+import rs.raf.demo.utils.TenantKontekst;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.*;
+
+/**
+ * Bitmap indeksi nad fakturama za atribute sa malim brojem vrednosti: tip
+ * fakture, valuta, tip dokumenta, preduzece i mesec izdavanja. Uslovi pretrage
+ * nad tim atributima se ukrste u memoriji, pa baza dobija samo skup id-jeva
+ * kandidata uz originalne uslove. Kandidati su uvek nadskup tacnog rezultata,
+ * pa je rezultat isti kao bez indeksa.
+ * <p>
+ * Indeksi se azuriraju posle commit-a, pa faktura koja je upravo sacuvana moze
+ * za trenutak da izostane iz rezultata pretrage. Bitmape drze int id-jeve, pa
+ * kada id fakture izadje iz tog opsega indeksi se iskljucuju i pretraga ide
+ * samo u bazu.
+ */
+@Service
+public class FakturaIndeksService implements IFakturaIndeksService {
+
+    private static final List<String> OPERACIJE = Arrays.asList(">", "<", ":");
+
+    /**
+     * Znaci koji u LIKE obrascu ne predstavljaju sami sebe.
+     */
+    private static final String DZOKERI = "_%\\";
+
+    private final Logger log = LoggerFactory.getLogger(FakturaIndeksService.class);
+
+    private final FakturaRepository fakturaRepository;
+    private final int maxKandidata;
+    private final int serija;
+
+    private final BitmapIndeks<TipFakture> tipFakture = new BitmapIndeks<>();
+    private final BitmapIndeks<String> valuta = new BitmapIndeks<>();
+    private final BitmapIndeks<TipDokumenta> tipDokumenta = new BitmapIndeks<>();
+    private final BitmapIndeks<Long> preduzece = new BitmapIndeks<>();
+    private final BitmapIndeks<Integer> mesec = new BitmapIndeks<>();
+    private volatile boolean spreman;
+
+    @Autowired
+    public FakturaIndeksService(FakturaRepository fakturaRepository,
+                                @Value("${faktura.indeks.max-kandidata:5000}") int maxKandidata,
+                                @Value("${faktura.indeks.serija:10000}") int serija) {
+        this.fakturaRepository = fakturaRepository;
+        this.maxKandidata = maxKandidata;
+        this.serija = serija;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void izgradi() {
+        long poslednji = 0;
+        int ukupno = 0;
+        List<Object[]> redovi;
+        do {
+            redovi = fakturaRepository.findAtributeZaIndeks(poslednji, PageRequest.of(0, serija));
+            for (Object[] red : redovi) {
+                poslednji = (Long) red[0];
+                if (poslednji > Integer.MAX_VALUE) {
+                    log.warn("Id fakture {} je van opsega bitmap indeksa, pretraga ide bez indeksa", poslednji);
+                    return;
+                }
+                int id = (int) poslednji;
+                tipFakture.dodaj(id, (TipFakture) red[1]);
+                valuta.dodaj(id, (String) red[2]);
+                tipDokumenta.dodaj(id, (TipDokumenta) red[3]);
+                preduzece.dodaj(id, (Long) red[4]);
+                mesec.dodaj(id, mesec((Date) red[5]));
+                ukupno++;
+            }
+        } while (redovi.size() == serija);
+        spreman = true;
+        log.info("Bitmap indeksi faktura izgradjeni za {} faktura", ukupno);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onFakturaEvent(FakturaEvent event) {
+        if (!TenantKontekst.isPodrazumevani()) {
+            return;
+        }
+        if (event.getDokumentId() > Integer.MAX_VALUE) {
+            if (spreman) {
+                log.warn("Id fakture {} je van opsega bitmap indeksa, pretraga ide bez indeksa", event.getDokumentId());
+            }
+            spreman = false;
+            return;
+        }
+        int id = event.getDokumentId().intValue();
+        if (event.isObrisana()) {
+            tipFakture.ukloni(id);
+            valuta.ukloni(id);
+            tipDokumenta.ukloni(id);
+            preduzece.ukloni(id);
+            mesec.ukloni(id);
+            return;
+        }
+        Faktura faktura = event.getFaktura();
+        tipFakture.postavi(id, faktura.getTipFakture());
+        valuta.postavi(id, faktura.getValuta());
+        tipDokumenta.postavi(id, faktura.getTipDokumenta());
+        preduzece.postavi(id, faktura.getPreduzece() == null ? null : faktura.getPreduzece().getPreduzeceId());
+        mesec.postavi(id, mesec(faktura.getDatumIzdavanja()));
+    }
+
+    @Override
+    public Optional<RoaringBitmap> kandidati(String search) {
+        // Indeksi su izgradjeni iz podrazumevane seme; ostali tenanti idu direktno u bazu.
+        if (!spreman || !TenantKontekst.isPodrazumevani()) {
+            return Optional.empty();
+        }
+        RoaringBitmap kandidati = null;
+        for (String uslov : search.split(",")) {
+            String[] delovi = uslov.split(String.format("((?=%1$s)|(?<=%1$s))", String.join("|", OPERACIJE)));
+            if (delovi.length != 3 || !OPERACIJE.contains(delovi[1])) {
+                continue;
+            }
+            RoaringBitmap bitmapa = bitmapa(delovi[0], delovi[1], delovi[2]);
+            if (bitmapa != null) {
+                kandidati = kandidati == null ? bitmapa : RoaringBitmap.and(kandidati, bitmapa);
+            }
+        }
+        return Optional.ofNullable(kandidati);
+    }
+
+    /**
+     * Pretraga faktura koja pre upita u bazi suzi skup kandidata indeksima. Ako
+     * kandidata nema, baza se ne pita; ako ih ima previse za IN listu, upit ide
+     * samo sa originalnim uslovima.
+     */
+    @Override
+    public List<Faktura> findAll(Specification<Faktura> spec, String search) {
+        Optional<RoaringBitmap> kandidati = kandidati(search);
+        if (kandidati.isEmpty() || kandidati.get().getCardinality() > maxKandidata) {
+            return fakturaRepository.findAll(spec);
+        }
+        if (kandidati.get().isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> ids = new ArrayList<>(kandidati.get().getCardinality());
+        kandidati.get().forEach((int id) -> ids.add((long) id));
+        Specification<Faktura> uKandidatima = (root, query, builder) -> root.get("dokumentId").in(ids);
+        return fakturaRepository.findAll(uKandidatima.and(spec));
+    }
+
+    /**
+     * @return Bitmapa redova koji mogu da zadovolje uslov, ili null ako atribut nije indeksiran.
+     */
+    private RoaringBitmap bitmapa(String kljuc, String operacija, String vrednost) {
+        try {
+            switch (kljuc) {
+                case "tipFakture":
+                    return ":".equals(operacija) ? tipFakture.jednako(TipFakture.valueOf(vrednost)) : null;
+                case "tipDokumenta":
+                    return ":".equals(operacija) ? tipDokumenta.jednako(TipDokumenta.valueOf(vrednost)) : null;
+                case "valuta":
+                    // Baza poredi sa LIKE, pa se vrednost sa dzokerima ostavlja njoj.
+                    if (!":".equals(operacija) || vrednost.chars().anyMatch(c -> DZOKERI.indexOf(c) >= 0)) {
+                        return null;
+                    }
+                    String trazeno = vrednost.toLowerCase(Locale.ROOT);
+                    return valuta.gde(v -> v.toLowerCase(Locale.ROOT).contains(trazeno));
+                case "preduzece":
+                    return interval(preduzece, operacija, Long.parseLong(vrednost));
+                case "datumIzdavanja":
+                    return interval(mesec, operacija, mesec(new Date(Long.parseLong(vrednost) * 1000L)));
+                default:
+                    return null;
+            }
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static <V extends Comparable<V>> RoaringBitmap interval(BitmapIndeks<V> indeks, String operacija, V vrednost) {
+        switch (operacija) {
+            case ">":
+                return indeks.izmedju(vrednost, null);
+            case "<":
+                return indeks.izmedju(null, vrednost);
+            default:
+                return indeks.jednako(vrednost);
+        }
+    }
+
+    private static Integer mesec(Date datum) {
+        if (datum == null) {
+            return null;
+        }
+        ZonedDateTime vreme = datum.toInstant().atZone(ZoneId.systemDefault());
+        return vreme.getYear() * 100 + vreme.getMonthValue();
+    }
+}
@@ -1,28 +1,66 @@
 package rs.raf.demo.services.impl;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import rs.raf.demo.events.FakturaEvent;
+import rs.raf.demo.exceptions.DuplikatException;
+import rs.raf.demo.exceptions.OperationNotSupportedException;
 import rs.raf.demo.model.Faktura;
+import rs.raf.demo.model.OutboxDogadjaj;
+import rs.raf.demo.model.enums.KursNaDan;
+import rs.raf.demo.model.enums.TipDokumenta;
 
 import rs.raf.demo.model.enums.TipFakture;
 import rs.raf.demo.repositories.FakturaRepository;
+import rs.raf.demo.repositories.KnjizenjeRepository;
+import rs.raf.demo.repositories.OutboxDogadjajRepository;
+import rs.raf.demo.repositories.StavkaIzvodaRepository;
+import rs.raf.demo.responses.ImportFakturaResponse;
 import rs.raf.demo.services.IFakturaService;
 import rs.raf.demo.utils.FakturaUtil;
+import rs.raf.demo.utils.Novac;
 import rs.raf.demo.utils.Utils;
 
+import java.time.LocalDate;
 import java.util.*;
 
 @Service
 public class FakturaService implements IFakturaService {
 
     private final FakturaRepository fakturaRepository;
+    private final BrojFaktureService brojFaktureService;
+    private final DuplikatFaktureService duplikatFaktureService;
+    private final OutboxDogadjajRepository outboxDogadjajRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final KursnaListaService kursnaListaService;
+    private final KnjizenjeRepository knjizenjeRepository;
+    private final ObracunskiPeriodService obracunskiPeriodService;
+    private final StavkaIzvodaRepository stavkaIzvodaRepository;
 
     @Autowired
-    public FakturaService(FakturaRepository fakturaRepository) {
+    public FakturaService(FakturaRepository fakturaRepository,
+                          BrojFaktureService brojFaktureService,
+                          DuplikatFaktureService duplikatFaktureService,
+                          OutboxDogadjajRepository outboxDogadjajRepository,
+                          ApplicationEventPublisher eventPublisher,
+                          KursnaListaService kursnaListaService,
+                          KnjizenjeRepository knjizenjeRepository,
+                          ObracunskiPeriodService obracunskiPeriodService,
+                          StavkaIzvodaRepository stavkaIzvodaRepository) {
         this.fakturaRepository = fakturaRepository;
+        this.brojFaktureService = brojFaktureService;
+        this.duplikatFaktureService = duplikatFaktureService;
+        this.outboxDogadjajRepository = outboxDogadjajRepository;
+        this.eventPublisher = eventPublisher;
+        this.kursnaListaService = kursnaListaService;
+        this.knjizenjeRepository = knjizenjeRepository;
+        this.obracunskiPeriodService = obracunskiPeriodService;
+        this.stavkaIzvodaRepository = stavkaIzvodaRepository;
     }
 
     public List<Faktura> findAll(){
@@ -54,6 +92,43 @@ public class FakturaService implements IFakturaService {
         return sume;
     }
 
+    /**
+     * Sume faktura preracunate u zadatu valutu. Baza grupise fakture po valuti i danu
+     * izdavanja, pa se kurs trazi jednom po grupi umesto za svaku fakturu.
+     */
+    @Override
+    public Map<String, Double> getSume(String tipFakture, String valuta, KursNaDan kursNaDan) {
+        TipFakture tip = TipFakture.valueOf(tipFakture);
+        long danIzvestaja = LocalDate.now().toEpochDay();
+        int skala = Novac.skala(valuta);
+        long sumaPorez = 0;
+        long sumaProdajnaVrednost = 0;
+        long sumaRabat = 0;
+        long sumaZaNaplatu = 0;
+
+        // Svaka grupa se zaokruzuje na jedinice ciljne valute, pa zbir ne zavisi od redosleda grupa.
+        for (Object[] red : fakturaRepository.findSumePoValutiIDanu(tip)) {
+            String izValute = (String) red[0];
+            long dan = kursNaDan == KursNaDan.DATUM_IZVESTAJA ? danIzvestaja
+                    : LocalDate.of((Integer) red[1], (Integer) red[2], (Integer) red[3]).toEpochDay();
+            sumaPorez += Novac.uJedinice(kursnaListaService.konvertuj(broj(red[4]), izValute, valuta, dan), skala);
+            sumaProdajnaVrednost += Novac.uJedinice(kursnaListaService.konvertuj(broj(red[5]), izValute, valuta, dan), skala);
+            sumaRabat += Novac.uJedinice(kursnaListaService.konvertuj(broj(red[6]), izValute, valuta, dan), skala);
+            sumaZaNaplatu += Novac.uJedinice(kursnaListaService.konvertuj(broj(red[7]), izValute, valuta, dan), skala);
+        }
+
+        Map<String, Double> sume = new HashMap<>();
+        sume.put("sumaPorez", Novac.uIznos(sumaPorez, skala));
+        sume.put("sumaProdajnaVrednost", Novac.uIznos(sumaProdajnaVrednost, skala));
+        sume.put("sumaRabat", Novac.uIznos(sumaRabat, skala));
+        sume.put("sumaZaNaplatu", Novac.uIznos(sumaZaNaplatu, skala));
+        return sume;
+    }
+
+    private static double broj(Object vrednost) {
+        return vrednost == null ? 0 : ((Number) vrednost).doubleValue();
+    }
+
     private Double calculateSumPorez(TipFakture tipFakture) {
         List<Double> fakture = fakturaRepository.findPorezForTipFakture(tipFakture);
         return Utils.sum(fakture);
@@ -78,23 +153,80 @@ public class FakturaService implements IFakturaService {
         return fakturaRepository.findByDokumentId(id);
     }
 
+    @Transactional
     public Faktura save(Faktura faktura){
-        Double prodajnaVrednost = faktura.getProdajnaVrednost();
-        Double rabatProcenat = faktura.getRabatProcenat();
-        Double porezProcenat = faktura.getPorezProcenat();
+        if (faktura.getDokumentId() == null && duplikatFaktureService.jeDuplikat(faktura)) {
+            throw new DuplikatException(String.format("Faktura %s vec postoji", faktura.getBrojFakture()));
+        }
+        return sacuvaj(faktura);
+    }
 
-        Double rabat = FakturaUtil.calculateRabat(prodajnaVrednost, rabatProcenat);
-        Double porez = FakturaUtil.calculatePorez(prodajnaVrednost, rabat, porezProcenat);
-        Double iznos = FakturaUtil.calculateIznos(prodajnaVrednost, rabat, porez);
+    @Override
+    @Transactional
+    public ImportFakturaResponse importuj(List<Faktura> fakture) {
+        int sacuvano = 0;
+        List<String> duplikati = new ArrayList<>();
+        for (Faktura faktura : fakture) {
+            if (faktura.getDokumentId() == null && duplikatFaktureService.jeDuplikat(faktura)) {
+                duplikati.add(faktura.getBrojFakture());
+                continue;
+            }
+            sacuvaj(faktura);
+            sacuvano++;
+        }
+        return new ImportFakturaResponse(sacuvano, duplikati);
+    }
+
+    private Faktura sacuvaj(Faktura faktura) {
+        int skala = Novac.skala(faktura.getValuta());
+        long prodajnaVrednost = Novac.uJedinice(faktura.getProdajnaVrednost(), skala);
+        long rabat = FakturaUtil.rabat(prodajnaVrednost, faktura.getRabatProcenat());
+        long porez = FakturaUtil.porez(prodajnaVrednost, rabat, faktura.getPorezProcenat());
+
+        faktura.setProdajnaVrednost(Novac.uIznos(prodajnaVrednost, skala));
+        faktura.setRabat(Novac.uIznos(rabat, skala));
+        faktura.setPorez(Novac.uIznos(porez, skala));
+        faktura.setIznos(Novac.uIznos(FakturaUtil.iznos(prodajnaVrednost, rabat, porez), skala));
+
+        Optional<Faktura> prethodna = faktura.getDokumentId() == null ? Optional.empty() : fakturaRepository.findById(faktura.getDokumentId());
+        Date prethodniDatum = prethodna.map(Faktura::getDatumIzdavanja).orElse(null);
+        TipFakture prethodniTip = prethodna.map(Faktura::getTipFakture).orElse(null);
 
-        faktura.setRabat(rabat);
-        faktura.setPorez(porez);
-        faktura.setIznos(iznos);
+        if (faktura.getDokumentId() == null && (faktura.getBrojFakture() == null || faktura.getBrojFakture().isBlank())) {
+            faktura.setBrojFakture(brojFaktureService.sledeciBroj(faktura));
+        }
 
-        return fakturaRepository.save(faktura);
+        Faktura sacuvana = fakturaRepository.save(faktura);
+        duplikatFaktureService.zabelezi(sacuvana);
+
+        zabeleziDogadjaj(sacuvana.getDokumentId(), false);
+
+        eventPublisher.publishEvent(new FakturaEvent(sacuvana.getDokumentId(), sacuvana, prethodniDatum, prethodniTip));
+        return sacuvana;
     }
 
+    /**
+     * Knjizenje fakture pokazuje na nju, pa fakturu brise dispecer automatskog knjizenja,
+     * posle uklanjanja njenog knjizenja i po redosledu ostalih dogadjaja za nju.
+     * Faktura cije je knjizenje u zatvorenoj godini i faktura uparena sa izvodom se ne mogu obrisati.
+     */
+    @Transactional
     public void deleteById(Long id) {
-        fakturaRepository.deleteById(id);
+        if (stavkaIzvodaRepository.existsByFakturaDokumentId(id)) {
+            throw new OperationNotSupportedException("Faktura je uparena sa stavkom izvoda i ne moze se obrisati");
+        }
+        knjizenjeRepository.findFirstByDokumentDokumentId(id).ifPresent(
+                knjizenje -> obracunskiPeriodService.proveri(Collections.singletonList(knjizenje.getDatumKnjizenja())));
+        zabeleziDogadjaj(id, true);
+    }
+
+    private void zabeleziDogadjaj(Long dokumentId, boolean brisanje) {
+        OutboxDogadjaj dogadjaj = new OutboxDogadjaj();
+        dogadjaj.setDokumentId(dokumentId);
+        dogadjaj.setTipDokumenta(TipDokumenta.FAKTURA);
+        dogadjaj.setKreiran(new Date());
+        dogadjaj.setObradjen(false);
+        dogadjaj.setBrisanje(brisanje);
+        outboxDogadjajRepository.save(dogadjaj);
     }
 }
@@ -0,0 +1,87 @@
+package rs.raf.demo.services.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.raf.demo.events.KnjizenjeEvent;
+import rs.raf.demo.model.GlavnaKnjigaStavka;
+import rs.raf.demo.repositories.GlavnaKnjigaStavkaRepository;
+import rs.raf.demo.repositories.KontoRepository;
+import rs.raf.demo.responses.GlavnaKnjigaResponse;
+import rs.raf.demo.services.IGlavnaKnjigaService;
+import rs.raf.demo.services.ITenantService;
+
+/**
+ * Glavna knjiga iz tabele za citanje. Posle svake izmene knjizenja njegove
+ * stavke se brisu i ponovo prepisuju jednim insert-select upitom.
+ */
+@Service
+public class GlavnaKnjigaService implements IGlavnaKnjigaService {
+
+    private final Logger log = LoggerFactory.getLogger(GlavnaKnjigaService.class);
+
+    private final GlavnaKnjigaStavkaRepository glavnaKnjigaStavkaRepository;
+    private final KontoRepository kontoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ITenantService tenantService;
+
+    @Autowired
+    public GlavnaKnjigaService(GlavnaKnjigaStavkaRepository glavnaKnjigaStavkaRepository,
+                               KontoRepository kontoRepository,
+                               PlatformTransactionManager transactionManager,
+                               TenantService tenantService) {
+        this.glavnaKnjigaStavkaRepository = glavnaKnjigaStavkaRepository;
+        this.kontoRepository = kontoRepository;
+        this.tenantService = tenantService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void pripremi() {
+        tenantService.zaSvakog(this::pripremiTenant);
+    }
+
+    private void pripremiTenant() {
+        if (glavnaKnjigaStavkaRepository.count() != kontoRepository.count()) {
+            Integer preneto = transactionTemplate.execute(status -> {
+                glavnaKnjigaStavkaRepository.deleteAllInBatch();
+                return glavnaKnjigaStavkaRepository.prenesiSve();
+            });
+            log.info("Glavna knjiga obnovljena sa {} stavki", preneto);
+        }
+    }
+
+    @Override
+    public Page<GlavnaKnjigaResponse> findAll(Specification<GlavnaKnjigaStavka> spec, Pageable pageSort) {
+        return glavnaKnjigaStavkaRepository.findAll(spec, pageSort).map(stavka -> new GlavnaKnjigaResponse(
+                stavka.getBrojNaloga(),
+                stavka.getDatum(),
+                stavka.getPotrazuje(),
+                stavka.getDuguje(),
+                stavka.getSaldo(),
+                stavka.getNazivKonta(),
+                stavka.getKonto()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onKnjizenjeEvent(KnjizenjeEvent event) {
+        if (event.getKnjizenjeId() == null) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            glavnaKnjigaStavkaRepository.obrisiNalog(event.getKnjizenjeId());
+            glavnaKnjigaStavkaRepository.prenesiNalog(event.getKnjizenjeId());
+        });
+    }
+}
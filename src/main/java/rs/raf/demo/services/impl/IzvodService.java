@@ -0,0 +1,284 @@
+package rs.raf.demo.services.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import rs.raf.demo.configuration.AutomatskoKnjizenjeProperties;
+import rs.raf.demo.events.FakturaEvent;
+import rs.raf.demo.events.KnjizenjeEvent;
+import rs.raf.demo.exceptions.OperationNotSupportedException;
+import rs.raf.demo.model.*;
+import rs.raf.demo.model.enums.TipDokumenta;
+import rs.raf.demo.model.enums.TipFakture;
+import rs.raf.demo.repositories.*;
+import rs.raf.demo.responses.ImportIzvodaResponse;
+import rs.raf.demo.services.IIzvodService;
+import rs.raf.demo.services.IKontnaGrupaService;
+import rs.raf.demo.utils.Novac;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Uvoz izvoda banke. Stavke se citaju red po red u formatu
+ * {@code datum;racunPartnera;pozivNaBroj;iznos}, pri cemu je pozitivan iznos
+ * uplata kupca a negativan isplata dobavljacu. Uplate se uparuju sa otvorenim
+ * fakturama preko hes tabele napravljene jednim upitom.
+ */
+@Service
+public class IzvodService implements IIzvodService {
+
+    private static final int SERIJA = 500;
+
+    private final IzvodRepository izvodRepository;
+    private final StavkaIzvodaRepository stavkaIzvodaRepository;
+    private final FakturaRepository fakturaRepository;
+    private final KnjizenjeRepository knjizenjeRepository;
+    private final KontoRepository kontoRepository;
+    private final IKontnaGrupaService kontnaGrupaService;
+    private final ObracunskiPeriodService obracunskiPeriodService;
+    private final AutomatskoKnjizenjeProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public IzvodService(IzvodRepository izvodRepository,
+                        StavkaIzvodaRepository stavkaIzvodaRepository,
+                        FakturaRepository fakturaRepository,
+                        KnjizenjeRepository knjizenjeRepository,
+                        KontoRepository kontoRepository,
+                        KontnaGrupaService kontnaGrupaService,
+                        ObracunskiPeriodService obracunskiPeriodService,
+                        AutomatskoKnjizenjeProperties properties,
+                        ApplicationEventPublisher eventPublisher) {
+        this.izvodRepository = izvodRepository;
+        this.stavkaIzvodaRepository = stavkaIzvodaRepository;
+        this.fakturaRepository = fakturaRepository;
+        this.knjizenjeRepository = knjizenjeRepository;
+        this.kontoRepository = kontoRepository;
+        this.kontnaGrupaService = kontnaGrupaService;
+        this.obracunskiPeriodService = obracunskiPeriodService;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public Izvod save(Izvod izvod) {
+        return izvodRepository.save(izvod);
+    }
+
+    @Override
+    public Optional<Izvod> findById(Long id) {
+        return izvodRepository.findById(id);
+    }
+
+    @Override
+    public List<Izvod> findAll() {
+        return izvodRepository.findAll();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        izvodRepository.deleteById(id);
+    }
+
+    @Override
+    @Transactional
+    public ImportIzvodaResponse importuj(String brojIzvoda, String racun, Date datumIzvoda, InputStream ulaz) {
+        Izvod izvod = new Izvod();
+        izvod.setTipDokumenta(TipDokumenta.IZVOD);
+        izvod.setBrojIzvoda(brojIzvoda);
+        izvod.setRacun(racun);
+        izvod.setDatumIzvoda(datumIzvoda == null ? new Date() : datumIzvoda);
+        izvod = izvodRepository.save(izvod);
+
+        // Knjizenje izvoda se pravi tek uz prvu uparenu uplatu, da izvod bez uparivanja ne ostavi prazno knjizenje.
+        Knjizenje knjizenje = null;
+        Map<String, Deque<Faktura>> tacno = new HashMap<>();
+        Map<String, Deque<Faktura>> poPozivu = new HashMap<>();
+        for (Faktura faktura : fakturaRepository.findOtvoreneSaRacunom()) {
+            tacno.computeIfAbsent(kljuc(faktura, faktura.getBrojFakture(), preostaloUParama(faktura)), k -> new ArrayDeque<>()).add(faktura);
+            poPozivu.computeIfAbsent(kljuc(faktura, faktura.getBrojFakture(), null), k -> new ArrayDeque<>()).add(faktura);
+        }
+
+        int brojStavki = 0;
+        int uparenih = 0;
+        List<StavkaIzvoda> stavke = new ArrayList<>(SERIJA);
+        List<Konto> konta = new ArrayList<>(SERIJA * 2);
+        Map<Long, Faktura> izmenjene = new LinkedHashMap<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(ulaz, StandardCharsets.UTF_8))) {
+            String linija;
+            while ((linija = reader.readLine()) != null) {
+                StavkaIzvoda stavka = parsiraj(linija);
+                if (stavka == null) {
+                    continue;
+                }
+                stavka.setIzvod(izvod);
+                brojStavki++;
+
+                Faktura faktura = upari(stavka, tacno, poPozivu);
+                if (faktura != null) {
+                    uparenih++;
+                    if (knjizenje == null) {
+                        knjizenje = knjizenje(izvod);
+                    }
+                    stavka.setFaktura(faktura);
+                    izmenjene.put(faktura.getDokumentId(), faktura);
+                    konta.addAll(proknjizi(knjizenje, faktura, Novac.uJedinice(Math.abs(stavka.getIznos()), Novac.PODRAZUMEVANA_SKALA)));
+                }
+                stavke.add(stavka);
+
+                if (stavke.size() >= SERIJA) {
+                    sacuvajSeriju(stavke, konta, izmenjene);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        sacuvajSeriju(stavke, konta, izmenjene);
+        if (knjizenje != null) {
+            eventPublisher.publishEvent(new KnjizenjeEvent(knjizenje.getKnjizenjeId(),
+                    Collections.singletonList(knjizenje.getDatumKnjizenja())));
+        }
+
+        return new ImportIzvodaResponse(izvod.getDokumentId(), brojStavki, uparenih, brojStavki - uparenih);
+    }
+
+    private Knjizenje knjizenje(Izvod izvod) {
+        Knjizenje knjizenje = new Knjizenje();
+        knjizenje.setDokument(izvod);
+        knjizenje.setDatumKnjizenja(obracunskiPeriodService.uOtvoreniPeriod(izvod.getDatumIzvoda()));
+        return knjizenjeRepository.save(knjizenje);
+    }
+
+    private void sacuvajSeriju(List<StavkaIzvoda> stavke, List<Konto> konta, Map<Long, Faktura> izmenjene) {
+        fakturaRepository.saveAll(izmenjene.values());
+        izmenjene.values().forEach(f -> eventPublisher.publishEvent(new FakturaEvent(f.getDokumentId(), f, f.getDatumIzdavanja(), f.getTipFakture())));
+        stavkaIzvodaRepository.saveAll(stavke);
+        kontoRepository.saveAll(konta);
+        stavke.clear();
+        konta.clear();
+        izmenjene.clear();
+    }
+
+    private Faktura upari(StavkaIzvoda stavka, Map<String, Deque<Faktura>> tacno, Map<String, Deque<Faktura>> poPozivu) {
+        TipFakture tip = stavka.getIznos() >= 0 ? TipFakture.IZLAZNA_FAKTURA : TipFakture.ULAZNA_FAKTURA;
+        long pare = Novac.uJedinice(Math.abs(stavka.getIznos()), Novac.PODRAZUMEVANA_SKALA);
+        String racun = normalizujRacun(stavka.getRacunPartnera());
+
+        Deque<Faktura> kandidati = tacno.get(kljuc(tip, racun, stavka.getPozivNaBroj(), pare));
+        Faktura faktura = kandidati == null ? null : kandidati.pollFirst();
+        if (faktura == null) {
+            // Delimicna uplata: poziv na broj se poklapa, a iznos ne prelazi preostali dug.
+            Deque<Faktura> poPozivuKandidati = poPozivu.get(kljuc(tip, racun, stavka.getPozivNaBroj(), null));
+            faktura = poPozivuKandidati == null ? null : poPozivuKandidati.stream()
+                    .filter(f -> preostaloUParama(f) >= pare)
+                    .findFirst()
+                    .orElse(null);
+            if (faktura == null) {
+                return null;
+            }
+            Deque<Faktura> stari = tacno.get(kljuc(faktura, faktura.getBrojFakture(), preostaloUParama(faktura)));
+            if (stari != null) {
+                stari.remove(faktura);
+            }
+        }
+
+        naplati(faktura, pare);
+        if (preostaloUParama(faktura) > 0) {
+            tacno.computeIfAbsent(kljuc(faktura, faktura.getBrojFakture(), preostaloUParama(faktura)), k -> new ArrayDeque<>()).add(faktura);
+        } else {
+            poPozivu.get(kljuc(faktura, faktura.getBrojFakture(), null)).remove(faktura);
+        }
+        return faktura;
+    }
+
+    private List<Konto> proknjizi(Knjizenje knjizenje, Faktura faktura, long pare) {
+        double iznos = Novac.uIznos(pare, Novac.PODRAZUMEVANA_SKALA);
+        if (faktura.getTipFakture() == TipFakture.ULAZNA_FAKTURA) {
+            return List.of(stavka(knjizenje, properties.getDobavljaci(), iznos, 0.0),
+                           stavka(knjizenje, properties.getTekuciRacun(), 0.0, iznos));
+        }
+        return List.of(stavka(knjizenje, properties.getTekuciRacun(), iznos, 0.0),
+                       stavka(knjizenje, properties.getKupci(), 0.0, iznos));
+    }
+
+    private Konto stavka(Knjizenje knjizenje, String brojKonta, double duguje, double potrazuje) {
+        Konto konto = new Konto();
+        konto.setKnjizenje(knjizenje);
+        konto.setKontnaGrupa(kontnaGrupaService.findOrCreate(brojKonta));
+        konto.setDuguje(duguje);
+        konto.setPotrazuje(potrazuje);
+        return konto;
+    }
+
+    private StavkaIzvoda parsiraj(String linija) {
+        if (linija.isBlank() || !Character.isDigit(linija.trim().charAt(0))) {
+            return null;
+        }
+        String[] polja = linija.split(";", -1);
+        if (polja.length != 4) {
+            throw new OperationNotSupportedException("Lose formatirana stavka izvoda " + linija);
+        }
+        try {
+            StavkaIzvoda stavka = new StavkaIzvoda();
+            LocalDate datum = LocalDate.parse(polja[0].trim());
+            stavka.setDatum(Date.from(datum.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+            stavka.setRacunPartnera(polja[1].trim());
+            stavka.setPozivNaBroj(polja[2].trim());
+            stavka.setIznos(Double.parseDouble(polja[3].trim()));
+            return stavka;
+        } catch (RuntimeException e) {
+            throw new OperationNotSupportedException("Lose formatirana stavka izvoda " + linija);
+        }
+    }
+
+    /**
+     * Uplatu u dinarskim parama preracunava u jedinice valute fakture. Uplata koja pokriva
+     * preostali dug zatvara fakturu tacno, bez ostatka od zaokruzivanja kursa.
+     */
+    private static void naplati(Faktura faktura, long pare) {
+        int skala = Novac.skala(faktura.getValuta());
+        long iznos = Novac.uJedinice(faktura.getIznos(), skala);
+        long naplata = Novac.uJedinice(faktura.getNaplata(), skala);
+        if (pare >= preostaloUParama(faktura)) {
+            naplata = iznos;
+        } else {
+            naplata = Math.min(iznos, naplata + Novac.uJedinice(Novac.uIznos(pare, Novac.PODRAZUMEVANA_SKALA) / kurs(faktura), skala));
+        }
+        faktura.setNaplata(Novac.uIznos(naplata, skala));
+    }
+
+    /**
+     * @return Preostali dug fakture u dinarskim parama.
+     */
+    private static long preostaloUParama(Faktura faktura) {
+        int skala = Novac.skala(faktura.getValuta());
+        long preostalo = Novac.uJedinice(faktura.getIznos(), skala) - Novac.uJedinice(faktura.getNaplata(), skala);
+        return Novac.konvertuj(preostalo, skala, kurs(faktura), Novac.PODRAZUMEVANA_SKALA);
+    }
+
+    private static double kurs(Faktura faktura) {
+        return faktura.getKurs() == null || faktura.getKurs() == 0 ? 1.0 : faktura.getKurs();
+    }
+
+    private static String kljuc(Faktura faktura, String pozivNaBroj, Long pare) {
+        return kljuc(faktura.getTipFakture(), normalizujRacun(faktura.getPreduzece().getRacun()), pozivNaBroj, pare);
+    }
+
+    private static String kljuc(TipFakture tip, String racun, String pozivNaBroj, Long pare) {
+        return tip + "|" + racun + "|" + (pozivNaBroj == null ? "" : pozivNaBroj.trim()) + "|" + (pare == null ? "" : pare);
+    }
+
+    private static String normalizujRacun(String racun) {
+        return racun == null ? "" : racun.replaceAll("[^0-9]", "");
+    }
+}
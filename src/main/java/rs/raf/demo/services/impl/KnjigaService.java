@@ -0,0 +1,284 @@
+package rs.raf.demo.services.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import rs.raf.demo.configuration.KonsolidacijaProperties;
+import rs.raf.demo.events.KnjizenjeEvent;
+import rs.raf.demo.exceptions.OperationNotSupportedException;
+import rs.raf.demo.model.Knjiga;
+import rs.raf.demo.repositories.KnjigaRepository;
+import rs.raf.demo.repositories.KnjizenjeRepository;
+import rs.raf.demo.repositories.KontoRepository;
+import rs.raf.demo.responses.EliminacijaResponse;
+import rs.raf.demo.responses.KonsolidacijaResponse;
+import rs.raf.demo.responses.KonsolidacijaStavkaResponse;
+import rs.raf.demo.services.IKnjigaService;
+import rs.raf.demo.utils.Novac;
+import rs.raf.demo.utils.PoTenantu;
+import rs.raf.demo.utils.TenantKontekst;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityNotFoundException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Poslovne knjige pravnih lica iz grupe i konsolidovani bruto bilans. Salda
+ * svake knjige se racunaju paralelno, spajaju po broju konta i na kraju se
+ * primenjuju pravila eliminacije. Salda knjiga za protekle dane se cuvaju dok
+ * ne stigne knjizenje sa datumom do tog dana, pa nova knjiga u konsolidaciji
+ * zahteva samo jos jedan upit, a ne ponovno sabiranje svih knjiga. Po knjizi
+ * se cuva najvise konsolidacija.kes-dana dana; preko toga se izbacuje najraniji.
+ * Salda izracunata pre potvrde knjizenja koje ih ponistava se ne cuvaju.
+ */
+@Service
+public class KnjigaService implements IKnjigaService {
+
+    private final KnjigaRepository knjigaRepository;
+    private final KnjizenjeRepository knjizenjeRepository;
+    private final KontoRepository kontoRepository;
+    private final KonsolidacijaProperties properties;
+    private final ForkJoinPool izvrsilac;
+    private final PoTenantu<Map<Long, TreeMap<LocalDate, Map<String, long[]>>>> protekliDani = new PoTenantu<>(HashMap::new);
+    private final PoTenantu<AtomicLong> verzija = new PoTenantu<>(AtomicLong::new);
+
+    @Autowired
+    public KnjigaService(KnjigaRepository knjigaRepository, KnjizenjeRepository knjizenjeRepository,
+                         KontoRepository kontoRepository, KonsolidacijaProperties properties) {
+        this.knjigaRepository = knjigaRepository;
+        this.knjizenjeRepository = knjizenjeRepository;
+        this.kontoRepository = kontoRepository;
+        this.properties = properties;
+        this.izvrsilac = new ForkJoinPool(properties.getNiti());
+    }
+
+    @PreDestroy
+    public void zaustavi() {
+        izvrsilac.shutdownNow();
+    }
+
+    @Override
+    public Knjiga save(Knjiga knjiga) {
+        return knjigaRepository.save(knjiga);
+    }
+
+    @Override
+    public Optional<Knjiga> findById(Long id) {
+        return knjigaRepository.findById(id);
+    }
+
+    @Override
+    public List<Knjiga> findAll() {
+        return knjigaRepository.findAll();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        if (knjizenjeRepository.existsByKnjigaKnjigaId(id)) {
+            throw new OperationNotSupportedException("Knjiga ima knjizenja i ne moze se obrisati");
+        }
+        knjigaRepository.deleteById(id);
+        synchronized (protekliDani.get()) {
+            protekliDani.get().remove(id);
+        }
+    }
+
+    /**
+     * @param knjige     Knjige koje ulaze u konsolidaciju; ako je prazno, ulaze sve.
+     * @param saMaticnom Da li ulaze i knjizenja bez knjige (maticno preduzece).
+     */
+    @Override
+    public KonsolidacijaResponse getKonsolidacija(LocalDate naDan, List<Long> knjige, boolean saMaticnom) {
+        List<Long> ids = new ArrayList<>();
+        List<String> nazivi = new ArrayList<>();
+        if (saMaticnom) {
+            ids.add(null);
+            nazivi.add(properties.getMaticnaKnjiga());
+        }
+        List<Knjiga> izabrane = knjige.isEmpty() ? knjigaRepository.findAll() : knjigaRepository.findAllById(knjige);
+        if (izabrane.size() < new HashSet<>(knjige).size()) {
+            throw new EntityNotFoundException();
+        }
+        izabrane.sort(Comparator.comparing(Knjiga::getSifra));
+        for (Knjiga knjiga : izabrane) {
+            ids.add(knjiga.getKnjigaId());
+            nazivi.add(knjiga.getSifra());
+        }
+
+        TreeMap<String, Zbir> konta = new TreeMap<>(izvrsilac.invoke(new Sabiranje(TenantKontekst.get(), ids, nazivi, naDan)));
+        List<EliminacijaResponse> eliminacije = new ArrayList<>();
+        for (KonsolidacijaProperties.Eliminacija pravilo : properties.getEliminacije()) {
+            eliminacije.add(eliminisi(pravilo, konta));
+        }
+
+        List<KonsolidacijaStavkaResponse> stavke = new ArrayList<>();
+        konta.forEach((brojKonta, zbir) -> stavke.add(new KonsolidacijaStavkaResponse(brojKonta, zbir.poKnjigama,
+                iznos(zbir.duguje), iznos(zbir.potrazuje), iznos(zbir.eliminacija), iznos(zbir.saldo()))));
+        return new KonsolidacijaResponse(naDan, nazivi, stavke, eliminacije);
+    }
+
+    /**
+     * Posle potvrde knjizenja ponistava salda od njegovog dana nadalje.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onKnjizenjeEvent(KnjizenjeEvent event) {
+        synchronized (protekliDani.get()) {
+            verzija.get().incrementAndGet();
+            for (Date datum : event.getDatumi()) {
+                if (datum == null) {
+                    continue;
+                }
+                // Salda su kumulativna, pa izmena utice na sve kasnije dane, i to u svim knjigama
+                // jer dogadjaj ne nosi knjigu (a knjizenje je moglo i da promeni knjigu).
+                LocalDate dan = datum.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+                protekliDani.get().values().forEach(dani -> dani.tailMap(dan, true).clear());
+            }
+        }
+    }
+
+    /**
+     * @return Broj konta -> {duguje, potrazuje} u parama za knjigu, zakljucno sa datim danom.
+     */
+    private Map<String, long[]> salda(Long knjigaId, LocalDate naDan) {
+        boolean protekao = naDan.isBefore(LocalDate.now());
+        long pocetnaVerzija;
+        synchronized (protekliDani.get()) {
+            Map<String, long[]> salda = protekao ? protekliDani.get().getOrDefault(knjigaId, new TreeMap<>()).get(naDan) : null;
+            if (salda != null) {
+                return salda;
+            }
+            pocetnaVerzija = verzija.get().get();
+        }
+
+        Date kraj = Date.from(naDan.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        Map<String, long[]> salda = new HashMap<>();
+        for (Object[] red : kontoRepository.findPrometPoKontimaKnjigeDo(knjigaId, kraj)) {
+            salda.put((String) red[0], new long[]{pare(red[1]), pare(red[2])});
+        }
+        salda = Collections.unmodifiableMap(salda);
+        if (protekao) {
+            synchronized (protekliDani.get()) {
+                if (verzija.get().get() != pocetnaVerzija) {
+                    return salda;
+                }
+                TreeMap<LocalDate, Map<String, long[]>> dani = protekliDani.get().computeIfAbsent(knjigaId, id -> new TreeMap<>());
+                dani.put(naDan, salda);
+                while (dani.size() > properties.getKesDana()) {
+                    dani.pollFirstEntry();
+                }
+            }
+        }
+        return salda;
+    }
+
+    /**
+     * Ponistava dugovna salda konta sa prefiksom duguje i potrazna salda konta sa prefiksom
+     * potrazuje do manjeg od dva zbira, redom po broju konta.
+     */
+    private static EliminacijaResponse eliminisi(KonsolidacijaProperties.Eliminacija pravilo, TreeMap<String, Zbir> konta) {
+        long dugovni = 0;
+        long potrazni = 0;
+        for (Map.Entry<String, Zbir> konto : konta.entrySet()) {
+            long saldo = konto.getValue().saldo();
+            if (konto.getKey().startsWith(pravilo.getDuguje()) && saldo > 0) {
+                dugovni += saldo;
+            } else if (konto.getKey().startsWith(pravilo.getPotrazuje()) && saldo < 0) {
+                potrazni -= saldo;
+            }
+        }
+        long iznos = Math.min(dugovni, potrazni);
+        long preostaloDuguje = iznos;
+        long preostaloPotrazuje = iznos;
+        for (Map.Entry<String, Zbir> konto : konta.entrySet()) {
+            Zbir zbir = konto.getValue();
+            long saldo = zbir.saldo();
+            if (konto.getKey().startsWith(pravilo.getDuguje()) && saldo > 0 && preostaloDuguje > 0) {
+                long deo = Math.min(saldo, preostaloDuguje);
+                zbir.eliminacija += deo;
+                preostaloDuguje -= deo;
+            } else if (konto.getKey().startsWith(pravilo.getPotrazuje()) && saldo < 0 && preostaloPotrazuje > 0) {
+                long deo = Math.min(-saldo, preostaloPotrazuje);
+                zbir.eliminacija -= deo;
+                preostaloPotrazuje -= deo;
+            }
+        }
+        return new EliminacijaResponse(pravilo.getNaziv(), iznos(iznos), iznos(Math.abs(dugovni - potrazni)));
+    }
+
+    private static long pare(Object iznos) {
+        return Novac.uJedinice(((Number) iznos).doubleValue(), Novac.PODRAZUMEVANA_SKALA);
+    }
+
+    private static double iznos(long pare) {
+        return Novac.uIznos(pare, Novac.PODRAZUMEVANA_SKALA);
+    }
+
+    /**
+     * Deli knjige na polovine dok ne ostane jedna, a zbirove spaja po broju konta.
+     * Delovi se izvrsavaju na nitima pula, pa sa sobom nose tenant zahteva.
+     */
+    private final class Sabiranje extends RecursiveTask<Map<String, Zbir>> {
+
+        private final String tenant;
+        private final List<Long> knjige;
+        private final List<String> nazivi;
+        private final LocalDate naDan;
+
+        Sabiranje(String tenant, List<Long> knjige, List<String> nazivi, LocalDate naDan) {
+            this.tenant = tenant;
+            this.knjige = knjige;
+            this.nazivi = nazivi;
+            this.naDan = naDan;
+        }
+
+        @Override
+        protected Map<String, Zbir> compute() {
+            if (knjige.isEmpty()) {
+                return new HashMap<>();
+            }
+            if (knjige.size() == 1) {
+                Map<String, Zbir> konta = new HashMap<>();
+                TenantKontekst.uz(tenant, () -> salda(knjige.get(0), naDan).forEach((brojKonta, iznosi) -> {
+                    Zbir zbir = new Zbir();
+                    zbir.poKnjigama.put(nazivi.get(0), iznos(iznosi[0] - iznosi[1]));
+                    zbir.duguje = iznosi[0];
+                    zbir.potrazuje = iznosi[1];
+                    konta.put(brojKonta, zbir);
+                }));
+                return konta;
+            }
+
+            int sredina = knjige.size() / 2;
+            Sabiranje levo = new Sabiranje(tenant, knjige.subList(0, sredina), nazivi.subList(0, sredina), naDan);
+            Sabiranje desno = new Sabiranje(tenant, knjige.subList(sredina, knjige.size()), nazivi.subList(sredina, nazivi.size()), naDan);
+            levo.fork();
+            Map<String, Zbir> desniZbirovi = desno.compute();
+            Map<String, Zbir> konta = levo.join();
+            desniZbirovi.forEach((brojKonta, zbir) -> konta.merge(brojKonta, zbir, Zbir::dodaj));
+            return konta;
+        }
+    }
+
+    private static final class Zbir {
+        private final Map<String, Double> poKnjigama = new LinkedHashMap<>();
+        private long duguje;
+        private long potrazuje;
+        private long eliminacija;
+
+        private Zbir dodaj(Zbir drugi) {
+            poKnjigama.putAll(drugi.poKnjigama);
+            duguje += drugi.duguje;
+            potrazuje += drugi.potrazuje;
+            return this;
+        }
+
+        private long saldo() {
+            return duguje - potrazuje - eliminacija;
+        }
+    }
+}
@@ -1,17 +1,17 @@
 package rs.raf.demo.services.impl;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import rs.raf.demo.events.KnjizenjeEvent;
 import rs.raf.demo.model.Knjizenje;
 import rs.raf.demo.model.Konto;
 import rs.raf.demo.repositories.KnjizenjeRepository;
 import rs.raf.demo.services.IKnjizenjeService;
 
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
 
 import javax.persistence.EntityNotFoundException;
 
@@ -19,14 +19,28 @@ import javax.persistence.EntityNotFoundException;
 public class KnjizenjeService implements IKnjizenjeService {
 
     private final KnjizenjeRepository knjizenjeRepository;
+    private final ObracunskiPeriodService obracunskiPeriodService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public KnjizenjeService(KnjizenjeRepository knjizenjeRepository) {
+    public KnjizenjeService(KnjizenjeRepository knjizenjeRepository,
+                            ObracunskiPeriodService obracunskiPeriodService,
+                            ApplicationEventPublisher eventPublisher) {
         this.knjizenjeRepository = knjizenjeRepository;
+        this.obracunskiPeriodService = obracunskiPeriodService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
     public <S extends Knjizenje> S save(S knjizenje) {
-        return knjizenjeRepository.save(knjizenje);
+        List<Date> datumi = new ArrayList<>();
+        if (knjizenje.getKnjizenjeId() != null) {
+            knjizenjeRepository.findById(knjizenje.getKnjizenjeId()).ifPresent(staro -> datumi.add(staro.getDatumKnjizenja()));
+        }
+        datumi.add(knjizenje.getDatumKnjizenja());
+        obracunskiPeriodService.proveri(datumi);
+        S sacuvano = knjizenjeRepository.save(knjizenje);
+        eventPublisher.publishEvent(new KnjizenjeEvent(sacuvano.getKnjizenjeId(), datumi));
+        return sacuvano;
     }
 
     @Override
@@ -41,7 +55,11 @@ public class KnjizenjeService implements IKnjizenjeService {
 
     @Override
     public void deleteById(Long id) {
+        Optional<Knjizenje> knjizenje = knjizenjeRepository.findById(id);
+        knjizenje.ifPresent(staro -> obracunskiPeriodService.proveri(Collections.singletonList(staro.getDatumKnjizenja())));
         knjizenjeRepository.deleteById(id);
+        knjizenje.ifPresent(staro -> eventPublisher.publishEvent(
+                new KnjizenjeEvent(id, Collections.singletonList(staro.getDatumKnjizenja()))));
     }
 
     @Override
@@ -83,5 +101,4 @@ public class KnjizenjeService implements IKnjizenjeService {
     public Double getSaldoZaKnjizenje(Long id) {
         return this.getSumaPotrazujeZaKnjizenje(id) - this.getSumaDugujeZaKnjizenje(id);
     }
-
 }
@@ -0,0 +1,329 @@
+package rs.raf.demo.services.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import rs.raf.demo.events.KnjizenjeEvent;
+import rs.raf.demo.exceptions.OperationNotSupportedException;
+import rs.raf.demo.model.PromenaKnjizenja;
+import rs.raf.demo.model.enums.Grupisanje;
+import rs.raf.demo.repositories.KontoRepository;
+import rs.raf.demo.repositories.PromenaKnjizenjaRepository;
+import rs.raf.demo.responses.PrometResponse;
+import rs.raf.demo.services.IKolonskaKnjigaService;
+import rs.raf.demo.utils.KolonskaKnjiga;
+import rs.raf.demo.utils.Novac;
+import rs.raf.demo.utils.TenantKontekst;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Analiticki upiti nad kolonskom kopijom glavne knjige u memoriji. Ukljucuje
+ * se sa analitika.kolonska-knjiga.ukljucena=true. Kopija se puni pri pokretanju
+ * i osvezava posle svake izmene knjizenja, a kada obrisani redovi postanu
+ * vecina, ponovo se ucitava u pozadini u novu instancu dok upiti rade nad
+ * starom. Knjizenja izmenjena tokom ucitavanja se pre zamene ponovo citaju u
+ * novu instancu.
+ * <p>
+ * Ako je zadata putanja snimka, kopija se periodicno i pri gasenju snima u
+ * fajl, a pri pokretanju se mapira iz njega. Tada se iz baze ponovo citaju samo
+ * knjizenja cije promene imaju id veci od oznake snimka. Oznaka je najveci id
+ * do koga su sve promene vec primenjene na kopiju, pa promena iz transakcije
+ * koja je bila u toku dok se snimalo ostaje iznad nje.
+ */
+@Service
+@ConditionalOnProperty(prefix = "analitika.kolonska-knjiga", name = "ukljucena", havingValue = "true")
+public class KolonskaKnjigaService implements IKolonskaKnjigaService {
+
+    private final Logger log = LoggerFactory.getLogger(KolonskaKnjigaService.class);
+
+    private final KontoRepository kontoRepository;
+    private final PromenaKnjizenjaRepository promenaKnjizenjaRepository;
+    private final int pocetniKapacitet;
+    private final int serija;
+    private final Path snimak;
+    private final Map<KnjizenjeEvent, Long> promeneUToku = new ConcurrentHashMap<>();
+    private final AtomicLong poslednjaPromena = new AtomicLong();
+    private final ExecutorService izvrsilac = Executors.newSingleThreadExecutor();
+    private volatile KolonskaKnjiga knjiga;
+    private volatile boolean ucitana;
+    /**
+     * Knjizenja izmenjena dok se knjiga ucitava u pozadini, ili null ako se ne ucitava.
+     */
+    private Set<Long> izmenjenaTokomObnove;
+
+    @Autowired
+    public KolonskaKnjigaService(KontoRepository kontoRepository,
+                                 PromenaKnjizenjaRepository promenaKnjizenjaRepository,
+                                 @Value("${analitika.kolonska-knjiga.pocetni-kapacitet:65536}") int pocetniKapacitet,
+                                 @Value("${analitika.kolonska-knjiga.serija:10000}") int serija,
+                                 @Value("${analitika.kolonska-knjiga.snimak.putanja:}") String snimak) {
+        this.kontoRepository = kontoRepository;
+        this.promenaKnjizenjaRepository = promenaKnjizenjaRepository;
+        this.pocetniKapacitet = pocetniKapacitet;
+        this.serija = serija;
+        this.snimak = snimak.isBlank() ? null : Path.of(snimak);
+        this.knjiga = new KolonskaKnjiga(pocetniKapacitet);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void pripremi() {
+        if (snimak != null) {
+            poslednjaPromena.set(promenaKnjizenjaRepository.findPoslednjaOznaka());
+        }
+        if (snimak != null && Files.exists(snimak)) {
+            try {
+                KolonskaKnjiga izSnimka = KolonskaKnjiga.ucitaj(snimak);
+                knjiga = izSnimka;
+                List<Long> promenjena = promenaKnjizenjaRepository.findKnjizenjaPosle(izSnimka.getOznakaSnimka());
+                promenjena.forEach(knjizenjeId -> osvezi(izSnimka, knjizenjeId));
+                long stavki = izSnimka.getBrojRedova() - izSnimka.getBrojObrisanih();
+                if (stavki != kontoRepository.countStavkeZaAnalitiku()) {
+                    throw new IOException("Broj stavki posle dopune (" + stavki + ") ne odgovara bazi");
+                }
+                ucitana = true;
+                log.info("Kolonska knjiga mapirana iz {} sa {} stavki, ponovo procitano {} knjizenja",
+                        snimak, stavki, promenjena.size());
+                return;
+            } catch (IOException e) {
+                log.warn("Snimak kolonske knjige {} se ne koristi: {}", snimak, e.getMessage());
+            }
+        }
+        knjiga = ucitaj();
+        ucitana = true;
+    }
+
+    @PreDestroy
+    public void zaustavi() {
+        izvrsilac.shutdownNow();
+    }
+
+    /**
+     * Snima kopiju u fajl. Oznaka snimka se uzima pre snimanja, a zapisi o
+     * promenama do oznake vise nisu potrebni.
+     */
+    @Scheduled(fixedDelayString = "${analitika.kolonska-knjiga.snimak.interval:600000}",
+               initialDelayString = "${analitika.kolonska-knjiga.snimak.interval:600000}")
+    @PreDestroy
+    public void snimi() {
+        if (snimak == null || !ucitana) {
+            return;
+        }
+        long oznaka = oznakaSnimka();
+        try {
+            knjiga.snimi(snimak, oznaka);
+            promenaKnjizenjaRepository.obrisiDo(oznaka);
+            log.info("Kolonska knjiga snimljena u {}", snimak);
+        } catch (IOException e) {
+            log.error("Snimanje kolonske knjige u {} nije uspelo", snimak, e);
+        }
+    }
+
+    private KolonskaKnjiga ucitaj() {
+        KolonskaKnjiga nova = new KolonskaKnjiga(Math.max(pocetniKapacitet, (int) Math.min(Integer.MAX_VALUE / Long.BYTES, kontoRepository.count())));
+        long poslednji = 0;
+        List<Object[]> redovi;
+        do {
+            redovi = kontoRepository.findStavkePosle(poslednji, PageRequest.of(0, serija));
+            for (Object[] red : redovi) {
+                nova.dodaj((Long) red[1], stavka(red));
+                poslednji = (Long) red[0];
+            }
+        } while (redovi.size() == serija);
+        log.info("Kolonska knjiga ucitana sa {} stavki", nova.getBrojRedova());
+        return nova;
+    }
+
+    /**
+     * Ucitava knjigu van zakljucavanja servisa, pa u nju ponovo cita knjizenja
+     * izmenjena u medjuvremenu i tek onda je objavljuje.
+     */
+    private void obnovi() {
+        try {
+            KolonskaKnjiga nova = ucitaj();
+            synchronized (this) {
+                izmenjenaTokomObnove.forEach(knjizenjeId -> osvezi(nova, knjizenjeId));
+                knjiga = nova;
+            }
+        } catch (RuntimeException e) {
+            log.error("Ponovno ucitavanje kolonske knjige nije uspelo", e);
+        } finally {
+            synchronized (this) {
+                izmenjenaTokomObnove = null;
+            }
+        }
+    }
+
+    /**
+     * Najveci id promene do koga su sve promene primenjene na kopiju: promene
+     * cije transakcije jos nisu potvrdjene ga drze ispod svog id-a. Poslednja
+     * promena se cita pre promena u toku, jer se promena dodaje u toku pre
+     * nego sto pomeri poslednju.
+     */
+    long oznakaSnimka() {
+        long oznaka = poslednjaPromena.get();
+        for (long promenaId : promeneUToku.values()) {
+            oznaka = Math.min(oznaka, promenaId - 1);
+        }
+        return oznaka;
+    }
+
+    /**
+     * Belezi promenu u istoj transakciji u kojoj je knjizenje izmenjeno.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void zabeleziPromenu(KnjizenjeEvent event) {
+        if (snimak == null || event.getKnjizenjeId() == null || !TenantKontekst.isPodrazumevani()) {
+            return;
+        }
+        PromenaKnjizenja promena = new PromenaKnjizenja();
+        promena.setKnjizenjeId(event.getKnjizenjeId());
+        long promenaId = promenaKnjizenjaRepository.save(promena).getPromenaId();
+        promeneUToku.put(event, promenaId);
+        poslednjaPromena.accumulateAndGet(promenaId, Math::max);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onKnjizenjeEvent(KnjizenjeEvent event) {
+        if (event.getKnjizenjeId() == null || !TenantKontekst.isPodrazumevani()) {
+            return;
+        }
+        osvezi(knjiga, event.getKnjizenjeId());
+        promeneUToku.remove(event);
+        if (izmenjenaTokomObnove != null) {
+            izmenjenaTokomObnove.add(event.getKnjizenjeId());
+        } else if (knjiga.getBrojObrisanih() > knjiga.getBrojRedova() / 2) {
+            izmenjenaTokomObnove = new HashSet<>();
+            izvrsilac.execute(this::obnovi);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onKnjizenjeOdbaceno(KnjizenjeEvent event) {
+        promeneUToku.remove(event);
+    }
+
+    @Override
+    public List<PrometResponse> getPrometPoKontima(LocalDate od, LocalDate doDatuma, String prefiks) {
+        proveriTenanta();
+        List<PrometResponse> promet = new ArrayList<>();
+        new TreeMap<>(knjiga.prometPoKontima(epochDan(od), epochDan(doDatuma), prefiks))
+                .forEach((konto, iznosi) -> promet.add(promet(konto, iznosi[0], iznosi[1])));
+        return promet;
+    }
+
+    @Override
+    public List<PrometResponse> getPrometPoMesecima(LocalDate od, LocalDate doDatuma, String prefiks) {
+        proveriTenanta();
+        long[][] poDanima = knjiga.prometPoDanima(epochDan(od), epochDan(doDatuma), prefiks);
+        Map<YearMonth, long[]> poMesecima = new TreeMap<>();
+        for (int i = 0; i < poDanima.length; i++) {
+            long[] iznosi = poMesecima.computeIfAbsent(YearMonth.from(od.plusDays(i)), mesec -> new long[2]);
+            iznosi[0] += poDanima[i][0];
+            iznosi[1] += poDanima[i][1];
+        }
+        List<PrometResponse> promet = new ArrayList<>();
+        poMesecima.forEach((mesec, iznosi) -> promet.add(promet(mesec.toString(), iznosi[0], iznosi[1])));
+        return promet;
+    }
+
+    /**
+     * Grupise promet po zadatim kolonama. Svaki red sadrzi vrednosti kolona redom kojim su
+     * zadate (broj konta, mesec kao yyyy-MM, id dimenzije ili null), pa duguje, potrazuje i broj stavki.
+     */
+    @Override
+    public List<Object[]> grupisi(LocalDate od, LocalDate doDatuma, String prefiks,
+                                  Long mestoTroskovaId, Long projekatId, Long zaposleniId, List<Grupisanje> grupisanje) {
+        proveriTenanta();
+        KolonskaKnjiga stanje = knjiga;
+        int[] filteri = {dimenzija(mestoTroskovaId), dimenzija(projekatId), dimenzija(zaposleniId)};
+        List<Object[]> redovi = new ArrayList<>();
+        for (KolonskaKnjiga.Grupa grupa : stanje.grupisi(epochDan(od), epochDan(doDatuma), prefiks, filteri, grupisanje)) {
+            Object[] red = new Object[grupisanje.size() + 3];
+            for (int i = 0; i < grupisanje.size(); i++) {
+                int vrednost = grupa.getVrednost(i);
+                switch (grupisanje.get(i)) {
+                    case KONTO:
+                        red[i] = stanje.getBrojKonta(vrednost);
+                        break;
+                    case MESEC:
+                        red[i] = YearMonth.of(vrednost / 100, vrednost % 100).toString();
+                        break;
+                    default:
+                        red[i] = vrednost == 0 ? null : (long) vrednost;
+                }
+            }
+            red[grupisanje.size()] = iznos(grupa.getDuguje());
+            red[grupisanje.size() + 1] = iznos(grupa.getPotrazuje());
+            red[grupisanje.size() + 2] = grupa.getStavki();
+            redovi.add(red);
+        }
+        return redovi;
+    }
+
+    /**
+     * Nove stavke knjizenja i brisanje starih postaju vidljive citaocima odjednom.
+     */
+    private void osvezi(KolonskaKnjiga knjiga, Long knjizenjeId) {
+        List<KolonskaKnjiga.Stavka> stavke = new ArrayList<>();
+        for (Object[] red : kontoRepository.findStavkeKnjizenja(knjizenjeId)) {
+            stavke.add(stavka(red));
+        }
+        knjiga.zameniKnjizenje(knjizenjeId, stavke);
+    }
+
+    private static KolonskaKnjiga.Stavka stavka(Object[] red) {
+        LocalDate dan = ((Date) red[2]).toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        return new KolonskaKnjiga.Stavka(epochDan(dan), (String) red[3], dimenzija((Long) red[6]), dimenzija((Long) red[7]),
+                dimenzija((Long) red[8]), pare((Double) red[4]), pare((Double) red[5]));
+    }
+
+    /**
+     * Kolonska knjiga se puni iz podrazumevane seme, pa ne sme da odgovara drugim tenantima.
+     */
+    private static void proveriTenanta() {
+        if (!TenantKontekst.isPodrazumevani()) {
+            throw new OperationNotSupportedException("Kolonska knjiga nije dostupna za tenanta " + TenantKontekst.get());
+        }
+    }
+
+    private static int dimenzija(Long id) {
+        return id == null ? 0 : Math.toIntExact(id);
+    }
+
+    private static PrometResponse promet(String kljuc, long duguje, long potrazuje) {
+        return new PrometResponse(kljuc, iznos(duguje), iznos(potrazuje), iznos(duguje - potrazuje));
+    }
+
+    private static long pare(Double iznos) {
+        return iznos == null ? 0 : Novac.uJedinice(iznos, Novac.PODRAZUMEVANA_SKALA);
+    }
+
+    private static double iznos(long pare) {
+        return Novac.uIznos(pare, Novac.PODRAZUMEVANA_SKALA);
+    }
+
+    private static int epochDan(LocalDate dan) {
+        return (int) dan.toEpochDay();
+    }
+}
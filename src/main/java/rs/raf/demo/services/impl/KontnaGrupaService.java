@@ -4,7 +4,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import rs.raf.demo.model.KontnaGrupa;
+import rs.raf.demo.repositories.GlavnaKnjigaStavkaRepository;
 import rs.raf.demo.repositories.KontnaGrupaRepository;
 import rs.raf.demo.services.IKontnaGrupaService;
 
@@ -15,15 +17,20 @@ import static rs.raf.demo.utils.ApiUtil.*;
 @Service
 public class KontnaGrupaService implements IKontnaGrupaService {
     KontnaGrupaRepository kontnaGrupaRepository;
+    GlavnaKnjigaStavkaRepository glavnaKnjigaStavkaRepository;
 
     @Autowired
-    public KontnaGrupaService(KontnaGrupaRepository kontnaGrupaRepository) {
+    public KontnaGrupaService(KontnaGrupaRepository kontnaGrupaRepository, GlavnaKnjigaStavkaRepository glavnaKnjigaStavkaRepository) {
         this.kontnaGrupaRepository = kontnaGrupaRepository;
+        this.glavnaKnjigaStavkaRepository = glavnaKnjigaStavkaRepository;
     }
 
     @Override
+    @Transactional
     public KontnaGrupa save(KontnaGrupa kontnaGrupa) {
-        return kontnaGrupaRepository.save(kontnaGrupa);
+        KontnaGrupa sacuvana = kontnaGrupaRepository.save(kontnaGrupa);
+        glavnaKnjigaStavkaRepository.azurirajNazivKonta(sacuvana.getBrojKonta(), sacuvana.getNazivKonta());
+        return sacuvana;
     }
 
     @Override
@@ -35,6 +42,15 @@ public class KontnaGrupaService implements IKontnaGrupaService {
         return findById(id).orElseThrow(NoSuchElementException::new);
     }
 
+    public KontnaGrupa findOrCreate(String brojKonta) {
+        return findById(brojKonta).orElseGet(() -> {
+            KontnaGrupa kontnaGrupa = new KontnaGrupa();
+            kontnaGrupa.setBrojKonta(brojKonta);
+            kontnaGrupa.setNazivKonta("Konto " + brojKonta);
+            return save(kontnaGrupa);
+        });
+    }
+
     public KontnaGrupa update(String id) {
         return save(findById(id).orElseThrow(NoSuchElementException::new));
     }
@@ -1,15 +1,14 @@
 package rs.raf.demo.services.impl;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
-import rs.raf.demo.converter.KontoConverter;
+import rs.raf.demo.events.KnjizenjeEvent;
+import rs.raf.demo.model.Knjizenje;
 import rs.raf.demo.model.Konto;
+import rs.raf.demo.repositories.KnjizenjeRepository;
 import rs.raf.demo.repositories.KontoRepository;
-import rs.raf.demo.responses.GlavnaKnjigaResponse;
 import rs.raf.demo.services.IService;
 
 import java.util.*;
@@ -17,20 +16,36 @@ import java.util.*;
 @Service
 public class KontoService implements IService<Konto, Long> {
 
-    @Lazy
-    @Autowired
-    private KontoConverter kontoConverter;
-
     private final KontoRepository kontoRepository;
+    private final KnjizenjeRepository knjizenjeRepository;
+    private final ObracunskiPeriodService obracunskiPeriodService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public KontoService(KontoRepository kontoRepository) {
+    public KontoService(KontoRepository kontoRepository,
+                        KnjizenjeRepository knjizenjeRepository,
+                        ObracunskiPeriodService obracunskiPeriodService,
+                        ApplicationEventPublisher eventPublisher) {
         this.kontoRepository = kontoRepository;
+        this.knjizenjeRepository = knjizenjeRepository;
+        this.obracunskiPeriodService = obracunskiPeriodService;
+        this.eventPublisher = eventPublisher;
     }
 
+    /**
+     * Stavka ne sme da se upise ni u knjizenje iz zatvorene godine ni da se iz njega premesti.
+     */
     @Override
     public Konto save(Konto konto) {
-        return kontoRepository.save(konto);
+        List<Date> datumi = new ArrayList<>();
+        if (konto.getKontoId() != null) {
+            kontoRepository.findById(konto.getKontoId()).ifPresent(stari -> datumi.add(datum(stari.getKnjizenje())));
+        }
+        datumi.add(datum(konto.getKnjizenje()));
+        obracunskiPeriodService.proveri(datumi);
+        Konto sacuvan = kontoRepository.save(konto);
+        objavi(sacuvan.getKnjizenje(), datumi);
+        return sacuvan;
     }
 
     @Override
@@ -49,7 +64,30 @@ public class KontoService implements IService<Konto, Long> {
 
     @Override
     public void deleteById(Long id) {
+        Optional<Konto> konto = kontoRepository.findById(id);
+        List<Date> datumi = Collections.singletonList(konto.map(stari -> datum(stari.getKnjizenje())).orElse(null));
+        obracunskiPeriodService.proveri(datumi);
         kontoRepository.deleteById(id);
+        konto.ifPresent(stari -> objavi(stari.getKnjizenje(), datumi));
+    }
+
+    /**
+     * Knjizenje iz zahteva moze da ima samo id, pa se datum tada cita iz baze.
+     */
+    private Date datum(Knjizenje knjizenje) {
+        if (knjizenje == null) {
+            return null;
+        }
+        if (knjizenje.getDatumKnjizenja() == null && knjizenje.getKnjizenjeId() != null) {
+            return knjizenjeRepository.findById(knjizenje.getKnjizenjeId()).map(Knjizenje::getDatumKnjizenja).orElse(null);
+        }
+        return knjizenje.getDatumKnjizenja();
+    }
+
+    private void objavi(Knjizenje knjizenje, List<Date> datumi) {
+        if (knjizenje != null && datumi.stream().anyMatch(Objects::nonNull)) {
+            eventPublisher.publishEvent(new KnjizenjeEvent(knjizenje.getKnjizenjeId(), datumi));
+        }
     }
 
     public List<Konto> findByKontnaGrupa(String kontnaGrupa) {
@@ -59,8 +97,4 @@ public class KontoService implements IService<Konto, Long> {
     public List<Konto> findAll(Specification<Konto> spec) {
         return this.kontoRepository.findAll(spec);
     }
-
-    public Page<GlavnaKnjigaResponse> findAllGlavnaKnjigaResponse(Specification<Konto> spec, Pageable pageSort) {
-        return this.kontoConverter.convert(this.kontoRepository.findAll(spec, pageSort).getContent());
-    }
 }
@@ -0,0 +1,114 @@
+package rs.raf.demo.services.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import rs.raf.demo.model.KursnaLista;
+import rs.raf.demo.repositories.KursnaListaRepository;
+import rs.raf.demo.services.IKursnaListaService;
+import rs.raf.demo.utils.KursnaListaIndeks;
+import rs.raf.demo.utils.PoTenantu;
+
+import javax.persistence.EntityNotFoundException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+
+@Service
+public class KursnaListaService implements IKursnaListaService {
+
+    private final KursnaListaRepository kursnaListaRepository;
+
+    @Value("${kursna-lista.osnovna-valuta:RSD}")
+    private String osnovnaValuta = "RSD";
+
+    private final PoTenantu<KursnaListaIndeks> indeks = new PoTenantu<>(this::izgradi);
+
+    @Autowired
+    public KursnaListaService(KursnaListaRepository kursnaListaRepository) {
+        this.kursnaListaRepository = kursnaListaRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void ucitaj() {
+        indeks.postavi(izgradi());
+    }
+
+    private KursnaListaIndeks izgradi() {
+        Map<String, TreeMap<Long, Double>> kursevi = new HashMap<>();
+        for (KursnaLista kursnaLista : kursnaListaRepository.findAll()) {
+            kursevi.computeIfAbsent(kursnaLista.getValuta(), v -> new TreeMap<>())
+                   .put(epochDan(kursnaLista.getDatumVazenja()), kursnaLista.getKurs());
+        }
+        return KursnaListaIndeks.izgradi(kursevi);
+    }
+
+    /**
+     * Izmena postojeceg kursa moze da mu promeni valutu ili datum, pa se indeks tada
+     * ponovo gradi, a novi kurs se samo dodaje.
+     */
+    @Override
+    public KursnaLista save(KursnaLista kursnaLista) {
+        boolean izmena = kursnaLista.getKursnaListaId() != null;
+        KursnaLista sacuvana = kursnaListaRepository.save(kursnaLista);
+        if (izmena) {
+            ucitaj();
+            return sacuvana;
+        }
+        synchronized (this) {
+            indeks.postavi(indeks.get().dodaj(sacuvana.getValuta(), epochDan(sacuvana.getDatumVazenja()), sacuvana.getKurs()));
+        }
+        return sacuvana;
+    }
+
+    @Override
+    public Optional<KursnaLista> findById(Long id) {
+        return kursnaListaRepository.findById(id);
+    }
+
+    @Override
+    public List<KursnaLista> findAll() {
+        return kursnaListaRepository.findAll();
+    }
+
+    @Override
+    public List<KursnaLista> findByValuta(String valuta) {
+        return kursnaListaRepository.findByValutaOrderByDatumVazenja(valuta);
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        kursnaListaRepository.deleteById(id);
+        ucitaj();
+    }
+
+    @Override
+    public double getKurs(String valuta, LocalDate naDan) {
+        return kurs(valuta, naDan.toEpochDay());
+    }
+
+    @Override
+    public double konvertuj(double iznos, String izValute, String uValutu, long epochDan) {
+        if (izValute.equals(uValutu)) {
+            return iznos;
+        }
+        return iznos * kurs(izValute, epochDan) / kurs(uValutu, epochDan);
+    }
+
+    private double kurs(String valuta, long epochDan) {
+        if (osnovnaValuta.equals(valuta)) {
+            return 1.0;
+        }
+        double kurs = indeks.get().kurs(valuta, epochDan);
+        if (Double.isNaN(kurs)) {
+            throw new EntityNotFoundException(String.format("Nema kursa za %s na dan %s", valuta, LocalDate.ofEpochDay(epochDan)));
+        }
+        return kurs;
+    }
+
+    private static long epochDan(Date datum) {
+        return datum.toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+}
@@ -0,0 +1,242 @@
+package rs.raf.demo.services.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.raf.demo.events.KnjizenjeEvent;
+import rs.raf.demo.model.MesecniPresek;
+import rs.raf.demo.repositories.KnjizenjeRepository;
+import rs.raf.demo.repositories.KontoRepository;
+import rs.raf.demo.repositories.MesecniPresekRepository;
+import rs.raf.demo.responses.UporedniMesecResponse;
+import rs.raf.demo.services.IMesecniPresekService;
+import rs.raf.demo.services.ITenantService;
+import rs.raf.demo.utils.Novac;
+import rs.raf.demo.utils.PoTenantu;
+
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Mesecni preseci prihoda, rashoda i PDV-a iz glavne knjige. Presek se pravi
+ * kada se mesec zatvori. Izmena knjizenja u zatvorenom mesecu ponovo racuna
+ * samo preseke meseci starog i novog datuma knjizenja, jednim upitom nad
+ * prometom tih meseci. Uporedni izvestaj cita samo preseke, osim za tekuci mesec
+ * koji se racuna direktno.
+ */
+@Service
+public class MesecniPresekService implements IMesecniPresekService {
+
+    private static final int PRIHODI = 0;
+    private static final int RASHODI = 1;
+    private static final int IZLAZNI_PDV = 2;
+    private static final int ULAZNI_PDV = 3;
+
+    private final Logger log = LoggerFactory.getLogger(MesecniPresekService.class);
+
+    private final KontoRepository kontoRepository;
+    private final KnjizenjeRepository knjizenjeRepository;
+    private final MesecniPresekRepository mesecniPresekRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ITenantService tenantService;
+    private final PoTenantu<Object> brave = new PoTenantu<>(Object::new);
+
+    @Value("${izvestaji.presek.prihodi:6}")
+    private String prihodi = "6";
+
+    @Value("${izvestaji.presek.rashodi:5}")
+    private String rashodi = "5";
+
+    @Value("${izvestaji.presek.izlazni-pdv:47}")
+    private String izlazniPdv = "47";
+
+    @Value("${izvestaji.presek.ulazni-pdv:27}")
+    private String ulazniPdv = "27";
+
+    @Autowired
+    public MesecniPresekService(KontoRepository kontoRepository,
+                                KnjizenjeRepository knjizenjeRepository,
+                                MesecniPresekRepository mesecniPresekRepository,
+                                PlatformTransactionManager transactionManager,
+                                TenantService tenantService) {
+        this.kontoRepository = kontoRepository;
+        this.knjizenjeRepository = knjizenjeRepository;
+        this.mesecniPresekRepository = mesecniPresekRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.tenantService = tenantService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void popuni() {
+        tenantService.zaSvakog(this::popuniTenant);
+    }
+
+    /**
+     * Pravi preseke za zatvorene mesece koji ih jos nemaju, jednim upitom za ceo period.
+     */
+    private void popuniTenant() {
+        Date prviDatum = knjizenjeRepository.findPrviDatumKnjizenja();
+        YearMonth doMeseca = YearMonth.now().minusMonths(1);
+        if (prviDatum == null || mesec(prviDatum).isAfter(doMeseca)) {
+            return;
+        }
+        Set<Integer> postojeci = mesecniPresekRepository.findAllById(periodi(mesec(prviDatum), doMeseca)).stream()
+                .map(MesecniPresek::getPeriod)
+                .collect(Collectors.toSet());
+        List<Integer> bezPreseka = periodi(mesec(prviDatum), doMeseca).stream()
+                .filter(period -> !postojeci.contains(period))
+                .collect(Collectors.toList());
+        if (bezPreseka.isEmpty()) {
+            return;
+        }
+        // Racuna se samo raspon od prvog do poslednjeg meseca bez preseka.
+        YearMonth od = YearMonth.of(bezPreseka.get(0) / 100, bezPreseka.get(0) % 100);
+        int poslednji = bezPreseka.get(bezPreseka.size() - 1);
+        List<MesecniPresek> nedostajuci = izracunaj(od, YearMonth.of(poslednji / 100, poslednji % 100)).stream()
+                .filter(presek -> !postojeci.contains(presek.getPeriod()))
+                .collect(Collectors.toList());
+        sacuvaj(nedostajuci);
+        log.info("Napravljeno {} mesecnih preseka", nedostajuci.size());
+    }
+
+    @Scheduled(cron = "${izvestaji.presek.cron:0 30 1 1 * *}")
+    public void zatvoriMesec() {
+        YearMonth prethodni = YearMonth.now().minusMonths(1);
+        tenantService.zaSvakog(() -> sacuvaj(izracunaj(prethodni, prethodni)));
+    }
+
+    /**
+     * Posle potvrde knjizenja ponovo racuna preseke zatvorenih meseci na koje je uticalo.
+     * Meseci se racunaju i upisuju jedan po jedan pod bravom tenanta, pa poslednji upis
+     * ima stanje posle poslednje potvrdjene izmene.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onKnjizenjeEvent(KnjizenjeEvent event) {
+        YearMonth tekuci = YearMonth.now();
+        List<YearMonth> meseci = event.getDatumi().stream()
+                .filter(Objects::nonNull)
+                .map(MesecniPresekService::mesec)
+                .filter(mesec -> mesec.isBefore(tekuci))
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+        synchronized (brave.get()) {
+            meseci.forEach(mesec -> sacuvaj(izracunaj(mesec, mesec)));
+        }
+    }
+
+    private int kategorija(String brojKonta) {
+        if (brojKonta.startsWith(prihodi)) {
+            return PRIHODI;
+        } else if (brojKonta.startsWith(rashodi)) {
+            return RASHODI;
+        } else if (brojKonta.startsWith(izlazniPdv)) {
+            return IZLAZNI_PDV;
+        } else if (brojKonta.startsWith(ulazniPdv)) {
+            return ULAZNI_PDV;
+        }
+        return -1;
+    }
+
+    @Override
+    public List<UporedniMesecResponse> getUporedniIzvestaj(List<Integer> godine) {
+        Map<Integer, MesecniPresek> preseci = new HashMap<>();
+        for (MesecniPresek presek : mesecniPresekRepository.findByGodinaInOrderByPeriod(godine)) {
+            preseci.put(presek.getPeriod(), presek);
+        }
+        YearMonth tekuci = YearMonth.now();
+        if (godine.contains(tekuci.getYear())) {
+            izracunaj(tekuci, tekuci).forEach(presek -> preseci.put(presek.getPeriod(), presek));
+        }
+
+        List<UporedniMesecResponse> izvestaj = new ArrayList<>();
+        for (int mesec = 1; mesec <= 12; mesec++) {
+            UporedniMesecResponse red = new UporedniMesecResponse(mesec, new TreeMap<>(), new TreeMap<>(), new TreeMap<>(), new TreeMap<>());
+            for (Integer godina : godine) {
+                MesecniPresek presek = preseci.get(godina * 100 + mesec);
+                double prihod = presek == null ? 0 : presek.getPrihodi();
+                double rashod = presek == null ? 0 : presek.getRashodi();
+                red.getPrihodi().put(godina, prihod);
+                red.getRashodi().put(godina, rashod);
+                red.getRezultat().put(godina, prihod - rashod);
+                red.getPdvObaveza().put(godina, presek == null ? 0 : presek.getIzlazniPdv() - presek.getUlazniPdv());
+            }
+            izvestaj.add(red);
+        }
+        return izvestaj;
+    }
+
+    private List<MesecniPresek> izracunaj(YearMonth od, YearMonth doMeseca) {
+        Map<Integer, MesecniPresek> preseci = new LinkedHashMap<>();
+        Date azuriran = new Date();
+        for (YearMonth mesec = od; !mesec.isAfter(doMeseca); mesec = mesec.plusMonths(1)) {
+            MesecniPresek presek = new MesecniPresek();
+            presek.setPeriod(period(mesec));
+            presek.setGodina(mesec.getYear());
+            presek.setMesec(mesec.getMonthValue());
+            presek.setPrihodi(0.0);
+            presek.setRashodi(0.0);
+            presek.setIzlazniPdv(0.0);
+            presek.setUlazniPdv(0.0);
+            presek.setAzuriran(azuriran);
+            preseci.put(presek.getPeriod(), presek);
+        }
+
+        Date pocetak = Date.from(od.atDay(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        Date kraj = Date.from(doMeseca.plusMonths(1).atDay(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        Map<Integer, long[]> sume = new HashMap<>();
+        for (Object[] red : kontoRepository.findPrometPoMesecimaIKontima(pocetak, kraj)) {
+            int period = ((Number) red[0]).intValue() * 100 + ((Number) red[1]).intValue();
+            int kategorija = kategorija((String) red[2]);
+            if (!preseci.containsKey(period) || kategorija < 0) {
+                continue;
+            }
+            long duguje = Novac.uJedinice(((Number) red[3]).doubleValue(), Novac.PODRAZUMEVANA_SKALA);
+            long potrazuje = Novac.uJedinice(((Number) red[4]).doubleValue(), Novac.PODRAZUMEVANA_SKALA);
+            sume.computeIfAbsent(period, p -> new long[4])[kategorija] +=
+                    kategorija == PRIHODI || kategorija == IZLAZNI_PDV ? potrazuje - duguje : duguje - potrazuje;
+        }
+        sume.forEach((period, iznosi) -> {
+            MesecniPresek presek = preseci.get(period);
+            presek.setPrihodi(Novac.uIznos(iznosi[PRIHODI], Novac.PODRAZUMEVANA_SKALA));
+            presek.setRashodi(Novac.uIznos(iznosi[RASHODI], Novac.PODRAZUMEVANA_SKALA));
+            presek.setIzlazniPdv(Novac.uIznos(iznosi[IZLAZNI_PDV], Novac.PODRAZUMEVANA_SKALA));
+            presek.setUlazniPdv(Novac.uIznos(iznosi[ULAZNI_PDV], Novac.PODRAZUMEVANA_SKALA));
+        });
+        return new ArrayList<>(preseci.values());
+    }
+
+    private void sacuvaj(List<MesecniPresek> preseci) {
+        if (!preseci.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> mesecniPresekRepository.saveAll(preseci));
+        }
+    }
+
+    private static List<Integer> periodi(YearMonth od, YearMonth doMeseca) {
+        List<Integer> periodi = new ArrayList<>();
+        for (YearMonth mesec = od; !mesec.isAfter(doMeseca); mesec = mesec.plusMonths(1)) {
+            periodi.add(period(mesec));
+        }
+        return periodi;
+    }
+
+    private static int period(YearMonth mesec) {
+        return mesec.getYear() * 100 + mesec.getMonthValue();
+    }
+
+    private static YearMonth mesec(Date datum) {
+        return YearMonth.from(datum.toInstant().atZone(ZoneId.systemDefault()));
+    }
+}
@@ -0,0 +1,163 @@
+package rs.raf.demo.services.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import rs.raf.demo.events.FakturaEvent;
+import rs.raf.demo.model.Faktura;
+import rs.raf.demo.model.enums.IntervalGrupisanja;
+import rs.raf.demo.model.enums.TipFakture;
+import rs.raf.demo.repositories.FakturaRepository;
+import rs.raf.demo.responses.NovcaniTokResponse;
+import rs.raf.demo.services.INovcaniTokService;
+import rs.raf.demo.utils.Novac;
+import rs.raf.demo.utils.PoTenantu;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Projekcija priliva i odliva po datumu dospeca neplacenih faktura, u RSD.
+ * Iznosi se drze u parama u indeksu po danu koji se azurira pri svakoj izmeni fakture,
+ * pa upit prolazi samo kroz dane u trazenom periodu. Svaki tenant ima svoj indeks.
+ */
+@Service
+public class NovcaniTokService implements INovcaniTokService {
+
+    private static final int VELICINA_STRANE = 1000;
+    private static final int SKALA = Novac.skala("RSD");
+
+    private final Logger log = LoggerFactory.getLogger(NovcaniTokService.class);
+
+    private final FakturaRepository fakturaRepository;
+    private final PoTenantu<Indeks> indeksi = new PoTenantu<>(this::izgradiIndeks);
+
+    @Autowired
+    public NovcaniTokService(FakturaRepository fakturaRepository) {
+        this.fakturaRepository = fakturaRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void izgradi() {
+        indeksi.postavi(izgradiIndeks());
+    }
+
+    /**
+     * Za podrazumevanog tenanta se gradi pri pokretanju, a za ostale pri prvom pristupu.
+     */
+    private Indeks izgradiIndeks() {
+        Indeks indeks = new Indeks();
+        long poslednjiId = 0;
+        List<Faktura> fakture;
+        do {
+            fakture = fakturaRepository.findOtvorene(poslednjiId, PageRequest.of(0, VELICINA_STRANE));
+            for (Faktura faktura : fakture) {
+                indeks.azuriraj(faktura.getDokumentId(), faktura);
+                poslednjiId = faktura.getDokumentId();
+            }
+        } while (fakture.size() == VELICINA_STRANE);
+        log.info("Indeks novcanog toka izgradjen za {} otvorenih faktura", indeks.doprinosi.size());
+        return indeks;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFakturaEvent(FakturaEvent event) {
+        indeksi.get().azuriraj(event.getDokumentId(), event.getFaktura());
+    }
+
+    @Override
+    public List<NovcaniTokResponse> getProjekcija(int dana, IntervalGrupisanja interval) {
+        LocalDate danas = LocalDate.now();
+        LocalDate kraj = danas.plusDays(dana);
+        int korak = interval == IntervalGrupisanja.NEDELJA ? 7 : 1;
+        ConcurrentSkipListMap<LocalDate, Dan> dani = indeksi.get().dani;
+
+        // Dospele a neplacene fakture se ocekuju odmah, pa ulaze u prvi interval.
+        long[] dospelo = saberi(dani.headMap(danas, false));
+
+        List<NovcaniTokResponse> projekcija = new ArrayList<>();
+        for (LocalDate od = danas; od.isBefore(kraj); od = od.plusDays(korak)) {
+            LocalDate doDatuma = od.plusDays(korak).isAfter(kraj) ? kraj : od.plusDays(korak);
+            long[] suma = saberi(dani.subMap(od, true, doDatuma, false));
+            if (od.equals(danas)) {
+                suma[0] += dospelo[0];
+                suma[1] += dospelo[1];
+            }
+            projekcija.add(new NovcaniTokResponse(od, doDatuma.minusDays(1), Novac.uIznos(suma[0], SKALA),
+                    Novac.uIznos(suma[1], SKALA), Novac.uIznos(suma[0] - suma[1], SKALA)));
+        }
+        return projekcija;
+    }
+
+    private long[] saberi(ConcurrentNavigableMap<LocalDate, Dan> period) {
+        long[] suma = new long[2];
+        for (Dan dan : period.values()) {
+            suma[0] += dan.priliv.sum();
+            suma[1] += dan.odliv.sum();
+        }
+        return suma;
+    }
+
+    private static Doprinos doprinos(Faktura faktura) {
+        if (faktura.getDatumPlacanja() == null || faktura.getIznos() == null) {
+            return null;
+        }
+        int skala = Novac.skala(faktura.getValuta());
+        long placeno = faktura.getNaplata() == null ? 0 : Novac.uJedinice(faktura.getNaplata(), skala);
+        double kurs = faktura.getKurs() == null ? 1.0 : faktura.getKurs();
+        long preostalo = Novac.konvertuj(Novac.uJedinice(faktura.getIznos(), skala) - placeno, skala, kurs, SKALA);
+        if (preostalo <= 0) {
+            return null;
+        }
+        LocalDate dan = faktura.getDatumPlacanja().toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        return new Doprinos(dan, faktura.getTipFakture() != TipFakture.ULAZNA_FAKTURA, preostalo);
+    }
+
+    private static class Indeks {
+        private final ConcurrentSkipListMap<LocalDate, Dan> dani = new ConcurrentSkipListMap<>();
+        private final Map<Long, Doprinos> doprinosi = new ConcurrentHashMap<>();
+
+        private void azuriraj(Long fakturaId, Faktura faktura) {
+            Doprinos novi = faktura == null ? null : doprinos(faktura);
+            Doprinos stari = novi == null ? doprinosi.remove(fakturaId) : doprinosi.put(fakturaId, novi);
+            if (stari != null) {
+                primeni(stari, -1);
+            }
+            if (novi != null) {
+                primeni(novi, 1);
+            }
+        }
+
+        private void primeni(Doprinos doprinos, int znak) {
+            Dan dan = dani.computeIfAbsent(doprinos.dan, d -> new Dan());
+            (doprinos.priliv ? dan.priliv : dan.odliv).add(znak * doprinos.iznos);
+        }
+    }
+
+    private static class Dan {
+        private final LongAdder priliv = new LongAdder();
+        private final LongAdder odliv = new LongAdder();
+    }
+
+    private static class Doprinos {
+        private final LocalDate dan;
+        private final boolean priliv;
+        private final long iznos;
+
+        Doprinos(LocalDate dan, boolean priliv, long iznos) {
+            this.dan = dan;
+            this.priliv = priliv;
+            this.iznos = iznos;
+        }
+    }
+}
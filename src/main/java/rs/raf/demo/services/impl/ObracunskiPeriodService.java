@@ -0,0 +1,79 @@
+package rs.raf.demo.services.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import rs.raf.demo.exceptions.OperationNotSupportedException;
+import rs.raf.demo.model.enums.StatusPerioda;
+import rs.raf.demo.repositories.ObracunskiPeriodRepository;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Set;
+
+/**
+ * Zabrana izmena u zatvorenim godinama. Kroz ovu proveru prolazi svaki upis
+ * knjizenja i stavki konta, osim knjizenja koja pravi samo zatvaranje godine.
+ * Rucne izmene se odbijaju, a automatska knjizenja se prebacuju u prvu
+ * otvorenu godinu.
+ */
+@Service
+public class ObracunskiPeriodService {
+
+    private final ObracunskiPeriodRepository obracunskiPeriodRepository;
+
+    @Autowired
+    public ObracunskiPeriodService(ObracunskiPeriodRepository obracunskiPeriodRepository) {
+        this.obracunskiPeriodRepository = obracunskiPeriodRepository;
+    }
+
+    /**
+     * Odbija izmenu ako je bilo koji od datuma (stari ili novi datum knjizenja) u zatvorenoj godini.
+     */
+    public void proveri(Collection<Date> datumi) {
+        Set<Integer> zatvorene = null;
+        for (Date datum : datumi) {
+            if (datum == null) {
+                continue;
+            }
+            if (zatvorene == null) {
+                zatvorene = obracunskiPeriodRepository.findGodineByStatus(StatusPerioda.ZATVOREN);
+            }
+            int godina = godina(datum);
+            if (zatvorene.contains(godina)) {
+                throw new OperationNotSupportedException(String.format("Godina %d je zatvorena", godina));
+            }
+        }
+    }
+
+    public Set<Integer> getZatvoreneGodine() {
+        return obracunskiPeriodRepository.findGodineByStatus(StatusPerioda.ZATVOREN);
+    }
+
+    public boolean isZatvorena(Date datum) {
+        return datum != null && obracunskiPeriodRepository.existsByGodinaAndStatus(godina(datum), StatusPerioda.ZATVOREN);
+    }
+
+    /**
+     * @return Isti datum ako je njegova godina otvorena, a inace prvi dan prve sledece otvorene godine.
+     */
+    public Date uOtvoreniPeriod(Date datum) {
+        if (datum == null) {
+            return null;
+        }
+        Set<Integer> zatvorene = obracunskiPeriodRepository.findGodineByStatus(StatusPerioda.ZATVOREN);
+        int godina = godina(datum);
+        if (!zatvorene.contains(godina)) {
+            return datum;
+        }
+        while (zatvorene.contains(godina)) {
+            godina++;
+        }
+        return Date.from(LocalDate.of(godina, 1, 1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static int godina(Date datum) {
+        return datum.toInstant().atZone(ZoneId.systemDefault()).getYear();
+    }
+}
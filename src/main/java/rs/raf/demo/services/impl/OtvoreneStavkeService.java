@@ -0,0 +1,152 @@
+package rs.raf.demo.services.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.raf.demo.events.FakturaEvent;
+import rs.raf.demo.events.KnjizenjeEvent;
+import rs.raf.demo.model.Faktura;
+import rs.raf.demo.model.OtvorenaStavka;
+import rs.raf.demo.repositories.FakturaRepository;
+import rs.raf.demo.repositories.KnjizenjeRepository;
+import rs.raf.demo.repositories.OtvorenaStavkaRepository;
+import rs.raf.demo.repositories.StavkaIzvodaRepository;
+import rs.raf.demo.responses.KarticaPreduzecaResponse;
+import rs.raf.demo.services.IOtvoreneStavkeService;
+import rs.raf.demo.services.ITenantService;
+import rs.raf.demo.utils.Novac;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Odrzava tabelu otvorenih stavki, po jedan red za svaku fakturu sa preostalim dugom,
+ * tako da se stanje preduzeca cita iz indeksa umesto iz svih njegovih faktura.
+ */
+@Service
+public class OtvoreneStavkeService implements IOtvoreneStavkeService {
+
+    private static final int VELICINA_STRANE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(OtvoreneStavkeService.class);
+
+    private final OtvorenaStavkaRepository otvorenaStavkaRepository;
+    private final FakturaRepository fakturaRepository;
+    private final KnjizenjeRepository knjizenjeRepository;
+    private final StavkaIzvodaRepository stavkaIzvodaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ITenantService tenantService;
+
+    @Autowired
+    public OtvoreneStavkeService(OtvorenaStavkaRepository otvorenaStavkaRepository, FakturaRepository fakturaRepository,
+                                KnjizenjeRepository knjizenjeRepository, StavkaIzvodaRepository stavkaIzvodaRepository,
+                                PlatformTransactionManager transactionManager, TenantService tenantService) {
+        this.otvorenaStavkaRepository = otvorenaStavkaRepository;
+        this.fakturaRepository = fakturaRepository;
+        this.knjizenjeRepository = knjizenjeRepository;
+        this.stavkaIzvodaRepository = stavkaIzvodaRepository;
+        this.tenantService = tenantService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public Page<OtvorenaStavka> findOtvorene(Long preduzeceId, Pageable pageSort) {
+        return otvorenaStavkaRepository.findByPreduzeceIdAndOtvorenaTrue(preduzeceId, pageSort);
+    }
+
+    @Override
+    public List<KarticaPreduzecaResponse> getKartica(Long preduzeceId) {
+        return otvorenaStavkaRepository.findKartica(preduzeceId);
+    }
+
+    /**
+     * Stavka se menja tek kada je izmena fakture potvrdjena, u svojoj transakciji.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFakturaEvent(FakturaEvent event) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (event.isObrisana()) {
+                if (otvorenaStavkaRepository.existsById(event.getDokumentId())) {
+                    otvorenaStavkaRepository.deleteById(event.getDokumentId());
+                }
+                return;
+            }
+            otvorenaStavkaRepository.save(napravi(event.getFaktura()));
+        });
+    }
+
+    /**
+     * Knjizenje fakture ili izvoda osvezava stavke faktura na koje se odnosi, iz stanja u bazi.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onKnjizenjeEvent(KnjizenjeEvent event) {
+        transactionTemplate.executeWithoutResult(status -> knjizenjeRepository.findDokumentId(event.getKnjizenjeId())
+                .ifPresent(dokumentId -> {
+                    Optional<Faktura> faktura = fakturaRepository.findById(dokumentId);
+                    List<Faktura> fakture = faktura.isPresent() ? List.of(faktura.get())
+                            : fakturaRepository.findAllById(stavkaIzvodaRepository.findFaktureIzvoda(dokumentId));
+                    otvorenaStavkaRepository.saveAll(fakture.stream().map(this::napravi).collect(Collectors.toList()));
+                }));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void inicijalizuj() {
+        tenantService.zaSvakog(() -> {
+            if (otvorenaStavkaRepository.count() == 0) {
+                // Preko sablona transakcije, jer poziv kroz this zaobilazi @Transactional.
+                transactionTemplate.executeWithoutResult(status -> osvezi());
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public void osvezi() {
+        otvorenaStavkaRepository.deleteAllInBatch();
+        Pageable strana = PageRequest.of(0, VELICINA_STRANE, Sort.by("dokumentId"));
+        long ukupno = 0;
+        Page<Faktura> fakture;
+        do {
+            fakture = fakturaRepository.findAll(strana);
+            otvorenaStavkaRepository.saveAll(fakture.stream().map(this::napravi).collect(Collectors.toList()));
+            ukupno += fakture.getNumberOfElements();
+            strana = strana.next();
+        } while (fakture.hasNext());
+        log.info("Otvorene stavke osvezene za {} faktura", ukupno);
+    }
+
+    private OtvorenaStavka napravi(Faktura faktura) {
+        int skala = Novac.skala(faktura.getValuta());
+        long iznos = faktura.getIznos() == null ? 0 : Novac.uJedinice(faktura.getIznos(), skala);
+        long placeno = faktura.getNaplata() == null ? 0 : Novac.uJedinice(faktura.getNaplata(), skala);
+
+        OtvorenaStavka stavka = new OtvorenaStavka();
+        stavka.setFakturaId(faktura.getDokumentId());
+        stavka.setPreduzeceId(faktura.getPreduzece() == null ? null : faktura.getPreduzece().getPreduzeceId());
+        stavka.setTipFakture(faktura.getTipFakture());
+        stavka.setBrojFakture(faktura.getBrojFakture());
+        stavka.setDatumIzdavanja(faktura.getDatumIzdavanja());
+        stavka.setDatumPlacanja(faktura.getDatumPlacanja());
+        stavka.setIznos(Novac.uIznos(iznos, skala));
+        stavka.setPlaceno(Novac.uIznos(placeno, skala));
+        stavka.setPreostalo(Novac.uIznos(iznos - placeno, skala));
+        stavka.setValuta(faktura.getValuta());
+        stavka.setKurs(faktura.getKurs() == null ? 1.0 : faktura.getKurs());
+        stavka.setOtvorena(iznos > placeno);
+        return stavka;
+    }
+}
@@ -0,0 +1,114 @@
+package rs.raf.demo.services.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import rs.raf.demo.events.FakturaEvent;
+import rs.raf.demo.model.enums.TipFakture;
+import rs.raf.demo.repositories.FakturaRepository;
+import rs.raf.demo.responses.PdvResponse;
+import rs.raf.demo.responses.PdvStavkaResponse;
+import rs.raf.demo.services.IPdvService;
+import rs.raf.demo.utils.Novac;
+import rs.raf.demo.utils.PoTenantu;
+
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PDV prijava po mesecu i poreskoj stopi. Meseci se racunaju jednim grupisanim
+ * upitom, a rezultati za zavrsene mesece se cuvaju i ne racunaju ponovo.
+ */
+@Service
+public class PdvService implements IPdvService {
+
+    private final FakturaRepository fakturaRepository;
+    private final PoTenantu<Map<YearMonth, List<PdvStavkaResponse>>> zatvoreniMeseci = new PoTenantu<>(HashMap::new);
+    private final PoTenantu<AtomicLong> verzija = new PoTenantu<>(AtomicLong::new);
+
+    @Autowired
+    public PdvService(FakturaRepository fakturaRepository) {
+        this.fakturaRepository = fakturaRepository;
+    }
+
+    @Override
+    public List<PdvResponse> getPdv(YearMonth od, YearMonth doMeseca) {
+        Map<YearMonth, List<PdvStavkaResponse>> meseci = new TreeMap<>();
+        YearMonth prviNedostajuci = null;
+        YearMonth poslednjiNedostajuci = null;
+        long pocetnaVerzija;
+        synchronized (zatvoreniMeseci.get()) {
+            pocetnaVerzija = verzija.get().get();
+            for (YearMonth mesec = od; !mesec.isAfter(doMeseca); mesec = mesec.plusMonths(1)) {
+                List<PdvStavkaResponse> stavke = zatvoreniMeseci.get().get(mesec);
+                if (stavke != null) {
+                    meseci.put(mesec, stavke);
+                } else {
+                    prviNedostajuci = prviNedostajuci == null ? mesec : prviNedostajuci;
+                    poslednjiNedostajuci = mesec;
+                }
+            }
+        }
+
+        if (prviNedostajuci != null) {
+            Map<YearMonth, List<PdvStavkaResponse>> izracunato = izracunaj(prviNedostajuci, poslednjiNedostajuci);
+            for (YearMonth mesec = prviNedostajuci; !mesec.isAfter(poslednjiNedostajuci); mesec = mesec.plusMonths(1)) {
+                List<PdvStavkaResponse> stavke = Collections.unmodifiableList(izracunato.getOrDefault(mesec, new ArrayList<>()));
+                meseci.putIfAbsent(mesec, stavke);
+                if (mesec.isBefore(YearMonth.now())) {
+                    synchronized (zatvoreniMeseci.get()) {
+                        // Mesec ponisten tokom racunanja je mozda racunat iz stanja pre izmene.
+                        if (verzija.get().get() == pocetnaVerzija) {
+                            zatvoreniMeseci.get().put(mesec, stavke);
+                        }
+                    }
+                }
+            }
+        }
+
+        List<PdvResponse> rezultat = new ArrayList<>();
+        meseci.forEach((mesec, stavke) -> {
+            long izlazni = 0;
+            long ulazni = 0;
+            for (PdvStavkaResponse stavka : stavke) {
+                long porez = Novac.uJedinice(stavka.getPorez(), Novac.PODRAZUMEVANA_SKALA);
+                if (stavka.getTipFakture() == TipFakture.ULAZNA_FAKTURA) {
+                    ulazni += porez;
+                } else {
+                    izlazni += porez;
+                }
+            }
+            rezultat.add(new PdvResponse(mesec.toString(), stavke, Novac.uIznos(izlazni, Novac.PODRAZUMEVANA_SKALA),
+                    Novac.uIznos(ulazni, Novac.PODRAZUMEVANA_SKALA), Novac.uIznos(izlazni - ulazni, Novac.PODRAZUMEVANA_SKALA)));
+        });
+        return rezultat;
+    }
+
+    /**
+     * Posle potvrde izmene ponistava mesec starog i mesec novog datuma izdavanja.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFakturaEvent(FakturaEvent event) {
+        synchronized (zatvoreniMeseci.get()) {
+            verzija.get().incrementAndGet();
+            for (Date datum : event.getDatumi()) {
+                zatvoreniMeseci.get().remove(YearMonth.from(datum.toInstant().atZone(ZoneId.systemDefault())));
+            }
+        }
+    }
+
+    private Map<YearMonth, List<PdvStavkaResponse>> izracunaj(YearMonth od, YearMonth doMeseca) {
+        Date pocetak = Date.from(od.atDay(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        Date kraj = Date.from(doMeseca.plusMonths(1).atDay(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+
+        Map<YearMonth, List<PdvStavkaResponse>> meseci = new HashMap<>();
+        for (Object[] red : fakturaRepository.findPdvPoMesecimaIStopama(pocetak, kraj)) {
+            YearMonth mesec = YearMonth.of(((Number) red[0]).intValue(), ((Number) red[1]).intValue());
+            meseci.computeIfAbsent(mesec, m -> new ArrayList<>()).add(new PdvStavkaResponse(
+                    (TipFakture) red[2], (Double) red[3], ((Number) red[4]).doubleValue(), ((Number) red[5]).doubleValue()));
+        }
+        return meseci;
+    }
+}
@@ -0,0 +1,373 @@
+package rs.raf.demo.services.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.raf.demo.configuration.PreracunFakturaProperties;
+import rs.raf.demo.events.FakturaEvent;
+import rs.raf.demo.exceptions.OperationNotSupportedException;
+import rs.raf.demo.model.Faktura;
+import rs.raf.demo.model.PreracunFaktura;
+import rs.raf.demo.model.PreracunRazlika;
+import rs.raf.demo.model.enums.StatusPreracuna;
+import rs.raf.demo.model.enums.TipDokumenta;
+import rs.raf.demo.repositories.FakturaRepository;
+import rs.raf.demo.repositories.PreracunFakturaRepository;
+import rs.raf.demo.repositories.PreracunRazlikaRepository;
+import rs.raf.demo.services.IPreracunFakturaService;
+import rs.raf.demo.utils.FakturaUtil;
+import rs.raf.demo.utils.Novac;
+import rs.raf.demo.utils.PoTenantu;
+import rs.raf.demo.utils.TenantKontekst;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityNotFoundException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+
+/**
+ * Paketni preracun rabata, poreza i iznosa svih faktura preko {@link FakturaUtil}.
+ * Fakture se citaju u serijama po id-ju, serija se preracunava paralelno, a
+ * izmenjene vrednosti se upisuju JDBC batch-om zajedno sa outbox dogadjajima
+ * (da bi se osvezila automatska knjizenja) i poslednjim obradjenim id-jem, sve u
+ * jednoj transakciji. Zato se prekinut preracun nastavlja tacno od prve
+ * neupisane serije. Fakture iz zatvorenih godina se preskacu, jer bi njihova
+ * izmena promenila zakljucane poreske i knjigovodstvene podatke.
+ */
+@Service
+public class PreracunFakturaService implements IPreracunFakturaService {
+
+    private static final int PRAG = 256;
+    private static final int SKALA = Novac.skala("RSD");
+
+    private static final String CITANJE = "select f.fakturaId, f.brojFakture, f.prodajnaVrednost, f.rabatProcenat," +
+            " f.rabat, f.porezProcenat, f.porez, f.iznos, f.valuta, f.kurs, f.datumIzdavanja" +
+            " from Faktura f where f.fakturaId > ? order by f.fakturaId limit ?";
+
+    private final Logger log = LoggerFactory.getLogger(PreracunFakturaService.class);
+
+    private final PreracunFakturaRepository preracunFakturaRepository;
+    private final PreracunRazlikaRepository preracunRazlikaRepository;
+    private final FakturaRepository fakturaRepository;
+    private final PreracunFakturaProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObracunskiPeriodService obracunskiPeriodService;
+    private final ExecutorService koordinator = Executors.newSingleThreadExecutor();
+    private final ForkJoinPool radnici;
+    private final PoTenantu<Set<Long>> uToku = new PoTenantu<>(HashSet::new);
+
+    @Autowired
+    public PreracunFakturaService(PreracunFakturaRepository preracunFakturaRepository,
+                                  PreracunRazlikaRepository preracunRazlikaRepository,
+                                  FakturaRepository fakturaRepository,
+                                  PreracunFakturaProperties properties,
+                                  JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  ApplicationEventPublisher eventPublisher,
+                                  ObracunskiPeriodService obracunskiPeriodService) {
+        this.preracunFakturaRepository = preracunFakturaRepository;
+        this.preracunRazlikaRepository = preracunRazlikaRepository;
+        this.fakturaRepository = fakturaRepository;
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.obracunskiPeriodService = obracunskiPeriodService;
+        this.radnici = new ForkJoinPool(properties.getNiti());
+    }
+
+    @Override
+    public PreracunFaktura pokreni(boolean probniRad) {
+        synchronized (uToku.get()) {
+            if (!uToku.get().isEmpty()) {
+                throw new OperationNotSupportedException("Preracun faktura je vec u toku");
+            }
+            PreracunFaktura preracun = new PreracunFaktura();
+            preracun.setProbniRad(probniRad);
+            preracun.setStatus(StatusPreracuna.U_TOKU);
+            preracun.setPoslednjiDokumentId(0L);
+            preracun.setObradjeno(0L);
+            preracun.setIzmenjeno(0L);
+            preracun.setPreskoceno(0L);
+            preracun.setRazlikaPoreza(0.0);
+            preracun.setRazlikaIznosa(0.0);
+            preracun.setPocetak(new Date());
+            preracun = preracunFakturaRepository.save(preracun);
+            zakazi(preracun.getPreracunId());
+            return preracun;
+        }
+    }
+
+    /**
+     * Nastavlja preracun koji je prekinut greskom ili gasenjem aplikacije.
+     */
+    @Override
+    public PreracunFaktura nastavi(Long preracunId) {
+        synchronized (uToku.get()) {
+            PreracunFaktura preracun = getStatus(preracunId);
+            if (uToku.get().contains(preracunId)) {
+                return preracun;
+            }
+            if (!uToku.get().isEmpty()) {
+                throw new OperationNotSupportedException("Preracun faktura je vec u toku");
+            }
+            if (preracun.getStatus() == StatusPreracuna.ZAVRSEN) {
+                throw new OperationNotSupportedException(String.format("Preracun %d je vec zavrsen", preracunId));
+            }
+            preracun.setStatus(StatusPreracuna.U_TOKU);
+            preracun.setGreska(null);
+            preracun = preracunFakturaRepository.save(preracun);
+            zakazi(preracunId);
+            return preracun;
+        }
+    }
+
+    @Override
+    public PreracunFaktura getStatus(Long preracunId) {
+        return preracunFakturaRepository.findById(preracunId).orElseThrow(EntityNotFoundException::new);
+    }
+
+    @Override
+    public Page<PreracunRazlika> getRazlike(Long preracunId, int page, int size) {
+        getStatus(preracunId);
+        return preracunRazlikaRepository.findByPreracunIdOrderByDokumentId(preracunId, PageRequest.of(page, size));
+    }
+
+    @PreDestroy
+    public void zaustavi() {
+        koordinator.shutdownNow();
+        radnici.shutdownNow();
+    }
+
+    private void zakazi(Long preracunId) {
+        uToku.get().add(preracunId);
+        try {
+            koordinator.execute(TenantKontekst.prenesi(() -> preracunaj(preracunId)));
+        } catch (RuntimeException e) {
+            uToku.get().remove(preracunId);
+            throw e;
+        }
+    }
+
+    private void preracunaj(Long preracunId) {
+        try {
+            int obradjeno;
+            do {
+                List<Long> izmenjene = new ArrayList<>();
+                Integer serija = transactionTemplate.execute(status -> obradiSeriju(preracunId, izmenjene));
+                obradjeno = serija == null ? 0 : serija;
+                objavi(izmenjene);
+            } while (obradjeno == properties.getSerija() && !Thread.currentThread().isInterrupted());
+            if (Thread.currentThread().isInterrupted()) {
+                // Gasenje aplikacije; status ostaje U_TOKU i preracun se nastavlja od poslednje serije.
+                log.warn("Preracun faktura {} je prekinut", preracunId);
+                return;
+            }
+            zavrsi(preracunId, StatusPreracuna.ZAVRSEN, null);
+            log.info("Preracun faktura {} je zavrsen", preracunId);
+        } catch (RuntimeException e) {
+            log.error("Preracun faktura {} nije uspeo", preracunId, e);
+            zavrsi(preracunId, StatusPreracuna.GRESKA, e.getMessage());
+        } finally {
+            synchronized (uToku.get()) {
+                uToku.get().remove(preracunId);
+            }
+        }
+    }
+
+    /**
+     * @param izmenjene Ovde se dodaju id-jevi faktura koje su upisane, da bi se posle commit-a objavili dogadjaji.
+     * @return Broj procitanih faktura.
+     */
+    private int obradiSeriju(Long preracunId, List<Long> izmenjene) {
+        PreracunFaktura preracun = getStatus(preracunId);
+        boolean probniRad = preracun.getProbniRad();
+        // U pravom radu se serija zakljucava, da izmena fakture izmedju citanja i upisa ne bi bila pregazena.
+        List<Red> procitani = jdbcTemplate.query(probniRad ? CITANJE : CITANJE + " for update", PreracunFakturaService::red,
+                preracun.getPoslednjiDokumentId(), properties.getSerija());
+        if (procitani.isEmpty()) {
+            return 0;
+        }
+        Set<Integer> zatvorene = obracunskiPeriodService.getZatvoreneGodine();
+        Red[] redovi = procitani.stream().filter(red -> !zatvorene.contains(red.godina)).toArray(Red[]::new);
+        radnici.invoke(new Preracunavanje(redovi, 0, redovi.length));
+
+        List<Red> promenjeni = Arrays.stream(redovi).filter(Red::promenjen).collect(Collectors.toList());
+        // Fakture su u razlicitim valutama, pa se razlika svake preracunava u RSD pare pre sabiranja.
+        long razlikaPoreza = 0;
+        long razlikaIznosa = 0;
+        for (Red red : promenjeni) {
+            razlikaPoreza += uDinare(red, red.noviPorez, red.porez);
+            razlikaIznosa += uDinare(red, red.noviIznos, red.iznos);
+        }
+
+        if (probniRad) {
+            zabeleziRazlike(preracun, promenjeni);
+        } else if (!promenjeni.isEmpty()) {
+            jdbcTemplate.batchUpdate("update Faktura set rabat = ?, porez = ?, iznos = ? where fakturaId = ?",
+                    promenjeni, promenjeni.size(), (ps, red) -> {
+                        ps.setDouble(1, red.noviRabat);
+                        ps.setDouble(2, red.noviPorez);
+                        ps.setDouble(3, red.noviIznos);
+                        ps.setLong(4, red.fakturaId);
+                    });
+            Timestamp sada = new Timestamp(System.currentTimeMillis());
+            jdbcTemplate.batchUpdate("insert into OutboxDogadjaj (dokumentId, tipDokumenta, kreiran, obradjen) values (?, ?, ?, ?)",
+                    promenjeni, promenjeni.size(), (ps, red) -> {
+                        ps.setLong(1, red.fakturaId);
+                        ps.setString(2, TipDokumenta.FAKTURA.name());
+                        ps.setTimestamp(3, sada);
+                        ps.setBoolean(4, false);
+                    });
+            promenjeni.forEach(red -> izmenjene.add(red.fakturaId));
+        }
+
+        preracun.setPoslednjiDokumentId(procitani.get(procitani.size() - 1).fakturaId);
+        preracun.setObradjeno(preracun.getObradjeno() + procitani.size());
+        preracun.setIzmenjeno(preracun.getIzmenjeno() + promenjeni.size());
+        preracun.setPreskoceno(preracun.getPreskoceno() + procitani.size() - redovi.length);
+        preracun.setRazlikaPoreza(Novac.uIznos(Novac.uJedinice(preracun.getRazlikaPoreza(), SKALA) + razlikaPoreza, SKALA));
+        preracun.setRazlikaIznosa(Novac.uIznos(Novac.uJedinice(preracun.getRazlikaIznosa(), SKALA) + razlikaIznosa, SKALA));
+        preracunFakturaRepository.save(preracun);
+        return procitani.size();
+    }
+
+    private void zabeleziRazlike(PreracunFaktura preracun, List<Red> promenjeni) {
+        long mesta = properties.getMaxRazlika() - preracun.getIzmenjeno();
+        List<PreracunRazlika> razlike = new ArrayList<>();
+        for (Red red : promenjeni) {
+            if (razlike.size() >= mesta) {
+                break;
+            }
+            PreracunRazlika razlika = new PreracunRazlika();
+            razlika.setPreracunId(preracun.getPreracunId());
+            razlika.setDokumentId(red.fakturaId);
+            razlika.setBrojFakture(red.brojFakture);
+            razlika.setStariRabat(red.rabat);
+            razlika.setNoviRabat(red.noviRabat);
+            razlika.setStariPorez(red.porez);
+            razlika.setNoviPorez(red.noviPorez);
+            razlika.setStariIznos(red.iznos);
+            razlika.setNoviIznos(red.noviIznos);
+            razlike.add(razlika);
+        }
+        preracunRazlikaRepository.saveAll(razlike);
+    }
+
+    /**
+     * Kesevi i indeksi nad fakturama se osvezavaju istim dogadjajem kao posle izmene jedne fakture.
+     */
+    private void objavi(List<Long> izmenjene) {
+        for (Faktura faktura : fakturaRepository.findAllById(izmenjene)) {
+            eventPublisher.publishEvent(new FakturaEvent(faktura.getDokumentId(), faktura, faktura.getDatumIzdavanja(), faktura.getTipFakture()));
+        }
+    }
+
+    private void zavrsi(Long preracunId, StatusPreracuna status, String greska) {
+        transactionTemplate.executeWithoutResult(s -> preracunFakturaRepository.findById(preracunId).ifPresent(preracun -> {
+            preracun.setStatus(status);
+            preracun.setZavrsetak(new Date());
+            preracun.setGreska(greska == null ? null : greska.substring(0, Math.min(greska.length(), 1000)));
+            preracunFakturaRepository.save(preracun);
+        }));
+    }
+
+    private static Red red(ResultSet rs, int broj) throws SQLException {
+        Red red = new Red();
+        red.fakturaId = rs.getLong(1);
+        red.brojFakture = rs.getString(2);
+        red.prodajnaVrednost = rs.getDouble(3);
+        red.rabatProcenat = rs.getObject(4, Double.class);
+        red.rabat = rs.getObject(5, Double.class);
+        red.porezProcenat = rs.getDouble(6);
+        red.porez = rs.getObject(7, Double.class);
+        red.iznos = rs.getObject(8, Double.class);
+        red.skala = Novac.skala(rs.getString(9));
+        red.kurs = rs.getObject(10, Double.class);
+        Timestamp datum = rs.getTimestamp(11);
+        red.godina = datum == null ? 0 : datum.toLocalDateTime().getYear();
+        return red;
+    }
+
+    /**
+     * @return Razlika nove i stare vrednosti u RSD parama, po kursu fakture.
+     */
+    private static long uDinare(Red red, double nova, Double stara) {
+        long razlika = Novac.uJedinice(nova, red.skala) - Novac.uJedinice(vrednost(stara), red.skala);
+        return Novac.konvertuj(razlika, red.skala, red.kurs == null ? 1.0 : red.kurs, SKALA);
+    }
+
+    private static double vrednost(Double iznos) {
+        return iznos == null ? 0.0 : iznos;
+    }
+
+    private static final class Preracunavanje extends RecursiveAction {
+
+        private final Red[] redovi;
+        private final int od;
+        private final int doReda;
+
+        Preracunavanje(Red[] redovi, int od, int doReda) {
+            this.redovi = redovi;
+            this.od = od;
+            this.doReda = doReda;
+        }
+
+        @Override
+        protected void compute() {
+            if (doReda - od > PRAG) {
+                int sredina = (od + doReda) >>> 1;
+                invokeAll(new Preracunavanje(redovi, od, sredina), new Preracunavanje(redovi, sredina, doReda));
+                return;
+            }
+            for (int i = od; i < doReda; i++) {
+                Red red = redovi[i];
+                // Bez procenta rabata ostaje upisani rabat, kao kod faktura unetih pre procenta.
+                long prodajnaVrednost = Novac.uJedinice(red.prodajnaVrednost, red.skala);
+                long rabat = red.rabatProcenat == null ? Novac.uJedinice(vrednost(red.rabat), red.skala)
+                        : FakturaUtil.rabat(prodajnaVrednost, red.rabatProcenat);
+                long porez = FakturaUtil.porez(prodajnaVrednost, rabat, red.porezProcenat);
+                red.noviRabat = Novac.uIznos(rabat, red.skala);
+                red.noviPorez = Novac.uIznos(porez, red.skala);
+                red.noviIznos = Novac.uIznos(FakturaUtil.iznos(prodajnaVrednost, rabat, porez), red.skala);
+            }
+        }
+    }
+
+    private static final class Red {
+        private long fakturaId;
+        private String brojFakture;
+        private double prodajnaVrednost;
+        private Double rabatProcenat;
+        private Double rabat;
+        private double porezProcenat;
+        private Double porez;
+        private Double iznos;
+        private int skala;
+        private Double kurs;
+        private int godina;
+        private double noviRabat;
+        private double noviPorez;
+        private double noviIznos;
+
+        private boolean promenjen() {
+            return !Objects.equals(rabat, noviRabat) || !Objects.equals(porez, noviPorez) || !Objects.equals(iznos, noviIznos);
+        }
+    }
+}
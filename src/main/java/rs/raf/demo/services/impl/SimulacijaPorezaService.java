@@ -0,0 +1,235 @@
+package rs.raf.demo.services.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import rs.raf.demo.events.FakturaEvent;
+import rs.raf.demo.exceptions.OperationNotSupportedException;
+import rs.raf.demo.model.Faktura;
+import rs.raf.demo.model.enums.TipFakture;
+import rs.raf.demo.repositories.FakturaRepository;
+import rs.raf.demo.requests.PromenaStopeRequest;
+import rs.raf.demo.requests.SimulacijaPorezaRequest;
+import rs.raf.demo.responses.SimulacijaPorezaResponse;
+import rs.raf.demo.responses.SimulacijaStavkaResponse;
+import rs.raf.demo.services.ISimulacijaPorezaService;
+import rs.raf.demo.utils.IznosiFaktura;
+import rs.raf.demo.utils.Novac;
+import rs.raf.demo.utils.PoTenantu;
+
+import javax.annotation.PreDestroy;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Simulacija PDV-a i iznosa faktura za hipoteticke stope poreza. Iznosi svih
+ * faktura se ucitavaju jednom u kolone. Izmenjene fakture se pamte i pre
+ * sledece simulacije upisuju u novu verziju skupa, umesto ponovnog ucitavanja;
+ * svaka simulacija pravi svoju kopiju izmenjenih kolona, racuna rabat, porez i
+ * iznos paralelno preko {@link rs.raf.demo.utils.FakturaUtil} i vraca razlike
+ * u RSD. Baza se ne menja.
+ */
+@Service
+public class SimulacijaPorezaService implements ISimulacijaPorezaService {
+
+    private static final int VELICINA_STRANE = 10000;
+    private static final int SKALA = Novac.skala("RSD");
+
+    private final Logger log = LoggerFactory.getLogger(SimulacijaPorezaService.class);
+
+    private final FakturaRepository fakturaRepository;
+    private final ForkJoinPool izvrsilac;
+    private final PoTenantu<Osnova> osnove = new PoTenantu<>(Osnova::new);
+
+    @Autowired
+    public SimulacijaPorezaService(FakturaRepository fakturaRepository,
+                                   @Value("${faktura.simulacija.niti:4}") int niti) {
+        this.fakturaRepository = fakturaRepository;
+        this.izvrsilac = new ForkJoinPool(niti);
+    }
+
+    @PreDestroy
+    public void zaustavi() {
+        izvrsilac.shutdownNow();
+    }
+
+    @Override
+    public SimulacijaPorezaResponse simuliraj(SimulacijaPorezaRequest request) {
+        int od = request.getOd() == null ? Integer.MIN_VALUE : (int) request.getOd().toEpochDay();
+        int doDana = request.getDoDatuma() == null ? Integer.MAX_VALUE : (int) request.getDoDatuma().toEpochDay();
+        if (doDana < od) {
+            throw new OperationNotSupportedException("Datum \"do\" je pre datuma \"od\"");
+        }
+        List<PromenaStopeRequest> promene = request.getPromene();
+
+        IznosiFaktura pre = osnova();
+        IznosiFaktura posle = pre.izmeni(izvrsilac, red -> {
+            int dan = pre.getEpochDan(red);
+            if (dan < od || dan > doDana) {
+                return Double.NaN;
+            }
+            for (PromenaStopeRequest promena : promene) {
+                if (odgovara(promena, pre, red)) {
+                    return promena.getNovaStopa();
+                }
+            }
+            return Double.NaN;
+        });
+
+        // Zbirovi su u RSD parama; svaki iznos se preracunava i zaokruzuje pre sabiranja.
+        Map<List<Object>, long[]> grupe = new HashMap<>();
+        int brojFaktura = 0;
+        int brojIzmenjenih = 0;
+        for (int red = 0; red < pre.getBrojRedova(); red++) {
+            int dan = pre.getEpochDan(red);
+            if (dan < od || dan > doDana) {
+                continue;
+            }
+            brojFaktura++;
+            if (posle.getPorezProcenat(red) != pre.getPorezProcenat(red)) {
+                brojIzmenjenih++;
+            }
+            double kurs = pre.getKurs(red);
+            int skala = pre.getSkala(red);
+            long[] zbir = grupe.computeIfAbsent(Arrays.asList(pre.getTipFakture(red), pre.getPorezProcenat(red),
+                    posle.getPorezProcenat(red)), kljuc -> new long[6]);
+            zbir[0]++;
+            zbir[1] += Novac.konvertuj(pre.getOsnovicaJedinice(red), skala, kurs, SKALA);
+            zbir[2] += Novac.konvertuj(pre.getPorezJedinice(red), skala, kurs, SKALA);
+            zbir[3] += Novac.konvertuj(posle.getPorezJedinice(red), skala, kurs, SKALA);
+            zbir[4] += Novac.konvertuj(pre.getIznosJedinice(red), skala, kurs, SKALA);
+            zbir[5] += Novac.konvertuj(posle.getIznosJedinice(red), skala, kurs, SKALA);
+        }
+
+        List<SimulacijaStavkaResponse> stavke = new ArrayList<>();
+        long[] izlazni = new long[2];
+        long[] ulazni = new long[2];
+        grupe.forEach((kljuc, zbir) -> {
+            TipFakture tipFakture = (TipFakture) kljuc.get(0);
+            stavke.add(new SimulacijaStavkaResponse(tipFakture, (Double) kljuc.get(1), (Double) kljuc.get(2), zbir[0],
+                    iznos(zbir[1]), iznos(zbir[2]), iznos(zbir[3]), iznos(zbir[3] - zbir[2]),
+                    iznos(zbir[4]), iznos(zbir[5]), iznos(zbir[5] - zbir[4])));
+            long[] pdv = tipFakture == TipFakture.ULAZNA_FAKTURA ? ulazni : izlazni;
+            pdv[0] += zbir[2];
+            pdv[1] += zbir[3];
+        });
+        stavke.sort(Comparator.comparing((SimulacijaStavkaResponse s) -> String.valueOf(s.getTipFakture()))
+                .thenComparing(SimulacijaStavkaResponse::getPorezProcenat)
+                .thenComparing(SimulacijaStavkaResponse::getNovaStopa));
+        return new SimulacijaPorezaResponse(brojFaktura, brojIzmenjenih, stavke, iznos(izlazni[0]), iznos(izlazni[1]),
+                iznos(ulazni[0]), iznos(ulazni[1]), iznos((izlazni[1] - ulazni[1]) - (izlazni[0] - ulazni[0])));
+    }
+
+    /**
+     * Pamti iznose fakture posle izmene, ili null ako je obrisana. Dok skup nije
+     * ni ucitan ni u ucitavanju, izmene ce procitati samo ucitavanje.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFakturaEvent(FakturaEvent event) {
+        Osnova osnova = osnove.get();
+        synchronized (osnova) {
+            if (osnova.skup != null || osnova.ucitavanja > 0) {
+                osnova.izmene.put(event.getDokumentId(), event.isObrisana() ? null : red(event.getFaktura()));
+            }
+        }
+    }
+
+    /**
+     * Ucitani skup iznosa sa upisanim izmenama. Izmene koje stignu tokom ucitavanja se
+     * cuvaju i upisuju posle njega: ponovni upis fakture koju je ucitavanje vec procitalo
+     * samo zameni njen red istim vrednostima.
+     */
+    private IznosiFaktura osnova() {
+        Osnova osnova = osnove.get();
+        synchronized (osnova) {
+            if (osnova.skup != null) {
+                return primeni(osnova);
+            }
+            if (osnova.ucitavanja++ == 0) {
+                osnova.izmene.clear();
+            }
+        }
+        IznosiFaktura skup = null;
+        try {
+            skup = ucitaj();
+        } finally {
+            synchronized (osnova) {
+                osnova.ucitavanja--;
+                if (osnova.skup == null) {
+                    osnova.skup = skup;
+                }
+            }
+        }
+        synchronized (osnova) {
+            return primeni(osnova);
+        }
+    }
+
+    private static IznosiFaktura primeni(Osnova osnova) {
+        if (!osnova.izmene.isEmpty()) {
+            IznosiFaktura.Graditelj graditelj = new IznosiFaktura.Graditelj(osnova.skup, osnova.izmene.keySet());
+            for (Object[] red : osnova.izmene.values()) {
+                if (red != null) {
+                    dodaj(graditelj, red);
+                }
+            }
+            osnova.skup = graditelj.izgradi();
+            osnova.izmene.clear();
+        }
+        return osnova.skup;
+    }
+
+    private IznosiFaktura ucitaj() {
+        IznosiFaktura.Graditelj graditelj = new IznosiFaktura.Graditelj(VELICINA_STRANE);
+        long poslednjiId = 0;
+        List<Object[]> redovi;
+        do {
+            redovi = fakturaRepository.findIznoseZaSimulaciju(poslednjiId, PageRequest.of(0, VELICINA_STRANE));
+            for (Object[] red : redovi) {
+                dodaj(graditelj, red);
+                poslednjiId = (Long) red[11];
+            }
+        } while (redovi.size() == VELICINA_STRANE);
+        IznosiFaktura skup = graditelj.izgradi();
+        log.info("Iznosi za simulaciju poreza ucitani za {} faktura", skup.getBrojRedova());
+        return skup;
+    }
+
+    /**
+     * Dodaje red u obliku koji vraca {@link FakturaRepository#findIznoseZaSimulaciju}.
+     */
+    private static void dodaj(IznosiFaktura.Graditelj graditelj, Object[] red) {
+        int dan = (int) ((Date) red[3]).toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+        graditelj.dodaj((Long) red[11], (TipFakture) red[0], (String) red[1], (Long) red[2], dan, (Double) red[4],
+                (Double) red[5], (Double) red[6], (Double) red[7], (Double) red[8], (Double) red[9], (Double) red[10]);
+    }
+
+    private static Object[] red(Faktura faktura) {
+        return new Object[]{faktura.getTipFakture(), faktura.getValuta(),
+                faktura.getPreduzece() == null ? null : faktura.getPreduzece().getPreduzeceId(),
+                faktura.getDatumIzdavanja(), faktura.getKurs(), faktura.getProdajnaVrednost(), faktura.getRabatProcenat(),
+                faktura.getRabat(), faktura.getPorezProcenat(), faktura.getPorez(), faktura.getIznos(), faktura.getDokumentId()};
+    }
+
+    private static double iznos(long pare) {
+        return Novac.uIznos(pare, SKALA);
+    }
+
+    private static boolean odgovara(PromenaStopeRequest promena, IznosiFaktura skup, int red) {
+        return (promena.getPorezProcenat() == null || promena.getPorezProcenat() == skup.getPorezProcenat(red))
+                && (promena.getTipFakture() == null || promena.getTipFakture() == skup.getTipFakture(red))
+                && (promena.getValuta() == null || promena.getValuta().equals(skup.getValuta(red)))
+                && (promena.getPreduzeceId() == null || promena.getPreduzeceId() == skup.getPreduzece(red));
+    }
+
+    private static final class Osnova {
+        private IznosiFaktura skup;
+        private int ucitavanja;
+        private final Map<Long, Object[]> izmene = new HashMap<>();
+    }
+}
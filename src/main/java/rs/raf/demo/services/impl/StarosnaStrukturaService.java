@@ -0,0 +1,171 @@
+package rs.raf.demo.services.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import rs.raf.demo.model.OtvorenaStavka;
+import rs.raf.demo.model.Preduzece;
+import rs.raf.demo.model.enums.TipFakture;
+import rs.raf.demo.repositories.PreduzeceRepository;
+import rs.raf.demo.responses.StarosnaStrukturaResponse;
+import rs.raf.demo.responses.StarosnaStrukturaStavka;
+import rs.raf.demo.services.IStarosnaStrukturaService;
+import rs.raf.demo.utils.CsvUtil;
+import rs.raf.demo.utils.Novac;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Starosna struktura potrazivanja (ili obaveza) po preduzecu. Svi intervali
+ * se racunaju jednim grupisanim upitom nad otvorenim stavkama.
+ */
+@Service
+public class StarosnaStrukturaService implements IStarosnaStrukturaService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final PreduzeceRepository preduzeceRepository;
+
+    private static final int BLOK_NAZIVA = 500;
+
+    @Value("${izvestaji.starosna-struktura.granice:30,60,90}")
+    private int[] granice = {30, 60, 90};
+
+    @Autowired
+    public StarosnaStrukturaService(PreduzeceRepository preduzeceRepository) {
+        this.preduzeceRepository = preduzeceRepository;
+    }
+
+    @Override
+    public StarosnaStrukturaResponse getStarosnaStruktura(TipFakture tipFakture, LocalDate naDan) {
+        List<Tuple> redovi = upit(tipFakture, naDan).getResultList();
+        Map<Long, String> nazivi = nazivi(redovi);
+
+        List<StarosnaStrukturaStavka> stavke = redovi.stream()
+                .map(red -> stavka(red, nazivi))
+                .collect(Collectors.toList());
+        return new StarosnaStrukturaResponse(intervali(), stavke);
+    }
+
+    /**
+     * Redovi se citaju iz upita kao tok i upisuju cim se razrese nazivi preduzeca
+     * za blok od {@link #BLOK_NAZIVA} redova, pa izvestaj nikada nije ceo u memoriji.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void izveziCsv(TipFakture tipFakture, LocalDate naDan, OutputStream izlaz) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(izlaz, StandardCharsets.UTF_8));
+        List<String> zaglavlje = new ArrayList<>(List.of("preduzeceId", "naziv"));
+        zaglavlje.addAll(intervali());
+        zaglavlje.add("ukupno");
+        try (Stream<Tuple> redovi = upit(tipFakture, naDan).getResultStream()) {
+            CsvUtil.red(writer, zaglavlje);
+            List<Tuple> blok = new ArrayList<>(BLOK_NAZIVA);
+            Iterator<Tuple> iterator = redovi.iterator();
+            while (iterator.hasNext()) {
+                blok.add(iterator.next());
+                if (blok.size() == BLOK_NAZIVA || !iterator.hasNext()) {
+                    upisi(writer, blok);
+                    blok.clear();
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void upisi(Writer writer, List<Tuple> blok) throws IOException {
+        Map<Long, String> nazivi = nazivi(blok);
+        for (Tuple red : blok) {
+            StarosnaStrukturaStavka stavka = stavka(red, nazivi);
+            List<Object> polja = new ArrayList<>(stavka.getIznosi().size() + 3);
+            polja.add(stavka.getPreduzeceId());
+            polja.add(stavka.getNaziv());
+            polja.addAll(stavka.getIznosi());
+            polja.add(stavka.getUkupno());
+            CsvUtil.red(writer, polja);
+        }
+    }
+
+    private Map<Long, String> nazivi(List<Tuple> redovi) {
+        Set<Long> ids = redovi.stream()
+                .map(red -> red.get(0, Long.class))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return preduzeceRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Preduzece::getPreduzeceId, Preduzece::getNaziv));
+    }
+
+    private TypedQuery<Tuple> upit(TipFakture tipFakture, LocalDate naDan) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<OtvorenaStavka> root = query.from(OtvorenaStavka.class);
+
+        Path<Date> dospece = root.get("datumPlacanja");
+        Expression<Double> preostalo = cb.prod(root.<Double>get("preostalo"), root.<Double>get("kurs"));
+        Function<Integer, Date> danaUnazad = dana -> Date.from(naDan.minusDays(dana).atStartOfDay(ZoneId.systemDefault()).toInstant());
+
+        List<Selection<?>> kolone = new ArrayList<>();
+        kolone.add(root.get("preduzeceId"));
+        kolone.add(cb.sum(cb.<Double>selectCase()
+                .when(cb.greaterThanOrEqualTo(dospece, danaUnazad.apply(0)), preostalo)
+                .otherwise(0.0)));
+        int prethodna = 0;
+        for (int granica : granice) {
+            kolone.add(cb.sum(cb.<Double>selectCase()
+                    .when(cb.and(cb.lessThan(dospece, danaUnazad.apply(prethodna)),
+                                 cb.greaterThanOrEqualTo(dospece, danaUnazad.apply(granica))), preostalo)
+                    .otherwise(0.0)));
+            prethodna = granica;
+        }
+        kolone.add(cb.sum(cb.<Double>selectCase()
+                .when(cb.lessThan(dospece, danaUnazad.apply(prethodna)), preostalo)
+                .otherwise(0.0)));
+
+        query.multiselect(kolone)
+             .where(cb.isTrue(root.get("otvorena")), cb.equal(root.get("tipFakture"), tipFakture))
+             .groupBy(root.get("preduzeceId"));
+        return entityManager.createQuery(query);
+    }
+
+    private StarosnaStrukturaStavka stavka(Tuple red, Map<Long, String> nazivi) {
+        Long preduzeceId = red.get(0, Long.class);
+        List<Double> iznosi = new ArrayList<>(granice.length + 2);
+        long ukupno = 0;
+        for (int i = 1; i < granice.length + 3; i++) {
+            Number iznos = (Number) red.get(i);
+            long pare = iznos == null ? 0 : Novac.uJedinice(iznos.doubleValue(), Novac.PODRAZUMEVANA_SKALA);
+            iznosi.add(Novac.uIznos(pare, Novac.PODRAZUMEVANA_SKALA));
+            ukupno += pare;
+        }
+        return new StarosnaStrukturaStavka(preduzeceId, nazivi.get(preduzeceId), iznosi,
+                Novac.uIznos(ukupno, Novac.PODRAZUMEVANA_SKALA));
+    }
+
+    private List<String> intervali() {
+        List<String> intervali = new ArrayList<>(granice.length + 2);
+        intervali.add("tekuce");
+        int prethodna = 0;
+        for (int granica : granice) {
+            intervali.add((prethodna + 1) + "-" + granica);
+            prethodna = granica;
+        }
+        intervali.add(">" + prethodna);
+        return intervali;
+    }
+}
@@ -0,0 +1,63 @@
+package rs.raf.demo.services.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import rs.raf.demo.configuration.TenantProperties;
+import rs.raf.demo.services.ITenantService;
+import rs.raf.demo.utils.TenantKontekst;
+import rs.raf.demo.utils.TenantMetrike;
+
+import javax.persistence.EntityNotFoundException;
+import java.util.Map;
+
+@Service
+public class TenantService implements ITenantService {
+
+    private final TenantProperties properties;
+    private final TenantMetrike metrike;
+
+    @Autowired
+    public TenantService(TenantProperties properties, TenantMetrike metrike) {
+        this.properties = properties;
+        this.metrike = metrike;
+    }
+
+    /**
+     * @return Tenant koji se postavlja u kontekst, ili null za podrazumevanu semu
+     * (i uvek null kada tenanti nisu ukljuceni).
+     * @throws EntityNotFoundException Ako tenant nema semu.
+     */
+    @Override
+    public String razresi(String tenant) {
+        if (!properties.isUkljuceni() || tenant == null || tenant.isBlank()) {
+            return null;
+        }
+        if (!properties.getSeme().containsKey(tenant)) {
+            throw new EntityNotFoundException("Nepoznat tenant " + tenant);
+        }
+        return tenant;
+    }
+
+    /**
+     * Izvrsava posao za podrazumevanu semu i, kada su tenanti ukljuceni, redom za svakog tenanta.
+     * Namenjeno periodicnim poslovima koji nemaju zahtev iz koga bi procitali tenant.
+     */
+    @Override
+    public void zaSvakog(Runnable posao) {
+        TenantKontekst.uz(TenantKontekst.PODRAZUMEVANI, posao);
+        if (properties.isUkljuceni()) {
+            properties.getSeme().keySet().forEach(tenant -> TenantKontekst.uz(tenant, posao));
+        }
+    }
+
+    /**
+     * @return Metrike samo za tenanta iz konteksta, jer su brojevi zahteva i
+     * konekcija drugih tenanata njihov podatak.
+     */
+    @Override
+    public Map<String, Map<String, Number>> getMetrike() {
+        String tenant = TenantKontekst.kljuc();
+        Map<String, Number> vrednosti = metrike.presek().get(tenant);
+        return vrednosti == null ? Map.of() : Map.of(tenant, vrednosti);
+    }
+}
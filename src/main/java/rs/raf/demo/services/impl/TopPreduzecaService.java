@@ -0,0 +1,146 @@
+package rs.raf.demo.services.impl;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import rs.raf.demo.events.FakturaEvent;
+import rs.raf.demo.model.enums.TipFakture;
+import rs.raf.demo.repositories.FakturaRepository;
+import rs.raf.demo.responses.TopPreduzeceResponse;
+import rs.raf.demo.services.ITopPreduzecaService;
+import rs.raf.demo.utils.PoTenantu;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Preduzeca sa najvecim prometom. Grupisanje, sortiranje i odsecanje na prvih n
+ * radi baza, pa aplikacija nikad ne drzi vise od n redova. Rang liste za
+ * poslednje zavrsene mesece se racunaju unapred i vaze dok se ne promeni
+ * neka faktura iz tog meseca.
+ */
+@Service
+public class TopPreduzecaService implements ITopPreduzecaService {
+
+    private final FakturaRepository fakturaRepository;
+    private final PoTenantu<Map<Kljuc, List<TopPreduzeceResponse>>> zatvoreniMeseci = new PoTenantu<>(HashMap::new);
+    private final PoTenantu<AtomicLong> verzija = new PoTenantu<>(AtomicLong::new);
+
+    @Value("${izvestaji.top-preduzeca.meseci:12}")
+    private int meseci = 12;
+
+    @Value("${izvestaji.top-preduzeca.max:100}")
+    private int max = 100;
+
+    @Autowired
+    public TopPreduzecaService(FakturaRepository fakturaRepository) {
+        this.fakturaRepository = fakturaRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void pripremi() {
+        YearMonth tekuci = YearMonth.now();
+        for (TipFakture tip : TipFakture.values()) {
+            for (int i = 1; i <= meseci; i++) {
+                zatvoreniMesec(tip, tekuci.minusMonths(i));
+            }
+        }
+    }
+
+    @Override
+    public List<TopPreduzeceResponse> getTopPreduzeca(TipFakture tipFakture, LocalDate od, LocalDate doDatuma, int n) {
+        YearMonth mesec = YearMonth.from(od);
+        boolean ceoMesec = od.equals(mesec.atDay(1)) && doDatuma.equals(mesec.atEndOfMonth());
+        if (ceoMesec && n <= max && mesec.isBefore(YearMonth.now())) {
+            List<TopPreduzeceResponse> lista = zatvoreniMesec(tipFakture, mesec);
+            return lista.subList(0, Math.min(n, lista.size()));
+        }
+        return izracunaj(tipFakture, od, doDatuma.plusDays(1), n);
+    }
+
+    /**
+     * Posle potvrde izmene ponistava rang listu fakture pre i posle izmene.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFakturaEvent(FakturaEvent event) {
+        synchronized (zatvoreniMeseci.get()) {
+            verzija.get().incrementAndGet();
+            ponisti(event.getPrethodniTip(), event.getPrethodniDatum());
+            if (!event.isObrisana()) {
+                ponisti(event.getFaktura().getTipFakture(), event.getFaktura().getDatumIzdavanja());
+            }
+        }
+    }
+
+    private void ponisti(TipFakture tipFakture, Date datum) {
+        if (datum == null) {
+            return;
+        }
+        YearMonth mesec = YearMonth.from(datum.toInstant().atZone(ZoneId.systemDefault()));
+        // Bez tipa se ne zna koja je lista menjana, pa se ponistavaju sve za taj mesec.
+        for (TipFakture tip : tipFakture == null ? TipFakture.values() : new TipFakture[]{tipFakture}) {
+            zatvoreniMeseci.get().remove(new Kljuc(tip, mesec));
+        }
+    }
+
+    private List<TopPreduzeceResponse> zatvoreniMesec(TipFakture tipFakture, YearMonth mesec) {
+        Kljuc kljuc = new Kljuc(tipFakture, mesec);
+        long pocetnaVerzija;
+        synchronized (zatvoreniMeseci.get()) {
+            List<TopPreduzeceResponse> lista = zatvoreniMeseci.get().get(kljuc);
+            if (lista != null) {
+                return lista;
+            }
+            pocetnaVerzija = verzija.get().get();
+        }
+        List<TopPreduzeceResponse> lista = Collections.unmodifiableList(
+                izracunaj(tipFakture, mesec.atDay(1), mesec.plusMonths(1).atDay(1), max));
+        synchronized (zatvoreniMeseci.get()) {
+            // Lista ponistena tokom racunanja je mozda racunata iz stanja pre izmene.
+            if (verzija.get().get() == pocetnaVerzija) {
+                zatvoreniMeseci.get().put(kljuc, lista);
+            }
+        }
+        return lista;
+    }
+
+    private List<TopPreduzeceResponse> izracunaj(TipFakture tipFakture, LocalDate od, LocalDate doIskljucivo, int n) {
+        Date pocetak = Date.from(od.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        Date kraj = Date.from(doIskljucivo.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        return fakturaRepository.findTopPreduzeca(tipFakture, pocetak, kraj, PageRequest.of(0, n)).stream()
+                .map(red -> new TopPreduzeceResponse((Long) red[0], (String) red[1],
+                        ((Number) red[2]).longValue(), ((Number) red[3]).doubleValue()))
+                .collect(Collectors.toList());
+    }
+
+    private static final class Kljuc {
+        private final TipFakture tipFakture;
+        private final YearMonth mesec;
+
+        Kljuc(TipFakture tipFakture, YearMonth mesec) {
+            this.tipFakture = tipFakture;
+            this.mesec = mesec;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Kljuc)) return false;
+            Kljuc kljuc = (Kljuc) o;
+            return tipFakture == kljuc.tipFakture && mesec.equals(kljuc.mesec);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tipFakture, mesec);
+        }
+    }
+}
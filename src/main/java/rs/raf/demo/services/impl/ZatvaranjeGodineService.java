@@ -0,0 +1,270 @@
+package rs.raf.demo.services.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import rs.raf.demo.configuration.ZatvaranjeGodineProperties;
+import rs.raf.demo.events.KnjizenjeEvent;
+import rs.raf.demo.exceptions.OperationNotSupportedException;
+import rs.raf.demo.model.Knjizenje;
+import rs.raf.demo.model.Konto;
+import rs.raf.demo.model.ObracunskiPeriod;
+import rs.raf.demo.model.ZatvaranjeParticija;
+import rs.raf.demo.model.enums.FazaZatvaranja;
+import rs.raf.demo.model.enums.StatusPerioda;
+import rs.raf.demo.repositories.*;
+import rs.raf.demo.responses.ZatvaranjeGodineResponse;
+import rs.raf.demo.services.IZatvaranjeGodineService;
+import rs.raf.demo.utils.Novac;
+import rs.raf.demo.utils.PoTenantu;
+import rs.raf.demo.utils.TenantKontekst;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityNotFoundException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Zatvaranje poslovne godine. Prvo se prihodi i rashodi zakljucuju na konto
+ * rezultata (knjizenje na dan 31.12.), a zatim se salda konta stanja prenose
+ * u pocetno stanje sledece godine (knjizenje na dan 1.1.). Konta su podeljena
+ * u particije koje se obradjuju paralelno, svaka u svojoj transakciji, pa se
+ * prekinuto zatvaranje nastavlja od prve nezavrsene particije.
+ */
+@Service
+public class ZatvaranjeGodineService implements IZatvaranjeGodineService {
+
+    private final Logger log = LoggerFactory.getLogger(ZatvaranjeGodineService.class);
+
+    private final ObracunskiPeriodRepository obracunskiPeriodRepository;
+    private final ZatvaranjeParticijaRepository zatvaranjeParticijaRepository;
+    private final KnjizenjeRepository knjizenjeRepository;
+    private final KontoRepository kontoRepository;
+    private final KontnaGrupaRepository kontnaGrupaRepository;
+    private final KontnaGrupaService kontnaGrupaService;
+    private final ZatvaranjeGodineProperties properties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService koordinator = Executors.newSingleThreadExecutor();
+    private final ExecutorService radnici;
+    private final PoTenantu<Set<Integer>> uToku = new PoTenantu<>(HashSet::new);
+
+    @Autowired
+    public ZatvaranjeGodineService(ObracunskiPeriodRepository obracunskiPeriodRepository,
+                                   ZatvaranjeParticijaRepository zatvaranjeParticijaRepository,
+                                   KnjizenjeRepository knjizenjeRepository,
+                                   KontoRepository kontoRepository,
+                                   KontnaGrupaRepository kontnaGrupaRepository,
+                                   KontnaGrupaService kontnaGrupaService,
+                                   ZatvaranjeGodineProperties properties,
+                                   ApplicationEventPublisher eventPublisher,
+                                   PlatformTransactionManager transactionManager) {
+        this.obracunskiPeriodRepository = obracunskiPeriodRepository;
+        this.zatvaranjeParticijaRepository = zatvaranjeParticijaRepository;
+        this.knjizenjeRepository = knjizenjeRepository;
+        this.kontoRepository = kontoRepository;
+        this.kontnaGrupaRepository = kontnaGrupaRepository;
+        this.kontnaGrupaService = kontnaGrupaService;
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.radnici = Executors.newFixedThreadPool(properties.getNiti());
+    }
+
+    @Override
+    public ZatvaranjeGodineResponse pokreni(int godina) {
+        synchronized (uToku.get()) {
+            if (!uToku.get().add(godina)) {
+                return getStatus(godina);
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> pripremi(godina));
+            koordinator.execute(TenantKontekst.prenesi(() -> zatvori(godina)));
+        } catch (RuntimeException e) {
+            synchronized (uToku.get()) {
+                uToku.get().remove(godina);
+            }
+            throw e;
+        }
+        return getStatus(godina);
+    }
+
+    @Override
+    public ZatvaranjeGodineResponse getStatus(int godina) {
+        ObracunskiPeriod period = obracunskiPeriodRepository.findById(godina).orElseThrow(EntityNotFoundException::new);
+        return new ZatvaranjeGodineResponse(godina, period.getStatus(),
+                zatvaranjeParticijaRepository.countByGodina(godina),
+                zatvaranjeParticijaRepository.countByGodinaAndZavrsenaTrue(godina),
+                period.getPocetak(), period.getZavrsetak(), period.getGreska());
+    }
+
+    @Override
+    public boolean isZatvorena(int godina) {
+        return obracunskiPeriodRepository.existsByGodinaAndStatus(godina, StatusPerioda.ZATVOREN);
+    }
+
+    @PreDestroy
+    public void zaustavi() {
+        koordinator.shutdownNow();
+        radnici.shutdownNow();
+    }
+
+    private void pripremi(int godina) {
+        if (godina >= LocalDate.now().getYear()) {
+            throw new OperationNotSupportedException(String.format("Godina %d jos nije zavrsena", godina));
+        }
+        ObracunskiPeriod period = obracunskiPeriodRepository.findById(godina).orElse(null);
+        if (period != null && period.getStatus() == StatusPerioda.ZATVOREN) {
+            throw new OperationNotSupportedException(String.format("Godina %d je vec zatvorena", godina));
+        }
+
+        if (period == null) {
+            period = new ObracunskiPeriod();
+            period.setGodina(godina);
+            period.setPocetak(new Date());
+            period.setZakljucnoKnjizenjeId(knjizenje(LocalDate.of(godina, 12, 31)).getKnjizenjeId());
+            period.setPocetnoKnjizenjeId(knjizenje(LocalDate.of(godina + 1, 1, 1)).getKnjizenjeId());
+
+            kontnaGrupaService.findOrCreate(properties.getKontoRezultata());
+            List<String> brojeviKonta = kontnaGrupaRepository.findBrojeviKonta();
+            List<ZatvaranjeParticija> particije = new ArrayList<>();
+            particije.addAll(particije(godina, FazaZatvaranja.ZAKLJUCAK, brojeviKonta, properties.getKlaseUspeha()));
+            particije.addAll(particije(godina, FazaZatvaranja.OTVARANJE, brojeviKonta, properties.getKlaseStanja()));
+            zatvaranjeParticijaRepository.saveAll(particije);
+        }
+        period.setStatus(StatusPerioda.U_TOKU);
+        period.setGreska(null);
+        obracunskiPeriodRepository.save(period);
+    }
+
+    private void zatvori(int godina) {
+        try {
+            ObracunskiPeriod period = obracunskiPeriodRepository.findById(godina).orElseThrow(EntityNotFoundException::new);
+            // Pocetno stanje ukljucuje rezultat, pa otvaranje sme da pocne tek kada su sve particije zakljucka gotove.
+            obradi(godina, FazaZatvaranja.ZAKLJUCAK, period.getZakljucnoKnjizenjeId());
+            obradi(godina, FazaZatvaranja.OTVARANJE, period.getPocetnoKnjizenjeId());
+            zavrsi(godina, StatusPerioda.ZATVOREN, null);
+            log.info("Godina {} je zatvorena", godina);
+        } catch (RuntimeException e) {
+            log.error("Zatvaranje godine {} nije uspelo", godina, e);
+            zavrsi(godina, StatusPerioda.GRESKA, e.getMessage());
+        } finally {
+            synchronized (uToku.get()) {
+                uToku.get().remove(godina);
+            }
+        }
+        obracunskiPeriodRepository.findById(godina).ifPresent(period -> {
+            eventPublisher.publishEvent(new KnjizenjeEvent(period.getZakljucnoKnjizenjeId(),
+                    Collections.singletonList(datum(LocalDate.of(godina, 12, 31)))));
+            eventPublisher.publishEvent(new KnjizenjeEvent(period.getPocetnoKnjizenjeId(),
+                    Collections.singletonList(datum(LocalDate.of(godina + 1, 1, 1)))));
+        });
+    }
+
+    private void obradi(int godina, FazaZatvaranja faza, Long knjizenjeId) {
+        Date kraj = datum(LocalDate.of(godina + 1, 1, 1));
+        String klase = faza == FazaZatvaranja.ZAKLJUCAK ? properties.getKlaseUspeha() : properties.getKlaseStanja();
+        CompletableFuture<?>[] poslovi = zatvaranjeParticijaRepository.findByGodinaAndFazaOrderByPrviKonto(godina, faza).stream()
+                .filter(particija -> !particija.getZavrsena())
+                .map(particija -> CompletableFuture.runAsync(TenantKontekst.prenesi(
+                        () -> obradiParticiju(particija, faza, knjizenjeId, kraj, klase)), radnici))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(poslovi).join();
+    }
+
+    private void obradiParticiju(ZatvaranjeParticija particija, FazaZatvaranja faza, Long knjizenjeId, Date kraj, String klase) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Knjizenje knjizenje = knjizenjeRepository.getById(knjizenjeId);
+            List<Konto> stavke = new ArrayList<>();
+            // Salda su u parama, pa je rezultat tacno jednak zbiru zakljucenih salda.
+            long rezultat = 0;
+            for (Object[] red : kontoRepository.findPrometPoKontimaDo(kraj, particija.getPrviKonto(), particija.getPoslednjiKonto())) {
+                String brojKonta = (String) red[0];
+                long saldo = pare(red[1]) - pare(red[2]);
+                if (brojKonta.isEmpty() || klase.indexOf(brojKonta.charAt(0)) < 0 || saldo == 0) {
+                    continue;
+                }
+                if (faza == FazaZatvaranja.ZAKLJUCAK) {
+                    stavke.add(stavka(knjizenje, brojKonta, iznos(-saldo)));
+                    rezultat += saldo;
+                } else {
+                    stavke.add(stavka(knjizenje, brojKonta, iznos(saldo)));
+                }
+            }
+            if (faza == FazaZatvaranja.ZAKLJUCAK && rezultat != 0) {
+                stavke.add(stavka(knjizenje, properties.getKontoRezultata(), iznos(rezultat)));
+            }
+            kontoRepository.saveAll(stavke);
+            zatvaranjeParticijaRepository.oznaciZavrsenu(particija.getParticijaId());
+        });
+    }
+
+    private void zavrsi(int godina, StatusPerioda status, String greska) {
+        transactionTemplate.executeWithoutResult(s -> obracunskiPeriodRepository.findById(godina).ifPresent(period -> {
+            period.setStatus(status);
+            period.setGreska(greska);
+            period.setZavrsetak(status == StatusPerioda.ZATVOREN ? new Date() : null);
+            obracunskiPeriodRepository.save(period);
+        }));
+    }
+
+    private Knjizenje knjizenje(LocalDate dan) {
+        Knjizenje knjizenje = new Knjizenje();
+        knjizenje.setDatumKnjizenja(datum(dan));
+        return knjizenjeRepository.save(knjizenje);
+    }
+
+    private List<ZatvaranjeParticija> particije(int godina, FazaZatvaranja faza, List<String> brojeviKonta, String klase) {
+        List<String> konta = new ArrayList<>();
+        for (String brojKonta : brojeviKonta) {
+            if (!brojKonta.isEmpty() && klase.indexOf(brojKonta.charAt(0)) >= 0) {
+                konta.add(brojKonta);
+            }
+        }
+        List<ZatvaranjeParticija> particije = new ArrayList<>();
+        for (int i = 0; i < konta.size(); i += properties.getVelicinaParticije()) {
+            List<String> deo = konta.subList(i, Math.min(i + properties.getVelicinaParticije(), konta.size()));
+            ZatvaranjeParticija particija = new ZatvaranjeParticija();
+            particija.setGodina(godina);
+            particija.setFaza(faza);
+            particija.setPrviKonto(deo.get(0));
+            particija.setPoslednjiKonto(deo.get(deo.size() - 1));
+            particija.setZavrsena(false);
+            particije.add(particija);
+        }
+        return particije;
+    }
+
+    private static long pare(Object iznos) {
+        return Novac.uJedinice(((Number) iznos).doubleValue(), Novac.PODRAZUMEVANA_SKALA);
+    }
+
+    private static double iznos(long pare) {
+        return Novac.uIznos(pare, Novac.PODRAZUMEVANA_SKALA);
+    }
+
+    /**
+     * @param saldo Pozitivan saldo se knjizi na duguje, negativan na potrazuje.
+     */
+    private Konto stavka(Knjizenje knjizenje, String brojKonta, double saldo) {
+        Konto konto = new Konto();
+        konto.setKnjizenje(knjizenje);
+        konto.setKontnaGrupa(kontnaGrupaRepository.getById(brojKonta));
+        konto.setDuguje(saldo > 0 ? saldo : 0.0);
+        konto.setPotrazuje(saldo < 0 ? -saldo : 0.0);
+        return konto;
+    }
+
+    private static Date datum(LocalDate dan) {
+        return Date.from(dan.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -6,6 +6,7 @@ import rs.raf.demo.exceptions.OperationNotSupportedException;
 import rs.raf.demo.model.Dokument;
 import rs.raf.demo.model.KontnaGrupa;
 import rs.raf.demo.model.Preduzece;
+import rs.raf.demo.model.enums.TipDokumenta;
 import rs.raf.demo.model.enums.TipFakture;
 import rs.raf.demo.relations.*;
 
@@ -43,6 +44,9 @@ public class RacunSpecification<T> implements Specification<T> {
         if (TipFakture.class == keyType) {
             return new TipFaktureRelations<>(root, builder, key, val);
         }
+        if (TipDokumenta.class == keyType) {
+            return new TipDokumentaRelations<>(root, builder, key, val);
+        }
         if (KontnaGrupa.class == keyType) {
             return new KontnaGrupaRelations<>(root, builder, key, val);
         }
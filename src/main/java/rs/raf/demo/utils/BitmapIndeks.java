@@ -0,0 +1,112 @@
+package rs.raf.demo.utils;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Indeks jednog atributa sa malim brojem razlicitih vrednosti. Za svaku
+ * vrednost drzi kompresovanu bitmapu id-jeva redova koji je imaju. Upiti
+ * vracaju nove bitmape koje pozivalac moze slobodno da kombinuje.
+ */
+public class BitmapIndeks<V extends Comparable<V>> {
+
+    private final NavigableMap<V, RoaringBitmap> bitmape = new TreeMap<>();
+    private final ReadWriteLock brava = new ReentrantReadWriteLock();
+
+    /**
+     * Postavlja vrednost atributa za red, uklanjajuci ga iz bitmape prethodne vrednosti.
+     * Vrednost null znaci da red nema vrednost atributa.
+     */
+    public void postavi(int id, V vrednost) {
+        brava.writeLock().lock();
+        try {
+            ukloniBezZakljucavanja(id);
+            if (vrednost != null) {
+                bitmape.computeIfAbsent(vrednost, v -> new RoaringBitmap()).add(id);
+            }
+        } finally {
+            brava.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Dodaje red koji jos nije u indeksu, npr. pri prvom punjenju.
+     */
+    public void dodaj(int id, V vrednost) {
+        if (vrednost == null) {
+            return;
+        }
+        brava.writeLock().lock();
+        try {
+            bitmape.computeIfAbsent(vrednost, v -> new RoaringBitmap()).add(id);
+        } finally {
+            brava.writeLock().unlock();
+        }
+    }
+
+    public void ukloni(int id) {
+        brava.writeLock().lock();
+        try {
+            ukloniBezZakljucavanja(id);
+        } finally {
+            brava.writeLock().unlock();
+        }
+    }
+
+    public RoaringBitmap jednako(V vrednost) {
+        brava.readLock().lock();
+        try {
+            RoaringBitmap bitmapa = bitmape.get(vrednost);
+            return bitmapa == null ? new RoaringBitmap() : bitmapa.clone();
+        } finally {
+            brava.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Redovi cija je vrednost u intervalu; null granica znaci da interval nije ogranicen s te strane.
+     */
+    public RoaringBitmap izmedju(V od, V doVrednosti) {
+        brava.readLock().lock();
+        try {
+            NavigableMap<V, RoaringBitmap> interval = bitmape;
+            if (od != null) {
+                interval = interval.tailMap(od, true);
+            }
+            if (doVrednosti != null) {
+                interval = interval.headMap(doVrednosti, true);
+            }
+            return RoaringBitmap.or(interval.values().iterator());
+        } finally {
+            brava.readLock().unlock();
+        }
+    }
+
+    public RoaringBitmap gde(Predicate<V> uslov) {
+        brava.readLock().lock();
+        try {
+            RoaringBitmap rezultat = new RoaringBitmap();
+            for (Map.Entry<V, RoaringBitmap> unos : bitmape.entrySet()) {
+                if (uslov.test(unos.getKey())) {
+                    rezultat.or(unos.getValue());
+                }
+            }
+            return rezultat;
+        } finally {
+            brava.readLock().unlock();
+        }
+    }
+
+    private void ukloniBezZakljucavanja(int id) {
+        bitmape.values().removeIf(bitmapa -> {
+            bitmapa.remove(id);
+            return bitmapa.isEmpty();
+        });
+    }
+}
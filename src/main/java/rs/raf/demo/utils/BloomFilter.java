@@ -0,0 +1,78 @@
+package rs.raf.demo.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter nad String kljucevima. Odgovor "nije sadrzan" je uvek tacan,
+ * dok "mozda je sadrzan" treba potvrditi u bazi.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bitovi;
+    private final long brojBitova;
+    private final int brojHesova;
+
+    public BloomFilter(long ocekivanBrojElemenata, double verovatnocaGreske) {
+        long n = Math.max(1, ocekivanBrojElemenata);
+        long m = (long) Math.ceil(-n * Math.log(verovatnocaGreske) / (Math.log(2) * Math.log(2)));
+        int reci = (int) Math.min(Integer.MAX_VALUE - 8L, Math.max(1, (m + 63) / 64));
+        this.bitovi = new AtomicLongArray(reci);
+        this.brojBitova = reci * 64L;
+        this.brojHesova = Math.max(1, (int) Math.round((double) brojBitova / n * Math.log(2)));
+    }
+
+    public void add(String kljuc) {
+        long h1 = hes(kljuc);
+        long h2 = mesaj(h1) | 1;
+        for (int i = 0; i < brojHesova; i++) {
+            long bit = Math.floorMod(h1 + i * h2, brojBitova);
+            int rec = (int) (bit >>> 6);
+            long maska = 1L << bit;
+            long stara;
+            do {
+                stara = bitovi.get(rec);
+                if ((stara & maska) != 0) {
+                    break;
+                }
+            } while (!bitovi.compareAndSet(rec, stara, stara | maska));
+        }
+    }
+
+    public boolean mightContain(String kljuc) {
+        long h1 = hes(kljuc);
+        long h2 = mesaj(h1) | 1;
+        for (int i = 0; i < brojHesova; i++) {
+            long bit = Math.floorMod(h1 + i * h2, brojBitova);
+            if ((bitovi.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getBrojBitova() {
+        return brojBitova;
+    }
+
+    public int getBrojHesova() {
+        return brojHesova;
+    }
+
+    private static long hes(String kljuc) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < kljuc.length(); i++) {
+            h ^= kljuc.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mesaj(h);
+    }
+
+    private static long mesaj(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,46 @@
+package rs.raf.demo.utils;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Pisanje CSV redova po RFC 4180: polje koje sadrzi separator, navodnik ili
+ * prelom reda se stavlja pod navodnike, a navodnici u njemu se udvajaju. Redovi
+ * se zavrsavaju sa CRLF.
+ */
+public class CsvUtil {
+
+    public static final char SEPARATOR = ';';
+    public static final String KRAJ_REDA = "\r\n";
+
+    private CsvUtil() {}
+
+    /**
+     * @return Polje spremno za upis, prazno za null.
+     */
+    public static String polje(Object vrednost) {
+        if (vrednost == null) {
+            return "";
+        }
+        String tekst = vrednost.toString();
+        for (int i = 0; i < tekst.length(); i++) {
+            char c = tekst.charAt(i);
+            if (c == SEPARATOR || c == '"' || c == '\r' || c == '\n') {
+                return '"' + tekst.replace("\"", "\"\"") + '"';
+            }
+        }
+        return tekst;
+    }
+
+    public static void red(Writer writer, Iterable<?> polja) throws IOException {
+        boolean prvo = true;
+        for (Object vrednost : polja) {
+            if (!prvo) {
+                writer.write(SEPARATOR);
+            }
+            writer.write(polje(vrednost));
+            prvo = false;
+        }
+        writer.write(KRAJ_REDA);
+    }
+}
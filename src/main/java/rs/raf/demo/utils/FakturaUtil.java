@@ -5,14 +5,52 @@ public class FakturaUtil {
     private FakturaUtil() {}
 
     public static Double calculateRabat(Double prodajnaVrednost, Double rabatProcenat) {
-        return prodajnaVrednost * (rabatProcenat / 100);
+        return calculateRabat(prodajnaVrednost, rabatProcenat, Novac.PODRAZUMEVANA_SKALA);
     }
 
     public static Double calculatePorez(Double prodajnaVrednost, Double rabat, Double porezProcenat) {
-        return (prodajnaVrednost - rabat) * (porezProcenat / 100);
+        return calculatePorez(prodajnaVrednost, rabat, porezProcenat, Novac.PODRAZUMEVANA_SKALA);
     }
 
     public static Double calculateIznos(Double prodajnaVrednost, Double rabat, Double porez) {
+        return calculateIznos(prodajnaVrednost, rabat, porez, Novac.PODRAZUMEVANA_SKALA);
+    }
+
+    /**
+     * @param skala Broj decimala valute fakture, vidi {@link Novac#skala(String)}.
+     */
+    public static Double calculateRabat(Double prodajnaVrednost, Double rabatProcenat, int skala) {
+        return Novac.uIznos(rabat(Novac.uJedinice(prodajnaVrednost, skala), rabatProcenat), skala);
+    }
+
+    public static Double calculatePorez(Double prodajnaVrednost, Double rabat, Double porezProcenat, int skala) {
+        return Novac.uIznos(porez(Novac.uJedinice(prodajnaVrednost, skala), Novac.uJedinice(rabat, skala), porezProcenat), skala);
+    }
+
+    public static Double calculateIznos(Double prodajnaVrednost, Double rabat, Double porez, int skala) {
+        return Novac.uIznos(iznos(Novac.uJedinice(prodajnaVrednost, skala), Novac.uJedinice(rabat, skala),
+                Novac.uJedinice(porez, skala)), skala);
+    }
+
+    /**
+     * Rabat u jedinicama valute (parama, centima), zaokruzen na celu jedinicu.
+     */
+    public static long rabat(long prodajnaVrednost, double rabatProcenat) {
+        return Novac.procenat(prodajnaVrednost, rabatProcenat);
+    }
+
+    public static long porez(long prodajnaVrednost, long rabat, double porezProcenat) {
+        return Novac.procenat(prodajnaVrednost - rabat, porezProcenat);
+    }
+
+    public static long iznos(long prodajnaVrednost, long rabat, long porez) {
         return prodajnaVrednost - rabat + porez;
     }
+
+    public static String formatirajBrojFakture(String format, String serija, int godina, long broj, int cifre) {
+        String redniBroj = String.format("%0" + cifre + "d", broj);
+        return format.replace("{serija}", serija)
+                     .replace("{godina}", String.valueOf(godina))
+                     .replace("{broj}", redniBroj);
+    }
 }
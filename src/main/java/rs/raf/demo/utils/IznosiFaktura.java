@@ -0,0 +1,285 @@
+package rs.raf.demo.utils;
+
+import rs.raf.demo.model.enums.TipFakture;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Iznosi faktura smesteni po kolonama, kao nepromenljiv skup nad kojim se rade
+ * simulacije. Izmena ne dira postojeci skup: kolone koje se menjaju (stopa,
+ * rabat, porez, iznos) se kopiraju, a ostale se dele sa originalom, pa vise
+ * simulacija moze istovremeno da radi nad istim ucitanim podacima. Iznosi se
+ * cuvaju u najmanjim jedinicama valute fakture, vidi {@link Novac}.
+ * <p>
+ * Nova verzija skupa sa izmenjenim fakturama se pravi preko
+ * {@link Graditelj#Graditelj(IznosiFaktura, Set)}, koji prepisuje sve redove
+ * osim izmenjenih, pa se izmenjeni dodaju ponovo.
+ */
+public final class IznosiFaktura {
+
+    private static final int PRAG = 4096;
+
+    private final int redova;
+    private final long[] dokument;
+    private final TipFakture[] tipFakture;
+    private final String[] valuta;
+    private final long[] preduzece;
+    private final int[] dan;
+    private final byte[] skala;
+    private final double[] kurs;
+    private final long[] prodajnaVrednost;
+    private final double[] rabatProcenat;
+    private final double[] porezProcenat;
+    private final long[] rabat;
+    private final long[] porez;
+    private final long[] iznos;
+
+    private IznosiFaktura(int redova, long[] dokument, TipFakture[] tipFakture, String[] valuta, long[] preduzece, int[] dan, byte[] skala,
+                          double[] kurs, long[] prodajnaVrednost, double[] rabatProcenat,
+                          double[] porezProcenat, long[] rabat, long[] porez, long[] iznos) {
+        this.redova = redova;
+        this.dokument = dokument;
+        this.tipFakture = tipFakture;
+        this.valuta = valuta;
+        this.preduzece = preduzece;
+        this.dan = dan;
+        this.skala = skala;
+        this.kurs = kurs;
+        this.prodajnaVrednost = prodajnaVrednost;
+        this.rabatProcenat = rabatProcenat;
+        this.porezProcenat = porezProcenat;
+        this.rabat = rabat;
+        this.porez = porez;
+        this.iznos = iznos;
+    }
+
+    public int getBrojRedova() {
+        return redova;
+    }
+
+    /**
+     * @return Id fakture, ili 0 ako nije zadat pri dodavanju.
+     */
+    public long getDokumentId(int red) {
+        return dokument[red];
+    }
+
+    public TipFakture getTipFakture(int red) {
+        return tipFakture[red];
+    }
+
+    public String getValuta(int red) {
+        return valuta[red];
+    }
+
+    /**
+     * @return Id preduzeca, ili 0 ako faktura nema preduzece.
+     */
+    public long getPreduzece(int red) {
+        return preduzece[red];
+    }
+
+    public int getEpochDan(int red) {
+        return dan[red];
+    }
+
+    /**
+     * @return Broj decimala valute fakture.
+     */
+    public int getSkala(int red) {
+        return skala[red];
+    }
+
+    public double getKurs(int red) {
+        return kurs[red];
+    }
+
+    public double getPorezProcenat(int red) {
+        return porezProcenat[red];
+    }
+
+    public double getOsnovica(int red) {
+        return Novac.uIznos(getOsnovicaJedinice(red), skala[red]);
+    }
+
+    public double getPorez(int red) {
+        return Novac.uIznos(porez[red], skala[red]);
+    }
+
+    public double getIznos(int red) {
+        return Novac.uIznos(iznos[red], skala[red]);
+    }
+
+    public long getOsnovicaJedinice(int red) {
+        return prodajnaVrednost[red] - rabat[red];
+    }
+
+    public long getPorezJedinice(int red) {
+        return porez[red];
+    }
+
+    public long getIznosJedinice(int red) {
+        return iznos[red];
+    }
+
+    /**
+     * Pravi novi skup u kome redovi za koje funkcija vrati stopu dobijaju tu stopu poreza
+     * i ponovo izracunate rabat, porez i iznos. Za NaN (ili istu stopu) red ostaje kakav je.
+     */
+    public IznosiFaktura izmeni(ForkJoinPool izvrsilac, IntToDoubleFunction novaStopa) {
+        IznosiFaktura izmenjen = new IznosiFaktura(redova, dokument, tipFakture, valuta, preduzece, dan, skala, kurs, prodajnaVrednost,
+                rabatProcenat, porezProcenat.clone(), rabat.clone(), porez.clone(), iznos.clone());
+        izvrsilac.invoke(new Preracunavanje(izmenjen, novaStopa, 0, redova));
+        return izmenjen;
+    }
+
+    private static final class Preracunavanje extends RecursiveAction {
+
+        private final IznosiFaktura skup;
+        private final IntToDoubleFunction novaStopa;
+        private final int od;
+        private final int doReda;
+
+        Preracunavanje(IznosiFaktura skup, IntToDoubleFunction novaStopa, int od, int doReda) {
+            this.skup = skup;
+            this.novaStopa = novaStopa;
+            this.od = od;
+            this.doReda = doReda;
+        }
+
+        @Override
+        protected void compute() {
+            if (doReda - od > PRAG) {
+                int sredina = (od + doReda) >>> 1;
+                invokeAll(new Preracunavanje(skup, novaStopa, od, sredina), new Preracunavanje(skup, novaStopa, sredina, doReda));
+                return;
+            }
+            for (int red = od; red < doReda; red++) {
+                double stopa = novaStopa.applyAsDouble(red);
+                if (Double.isNaN(stopa) || stopa == skup.porezProcenat[red]) {
+                    continue;
+                }
+                long prodajnaVrednost = skup.prodajnaVrednost[red];
+                double rabatProcenat = skup.rabatProcenat[red];
+                long rabat = Double.isNaN(rabatProcenat) ? skup.rabat[red] : FakturaUtil.rabat(prodajnaVrednost, rabatProcenat);
+                long porez = FakturaUtil.porez(prodajnaVrednost, rabat, stopa);
+                skup.porezProcenat[red] = stopa;
+                skup.rabat[red] = rabat;
+                skup.porez[red] = porez;
+                skup.iznos[red] = FakturaUtil.iznos(prodajnaVrednost, rabat, porez);
+            }
+        }
+    }
+
+    public static class Graditelj {
+
+        private int redova;
+        private long[] dokument;
+        private TipFakture[] tipFakture;
+        private String[] valuta;
+        private long[] preduzece;
+        private int[] dan;
+        private byte[] skala;
+        private double[] kurs;
+        private long[] prodajnaVrednost;
+        private double[] rabatProcenat;
+        private double[] porezProcenat;
+        private long[] rabat;
+        private long[] porez;
+        private long[] iznos;
+
+        public Graditelj(int pocetniKapacitet) {
+            prosiri(Math.max(16, pocetniKapacitet));
+        }
+
+        /**
+         * Pocinje od redova postojeceg skupa, bez redova datih faktura.
+         */
+        public Graditelj(IznosiFaktura skup, Set<Long> izostavljeni) {
+            prosiri(Math.max(16, skup.redova + izostavljeni.size()));
+            for (int red = 0; red < skup.redova; red++) {
+                if (izostavljeni.contains(skup.dokument[red])) {
+                    continue;
+                }
+                dokument[redova] = skup.dokument[red];
+                tipFakture[redova] = skup.tipFakture[red];
+                valuta[redova] = skup.valuta[red];
+                preduzece[redova] = skup.preduzece[red];
+                dan[redova] = skup.dan[red];
+                skala[redova] = skup.skala[red];
+                kurs[redova] = skup.kurs[red];
+                prodajnaVrednost[redova] = skup.prodajnaVrednost[red];
+                rabatProcenat[redova] = skup.rabatProcenat[red];
+                porezProcenat[redova] = skup.porezProcenat[red];
+                rabat[redova] = skup.rabat[red];
+                porez[redova] = skup.porez[red];
+                iznos[redova] = skup.iznos[red];
+                redova++;
+            }
+        }
+
+        public Graditelj dodaj(TipFakture tipFakture, String valuta, Long preduzece, int epochDan, Double kurs,
+                               Double prodajnaVrednost, Double rabatProcenat, Double rabat,
+                               Double porezProcenat, Double porez, Double iznos) {
+            return dodaj(0, tipFakture, valuta, preduzece, epochDan, kurs, prodajnaVrednost, rabatProcenat, rabat,
+                    porezProcenat, porez, iznos);
+        }
+
+        /**
+         * @param preduzece     Id preduzeca ili null.
+         * @param rabatProcenat Procenat rabata ili null, kada se zadrzava upisani rabat.
+         */
+        public Graditelj dodaj(long dokumentId, TipFakture tipFakture, String valuta, Long preduzece, int epochDan, Double kurs,
+                               Double prodajnaVrednost, Double rabatProcenat, Double rabat,
+                               Double porezProcenat, Double porez, Double iznos) {
+            if (redova == dan.length) {
+                prosiri(redova * 2);
+            }
+            this.dokument[redova] = dokumentId;
+            this.tipFakture[redova] = tipFakture;
+            this.valuta[redova] = valuta;
+            this.preduzece[redova] = preduzece == null ? 0 : preduzece;
+            int skala = Novac.skala(valuta);
+            this.dan[redova] = epochDan;
+            this.skala[redova] = (byte) skala;
+            this.kurs[redova] = kurs == null ? 1.0 : kurs;
+            this.prodajnaVrednost[redova] = Novac.uJedinice(prodajnaVrednost, skala);
+            this.rabatProcenat[redova] = rabatProcenat == null ? Double.NaN : rabatProcenat;
+            this.porezProcenat[redova] = porezProcenat;
+            this.rabat[redova] = rabat == null ? 0 : Novac.uJedinice(rabat, skala);
+            this.porez[redova] = Novac.uJedinice(porez, skala);
+            this.iznos[redova] = Novac.uJedinice(iznos, skala);
+            redova++;
+            return this;
+        }
+
+        public IznosiFaktura izgradi() {
+            return new IznosiFaktura(redova, Arrays.copyOf(dokument, redova), Arrays.copyOf(tipFakture, redova), Arrays.copyOf(valuta, redova),
+                    Arrays.copyOf(preduzece, redova), Arrays.copyOf(dan, redova), Arrays.copyOf(skala, redova),
+                    Arrays.copyOf(kurs, redova),
+                    Arrays.copyOf(prodajnaVrednost, redova), Arrays.copyOf(rabatProcenat, redova),
+                    Arrays.copyOf(porezProcenat, redova), Arrays.copyOf(rabat, redova),
+                    Arrays.copyOf(porez, redova), Arrays.copyOf(iznos, redova));
+        }
+
+        private void prosiri(int kapacitet) {
+            dokument = dokument == null ? new long[kapacitet] : Arrays.copyOf(dokument, kapacitet);
+            tipFakture = tipFakture == null ? new TipFakture[kapacitet] : Arrays.copyOf(tipFakture, kapacitet);
+            valuta = valuta == null ? new String[kapacitet] : Arrays.copyOf(valuta, kapacitet);
+            preduzece = preduzece == null ? new long[kapacitet] : Arrays.copyOf(preduzece, kapacitet);
+            dan = dan == null ? new int[kapacitet] : Arrays.copyOf(dan, kapacitet);
+            skala = skala == null ? new byte[kapacitet] : Arrays.copyOf(skala, kapacitet);
+            kurs = kurs == null ? new double[kapacitet] : Arrays.copyOf(kurs, kapacitet);
+            prodajnaVrednost = prodajnaVrednost == null ? new long[kapacitet] : Arrays.copyOf(prodajnaVrednost, kapacitet);
+            rabatProcenat = rabatProcenat == null ? new double[kapacitet] : Arrays.copyOf(rabatProcenat, kapacitet);
+            porezProcenat = porezProcenat == null ? new double[kapacitet] : Arrays.copyOf(porezProcenat, kapacitet);
+            rabat = rabat == null ? new long[kapacitet] : Arrays.copyOf(rabat, kapacitet);
+            porez = porez == null ? new long[kapacitet] : Arrays.copyOf(porez, kapacitet);
+            iznos = iznos == null ? new long[kapacitet] : Arrays.copyOf(iznos, kapacitet);
+        }
+    }
+}
@@ -17,6 +17,9 @@ public class JwtUtil {
     @Value("${jwt.secret}")
     private String secret = "MY JWT SECRET";
 
+    @Value("${tenanti.claim:tenant}")
+    private String tenantClaim = "tenant";
+
     public Claims extractAllClaims(String token) {
         return Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody();
     }
@@ -25,12 +28,23 @@ public class JwtUtil {
         return extractAllClaims(token).getSubject();
     }
 
+    public String extractTenant(String token) {
+        return extractAllClaims(token).get(tenantClaim, String.class);
+    }
+
     public boolean isTokenExpired(String token){
         return extractAllClaims(token).getExpiration().before(new Date());
     }
 
     public String generateToken(String username){
+        return generateToken(username, null);
+    }
+
+    public String generateToken(String username, String tenant){
         Map<String, Object> claims = new HashMap<>();
+        if (tenant != null) {
+            claims.put(tenantClaim, tenant);
+        }
         return Jwts.builder()
                    .setClaims(claims)
                    .setSubject(username)
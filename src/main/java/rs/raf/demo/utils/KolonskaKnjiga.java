@@ -0,0 +1,754 @@
+package rs.raf.demo.utils;
+
+import rs.raf.demo.model.enums.Grupisanje;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Stavke glavne knjige smestene po kolonama van heap-a. Datum se cuva kao
+ * epoch dan, konto kao indeks u recniku brojeva konta, analiticke dimenzije
+ * kao id vrednosti (0 ako stavka nema dimenziju), a iznosi kao long u parama.
+ * Agregacije prolaze kroz kolone bez pravljenja objekata po redu.
+ * <p>
+ * Upis je jednonitni (sinhronizovan), dok citanje ide bez zakljucavanja nad
+ * poslednjim objavljenim stanjem kolona. Obrisani redovi se ne brisu fizicki
+ * vec pamte broj redova stanja od koga su obrisani, pa ih citalac preskace samo
+ * ako je njegovo stanje toliko ili vece. Zato zamena stavki knjizenja postaje
+ * vidljiva odjednom: stanje koje jos nema nove redove vidi i stare.
+ * <p>
+ * Stanje se moze snimiti u binarni fajl sa verzijom i CRC32 kontrolnom sumom
+ * i kasnije mapirati nazad u memoriju bez citanja red po red. Fajl pocinje
+ * zaglavljem (magicni broj, verzija, oznaka snimka, broj redova, broj konta,
+ * duzina recnika, kontrolna suma), iza koga idu recnik konta i kolone.
+ */
+public class KolonskaKnjiga {
+
+    /**
+     * Vrednost kolone obrisanih za red koji nije obrisan.
+     */
+    private static final int ZIV = Integer.MAX_VALUE;
+
+    private static final int DATUM = 0;
+    private static final int KONTO = 1;
+    private static final int MESTO_TROSKOVA = 2;
+    private static final int PROJEKAT = 3;
+    private static final int ZAPOSLENI = 4;
+    private static final int OBRISAN_OD = 5;
+    private static final int INT_KOLONA = 6;
+
+    private static final int KNJIZENJE = 0;
+    private static final int DUGUJE = 1;
+    private static final int POTRAZUJE = 2;
+    private static final int LONG_KOLONA = 3;
+
+    private static final int MAGICNI_BROJ = 0x4B4B4E4A;
+    private static final int VERZIJA = 4;
+    private static final int ZAGLAVLJE = 40;
+    private static final int POZICIJA_SUME = 32;
+
+    private final Map<String, Integer> indeksKonta = new HashMap<>();
+    private volatile String[] konta = new String[0];
+    private volatile Kolone kolone;
+    private final int[] najveceDimenzije = new int[INT_KOLONA];
+    private final Map<Long, int[]> redoviKnjizenja = new HashMap<>();
+    private int obrisanih;
+    private long oznakaSnimka;
+
+    public KolonskaKnjiga(int pocetniKapacitet) {
+        this.kolone = new Kolone(Math.max(16, pocetniKapacitet), 0);
+    }
+
+    private KolonskaKnjiga(Kolone kolone, String[] konta, long oznakaSnimka) {
+        this.kolone = kolone;
+        this.konta = konta;
+        this.oznakaSnimka = oznakaSnimka;
+        for (int i = 0; i < konta.length; i++) {
+            indeksKonta.put(konta[i], i);
+        }
+        for (int kolona = MESTO_TROSKOVA; kolona <= ZAPOSLENI; kolona++) {
+            IntBuffer vrednosti = kolone.celobrojne[kolona];
+            for (int red = 0; red < kolone.redova; red++) {
+                najveceDimenzije[kolona] = Math.max(najveceDimenzije[kolona], vrednosti.get(red));
+            }
+        }
+        for (int red = 0; red < kolone.redova; red++) {
+            zapamtiRed(kolone.dugacke[KNJIZENJE].get(red), red);
+        }
+    }
+
+    /**
+     * @return Oznaka snimka iz koga je knjiga ucitana, ili 0 ako nije ucitana iz snimka.
+     */
+    public long getOznakaSnimka() {
+        return oznakaSnimka;
+    }
+
+    public int getBrojRedova() {
+        return kolone.redova;
+    }
+
+    public synchronized int getBrojObrisanih() {
+        return obrisanih;
+    }
+
+    public String getBrojKonta(int indeks) {
+        return konta[indeks];
+    }
+
+    public void dodaj(long knjizenjeId, int epochDan, String brojKonta, long duguje, long potrazuje) {
+        dodaj(knjizenjeId, epochDan, brojKonta, 0, 0, 0, duguje, potrazuje);
+    }
+
+    public void dodaj(long knjizenjeId, int epochDan, String brojKonta,
+                      int mestoTroskova, int projekat, int zaposleni, long duguje, long potrazuje) {
+        dodaj(knjizenjeId, new Stavka(epochDan, brojKonta, mestoTroskova, projekat, zaposleni, duguje, potrazuje));
+    }
+
+    public synchronized void dodaj(long knjizenjeId, Stavka stavka) {
+        kolone = upisi(kolone, knjizenjeId, stavka);
+    }
+
+    /**
+     * Oznacava kao obrisane sve redove datog knjizenja.
+     *
+     * @return Broj obrisanih redova.
+     */
+    public synchronized int obrisiKnjizenje(long knjizenjeId) {
+        return obrisi(kolone, redoviKnjizenja.remove(knjizenjeId));
+    }
+
+    /**
+     * Menja sve redove knjizenja datim stavkama. Nove stavke se upisuju iza
+     * objavljenih redova, stari redovi se oznacavaju kao obrisani od novog broja
+     * redova, pa se sve objavljuje jednom zamenom kolona.
+     *
+     * @return Broj obrisanih redova.
+     */
+    public synchronized int zameniKnjizenje(long knjizenjeId, List<Stavka> stavke) {
+        int[] stari = redoviKnjizenja.remove(knjizenjeId);
+        Kolone nove = kolone;
+        for (Stavka stavka : stavke) {
+            nove = upisi(nove, knjizenjeId, stavka);
+        }
+        int obrisano = obrisi(nove, stari);
+        kolone = nove;
+        return obrisano;
+    }
+
+    /**
+     * Sabira promet po kontima za dane u intervalu [odDana, doDana).
+     *
+     * @param prefiks Ako nije prazan, uzimaju se samo konta koja pocinju njime.
+     * @return Mapa broj konta -> {duguje, potrazuje} u parama, samo za konta sa prometom.
+     */
+    public Map<String, long[]> prometPoKontima(int odDana, int doDana, String prefiks) {
+        Kolone stanje = kolone;
+        String[] recnik = konta;
+        boolean[] maska = maska(recnik, prefiks);
+        IntBuffer datumi = stanje.celobrojne[DATUM];
+        IntBuffer kontaKolona = stanje.celobrojne[KONTO];
+        IntBuffer obrisani = stanje.celobrojne[OBRISAN_OD];
+        LongBuffer dugujeKolona = stanje.dugacke[DUGUJE];
+        LongBuffer potrazujeKolona = stanje.dugacke[POTRAZUJE];
+        long[] duguje = new long[recnik.length];
+        long[] potrazuje = new long[recnik.length];
+        boolean[] imaPromet = new boolean[recnik.length];
+        for (int red = 0; red < stanje.redova; red++) {
+            int konto = kontaKolona.get(red);
+            if (obrisani.get(red) <= stanje.redova || konto >= maska.length || !maska[konto]) {
+                continue;
+            }
+            int dan = datumi.get(red);
+            if (dan < odDana || dan >= doDana) {
+                continue;
+            }
+            duguje[konto] += dugujeKolona.get(red);
+            potrazuje[konto] += potrazujeKolona.get(red);
+            imaPromet[konto] = true;
+        }
+
+        Map<String, long[]> rezultat = new HashMap<>();
+        for (int konto = 0; konto < recnik.length; konto++) {
+            if (imaPromet[konto]) {
+                rezultat.put(recnik[konto], new long[]{duguje[konto], potrazuje[konto]});
+            }
+        }
+        return rezultat;
+    }
+
+    /**
+     * Sabira promet po danima za dane u intervalu [odDana, doDana).
+     *
+     * @return Niz {duguje, potrazuje} u parama za svaki dan, indeksiran sa dan - odDana.
+     */
+    public long[][] prometPoDanima(int odDana, int doDana, String prefiks) {
+        Kolone stanje = kolone;
+        boolean[] maska = maska(konta, prefiks);
+        IntBuffer datumi = stanje.celobrojne[DATUM];
+        IntBuffer kontaKolona = stanje.celobrojne[KONTO];
+        IntBuffer obrisani = stanje.celobrojne[OBRISAN_OD];
+        LongBuffer duguje = stanje.dugacke[DUGUJE];
+        LongBuffer potrazuje = stanje.dugacke[POTRAZUJE];
+        long[][] rezultat = new long[Math.max(0, doDana - odDana)][2];
+        for (int red = 0; red < stanje.redova; red++) {
+            int konto = kontaKolona.get(red);
+            if (obrisani.get(red) <= stanje.redova || konto >= maska.length || !maska[konto]) {
+                continue;
+            }
+            int dan = datumi.get(red);
+            if (dan < odDana || dan >= doDana) {
+                continue;
+            }
+            rezultat[dan - odDana][0] += duguje.get(red);
+            rezultat[dan - odDana][1] += potrazuje.get(red);
+        }
+        return rezultat;
+    }
+
+    /**
+     * Grupise promet za dane u intervalu [odDana, doDana) po zadatim kolonama.
+     * Vrednosti kolona jedne grupe se slazu u jedan long kljuc (svaka kolona
+     * dobija svoj opseg), pa se zbirovi vode u hes tabeli nad primitivima.
+     *
+     * @param filteri Id vrednosti za mesto troskova, projekat i zaposlenog; 0 znaci bez filtera.
+     * @return Grupe sa prometom. Vrednosti kljuca prate redosled kolona: za konto je to
+     * indeks u recniku ({@link #getBrojKonta(int)}), za mesec yyyymm, a za dimenzije id vrednosti.
+     */
+    public List<Grupa> grupisi(int odDana, int doDana, String prefiks, int[] filteri, List<Grupisanje> kolone) {
+        Kolone stanje = this.kolone;
+        String[] recnik = konta;
+        boolean[] maska = maska(recnik, prefiks);
+        int dana = Math.max(0, doDana - odDana);
+
+        int[] indeksMeseca = new int[dana];
+        List<Integer> meseci = new ArrayList<>();
+        for (int dan = 0; dan < dana; dan++) {
+            LocalDate datum = LocalDate.ofEpochDay((long) odDana + dan);
+            int mesec = datum.getYear() * 100 + datum.getMonthValue();
+            if (meseci.isEmpty() || meseci.get(meseci.size() - 1) != mesec) {
+                meseci.add(mesec);
+            }
+            indeksMeseca[dan] = meseci.size() - 1;
+        }
+
+        int[] izvori = new int[kolone.size()];
+        long[] mnozioci = new long[kolone.size()];
+        long opseg = 1;
+        for (int i = 0; i < kolone.size(); i++) {
+            izvori[i] = izvor(kolone.get(i));
+            long velicina;
+            if (izvori[i] == KONTO) {
+                velicina = Math.max(1, recnik.length);
+            } else if (izvori[i] == DATUM) {
+                velicina = Math.max(1, meseci.size());
+            } else {
+                velicina = najveceDimenzije[izvori[i]] + 1L;
+            }
+            mnozioci[i] = opseg;
+            opseg = Math.multiplyExact(opseg, velicina);
+        }
+
+        IntBuffer datumi = stanje.celobrojne[DATUM];
+        IntBuffer kontaKolona = stanje.celobrojne[KONTO];
+        IntBuffer obrisani = stanje.celobrojne[OBRISAN_OD];
+        IntBuffer[] celobrojne = stanje.celobrojne;
+        LongBuffer duguje = stanje.dugacke[DUGUJE];
+        LongBuffer potrazuje = stanje.dugacke[POTRAZUJE];
+        Zbirovi zbirovi = new Zbirovi();
+        for (int red = 0; red < stanje.redova; red++) {
+            int konto = kontaKolona.get(red);
+            if (obrisani.get(red) <= stanje.redova || konto >= maska.length || !maska[konto]) {
+                continue;
+            }
+            int dan = datumi.get(red);
+            if (dan < odDana || dan >= doDana) {
+                continue;
+            }
+            if ((filteri[0] != 0 && celobrojne[MESTO_TROSKOVA].get(red) != filteri[0])
+                    || (filteri[1] != 0 && celobrojne[PROJEKAT].get(red) != filteri[1])
+                    || (filteri[2] != 0 && celobrojne[ZAPOSLENI].get(red) != filteri[2])) {
+                continue;
+            }
+            long kljuc = 0;
+            for (int i = 0; i < izvori.length; i++) {
+                int vrednost;
+                if (izvori[i] == KONTO) {
+                    vrednost = konto;
+                } else if (izvori[i] == DATUM) {
+                    vrednost = indeksMeseca[dan - odDana];
+                } else {
+                    vrednost = celobrojne[izvori[i]].get(red);
+                }
+                kljuc += vrednost * mnozioci[i];
+            }
+            zbirovi.dodaj(kljuc, duguje.get(red), potrazuje.get(red));
+        }
+
+        List<Grupa> grupe = new ArrayList<>(zbirovi.velicina);
+        for (int slot = 0; slot < zbirovi.kljucevi.length; slot++) {
+            long kljuc = zbirovi.kljucevi[slot];
+            if (kljuc == Zbirovi.PRAZNO) {
+                continue;
+            }
+            int[] vrednosti = new int[izvori.length];
+            for (int i = izvori.length - 1; i >= 0; i--) {
+                int vrednost = (int) (kljuc / mnozioci[i]);
+                kljuc -= vrednost * mnozioci[i];
+                vrednosti[i] = izvori[i] == DATUM ? meseci.get(vrednost) : vrednost;
+            }
+            grupe.add(new Grupa(vrednosti, zbirovi.duguje[slot], zbirovi.potrazuje[slot], zbirovi.stavki[slot]));
+        }
+        return grupe;
+    }
+
+    /**
+     * Snima zive redove u fajl. Pise se u privremeni fajl koji na kraju zamenjuje
+     * postojeci, pa prekinut upis ne kvari prethodni snimak. Pod zakljucavanjem
+     * se uzima samo kopija kolone obrisanih, jedine koja se menja u vec upisanim
+     * redovima, pa snimak odgovara jednom stanju knjige, a upis fajla ne
+     * blokira izmene. Izmene posle toga ne ulaze u snimak, pa oznaku treba
+     * uzeti pre poziva i izmene od nje ponovo primeniti.
+     */
+    public void snimi(Path putanja, long oznaka) throws IOException {
+        Kolone stanje;
+        String[] recnik;
+        int[] obrisani;
+        int zivih = 0;
+        synchronized (this) {
+            stanje = kolone;
+            recnik = konta;
+            obrisani = new int[stanje.redova];
+            stanje.celobrojne[OBRISAN_OD].duplicate().position(0).get(obrisani);
+            for (int obrisanOd : obrisani) {
+                if (obrisanOd > stanje.redova) {
+                    zivih++;
+                }
+            }
+        }
+        ByteBuffer zaglavlje = ByteBuffer.allocate(ZAGLAVLJE).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer recnikBajtovi = recnik(recnik);
+        zaglavlje.putInt(MAGICNI_BROJ).putInt(VERZIJA).putLong(oznaka).putInt(zivih).putInt(recnik.length)
+                .putInt(recnikBajtovi.remaining()).putInt(0).putLong(0);
+
+        Path privremeni = putanja.resolveSibling(putanja.getFileName() + ".tmp");
+        try (FileChannel kanal = FileChannel.open(privremeni, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            kanal.write(recnikBajtovi.duplicate(), ZAGLAVLJE);
+            Kolone snimak = mapiraj(kanal, FileChannel.MapMode.READ_WRITE, poravnaj(ZAGLAVLJE + recnikBajtovi.remaining()), zivih);
+
+            int upisano = 0;
+            for (int red = 0; red < obrisani.length; red++) {
+                if (obrisani[red] <= stanje.redova) {
+                    continue;
+                }
+                for (int kolona = 0; kolona < INT_KOLONA; kolona++) {
+                    snimak.celobrojne[kolona].put(upisano, kolona == OBRISAN_OD ? ZIV : stanje.celobrojne[kolona].get(red));
+                }
+                for (int kolona = 0; kolona < LONG_KOLONA; kolona++) {
+                    snimak.dugacke[kolona].put(upisano, stanje.dugacke[kolona].get(red));
+                }
+                upisano++;
+            }
+
+            zaglavlje.flip();
+            CRC32 suma = new CRC32();
+            suma.update(zaglavlje.duplicate().limit(POZICIJA_SUME));
+            suma.update(recnikBajtovi.duplicate());
+            azuriraj(suma, kanal, ZAGLAVLJE + recnikBajtovi.remaining());
+            zaglavlje.putLong(POZICIJA_SUME, suma.getValue());
+            kanal.write(zaglavlje, 0);
+            kanal.force(true);
+        }
+        Files.move(privremeni, putanja, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Mapira snimak u memoriju. Kolone se mapiraju privatno, pa se knjiga posle
+     * ucitavanja menja kao i svaka druga, a izmene se ne upisuju u fajl.
+     *
+     * @throws IOException Ako fajl ne postoji, ima drugu verziju ili kontrolna suma ne odgovara.
+     */
+    public static KolonskaKnjiga ucitaj(Path putanja) throws IOException {
+        try (FileChannel kanal = FileChannel.open(putanja, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (kanal.size() < ZAGLAVLJE) {
+                throw new IOException("Snimak je prekratak");
+            }
+            ByteBuffer zaglavlje = ByteBuffer.allocate(ZAGLAVLJE).order(ByteOrder.LITTLE_ENDIAN);
+            kanal.read(zaglavlje, 0);
+            zaglavlje.flip();
+            if (zaglavlje.getInt() != MAGICNI_BROJ) {
+                throw new IOException("Fajl nije snimak kolonske knjige");
+            }
+            int verzija = zaglavlje.getInt();
+            if (verzija != VERZIJA) {
+                throw new IOException("Nepodrzana verzija snimka: " + verzija);
+            }
+            long oznaka = zaglavlje.getLong();
+            int redova = zaglavlje.getInt();
+            int brojKonta = zaglavlje.getInt();
+            int duzinaRecnika = zaglavlje.getInt();
+            long pocetakKolona = poravnaj(ZAGLAVLJE + (long) duzinaRecnika);
+            if (redova < 0 || brojKonta < 0 || duzinaRecnika < 0 || kanal.size() != krajKolona(pocetakKolona, redova)) {
+                throw new IOException("Duzina snimka ne odgovara zaglavlju");
+            }
+
+            CRC32 suma = new CRC32();
+            suma.update(zaglavlje.duplicate().position(0).limit(POZICIJA_SUME));
+            azuriraj(suma, kanal, ZAGLAVLJE);
+            if (suma.getValue() != zaglavlje.getLong(POZICIJA_SUME)) {
+                throw new IOException("Kontrolna suma snimka ne odgovara");
+            }
+
+            ByteBuffer recnikBajtovi = ByteBuffer.allocate(duzinaRecnika).order(ByteOrder.LITTLE_ENDIAN);
+            kanal.read(recnikBajtovi, ZAGLAVLJE);
+            recnikBajtovi.flip();
+            String[] konta = new String[brojKonta];
+            for (int i = 0; i < brojKonta; i++) {
+                byte[] bajtovi = new byte[recnikBajtovi.getShort()];
+                recnikBajtovi.get(bajtovi);
+                konta[i] = new String(bajtovi, StandardCharsets.UTF_8);
+            }
+            return new KolonskaKnjiga(mapiraj(kanal, FileChannel.MapMode.PRIVATE, pocetakKolona, redova), konta, oznaka);
+        }
+    }
+
+    private int konto(String brojKonta) {
+        Integer indeks = indeksKonta.get(brojKonta);
+        if (indeks == null) {
+            indeks = konta.length;
+            indeksKonta.put(brojKonta, indeks);
+            List<String> prosireno = new ArrayList<>(List.of(konta));
+            prosireno.add(brojKonta);
+            konta = prosireno.toArray(new String[0]);
+        }
+        return indeks;
+    }
+
+    /**
+     * Upisuje stavku iza objavljenih redova, prosirujuci kolone po potrebi.
+     *
+     * @return Kolone sa upisanim redom, koje tek treba objaviti.
+     */
+    private Kolone upisi(Kolone trenutne, long knjizenjeId, Stavka stavka) {
+        if (trenutne.redova == trenutne.kapacitet) {
+            trenutne = trenutne.prosiri();
+        }
+        int red = trenutne.redova;
+        trenutne.celobrojne[DATUM].put(red, stavka.epochDan);
+        trenutne.celobrojne[KONTO].put(red, konto(stavka.brojKonta));
+        trenutne.celobrojne[MESTO_TROSKOVA].put(red, stavka.mestoTroskova);
+        trenutne.celobrojne[PROJEKAT].put(red, stavka.projekat);
+        trenutne.celobrojne[ZAPOSLENI].put(red, stavka.zaposleni);
+        trenutne.celobrojne[OBRISAN_OD].put(red, ZIV);
+        trenutne.dugacke[KNJIZENJE].put(red, knjizenjeId);
+        trenutne.dugacke[DUGUJE].put(red, stavka.duguje);
+        trenutne.dugacke[POTRAZUJE].put(red, stavka.potrazuje);
+        najveceDimenzije[MESTO_TROSKOVA] = Math.max(najveceDimenzije[MESTO_TROSKOVA], stavka.mestoTroskova);
+        najveceDimenzije[PROJEKAT] = Math.max(najveceDimenzije[PROJEKAT], stavka.projekat);
+        najveceDimenzije[ZAPOSLENI] = Math.max(najveceDimenzije[ZAPOSLENI], stavka.zaposleni);
+        zapamtiRed(knjizenjeId, red);
+        return trenutne.saRedova(red + 1);
+    }
+
+    /**
+     * Oznacava redove kao obrisane od broja redova datih kolona. Stanja sa manje
+     * redova, koja citaoci mozda jos drze, i dalje ih vide.
+     */
+    private int obrisi(Kolone trenutne, int[] redovi) {
+        if (redovi == null) {
+            return 0;
+        }
+        IntBuffer obrisani = trenutne.celobrojne[OBRISAN_OD];
+        for (int red : redovi) {
+            obrisani.put(red, trenutne.redova);
+        }
+        obrisanih += redovi.length;
+        return redovi.length;
+    }
+
+    private void zapamtiRed(long knjizenjeId, int red) {
+        int[] redovi = redoviKnjizenja.get(knjizenjeId);
+        redovi = redovi == null ? new int[1] : Arrays.copyOf(redovi, redovi.length + 1);
+        redovi[redovi.length - 1] = red;
+        redoviKnjizenja.put(knjizenjeId, redovi);
+    }
+
+    private static int izvor(Grupisanje grupisanje) {
+        switch (grupisanje) {
+            case KONTO:
+                return KONTO;
+            case MESEC:
+                return DATUM;
+            case MESTO_TROSKOVA:
+                return MESTO_TROSKOVA;
+            case PROJEKAT:
+                return PROJEKAT;
+            default:
+                return ZAPOSLENI;
+        }
+    }
+
+    private static boolean[] maska(String[] recnik, String prefiks) {
+        boolean[] maska = new boolean[recnik.length];
+        for (int i = 0; i < recnik.length; i++) {
+            maska[i] = prefiks == null || recnik[i].startsWith(prefiks);
+        }
+        return maska;
+    }
+
+    private static ByteBuffer recnik(String[] konta) {
+        List<byte[]> nazivi = new ArrayList<>();
+        int duzina = 0;
+        for (String konto : konta) {
+            byte[] bajtovi = konto.getBytes(StandardCharsets.UTF_8);
+            nazivi.add(bajtovi);
+            duzina += Short.BYTES + bajtovi.length;
+        }
+        ByteBuffer recnik = ByteBuffer.allocate(duzina).order(ByteOrder.LITTLE_ENDIAN);
+        for (byte[] bajtovi : nazivi) {
+            recnik.putShort((short) bajtovi.length).put(bajtovi);
+        }
+        return recnik.flip();
+    }
+
+    /**
+     * Mapira kolone fajla od zadate pozicije: prvo celobrojne, pa poravnate dugacke.
+     */
+    private static Kolone mapiraj(FileChannel kanal, FileChannel.MapMode nacin, long pocetak, int redova) throws IOException {
+        IntBuffer[] celobrojne = new IntBuffer[INT_KOLONA];
+        LongBuffer[] dugacke = new LongBuffer[LONG_KOLONA];
+        long pozicija = pocetak;
+        for (int kolona = 0; kolona < INT_KOLONA; kolona++) {
+            celobrojne[kolona] = kanal.map(nacin, pozicija, (long) redova * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            pozicija += (long) redova * Integer.BYTES;
+        }
+        pozicija = poravnaj(pozicija);
+        for (int kolona = 0; kolona < LONG_KOLONA; kolona++) {
+            dugacke[kolona] = kanal.map(nacin, pozicija, (long) redova * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            pozicija += (long) redova * Long.BYTES;
+        }
+        return new Kolone(redova, redova, celobrojne, dugacke);
+    }
+
+    private static long krajKolona(long pocetak, int redova) {
+        return poravnaj(pocetak + (long) INT_KOLONA * redova * Integer.BYTES) + (long) LONG_KOLONA * redova * Long.BYTES;
+    }
+
+    /**
+     * Dodaje u kontrolnu sumu sadrzaj fajla od zadate pozicije do kraja.
+     */
+    private static void azuriraj(CRC32 suma, FileChannel kanal, long od) throws IOException {
+        ByteBuffer bafer = ByteBuffer.allocateDirect(1 << 20);
+        long pozicija = od;
+        while (pozicija < kanal.size()) {
+            bafer.clear();
+            int procitano = kanal.read(bafer, pozicija);
+            if (procitano < 0) {
+                break;
+            }
+            bafer.flip();
+            suma.update(bafer);
+            pozicija += procitano;
+        }
+    }
+
+    private static long poravnaj(long pozicija) {
+        return (pozicija + Long.BYTES - 1) & -Long.BYTES;
+    }
+
+    /**
+     * Stavka knjizenja koja se upisuje u knjigu, sa iznosima u parama
+     * i dimenzijama kao id vrednosti (0 ako stavka nema dimenziju).
+     */
+    public static final class Stavka {
+
+        private final int epochDan;
+        private final String brojKonta;
+        private final int mestoTroskova;
+        private final int projekat;
+        private final int zaposleni;
+        private final long duguje;
+        private final long potrazuje;
+
+        public Stavka(int epochDan, String brojKonta, int mestoTroskova, int projekat, int zaposleni,
+                      long duguje, long potrazuje) {
+            this.epochDan = epochDan;
+            this.brojKonta = brojKonta;
+            this.mestoTroskova = mestoTroskova;
+            this.projekat = projekat;
+            this.zaposleni = zaposleni;
+            this.duguje = duguje;
+            this.potrazuje = potrazuje;
+        }
+    }
+
+    /**
+     * Zbir prometa jedne kombinacije vrednosti kolona.
+     */
+    public static final class Grupa {
+
+        private final int[] vrednosti;
+        private final long duguje;
+        private final long potrazuje;
+        private final long stavki;
+
+        private Grupa(int[] vrednosti, long duguje, long potrazuje, long stavki) {
+            this.vrednosti = vrednosti;
+            this.duguje = duguje;
+            this.potrazuje = potrazuje;
+            this.stavki = stavki;
+        }
+
+        public int getVrednost(int kolona) {
+            return vrednosti[kolona];
+        }
+
+        public long getDuguje() {
+            return duguje;
+        }
+
+        public long getPotrazuje() {
+            return potrazuje;
+        }
+
+        public long getStavki() {
+            return stavki;
+        }
+    }
+
+    /**
+     * Hes tabela sa otvorenim adresiranjem od long kljuca do zbirova, bez objekata po grupi.
+     */
+    private static final class Zbirovi {
+
+        private static final long PRAZNO = -1;
+
+        private long[] kljucevi = prazni(64);
+        private long[] duguje = new long[64];
+        private long[] potrazuje = new long[64];
+        private long[] stavki = new long[64];
+        private int velicina;
+
+        private void dodaj(long kljuc, long iznosDuguje, long iznosPotrazuje) {
+            int slot = slot(kljucevi, kljuc);
+            if (kljucevi[slot] == PRAZNO) {
+                if ((velicina + 1) * 2 > kljucevi.length) {
+                    prosiri();
+                    slot = slot(kljucevi, kljuc);
+                }
+                kljucevi[slot] = kljuc;
+                velicina++;
+            }
+            duguje[slot] += iznosDuguje;
+            potrazuje[slot] += iznosPotrazuje;
+            stavki[slot]++;
+        }
+
+        private void prosiri() {
+            long[] stariKljucevi = kljucevi;
+            long[] staroDuguje = duguje;
+            long[] staroPotrazuje = potrazuje;
+            long[] stareStavke = stavki;
+            kljucevi = prazni(stariKljucevi.length * 2);
+            duguje = new long[kljucevi.length];
+            potrazuje = new long[kljucevi.length];
+            stavki = new long[kljucevi.length];
+            for (int i = 0; i < stariKljucevi.length; i++) {
+                if (stariKljucevi[i] != PRAZNO) {
+                    int slot = slot(kljucevi, stariKljucevi[i]);
+                    kljucevi[slot] = stariKljucevi[i];
+                    duguje[slot] = staroDuguje[i];
+                    potrazuje[slot] = staroPotrazuje[i];
+                    stavki[slot] = stareStavke[i];
+                }
+            }
+        }
+
+        private static int slot(long[] kljucevi, long kljuc) {
+            int maska = kljucevi.length - 1;
+            int slot = (int) ((kljuc * 0x9E3779B97F4A7C15L) >>> 40) & maska;
+            while (kljucevi[slot] != PRAZNO && kljucevi[slot] != kljuc) {
+                slot = (slot + 1) & maska;
+            }
+            return slot;
+        }
+
+        private static long[] prazni(int velicina) {
+            long[] niz = new long[velicina];
+            Arrays.fill(niz, PRAZNO);
+            return niz;
+        }
+    }
+
+    /**
+     * Bafere kolona i broj popunjenih redova objavljuje zajedno, pa citalac
+     * nikada ne vidi red koji jos nije upisan u sve kolone.
+     */
+    private static final class Kolone {
+
+        private final int kapacitet;
+        private final int redova;
+        private final IntBuffer[] celobrojne;
+        private final LongBuffer[] dugacke;
+
+        private Kolone(int kapacitet, int redova) {
+            this(kapacitet, redova, new IntBuffer[INT_KOLONA], new LongBuffer[LONG_KOLONA]);
+            for (int kolona = 0; kolona < INT_KOLONA; kolona++) {
+                celobrojne[kolona] = bafer(kapacitet, Integer.BYTES).asIntBuffer();
+            }
+            for (int kolona = 0; kolona < LONG_KOLONA; kolona++) {
+                dugacke[kolona] = bafer(kapacitet, Long.BYTES).asLongBuffer();
+            }
+        }
+
+        private Kolone(int kapacitet, int redova, IntBuffer[] celobrojne, LongBuffer[] dugacke) {
+            this.kapacitet = kapacitet;
+            this.redova = redova;
+            this.celobrojne = celobrojne;
+            this.dugacke = dugacke;
+        }
+
+        private Kolone saRedova(int redova) {
+            return new Kolone(kapacitet, redova, celobrojne, dugacke);
+        }
+
+        private Kolone prosiri() {
+            int noviKapacitet = (int) Math.min(Integer.MAX_VALUE / Long.BYTES, Math.max(16, kapacitet * 2L));
+            if (noviKapacitet == kapacitet) {
+                throw new IllegalStateException("Dostignut maksimalan broj redova: " + kapacitet);
+            }
+            IntBuffer[] noveCelobrojne = new IntBuffer[INT_KOLONA];
+            for (int kolona = 0; kolona < INT_KOLONA; kolona++) {
+                noveCelobrojne[kolona] = bafer(noviKapacitet, Integer.BYTES).asIntBuffer();
+                noveCelobrojne[kolona].put(celobrojne[kolona].duplicate().clear()).clear();
+            }
+            LongBuffer[] noveDugacke = new LongBuffer[LONG_KOLONA];
+            for (int kolona = 0; kolona < LONG_KOLONA; kolona++) {
+                noveDugacke[kolona] = bafer(noviKapacitet, Long.BYTES).asLongBuffer();
+                noveDugacke[kolona].put(dugacke[kolona].duplicate().clear()).clear();
+            }
+            return new Kolone(noviKapacitet, redova, noveCelobrojne, noveDugacke);
+        }
+
+        private static ByteBuffer bafer(int kapacitet, int sirina) {
+            return ByteBuffer.allocateDirect(kapacitet * sirina).order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package rs.raf.demo.utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Nepromenljiv indeks kurseva po valuti i danu vazenja. Za svaku valutu drzi
+ * sortirane nizove primitiva, pa pretraga ne alocira memoriju. Izmene prave
+ * novu instancu i kopiraju samo niz izmenjene valute.
+ */
+public final class KursnaListaIndeks {
+
+    private static final KursnaListaIndeks PRAZAN = new KursnaListaIndeks(new HashMap<>());
+
+    private final Map<String, Serija> serije;
+
+    private KursnaListaIndeks(Map<String, Serija> serije) {
+        this.serije = serije;
+    }
+
+    public static KursnaListaIndeks prazan() {
+        return PRAZAN;
+    }
+
+    public static KursnaListaIndeks izgradi(Map<String, ? extends SortedMap<Long, Double>> kursevi) {
+        Map<String, Serija> serije = new HashMap<>();
+        kursevi.forEach((valuta, poDanu) -> {
+            long[] dani = new long[poDanu.size()];
+            double[] vrednosti = new double[poDanu.size()];
+            int i = 0;
+            for (Map.Entry<Long, Double> kurs : poDanu.entrySet()) {
+                dani[i] = kurs.getKey();
+                vrednosti[i] = kurs.getValue();
+                i++;
+            }
+            serije.put(valuta, new Serija(dani, vrednosti));
+        });
+        return new KursnaListaIndeks(serije);
+    }
+
+    /**
+     * @return Kurs koji vazi na zadati dan (poslednji sa datumom vazenja do tog dana),
+     * ili NaN ako za valutu nema kursa na taj dan.
+     */
+    public double kurs(String valuta, long epochDan) {
+        Serija serija = serije.get(valuta);
+        if (serija == null) {
+            return Double.NaN;
+        }
+        int i = Arrays.binarySearch(serija.dani, 0, serija.dani.length, epochDan);
+        if (i < 0) {
+            i = -i - 2;
+        }
+        return i < 0 ? Double.NaN : serija.kursevi[i];
+    }
+
+    public KursnaListaIndeks dodaj(String valuta, long epochDan, double kurs) {
+        Serija stara = serije.get(valuta);
+        long[] dani = stara == null ? new long[0] : stara.dani;
+        double[] kursevi = stara == null ? new double[0] : stara.kursevi;
+
+        int i = Arrays.binarySearch(dani, epochDan);
+        long[] noviDani;
+        double[] noviKursevi;
+        if (i >= 0) {
+            noviDani = dani;
+            noviKursevi = kursevi.clone();
+            noviKursevi[i] = kurs;
+        } else {
+            int mesto = -i - 1;
+            noviDani = new long[dani.length + 1];
+            noviKursevi = new double[kursevi.length + 1];
+            System.arraycopy(dani, 0, noviDani, 0, mesto);
+            System.arraycopy(kursevi, 0, noviKursevi, 0, mesto);
+            noviDani[mesto] = epochDan;
+            noviKursevi[mesto] = kurs;
+            System.arraycopy(dani, mesto, noviDani, mesto + 1, dani.length - mesto);
+            System.arraycopy(kursevi, mesto, noviKursevi, mesto + 1, kursevi.length - mesto);
+        }
+
+        Map<String, Serija> nove = new HashMap<>(serije);
+        nove.put(valuta, new Serija(noviDani, noviKursevi));
+        return new KursnaListaIndeks(nove);
+    }
+
+    private static final class Serija {
+        private final long[] dani;
+        private final double[] kursevi;
+
+        Serija(long[] dani, double[] kursevi) {
+            this.dani = dani;
+            this.kursevi = kursevi;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package rs.raf.demo.utils;
+
+import java.util.Map;
+
+/**
+ * Novcani iznosi u fiksnom zarezu: long broj najmanjih jedinica valute (para, centi)
+ * uz skalu valute, tj. broj decimala. Metode rade direktno nad long vrednostima
+ * i koriste se u petljama i zbirovima, gde bi Double gomilao gresku zaokruzivanja.
+ * <p>
+ * Iznosi se na jedinice zaokruzuju na parnu cifru (HALF_EVEN). Kolone sa iznosima
+ * u bazi su decimalne ({@link #KOLONA}), pa su i zbirovi u upitima tacni.
+ */
+public final class Novac {
+
+    /**
+     * Definicija kolone za iznose; skala pokriva sve valute iz {@link #skala(String)}.
+     */
+    public static final String KOLONA = "decimal(19,4)";
+    public static final int PODRAZUMEVANA_SKALA = 2;
+    public static final int MAKS_SKALA = 4;
+
+    private static final long[] STEPENI = {1, 10, 100, 1000, 10000};
+    private static final Map<String, Integer> SKALE = Map.of(
+            "JPY", 0, "KRW", 0, "ISK", 0, "CLP", 0, "VND", 0,
+            "BHD", 3, "KWD", 3, "OMR", 3, "JOD", 3, "TND", 3);
+
+    private Novac() {}
+
+    /**
+     * @return Broj decimala valute, ili {@link #PODRAZUMEVANA_SKALA} za nepoznatu i null valutu.
+     */
+    public static int skala(String valuta) {
+        return valuta == null ? PODRAZUMEVANA_SKALA : SKALE.getOrDefault(valuta, PODRAZUMEVANA_SKALA);
+    }
+
+    public static long uJedinice(double iznos, int skala) {
+        double jedinice = Math.rint(iznos * STEPENI[skala]);
+        if (Double.isNaN(jedinice) || Math.abs(jedinice) >= 0x1p53) {
+            throw new ArithmeticException("Iznos " + iznos + " nije moguce predstaviti u jedinicama valute");
+        }
+        return (long) jedinice;
+    }
+
+    public static double uIznos(long jedinice, int skala) {
+        return (double) jedinice / STEPENI[skala];
+    }
+
+    /**
+     * @return Procenat iznosa u istoj skali, npr. 20% od 1000 para je 200 para.
+     */
+    public static long procenat(long jedinice, double procenat) {
+        return (long) Math.rint(jedinice * procenat / 100);
+    }
+
+    /**
+     * Preracunava iznos kursom u drugu valutu, npr. EUR centi u RSD pare.
+     */
+    public static long konvertuj(long jedinice, int izSkale, double kurs, int uSkalu) {
+        return uJedinice(uIznos(jedinice, izSkale) * kurs, uSkalu);
+    }
+}
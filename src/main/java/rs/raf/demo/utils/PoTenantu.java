@@ -0,0 +1,50 @@
+package rs.raf.demo.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Posebna instanca stanja (kesa, indeksa) za svakog tenanta. Instanca se pravi
+ * pri prvom pristupu u kontekstu tenanta, pa fabrika moze da cita iz njegove seme.
+ */
+public class PoTenantu<T> {
+
+    private final Map<String, T> instance = new ConcurrentHashMap<>();
+    private final Supplier<T> fabrika;
+
+    public PoTenantu(Supplier<T> fabrika) {
+        this.fabrika = fabrika;
+    }
+
+    /**
+     * @return Instanca tekuceg tenanta.
+     */
+    public T get() {
+        String kljuc = TenantKontekst.kljuc();
+        T instanca = instance.get(kljuc);
+        if (instanca == null) {
+            instanca = fabrika.get();
+            T postojeca = instance.putIfAbsent(kljuc, instanca);
+            if (postojeca != null) {
+                instanca = postojeca;
+            }
+        }
+        return instanca;
+    }
+
+    /**
+     * Zamenjuje instancu tekuceg tenanta.
+     */
+    public void postavi(T instanca) {
+        instance.put(TenantKontekst.kljuc(), instanca);
+    }
+
+    /**
+     * Izvrsava posao nad instancom svakog tenanta, u kontekstu tog tenanta.
+     */
+    public void zaSvaki(Consumer<T> posao) {
+        instance.forEach((kljuc, instanca) -> TenantKontekst.uz(kljuc, () -> posao.accept(instanca)));
+    }
+}
@@ -0,0 +1,85 @@
+package rs.raf.demo.utils;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Tenant (klijent) ciji se zahtev trenutno obradjuje. Postavlja se iz JWT-a na
+ * pocetku zahteva i vazi do njegovog kraja. Kada nije postavljen, radi se nad
+ * podrazumevanom semom, kao i kada tenanti nisu ukljuceni.
+ * <p>
+ * Posao koji se predaje drugim nitima mora da ponese tenant sa sobom, preko
+ * {@link #prenesi(Runnable)} ili {@link #prenesi(Callable)}.
+ */
+public final class TenantKontekst {
+
+    /**
+     * Kljuc pod kojim podrazumevani tenant stoji u mapama po tenantu.
+     */
+    public static final String PODRAZUMEVANI = "";
+
+    private static final ThreadLocal<String> TENANT = new ThreadLocal<>();
+
+    private TenantKontekst() {
+    }
+
+    /**
+     * @return Tenant tekuce niti, ili null za podrazumevani.
+     */
+    public static String get() {
+        return TENANT.get();
+    }
+
+    public static String kljuc() {
+        String tenant = TENANT.get();
+        return tenant == null ? PODRAZUMEVANI : tenant;
+    }
+
+    public static boolean isPodrazumevani() {
+        return TENANT.get() == null;
+    }
+
+    public static void postavi(String tenant) {
+        if (tenant == null) {
+            TENANT.remove();
+        } else {
+            TENANT.set(tenant);
+        }
+    }
+
+    public static void ocisti() {
+        TENANT.remove();
+    }
+
+    /**
+     * Izvrsava posao u kontekstu datog tenanta i zatim vraca prethodni.
+     */
+    public static void uz(String tenant, Runnable posao) {
+        String prethodni = TENANT.get();
+        postavi(PODRAZUMEVANI.equals(tenant) ? null : tenant);
+        try {
+            posao.run();
+        } finally {
+            postavi(prethodni);
+        }
+    }
+
+    public static <T> T uz(String tenant, Callable<T> posao) throws Exception {
+        String prethodni = TENANT.get();
+        postavi(PODRAZUMEVANI.equals(tenant) ? null : tenant);
+        try {
+            return posao.call();
+        } finally {
+            postavi(prethodni);
+        }
+    }
+
+    public static Runnable prenesi(Runnable posao) {
+        String tenant = TENANT.get();
+        return () -> uz(tenant, posao);
+    }
+
+    public static <T> Callable<T> prenesi(Callable<T> posao) {
+        String tenant = TENANT.get();
+        return () -> uz(tenant, posao);
+    }
+}
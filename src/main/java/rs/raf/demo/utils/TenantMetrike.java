@@ -0,0 +1,76 @@
+package rs.raf.demo.utils;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Brojaci zahteva i konekcija po tenantu.
+ */
+@Component
+public class TenantMetrike {
+
+    private final Map<String, Brojaci> brojaci = new ConcurrentHashMap<>();
+
+    public void zahtev(String tenant, long trajanjeMs, boolean greska) {
+        Brojaci b = brojaci(tenant);
+        b.zahteva.increment();
+        b.trajanjeMs.add(trajanjeMs);
+        if (greska) {
+            b.gresaka.increment();
+        }
+    }
+
+    public void konekcijaUzeta(String tenant, long cekanjeMs) {
+        Brojaci b = brojaci(tenant);
+        b.konekcija.increment();
+        b.cekanjeMs.add(cekanjeMs);
+        b.aktivnihKonekcija.incrementAndGet();
+    }
+
+    public void konekcijaVracena(String tenant) {
+        brojaci(tenant).aktivnihKonekcija.decrementAndGet();
+    }
+
+    public void konekcijaOdbijena(String tenant) {
+        brojaci(tenant).odbijenihKonekcija.increment();
+    }
+
+    /**
+     * @return Tenant -> naziv metrike -> vrednost.
+     */
+    public Map<String, Map<String, Number>> presek() {
+        Map<String, Map<String, Number>> presek = new TreeMap<>();
+        brojaci.forEach((tenant, b) -> {
+            Map<String, Number> vrednosti = new TreeMap<>();
+            long zahteva = b.zahteva.sum();
+            vrednosti.put("zahteva", zahteva);
+            vrednosti.put("gresaka", b.gresaka.sum());
+            vrednosti.put("prosecnoTrajanjeMs", zahteva == 0 ? 0.0 : (double) b.trajanjeMs.sum() / zahteva);
+            vrednosti.put("konekcija", b.konekcija.sum());
+            vrednosti.put("aktivnihKonekcija", b.aktivnihKonekcija.get());
+            vrednosti.put("odbijenihKonekcija", b.odbijenihKonekcija.sum());
+            vrednosti.put("cekanjeNaKonekcijuMs", b.cekanjeMs.sum());
+            presek.put(tenant, vrednosti);
+        });
+        return presek;
+    }
+
+    private Brojaci brojaci(String tenant) {
+        return brojaci.computeIfAbsent(tenant == null ? TenantKontekst.PODRAZUMEVANI : tenant, t -> new Brojaci());
+    }
+
+    private static final class Brojaci {
+        private final LongAdder zahteva = new LongAdder();
+        private final LongAdder gresaka = new LongAdder();
+        private final LongAdder trajanjeMs = new LongAdder();
+        private final LongAdder konekcija = new LongAdder();
+        private final LongAdder cekanjeMs = new LongAdder();
+        private final LongAdder odbijenihKonekcija = new LongAdder();
+        private final AtomicInteger aktivnihKonekcija = new AtomicInteger();
+    }
+}
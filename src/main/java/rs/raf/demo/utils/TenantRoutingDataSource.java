@@ -0,0 +1,121 @@
+package rs.raf.demo.utils;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Usmerava konekcije na semu tenanta iz {@link TenantKontekst}. Svi tenanti
+ * dele jedan pool konekcija: konekcija se pri uzimanju prebacuje na semu
+ * tenanta (u MySQL-u je sema katalog), pa broj konekcija ne raste sa brojem
+ * tenanata. Da jedan tenant ne bi zauzeo ceo pool, svaki moze istovremeno da
+ * drzi najvise zadati broj konekcija.
+ */
+public class TenantRoutingDataSource extends AbstractRoutingDataSource {
+
+    public TenantRoutingDataSource(DataSource pool, String podrazumevanaSema, Map<String, String> seme,
+                                   int maxKonekcija, long cekanjeKonekcije, TenantMetrike metrike) {
+        Map<Object, Object> tenanti = new HashMap<>();
+        seme.forEach((tenant, sema) -> tenanti.put(tenant,
+                new SemaDataSource(pool, tenant, sema, new Semaphore(maxKonekcija, true), cekanjeKonekcije, metrike)));
+        setTargetDataSources(tenanti);
+        setDefaultTargetDataSource(new SemaDataSource(pool, null, podrazumevanaSema, null, 0, metrike));
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TenantKontekst.get();
+    }
+
+    private static final class SemaDataSource extends DelegatingDataSource {
+
+        private final String tenant;
+        private final String sema;
+        private final Semaphore dozvole;
+        private final long cekanjeKonekcije;
+        private final TenantMetrike metrike;
+
+        private SemaDataSource(DataSource pool, String tenant, String sema, Semaphore dozvole,
+                               long cekanjeKonekcije, TenantMetrike metrike) {
+            super(pool);
+            this.tenant = tenant;
+            this.sema = sema;
+            this.dozvole = dozvole;
+            this.cekanjeKonekcije = cekanjeKonekcije;
+            this.metrike = metrike;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            long pocetak = System.nanoTime();
+            if (dozvole != null) {
+                try {
+                    if (!dozvole.tryAcquire(cekanjeKonekcije, TimeUnit.MILLISECONDS)) {
+                        metrike.konekcijaOdbijena(tenant);
+                        throw new SQLTransientConnectionException("Tenant " + tenant + " je iskoristio sve svoje konekcije");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLTransientConnectionException("Prekinuto cekanje na konekciju", e);
+                }
+            }
+            Connection konekcija;
+            try {
+                konekcija = super.getConnection();
+                if (sema != null) {
+                    konekcija.setCatalog(sema);
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (dozvole != null) {
+                    dozvole.release();
+                }
+                throw e;
+            }
+            metrike.konekcijaUzeta(tenant, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pocetak));
+            return omotaj(konekcija);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            throw new SQLException("Konekcije tenanata se uzimaju samo iz zajednickog pool-a");
+        }
+
+        /**
+         * Vraca dozvolu tenanta kada se konekcija zatvori (vrati u pool), tacno jednom.
+         */
+        private Connection omotaj(Connection konekcija) {
+            AtomicBoolean zatvorena = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, metoda, argumenti) -> {
+                        if (metoda.getName().equals("close") && zatvorena.compareAndSet(false, true)) {
+                            try {
+                                konekcija.close();
+                            } finally {
+                                if (dozvole != null) {
+                                    dozvole.release();
+                                }
+                                metrike.konekcijaVracena(tenant);
+                            }
+                            return null;
+                        }
+                        try {
+                            return metoda.invoke(konekcija, argumenti);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
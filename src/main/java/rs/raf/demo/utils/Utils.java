@@ -7,10 +7,19 @@ public class Utils {
     private Utils() {}
 
     /**
+     * Sabira u najmanjim jedinicama ({@link Novac#MAKS_SKALA} decimala), pa zbir ne zavisi
+     * od redosleda i broja sabiraka.
+     *
      * @param args Argumenti za sumiranje.
      * @return Suma Double-ova, s tim sto null vrednosti u listi preskace.
      */
     public static Double sum(List<Double> args) {
-        return args.stream().reduce(0.0, Double::sum);
+        long suma = 0;
+        for (Double arg : args) {
+            if (arg != null) {
+                suma = Math.addExact(suma, Novac.uJedinice(arg, Novac.MAKS_SKALA));
+            }
+        }
+        return Novac.uIznos(suma, Novac.MAKS_SKALA);
     }
 }
@@ -0,0 +1,75 @@
+-- Prelazak kolona sa iznosima sa DOUBLE na decimal(19,4) (Novac.KOLONA) za postojece
+-- MySQL baze. Sema koju pravi Hibernate (ddl-auto) vec ima decimalne kolone, pa ova
+-- skripta treba samo bazama napravljenim pre te izmene. Pokrece se jednom, dok je
+-- aplikacija zaustavljena (ALTER TABLE u MySQL-u odmah potvrdjuje transakciju, pa
+-- napraviti rezervnu kopiju pre pokretanja). Iznosi se zaokruzuju na broj decimala
+-- valute (Novac.skala), a posle migracije se moze pokrenuti i preracun faktura
+-- (/api/faktura/preracun) da rabat, porez i iznos budu izracunati u jedinicama valute.
+
+ALTER TABLE Faktura
+    MODIFY prodajnaVrednost DECIMAL(19, 4) NOT NULL,
+    MODIFY rabat DECIMAL(19, 4) NULL,
+    MODIFY porez DECIMAL(19, 4) NOT NULL,
+    MODIFY iznos DECIMAL(19, 4) NOT NULL,
+    MODIFY naplata DECIMAL(19, 4) NOT NULL;
+
+UPDATE Faktura f
+JOIN (SELECT fakturaId,
+             CASE
+                 WHEN valuta IN ('JPY', 'KRW', 'ISK', 'CLP', 'VND') THEN 0
+                 WHEN valuta IN ('BHD', 'KWD', 'OMR', 'JOD', 'TND') THEN 3
+                 ELSE 2
+             END AS skala
+      FROM Faktura) s ON s.fakturaId = f.fakturaId
+SET f.prodajnaVrednost = ROUND(f.prodajnaVrednost, s.skala),
+    f.rabat            = ROUND(f.rabat, s.skala),
+    f.porez            = ROUND(f.porez, s.skala),
+    f.iznos            = ROUND(f.iznos, s.skala),
+    f.naplata          = ROUND(f.naplata, s.skala);
+
+ALTER TABLE OtvorenaStavka
+    MODIFY iznos DECIMAL(19, 4) NOT NULL,
+    MODIFY placeno DECIMAL(19, 4) NOT NULL,
+    MODIFY preostalo DECIMAL(19, 4) NOT NULL;
+
+UPDATE OtvorenaStavka
+SET iznos     = ROUND(iznos, CASE WHEN valuta IN ('JPY', 'KRW', 'ISK', 'CLP', 'VND') THEN 0
+                                  WHEN valuta IN ('BHD', 'KWD', 'OMR', 'JOD', 'TND') THEN 3 ELSE 2 END),
+    placeno   = ROUND(placeno, CASE WHEN valuta IN ('JPY', 'KRW', 'ISK', 'CLP', 'VND') THEN 0
+                                    WHEN valuta IN ('BHD', 'KWD', 'OMR', 'JOD', 'TND') THEN 3 ELSE 2 END),
+    preostalo = ROUND(preostalo, CASE WHEN valuta IN ('JPY', 'KRW', 'ISK', 'CLP', 'VND') THEN 0
+                                      WHEN valuta IN ('BHD', 'KWD', 'OMR', 'JOD', 'TND') THEN 3 ELSE 2 END);
+
+-- Glavna knjiga se vodi u dinarima.
+ALTER TABLE Konto
+    MODIFY potrazuje DECIMAL(19, 4) NULL,
+    MODIFY duguje DECIMAL(19, 4) NULL;
+
+UPDATE Konto SET potrazuje = ROUND(potrazuje, 2), duguje = ROUND(duguje, 2);
+
+ALTER TABLE GlavnaKnjigaStavka
+    MODIFY potrazuje DECIMAL(19, 4) NULL,
+    MODIFY duguje DECIMAL(19, 4) NULL,
+    MODIFY saldo DECIMAL(19, 4) NULL;
+
+UPDATE GlavnaKnjigaStavka SET potrazuje = ROUND(potrazuje, 2), duguje = ROUND(duguje, 2), saldo = ROUND(saldo, 2);
+
+-- Dnevna stanja su zbirovi konta, pa se ne zaokruzuju nego brisu; DnevnoStanjeService
+-- ih na startu aplikacije ponovo pravi iz zaokruzenih konta.
+DELETE FROM DnevnoStanje;
+
+ALTER TABLE DnevnoStanje
+    MODIFY dugujeDan DECIMAL(19, 4) NOT NULL,
+    MODIFY potrazujeDan DECIMAL(19, 4) NOT NULL,
+    MODIFY dugujeUkupno DECIMAL(19, 4) NOT NULL,
+    MODIFY potrazujeUkupno DECIMAL(19, 4) NOT NULL;
+
+-- Mesecni preseci su takodje zbirovi konta; MesecniPresekService na startu ponovo
+-- pravi preseke za zatvorene mesece koji ih nemaju.
+DELETE FROM MesecniPresek;
+
+ALTER TABLE MesecniPresek
+    MODIFY prihodi DECIMAL(19, 4) NOT NULL,
+    MODIFY rashodi DECIMAL(19, 4) NOT NULL,
+    MODIFY izlazniPdv DECIMAL(19, 4) NOT NULL,
+    MODIFY ulazniPdv DECIMAL(19, 4) NOT NULL;
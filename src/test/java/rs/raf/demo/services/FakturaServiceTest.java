@@ -6,10 +6,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import rs.raf.demo.model.Faktura;
 import rs.raf.demo.model.enums.TipFakture;
 import rs.raf.demo.repositories.FakturaRepository;
+import rs.raf.demo.repositories.KnjizenjeRepository;
+import rs.raf.demo.repositories.OutboxDogadjajRepository;
+import rs.raf.demo.repositories.StavkaIzvodaRepository;
+import rs.raf.demo.services.impl.BrojFaktureService;
+import rs.raf.demo.services.impl.DuplikatFaktureService;
 import rs.raf.demo.services.impl.FakturaService;
+import rs.raf.demo.services.impl.KursnaListaService;
+import rs.raf.demo.services.impl.ObracunskiPeriodService;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -27,6 +35,30 @@ class FakturaServiceTest {
     @Mock
     private FakturaRepository fakturaRepository;
 
+    @Mock
+    private BrojFaktureService brojFaktureService;
+
+    @Mock
+    private DuplikatFaktureService duplikatFaktureService;
+
+    @Mock
+    private OutboxDogadjajRepository outboxDogadjajRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private KursnaListaService kursnaListaService;
+
+    @Mock
+    private KnjizenjeRepository knjizenjeRepository;
+
+    @Mock
+    private ObracunskiPeriodService obracunskiPeriodService;
+
+    @Mock
+    private StavkaIzvodaRepository stavkaIzvodaRepository;
+
     private List<Faktura> fakture;
 
     @BeforeEach
@@ -71,4 +103,18 @@ class FakturaServiceTest {
         assertSame(ocekivanaFaktura, vracenaFaktura);
     }
 
+    @Test
+    void testSaveDodeljujeBrojFakture() {
+        Faktura faktura = new Faktura();
+        faktura.setProdajnaVrednost(1000.0);
+        faktura.setRabatProcenat(0.0);
+        faktura.setPorezProcenat(20.0);
+
+        when(brojFaktureService.sledeciBroj(faktura)).thenReturn("IF-2026-000001");
+        when(fakturaRepository.save(faktura)).thenReturn(faktura);
+        Faktura vracenaFaktura = fakturaService.save(faktura);
+
+        assertEquals("IF-2026-000001", vracenaFaktura.getBrojFakture());
+    }
+
 }
\ No newline at end of file
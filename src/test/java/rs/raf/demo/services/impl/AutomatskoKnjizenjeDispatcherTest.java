@@ -0,0 +1,228 @@
+package rs.raf.demo.services.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import rs.raf.demo.configuration.AutomatskoKnjizenjeProperties;
+import rs.raf.demo.events.FakturaEvent;
+import rs.raf.demo.events.KnjizenjeEvent;
+import rs.raf.demo.model.Faktura;
+import rs.raf.demo.model.Knjizenje;
+import rs.raf.demo.model.KontnaGrupa;
+import rs.raf.demo.model.Konto;
+import rs.raf.demo.model.OutboxDogadjaj;
+import rs.raf.demo.model.enums.TipFakture;
+import rs.raf.demo.repositories.*;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AutomatskoKnjizenjeDispatcherTest {
+
+    private static final Date DATUM = new GregorianCalendar(2026, Calendar.MARCH, 10).getTime();
+    private static final Date STARI_DATUM = new GregorianCalendar(2026, Calendar.FEBRUARY, 1).getTime();
+
+    @Mock
+    private OutboxDogadjajRepository outboxDogadjajRepository;
+
+    @Mock
+    private FakturaRepository fakturaRepository;
+
+    @Mock
+    private KnjizenjeRepository knjizenjeRepository;
+
+    @Mock
+    private KontoRepository kontoRepository;
+
+    @Mock
+    private KontnaGrupaService kontnaGrupaService;
+
+    @Mock
+    private ObracunskiPeriodService obracunskiPeriodService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TenantService tenantService;
+
+    @Mock
+    private StavkaIzvodaRepository stavkaIzvodaRepository;
+
+    private AutomatskoKnjizenjeDispatcher dispatcher;
+    private Faktura faktura;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new AutomatskoKnjizenjeDispatcher(outboxDogadjajRepository, fakturaRepository, knjizenjeRepository,
+                kontoRepository, kontnaGrupaService, obracunskiPeriodService, new AutomatskoKnjizenjeProperties(),
+                transactionManager, eventPublisher, tenantService, stavkaIzvodaRepository);
+
+        faktura = new Faktura();
+        faktura.setDokumentId(1L);
+        faktura.setBrojFakture("IF-1");
+        faktura.setTipFakture(TipFakture.IZLAZNA_FAKTURA);
+        faktura.setDatumIzdavanja(DATUM);
+        faktura.setValuta("EUR");
+        faktura.setKurs(117.5);
+        faktura.setProdajnaVrednost(100.0);
+        faktura.setRabat(10.0);
+        faktura.setPorez(18.0);
+
+        doAnswer(i -> {
+            ((Runnable) i.getArgument(0)).run();
+            return null;
+        }).when(tenantService).zaSvakog(any());
+        lenient().when(fakturaRepository.findAllById(any())).thenReturn(List.of(faktura));
+        lenient().when(obracunskiPeriodService.uOtvoreniPeriod(any())).then(i -> i.getArgument(0));
+        lenient().when(kontnaGrupaService.findOrCreate(any())).then(i -> {
+            KontnaGrupa kontnaGrupa = new KontnaGrupa();
+            kontnaGrupa.setBrojKonta(i.getArgument(0));
+            return kontnaGrupa;
+        });
+        lenient().when(knjizenjeRepository.save(any())).then(i -> {
+            Knjizenje knjizenje = i.getArgument(0);
+            knjizenje.setKnjizenjeId(5L);
+            return knjizenje;
+        });
+    }
+
+    @Test
+    void testNovaFakturaSeKnjiziUDinarima() {
+        dogadjaji(dogadjaj(10L, false));
+        when(knjizenjeRepository.findFirstByDokumentDokumentId(1L)).thenReturn(Optional.empty());
+
+        dispatcher.obradi();
+
+        // Osnovica 90 EUR = 10575 RSD, porez 18 EUR = 2115 RSD.
+        assertEquals(Map.of("2020", 12690.0, "6120", -10575.0, "4700", -2115.0), stavke());
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof KnjizenjeEvent
+                && ((KnjizenjeEvent) event).getDatumi().equals(List.of(DATUM))));
+        verify(outboxDogadjajRepository).oznaciObradjene(List.of(10L));
+    }
+
+    @Test
+    void testPonovnoKnjizenjeMenjaStareStavkeNaMestu() {
+        dogadjaji(dogadjaj(10L, false), dogadjaj(11L, false));
+        Konto kupci = konto("2020", 11750.0, 0.0);
+        kupci.setMestoTroskovaId(7L);
+        kupci.setProjekatId(8L);
+        Konto ukinuto = konto("6130", 0.0, 9400.0);
+        Knjizenje staro = knjizenje(List.of(kupci, ukinuto));
+        when(knjizenjeRepository.findFirstByDokumentDokumentId(1L)).thenReturn(Optional.of(staro));
+
+        dispatcher.obradi();
+
+        verify(kontoRepository).deleteAll(List.of(ukinuto));
+        verify(knjizenjeRepository, times(1)).save(staro);
+        assertEquals(Map.of("2020", 12690.0, "6120", -10575.0, "4700", -2115.0), stavke());
+        // Stavka na istom kontu je ista instanca, pa zadrzava id i dodeljene dimenzije.
+        assertEquals(12690.0, kupci.getDuguje());
+        assertEquals(7L, kupci.getMestoTroskovaId());
+        assertEquals(8L, kupci.getProjekatId());
+        assertTrue(sacuvane().contains(kupci));
+        verify(eventPublisher).publishEvent(argThat((Object event) -> event instanceof KnjizenjeEvent
+                && ((KnjizenjeEvent) event).getDatumi().equals(List.of(STARI_DATUM, DATUM))));
+        verify(outboxDogadjajRepository).oznaciObradjene(List.of(10L, 11L));
+    }
+
+    @Test
+    void testBrisanjeUklanjaKnjizenjePaFakturu() {
+        dogadjaji(dogadjaj(10L, false), dogadjaj(11L, true));
+        Knjizenje staro = knjizenje(List.of(new Konto()));
+        when(knjizenjeRepository.findFirstByDokumentDokumentId(1L)).thenReturn(Optional.of(staro));
+
+        dispatcher.obradi();
+
+        InOrder redosled = inOrder(kontoRepository, knjizenjeRepository, fakturaRepository);
+        redosled.verify(kontoRepository).deleteAll(staro.getKonto());
+        redosled.verify(knjizenjeRepository).delete(staro);
+        redosled.verify(fakturaRepository).delete(faktura);
+        verify(knjizenjeRepository, never()).save(any());
+        assertTrue(stavke().isEmpty());
+
+        ArgumentCaptor<Object> dogadjaji = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(2)).publishEvent(dogadjaji.capture());
+        KnjizenjeEvent knjizenjeEvent = (KnjizenjeEvent) dogadjaji.getAllValues().get(0);
+        assertEquals(5L, knjizenjeEvent.getKnjizenjeId());
+        assertEquals(List.of(STARI_DATUM), knjizenjeEvent.getDatumi());
+        FakturaEvent fakturaEvent = (FakturaEvent) dogadjaji.getAllValues().get(1);
+        assertTrue(fakturaEvent.isObrisana());
+        assertEquals(DATUM, fakturaEvent.getPrethodniDatum());
+    }
+
+    @Test
+    void testBrisanjeIzZatvoreneGodineSePreskace() {
+        dogadjaji(dogadjaj(10L, true));
+        Knjizenje staro = knjizenje(List.of(new Konto()));
+        when(knjizenjeRepository.findFirstByDokumentDokumentId(1L)).thenReturn(Optional.of(staro));
+        when(obracunskiPeriodService.isZatvorena(STARI_DATUM)).thenReturn(true);
+
+        dispatcher.obradi();
+
+        verify(knjizenjeRepository, never()).delete(any());
+        verify(fakturaRepository, never()).delete(any());
+        verifyNoInteractions(eventPublisher);
+        verify(outboxDogadjajRepository).oznaciObradjene(List.of(10L));
+    }
+
+    private void dogadjaji(OutboxDogadjaj... dogadjaji) {
+        when(outboxDogadjajRepository.findNeobradjeni(any())).thenReturn(List.of(dogadjaji));
+    }
+
+    private static OutboxDogadjaj dogadjaj(Long outboxId, boolean brisanje) {
+        OutboxDogadjaj dogadjaj = new OutboxDogadjaj();
+        dogadjaj.setOutboxId(outboxId);
+        dogadjaj.setDokumentId(1L);
+        dogadjaj.setObradjen(false);
+        dogadjaj.setBrisanje(brisanje);
+        return dogadjaj;
+    }
+
+    private static Knjizenje knjizenje(List<Konto> konto) {
+        Knjizenje knjizenje = new Knjizenje();
+        knjizenje.setKnjizenjeId(5L);
+        knjizenje.setDatumKnjizenja(STARI_DATUM);
+        knjizenje.setKonto(konto);
+        return knjizenje;
+    }
+
+    private static Konto konto(String brojKonta, double duguje, double potrazuje) {
+        KontnaGrupa kontnaGrupa = new KontnaGrupa();
+        kontnaGrupa.setBrojKonta(brojKonta);
+        Konto konto = new Konto();
+        konto.setKontnaGrupa(kontnaGrupa);
+        konto.setDuguje(duguje);
+        konto.setPotrazuje(potrazuje);
+        return konto;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Konto> sacuvane() {
+        ArgumentCaptor<List<Konto>> stavke = ArgumentCaptor.forClass(List.class);
+        verify(kontoRepository).saveAll(stavke.capture());
+        return stavke.getValue();
+    }
+
+    /**
+     * @return Saldo (duguje - potrazuje) po kontu iz stavki koje je dispecer sacuvao.
+     */
+    private Map<String, Double> stavke() {
+        return sacuvane().stream().collect(Collectors.toMap(
+                konto -> konto.getKontnaGrupa().getBrojKonta(), konto -> konto.getDuguje() - konto.getPotrazuje()));
+    }
+}
@@ -0,0 +1,138 @@
+package rs.raf.demo.services.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import rs.raf.demo.events.KnjizenjeEvent;
+import rs.raf.demo.model.BilansPozicija;
+import rs.raf.demo.model.enums.TipBilansa;
+import rs.raf.demo.repositories.BilansPozicijaRepository;
+import rs.raf.demo.repositories.KontoRepository;
+import rs.raf.demo.responses.BilansResponse;
+import rs.raf.demo.responses.BilansStavkaResponse;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BilansServiceTest {
+
+    @InjectMocks
+    private BilansService bilansService;
+
+    @Mock
+    private BilansPozicijaRepository bilansPozicijaRepository;
+
+    @Mock
+    private KontoRepository kontoRepository;
+
+    private final int prosla = LocalDate.now().getYear() - 1;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        bilansService.pripremiMapiranje();
+
+        ArgumentCaptor<List<BilansPozicija>> pozicije = ArgumentCaptor.forClass(List.class);
+        verify(bilansPozicijaRepository).saveAll(pozicije.capture());
+        for (TipBilansa tipBilansa : TipBilansa.values()) {
+            lenient().when(bilansPozicijaRepository.findByTipBilansaOrderByOznaka(tipBilansa)).thenReturn(pozicije.getValue().stream()
+                    .filter(pozicija -> pozicija.getTipBilansa() == tipBilansa)
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void testKontoIdeNaPozicijuSaNajduzimPrefiksom() {
+        when(kontoRepository.findPrometPoKontimaDo(any())).thenReturn(List.of(
+                red("2410", 1000, 0),
+                red("4010", 0, 300),
+                red("4350", 0, 700),
+                red("9000", 50, 0)));
+
+        BilansResponse bilans = bilansService.getBilans(TipBilansa.BILANS_STANJA, prosla);
+        Map<String, Double> iznosi = iznosi(bilans);
+
+        assertEquals(1000.0, iznosi.get("A.III"));
+        assertEquals(300.0, iznosi.get("P.II"));
+        assertEquals(700.0, iznosi.get("P.III"));
+        assertEquals(0.0, iznosi.get("A.I"));
+        assertEquals(1000.0, bilans.getUkupnoPoGrupama().get("AKTIVA"));
+        assertEquals(1000.0, bilans.getUkupnoPoGrupama().get("PASIVA"));
+        // Klasa 9 nije pokrivena bilansom, pa se ne prijavljuje kao nerasporedjena.
+        assertTrue(bilans.getNerasporedjeniKonti().isEmpty());
+    }
+
+    @Test
+    void testBilansUspehaINerasporedjeniKonti() {
+        BilansPozicija prihodi = new BilansPozicija();
+        prihodi.setTipBilansa(TipBilansa.BILANS_USPEHA);
+        prihodi.setOznaka("PR.I");
+        prihodi.setGrupa("PRIHODI");
+        prihodi.setPrefiksKonta("60");
+        prihodi.setZnak(-1);
+        when(bilansPozicijaRepository.findByTipBilansaOrderByOznaka(TipBilansa.BILANS_USPEHA)).thenReturn(List.of(prihodi));
+        when(kontoRepository.findPrometPoKontima(any(), any())).thenReturn(List.of(
+                red("6010", 0, 500),
+                red("6500", 0, 20)));
+
+        BilansResponse bilans = bilansService.getBilans(TipBilansa.BILANS_USPEHA, prosla);
+
+        assertEquals(500.0, iznosi(bilans).get("PR.I"));
+        assertEquals(List.of("6500"), bilans.getNerasporedjeniKonti());
+    }
+
+    @Test
+    void testZatvorenaGodinaSeCuvaDoKnjizenjaIzTeGodine() {
+        when(kontoRepository.findPrometPoKontimaDo(any())).thenReturn(List.<Object[]>of(red("2410", 1000, 0)));
+
+        BilansResponse prvi = bilansService.getBilans(TipBilansa.BILANS_STANJA, prosla);
+        assertSame(prvi, bilansService.getBilans(TipBilansa.BILANS_STANJA, prosla));
+
+        bilansService.onKnjizenjeEvent(new KnjizenjeEvent(1L, List.of(datum(prosla - 1))));
+
+        assertNotSame(prvi, bilansService.getBilans(TipBilansa.BILANS_STANJA, prosla));
+        verify(kontoRepository, times(2)).findPrometPoKontimaDo(any());
+    }
+
+    @Test
+    void testBilansIzracunatPrePotvrdeKnjizenjaSeNeCuva() {
+        // Knjizenje se potvrdi dok se bilans racuna iz stanja pre njega.
+        when(kontoRepository.findPrometPoKontimaDo(any())).then(i -> {
+            bilansService.onKnjizenjeEvent(new KnjizenjeEvent(1L, List.of(datum(prosla))));
+            return List.<Object[]>of(red("2410", 1000, 0));
+        }).thenReturn(List.<Object[]>of(red("2410", 1500, 0)));
+
+        bilansService.getBilans(TipBilansa.BILANS_STANJA, prosla);
+        BilansResponse drugi = bilansService.getBilans(TipBilansa.BILANS_STANJA, prosla);
+
+        assertEquals(1500.0, iznosi(drugi).get("A.III"));
+        assertSame(drugi, bilansService.getBilans(TipBilansa.BILANS_STANJA, prosla));
+        verify(kontoRepository, times(2)).findPrometPoKontimaDo(any());
+    }
+
+    private static Map<String, Double> iznosi(BilansResponse bilans) {
+        return bilans.getStavke().stream().collect(Collectors.toMap(BilansStavkaResponse::getOznaka, BilansStavkaResponse::getIznos));
+    }
+
+    private static Object[] red(String brojKonta, long duguje, long potrazuje) {
+        return new Object[]{brojKonta, BigDecimal.valueOf(duguje), BigDecimal.valueOf(potrazuje)};
+    }
+
+    private static Date datum(int godina) {
+        return Date.from(LocalDate.of(godina, 6, 1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,131 @@
+package rs.raf.demo.services.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import rs.raf.demo.exceptions.OperationNotSupportedException;
+import rs.raf.demo.model.Dimenzija;
+import rs.raf.demo.model.Konto;
+import rs.raf.demo.model.enums.Grupisanje;
+import rs.raf.demo.model.enums.TipDimenzije;
+import rs.raf.demo.repositories.DimenzijaRepository;
+import rs.raf.demo.repositories.KontoRepository;
+import rs.raf.demo.requests.DimenzijeKontaRequest;
+import rs.raf.demo.responses.PrometPoDimenzijamaResponse;
+import rs.raf.demo.services.IKolonskaKnjigaService;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DimenzijaServiceTest {
+
+    @InjectMocks
+    private DimenzijaService dimenzijaService;
+
+    @Mock
+    private DimenzijaRepository dimenzijaRepository;
+
+    @Mock
+    private KontoRepository kontoRepository;
+
+    @Mock
+    private KontoService kontoService;
+
+    @Mock
+    private ObjectProvider<IKolonskaKnjigaService> kolonskaKnjigaService;
+
+    @Test
+    void testOznaciKontoProveravaTipDimenzije() {
+        Konto konto = new Konto();
+        when(kontoRepository.findById(1L)).thenReturn(Optional.of(konto));
+        when(dimenzijaRepository.findById(7L)).thenReturn(Optional.of(dimenzija(7L, TipDimenzije.MESTO_TROSKOVA, "MT1")));
+        when(dimenzijaRepository.findById(8L)).thenReturn(Optional.of(dimenzija(8L, TipDimenzije.MESTO_TROSKOVA, "MT2")));
+        when(kontoService.save(konto)).thenReturn(konto);
+
+        dimenzijaService.oznaciKonto(1L, zahtev(7L, null));
+        assertEquals(7L, konto.getMestoTroskovaId());
+
+        // Mesto troskova se ne moze dodeliti kao projekat.
+        assertThrows(OperationNotSupportedException.class, () -> dimenzijaService.oznaciKonto(1L, zahtev(null, 8L)));
+        verify(kontoService, times(1)).save(any());
+    }
+
+    @Test
+    void testDodeljenaDimenzijaSeNeBrise() {
+        when(kontoRepository.existsByMestoTroskovaIdOrProjekatIdOrZaposleniId(7L, 7L, 7L)).thenReturn(true);
+
+        assertThrows(OperationNotSupportedException.class, () -> dimenzijaService.deleteById(7L));
+        verify(dimenzijaRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void testTipDimenzijeSeNeMenja() {
+        when(dimenzijaRepository.findById(7L)).thenReturn(Optional.of(dimenzija(7L, TipDimenzije.MESTO_TROSKOVA, "MT1")));
+
+        assertThrows(OperationNotSupportedException.class,
+                () -> dimenzijaService.save(dimenzija(7L, TipDimenzije.PROJEKAT, "MT1")));
+        verify(dimenzijaRepository, never()).save(any());
+    }
+
+    @Test
+    void testPrometIzBazeSeSabiraPoTrazenimKolonama() {
+        when(dimenzijaRepository.findAll()).thenReturn(List.of(dimenzija(7L, TipDimenzije.MESTO_TROSKOVA, "MT1")));
+        when(kontoRepository.findPrometPoDimenzijama(any(), any(), eq(""), any(), any(), any())).thenReturn(List.of(
+                red(1, "5120", 7L, 9L, 100, 0, 2),
+                red(2, "5130", 7L, null, 50, 10, 1),
+                red(2, "5120", null, 9L, 30, 0, 1)));
+
+        List<PrometPoDimenzijamaResponse> promet = dimenzijaService.getPromet(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 3, 1),
+                List.of(Grupisanje.MESTO_TROSKOVA, Grupisanje.MESTO_TROSKOVA), new DimenzijeKontaRequest(), null);
+
+        // Kolona trazena dva puta se grupise jednom, a stavke bez dimenzije idu u svoju grupu.
+        assertEquals(2, promet.size());
+        assertEquals(grupa("mestoTroskova", null), promet.get(0).getGrupa());
+        assertEquals(30.0, promet.get(0).getSaldo());
+        assertEquals(grupa("mestoTroskova", "MT1 - Naziv MT1"), promet.get(1).getGrupa());
+        assertEquals(150.0, promet.get(1).getDuguje());
+        assertEquals(10.0, promet.get(1).getPotrazuje());
+        assertEquals(3L, promet.get(1).getBrojStavki());
+    }
+
+    private static Dimenzija dimenzija(Long id, TipDimenzije tip, String sifra) {
+        Dimenzija dimenzija = new Dimenzija();
+        dimenzija.setDimenzijaId(id);
+        dimenzija.setTipDimenzije(tip);
+        dimenzija.setSifra(sifra);
+        dimenzija.setNaziv("Naziv " + sifra);
+        return dimenzija;
+    }
+
+    private static DimenzijeKontaRequest zahtev(Long mestoTroskovaId, Long projekatId) {
+        DimenzijeKontaRequest zahtev = new DimenzijeKontaRequest();
+        zahtev.setMestoTroskovaId(mestoTroskovaId);
+        zahtev.setProjekatId(projekatId);
+        return zahtev;
+    }
+
+    private static Object[] red(int mesec, String brojKonta, Long mestoTroskovaId, Long projekatId,
+                                long duguje, long potrazuje, long brojStavki) {
+        return new Object[]{2026, mesec, brojKonta, mestoTroskovaId, projekatId, null,
+                BigDecimal.valueOf(duguje), BigDecimal.valueOf(potrazuje), brojStavki};
+    }
+
+    private static Map<String, String> grupa(String kolona, String vrednost) {
+        Map<String, String> grupa = new LinkedHashMap<>();
+        grupa.put(kolona, vrednost);
+        return grupa;
+    }
+}
@@ -0,0 +1,160 @@
+package rs.raf.demo.services.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import rs.raf.demo.events.KnjizenjeEvent;
+import rs.raf.demo.model.DnevnoStanje;
+import rs.raf.demo.repositories.DnevnoStanjeRepository;
+import rs.raf.demo.repositories.KnjizenjeRepository;
+import rs.raf.demo.repositories.KontnaGrupaRepository;
+import rs.raf.demo.repositories.KontoRepository;
+import rs.raf.demo.responses.SaldoKontaResponse;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DnevnoStanjeServiceTest {
+
+    @InjectMocks
+    private DnevnoStanjeService dnevnoStanjeService;
+
+    @Mock
+    private DnevnoStanjeRepository dnevnoStanjeRepository;
+
+    @Mock
+    private KontoRepository kontoRepository;
+
+    @Mock
+    private KnjizenjeRepository knjizenjeRepository;
+
+    @Mock
+    private KontnaGrupaRepository kontnaGrupaRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final LocalDate dan = LocalDate.of(2026, 3, 10);
+
+    private final Date datum = datum(dan);
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(kontoRepository.findPrometPoKontimaBezPocetnih(datum, datum(dan.plusDays(1)))).thenReturn(List.of());
+        lenient().when(dnevnoStanjeRepository.findByDatum(datum)).thenReturn(List.of());
+    }
+
+    @Test
+    void testIzmenaDanaPomeraKasnijaStanja() {
+        DnevnoStanje stanje = stanje("2410", 100, 0, 1100, 300);
+        when(dnevnoStanjeRepository.findByDatum(datum)).thenReturn(List.of(stanje));
+        when(kontoRepository.findPrometPoKontimaBezPocetnih(datum, datum(dan.plusDays(1)))).thenReturn(List.<Object[]>of(red("2410", 150, 0)));
+
+        dnevnoStanjeService.onKnjizenjeEvent(new KnjizenjeEvent(1L, List.of(datum)));
+
+        assertEquals(150.0, stanje.getDugujeDan());
+        assertEquals(1150.0, stanje.getDugujeUkupno());
+        assertEquals(300.0, stanje.getPotrazujeUkupno());
+        verify(dnevnoStanjeRepository).save(stanje);
+        verify(dnevnoStanjeRepository).pomeriKasnije("2410", datum, 50.0, 0.0);
+    }
+
+    @Test
+    void testNoviDanNastavljaNaPrethodnoStanje() {
+        when(kontoRepository.findPrometPoKontimaBezPocetnih(datum, datum(dan.plusDays(1)))).thenReturn(List.<Object[]>of(red("4350", 0, 70)));
+        when(dnevnoStanjeRepository.findFirstByBrojKontaAndDatumLessThanOrderByDatumDesc("4350", datum))
+                .thenReturn(Optional.of(stanje("4350", 0, 10, 5, 200)));
+
+        dnevnoStanjeService.onKnjizenjeEvent(new KnjizenjeEvent(1L, List.of(datum)));
+
+        ArgumentCaptor<DnevnoStanje> sacuvano = ArgumentCaptor.forClass(DnevnoStanje.class);
+        verify(dnevnoStanjeRepository).save(sacuvano.capture());
+        assertEquals(datum, sacuvano.getValue().getDatum());
+        assertEquals(70.0, sacuvano.getValue().getPotrazujeDan());
+        assertEquals(5.0, sacuvano.getValue().getDugujeUkupno());
+        assertEquals(270.0, sacuvano.getValue().getPotrazujeUkupno());
+        verify(dnevnoStanjeRepository).pomeriKasnije("4350", datum, 0.0, 70.0);
+    }
+
+    @Test
+    void testObrisanoKnjizenjeVracaPromet() {
+        DnevnoStanje stanje = stanje("2410", 100, 0, 1100, 300);
+        when(dnevnoStanjeRepository.findByDatum(datum)).thenReturn(List.of(stanje));
+
+        // Isti dan dva puta u dogadjaju (stari i novi datum) osvezava se jednom.
+        dnevnoStanjeService.onKnjizenjeEvent(new KnjizenjeEvent(1L, List.of(datum, datum)));
+
+        assertEquals(0.0, stanje.getDugujeDan());
+        assertEquals(1000.0, stanje.getDugujeUkupno());
+        verify(dnevnoStanjeRepository).pomeriKasnije("2410", datum, -100.0, 0.0);
+        verify(kontoRepository, times(1)).findPrometPoKontimaBezPocetnih(any(), any());
+    }
+
+    @Test
+    void testNepromenjenDanSeNeCuva() {
+        DnevnoStanje stanje = stanje("2410", 100, 0, 1100, 300);
+        when(dnevnoStanjeRepository.findByDatum(datum)).thenReturn(List.of(stanje));
+        when(kontoRepository.findPrometPoKontimaBezPocetnih(datum, datum(dan.plusDays(1)))).thenReturn(List.<Object[]>of(red("2410", 100, 0)));
+
+        dnevnoStanjeService.onKnjizenjeEvent(new KnjizenjeEvent(1L, List.of(datum)));
+
+        verify(dnevnoStanjeRepository, never()).save(any());
+        verify(dnevnoStanjeRepository, never()).pomeriKasnije(anyString(), any(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void testStanjaSeSabirajuUParama() {
+        DnevnoStanje stanje = stanje("2410", 0.1, 0, 0.1, 0);
+        when(dnevnoStanjeRepository.findByDatum(datum)).thenReturn(List.of(stanje));
+        when(kontoRepository.findPrometPoKontimaBezPocetnih(datum, datum(dan.plusDays(1))))
+                .thenReturn(List.<Object[]>of(new Object[]{"2410", new BigDecimal("0.30"), BigDecimal.ZERO}));
+
+        dnevnoStanjeService.onKnjizenjeEvent(new KnjizenjeEvent(1L, List.of(datum)));
+
+        assertEquals(0.3, stanje.getDugujeUkupno());
+        verify(dnevnoStanjeRepository).pomeriKasnije("2410", datum, 0.2, 0.0);
+    }
+
+    @Test
+    void testSaldoNaDan() {
+        when(dnevnoStanjeRepository.findFirstByBrojKontaAndDatumLessThanEqualOrderByDatumDesc("2410", datum))
+                .thenReturn(Optional.of(stanje("2410", 100, 0, 1100, 300)));
+
+        SaldoKontaResponse saldo = dnevnoStanjeService.getSaldo("2410", dan);
+
+        assertEquals(800.0, saldo.getSaldo());
+        assertEquals(0.0, dnevnoStanjeService.getSaldo("4350", dan).getSaldo());
+    }
+
+    private static DnevnoStanje stanje(String brojKonta, double duguje, double potrazuje, double dugujeUkupno, double potrazujeUkupno) {
+        DnevnoStanje stanje = new DnevnoStanje();
+        stanje.setBrojKonta(brojKonta);
+        stanje.setDugujeDan(duguje);
+        stanje.setPotrazujeDan(potrazuje);
+        stanje.setDugujeUkupno(dugujeUkupno);
+        stanje.setPotrazujeUkupno(potrazujeUkupno);
+        return stanje;
+    }
+
+    private static Object[] red(String brojKonta, long duguje, long potrazuje) {
+        return new Object[]{brojKonta, BigDecimal.valueOf(duguje), BigDecimal.valueOf(potrazuje)};
+    }
+
+    private static Date datum(LocalDate dan) {
+        return Date.from(dan.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
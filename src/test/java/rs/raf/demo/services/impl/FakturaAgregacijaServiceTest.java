@@ -0,0 +1,146 @@
+package rs.raf.demo.services.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import rs.raf.demo.events.FakturaEvent;
+import rs.raf.demo.exceptions.OperationNotSupportedException;
+import rs.raf.demo.model.Faktura;
+import rs.raf.demo.model.enums.DimenzijaFakture;
+import rs.raf.demo.model.enums.TipFakture;
+import rs.raf.demo.responses.AgregacijaResponse;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FakturaAgregacijaServiceTest {
+
+    private static final LocalDate JANUAR = LocalDate.of(2024, 1, 1);
+    private static final LocalDate FEBRUAR = LocalDate.of(2024, 2, 1);
+
+    @InjectMocks
+    private FakturaAgregacijaService fakturaAgregacijaService;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private EntityManager entityManager;
+
+    @Mock
+    private TypedQuery<Tuple> upit;
+
+    private CriteriaQuery<Tuple> kriterijum;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(fakturaAgregacijaService, "entityManager", entityManager);
+        kriterijum = entityManager.getCriteriaBuilder().createTupleQuery();
+        lenient().when(entityManager.createQuery(any(CriteriaQuery.class))).thenReturn(upit);
+    }
+
+    @Test
+    void testMesecSeGrupisePoGodiniIMesecu() {
+        Tuple red = mock(Tuple.class);
+        when(red.get(0)).thenReturn(2024);
+        when(red.get(1)).thenReturn(1);
+        when(red.get(2)).thenReturn(3L);
+        when(upit.getResultList()).thenReturn(List.of(red));
+
+        List<AgregacijaResponse> rezultat = fakturaAgregacijaService.agregiraj(
+                List.of(DimenzijaFakture.MESEC), List.of("COUNT"), null, JANUAR, FEBRUAR);
+
+        assertEquals(List.of(new AgregacijaResponse(Map.of("MESEC", "2024-01"), Map.of("COUNT", 3L))), rezultat);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Expression<?>>> grupisanje = ArgumentCaptor.forClass(List.class);
+        verify(kriterijum).groupBy(grupisanje.capture());
+        assertEquals(2, grupisanje.getValue().size());
+    }
+
+    @Test
+    void testMeraBezPoljaIliSaPoljemKojeNijeIznos() {
+        Root<Faktura> root = kriterijum.from(Faktura.class);
+        Path<Object> valuta = root.get("valuta");
+        doReturn(String.class).when(valuta).getJavaType();
+
+        assertThrows(OperationNotSupportedException.class, () -> fakturaAgregacijaService.agregiraj(
+                List.of(), List.of("SUM"), null, null, null));
+        assertThrows(OperationNotSupportedException.class, () -> fakturaAgregacijaService.agregiraj(
+                List.of(), List.of("SUM:valuta"), null, null, null));
+        assertThrows(OperationNotSupportedException.class, () -> fakturaAgregacijaService.agregiraj(
+                List.of(), List.of("MEDIJANA:iznos"), null, null, null));
+        verifyNoInteractions(upit);
+    }
+
+    @Test
+    void testKesZatvorenogPeriodaSePonistavaStarimINovimDatumom() {
+        when(upit.getResultList()).thenReturn(List.of());
+        agregirajJanuar();
+        agregirajJanuar();
+        verify(upit, times(1)).getResultList();
+
+        // Faktura iz marta ne dira januar.
+        fakturaAgregacijaService.onFakturaEvent(new FakturaEvent(1L, faktura(LocalDate.of(2024, 3, 5)), null, null));
+        agregirajJanuar();
+        verify(upit, times(1)).getResultList();
+
+        // Faktura premestena iz januara u mart ponistava januar po starom datumu.
+        fakturaAgregacijaService.onFakturaEvent(new FakturaEvent(1L, faktura(LocalDate.of(2024, 3, 5)),
+                datum(LocalDate.of(2024, 1, 20)), TipFakture.IZLAZNA_FAKTURA));
+        agregirajJanuar();
+        verify(upit, times(2)).getResultList();
+
+        // Obrisana faktura ponistava period u kome je bila.
+        fakturaAgregacijaService.onFakturaEvent(new FakturaEvent(1L, null, datum(JANUAR), TipFakture.IZLAZNA_FAKTURA));
+        agregirajJanuar();
+        verify(upit, times(3)).getResultList();
+    }
+
+    @Test
+    void testRezultatIzracunatPrePotvrdeIzmeneSeNeCuva() {
+        // Izmena fakture iz januara se potvrdi dok se upit izvrsava.
+        when(upit.getResultList()).then(i -> {
+            fakturaAgregacijaService.onFakturaEvent(new FakturaEvent(1L, faktura(LocalDate.of(2024, 1, 20)), null, null));
+            return List.of();
+        }).thenReturn(List.of());
+
+        agregirajJanuar();
+        agregirajJanuar();
+        agregirajJanuar();
+
+        verify(upit, times(2)).getResultList();
+    }
+
+    private void agregirajJanuar() {
+        fakturaAgregacijaService.agregiraj(List.of(DimenzijaFakture.TIP_FAKTURE), List.of("COUNT"), null, JANUAR, FEBRUAR);
+    }
+
+    private static Faktura faktura(LocalDate dan) {
+        Faktura faktura = new Faktura();
+        faktura.setDatumIzdavanja(datum(dan));
+        return faktura;
+    }
+
+    private static Date datum(LocalDate dan) {
+        return Date.from(dan.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
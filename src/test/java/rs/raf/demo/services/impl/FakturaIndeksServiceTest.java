@@ -0,0 +1,57 @@
+package rs.raf.demo.services.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.roaringbitmap.RoaringBitmap;
+import rs.raf.demo.events.FakturaEvent;
+import rs.raf.demo.model.Faktura;
+import rs.raf.demo.model.enums.TipFakture;
+import rs.raf.demo.repositories.FakturaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FakturaIndeksServiceTest {
+
+    @Mock
+    private FakturaRepository fakturaRepository;
+
+    private FakturaIndeksService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new FakturaIndeksService(fakturaRepository, 5000, 100);
+        when(fakturaRepository.findAtributeZaIndeks(eq(0L), any())).thenReturn(List.of(
+                new Object[]{1L, TipFakture.IZLAZNA_FAKTURA, "EUR", null, null, null},
+                new Object[]{2L, TipFakture.IZLAZNA_FAKTURA, "RSD", null, null, null}));
+        service.izgradi();
+    }
+
+    @Test
+    void testValutaSaDzokeromIdeUBazu() {
+        assertEquals(Optional.of(RoaringBitmap.bitmapOf(1)), service.kandidati("valuta:eu"));
+        // U LIKE-u _ menja bilo koji znak, pa E_R odgovara EUR iako ga ne sadrzi.
+        assertTrue(service.kandidati("valuta:E_R").isEmpty());
+        assertEquals(Optional.of(RoaringBitmap.bitmapOf(1, 2)), service.kandidati("valuta:R%,tipFakture:IZLAZNA_FAKTURA"));
+    }
+
+    @Test
+    void testIdVanOpsegaIskljucujeIndekse() {
+        Faktura faktura = new Faktura();
+        faktura.setTipFakture(TipFakture.ULAZNA_FAKTURA);
+
+        service.onFakturaEvent(new FakturaEvent(Integer.MAX_VALUE + 1L, faktura, null, null));
+
+        assertTrue(service.kandidati("tipFakture:ULAZNA_FAKTURA").isEmpty());
+    }
+}
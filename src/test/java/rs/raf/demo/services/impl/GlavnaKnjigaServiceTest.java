@@ -0,0 +1,114 @@
+package rs.raf.demo.services.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import rs.raf.demo.events.KnjizenjeEvent;
+import rs.raf.demo.model.GlavnaKnjigaStavka;
+import rs.raf.demo.repositories.GlavnaKnjigaStavkaRepository;
+import rs.raf.demo.repositories.KontoRepository;
+import rs.raf.demo.responses.GlavnaKnjigaResponse;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GlavnaKnjigaServiceTest {
+
+    @InjectMocks
+    private GlavnaKnjigaService glavnaKnjigaService;
+
+    @Mock
+    private GlavnaKnjigaStavkaRepository glavnaKnjigaStavkaRepository;
+
+    @Mock
+    private KontoRepository kontoRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TenantService tenantService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStavkaSeMapiraNaOdgovor() {
+        Date datum = new Date();
+        GlavnaKnjigaStavka stavka = new GlavnaKnjigaStavka();
+        stavka.setKontoId(3L);
+        stavka.setBrojNaloga(7L);
+        stavka.setDatum(datum);
+        stavka.setDuguje(1000.0);
+        stavka.setPotrazuje(250.0);
+        stavka.setSaldo(750.0);
+        stavka.setNazivKonta("Kupci u zemlji");
+        stavka.setKonto("2040");
+        when(glavnaKnjigaStavkaRepository.findAll(any(Specification.class), any(PageRequest.class))).thenReturn(new PageImpl<>(List.of(stavka)));
+
+        Page<GlavnaKnjigaResponse> strana = glavnaKnjigaService.findAll(mock(Specification.class), PageRequest.of(0, 10));
+
+        GlavnaKnjigaResponse odgovor = strana.getContent().get(0);
+        assertEquals(7L, odgovor.getBrojNaloga());
+        assertEquals(datum, odgovor.getDatum());
+        assertEquals(1000.0, odgovor.getDuguje());
+        assertEquals(250.0, odgovor.getPotrazuje());
+        assertEquals(750.0, odgovor.getSaldo());
+        assertEquals("Kupci u zemlji", odgovor.getNazivKonta());
+        assertEquals("2040", odgovor.getKonto());
+    }
+
+    @Test
+    void testProjekcijaPuniKoloneIstimRedom() {
+        String projekcija = GlavnaKnjigaStavkaRepository.PROJEKCIJA;
+        String[] kolone = projekcija.substring(projekcija.indexOf('(') + 1, projekcija.indexOf(')')).split(",\\s*");
+        String[] izrazi = projekcija.substring(projekcija.indexOf("select ") + 7, projekcija.indexOf(" from ")).split(",\\s*(?![^()]*\\))");
+
+        assertEquals(List.of("kontoId", "brojNaloga", "datum", "potrazuje", "duguje", "saldo", "nazivKonta", "konto"), List.of(kolone));
+        assertEquals(List.of("k.kontoId", "kn.knjizenjeId", "kn.datumKnjizenja", "k.potrazuje", "k.duguje",
+                "coalesce(k.duguje, 0) - coalesce(k.potrazuje, 0)", "kg.nazivKonta", "kg.brojKonta"), List.of(izrazi));
+        assertTrue(projekcija.contains("from Konto k join k.knjizenje kn join k.kontnaGrupa kg"));
+    }
+
+    @Test
+    void testIzmenaKnjizenjaPrepisujeSamoNjegoveStavke() {
+        glavnaKnjigaService.onKnjizenjeEvent(new KnjizenjeEvent(5L, List.of(new Date())));
+
+        InOrder redosled = inOrder(glavnaKnjigaStavkaRepository);
+        redosled.verify(glavnaKnjigaStavkaRepository).obrisiNalog(5L);
+        redosled.verify(glavnaKnjigaStavkaRepository).prenesiNalog(5L);
+        verify(glavnaKnjigaStavkaRepository, never()).prenesiSve();
+    }
+
+    @Test
+    void testObnovaSamoKadaTabelaOdstupa() {
+        doAnswer(i -> {
+            ((Runnable) i.getArgument(0)).run();
+            return null;
+        }).when(tenantService).zaSvakog(any());
+        when(glavnaKnjigaStavkaRepository.count()).thenReturn(10L);
+        when(kontoRepository.count()).thenReturn(10L);
+
+        glavnaKnjigaService.pripremi();
+        verify(glavnaKnjigaStavkaRepository, never()).prenesiSve();
+
+        when(kontoRepository.count()).thenReturn(12L);
+        glavnaKnjigaService.pripremi();
+
+        InOrder redosled = inOrder(glavnaKnjigaStavkaRepository);
+        redosled.verify(glavnaKnjigaStavkaRepository).deleteAllInBatch();
+        redosled.verify(glavnaKnjigaStavkaRepository).prenesiSve();
+    }
+}
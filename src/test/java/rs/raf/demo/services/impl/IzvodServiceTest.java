@@ -0,0 +1,122 @@
+package rs.raf.demo.services.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import rs.raf.demo.configuration.AutomatskoKnjizenjeProperties;
+import rs.raf.demo.model.Faktura;
+import rs.raf.demo.model.Knjizenje;
+import rs.raf.demo.model.Preduzece;
+import rs.raf.demo.model.enums.TipFakture;
+import rs.raf.demo.repositories.*;
+import rs.raf.demo.responses.ImportIzvodaResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IzvodServiceTest {
+
+    @InjectMocks
+    private IzvodService izvodService;
+
+    @Mock
+    private IzvodRepository izvodRepository;
+
+    @Mock
+    private StavkaIzvodaRepository stavkaIzvodaRepository;
+
+    @Mock
+    private FakturaRepository fakturaRepository;
+
+    @Mock
+    private KnjizenjeRepository knjizenjeRepository;
+
+    @Mock
+    private KontoRepository kontoRepository;
+
+    @Mock
+    private KontnaGrupaService kontnaGrupaService;
+
+    @Mock
+    private ObracunskiPeriodService obracunskiPeriodService;
+
+    @Spy
+    private AutomatskoKnjizenjeProperties properties = new AutomatskoKnjizenjeProperties();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private Faktura faktura;
+
+    @BeforeEach
+    void setUp() {
+        Preduzece preduzece = new Preduzece();
+        preduzece.setRacun("160-0000000012345-67");
+
+        faktura = new Faktura();
+        faktura.setDokumentId(1L);
+        faktura.setBrojFakture("IF-1");
+        faktura.setTipFakture(TipFakture.IZLAZNA_FAKTURA);
+        faktura.setPreduzece(preduzece);
+        faktura.setValuta("EUR");
+        faktura.setKurs(117.5);
+        faktura.setIznos(100.0);
+        faktura.setNaplata(0.0);
+
+        lenient().when(izvodRepository.save(any())).then(i -> i.getArgument(0));
+        lenient().when(obracunskiPeriodService.uOtvoreniPeriod(any())).then(i -> i.getArgument(0));
+        lenient().when(knjizenjeRepository.save(any())).then(i -> {
+            Knjizenje knjizenje = i.getArgument(0);
+            knjizenje.setKnjizenjeId(5L);
+            return knjizenje;
+        });
+        when(fakturaRepository.findOtvoreneSaRacunom()).thenReturn(List.of(faktura));
+    }
+
+    @Test
+    void testTacanIznosZatvaraFakturuUValuti() {
+        ImportIzvodaResponse odgovor = uvezi("2026-01-10;160000000001234567;IF-1;11750.00\n");
+
+        assertEquals(1, odgovor.getUparenih());
+        assertEquals(100.0, faktura.getNaplata());
+        verify(knjizenjeRepository, times(1)).save(any());
+    }
+
+    @Test
+    void testDelimicneUplateZatvarajuFakturuBezOstatka() {
+        // 5000 RSD je 42.55 EUR, pa je ostatak 57.45 EUR = 6750.375 RSD, zaokruzeno 6750.38.
+        ImportIzvodaResponse odgovor = uvezi("2026-01-10;160-0000000012345-67;IF-1;5000\n"
+                + "2026-01-11;160-0000000012345-67;IF-1;6750.38\n");
+
+        assertEquals(2, odgovor.getUparenih());
+        assertEquals(100.0, faktura.getNaplata());
+    }
+
+    @Test
+    void testNeuparenaStavkaNePraviKnjizenje() {
+        ImportIzvodaResponse odgovor = uvezi("datum;racun;poziv;iznos\n"
+                + "2026-01-10;160-0000000012345-67;IF-2;11750\n"
+                + "2026-01-10;160-0000000012345-67;IF-1;-11750\n");
+
+        assertEquals(2, odgovor.getBrojStavki());
+        assertEquals(0, odgovor.getUparenih());
+        assertEquals(0.0, faktura.getNaplata());
+        verify(knjizenjeRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private ImportIzvodaResponse uvezi(String sadrzaj) {
+        return izvodService.importuj("1", "160-1-1", null, new ByteArrayInputStream(sadrzaj.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,167 @@
+package rs.raf.demo.services.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import rs.raf.demo.configuration.KonsolidacijaProperties;
+import rs.raf.demo.events.KnjizenjeEvent;
+import rs.raf.demo.model.Knjiga;
+import rs.raf.demo.repositories.KnjigaRepository;
+import rs.raf.demo.repositories.KnjizenjeRepository;
+import rs.raf.demo.repositories.KontoRepository;
+import rs.raf.demo.responses.EliminacijaResponse;
+import rs.raf.demo.responses.KonsolidacijaResponse;
+import rs.raf.demo.responses.KonsolidacijaStavkaResponse;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KnjigaServiceTest {
+
+    private static final LocalDate DAN = LocalDate.of(2024, 6, 30);
+
+    @Mock
+    private KnjigaRepository knjigaRepository;
+
+    @Mock
+    private KnjizenjeRepository knjizenjeRepository;
+
+    @Mock
+    private KontoRepository kontoRepository;
+
+    private KonsolidacijaProperties properties;
+    private KnjigaService knjigaService;
+
+    @BeforeEach
+    void setUp() {
+        KonsolidacijaProperties.Eliminacija pravilo = new KonsolidacijaProperties.Eliminacija();
+        pravilo.setNaziv("Povezana lica");
+        pravilo.setDuguje("200");
+        pravilo.setPotrazuje("431");
+        properties = new KonsolidacijaProperties();
+        properties.setNiti(2);
+        properties.setMaticnaKnjiga("Maticno");
+        properties.setEliminacije(List.of(pravilo));
+        knjigaService = new KnjigaService(knjigaRepository, knjizenjeRepository, kontoRepository, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        knjigaService.zaustavi();
+    }
+
+    @Test
+    void testKonsolidacijaSpajaKnjigeIEliminise() {
+        when(knjigaRepository.findAll()).thenReturn(new ArrayList<>(List.of(knjiga(2L, "B"), knjiga(1L, "A"))));
+        when(kontoRepository.findPrometPoKontimaKnjigeDo(isNull(), any())).thenReturn(List.<Object[]>of(red("2000", 100, 0)));
+        when(kontoRepository.findPrometPoKontimaKnjigeDo(eq(1L), any())).thenReturn(List.of(red("2000", 50, 0), red("4310", 0, 80)));
+        when(kontoRepository.findPrometPoKontimaKnjigeDo(eq(2L), any())).thenReturn(List.of(red("4310", 0, 30), red("6000", 0, 20)));
+
+        KonsolidacijaResponse konsolidacija = knjigaService.getKonsolidacija(DAN, List.of(), true);
+
+        assertEquals(List.of("Maticno", "A", "B"), konsolidacija.getKnjige());
+        assertEquals(List.of(new EliminacijaResponse("Povezana lica", 110.0, 40.0)), konsolidacija.getEliminacije());
+        assertEquals(List.of(
+                new KonsolidacijaStavkaResponse("2000", mapa("Maticno", 100.0, "A", 50.0), 150.0, 0.0, 110.0, 40.0),
+                new KonsolidacijaStavkaResponse("4310", mapa("A", -80.0, "B", -30.0), 0.0, 110.0, -110.0, 0.0),
+                new KonsolidacijaStavkaResponse("6000", mapa("B", -20.0), 0.0, 20.0, 0.0, -20.0)),
+                konsolidacija.getStavke());
+    }
+
+    @Test
+    void testSaldaProteklogDanaSeCuvajuDoKnjizenja() {
+        when(kontoRepository.findPrometPoKontimaKnjigeDo(isNull(), any())).thenReturn(List.<Object[]>of(red("2000", 100, 0)));
+
+        knjigaService.getKonsolidacija(DAN, List.of(), true);
+        knjigaService.getKonsolidacija(DAN, List.of(), true);
+        verify(kontoRepository, times(1)).findPrometPoKontimaKnjigeDo(isNull(), any());
+
+        knjigaService.onKnjizenjeEvent(new KnjizenjeEvent(1L, List.of(datum(DAN.plusDays(1)))));
+        knjigaService.getKonsolidacija(DAN, List.of(), true);
+        verify(kontoRepository, times(1)).findPrometPoKontimaKnjigeDo(isNull(), any());
+
+        knjigaService.onKnjizenjeEvent(new KnjizenjeEvent(1L, List.of(datum(DAN))));
+        knjigaService.getKonsolidacija(DAN, List.of(), true);
+        verify(kontoRepository, times(2)).findPrometPoKontimaKnjigeDo(isNull(), any());
+    }
+
+    @Test
+    void testSaldaIzracunataPrePotvrdeKnjizenjaSeNeCuvaju() {
+        // Knjizenje se potvrdi dok se salda racunaju iz stanja pre njega.
+        when(kontoRepository.findPrometPoKontimaKnjigeDo(isNull(), any())).then(i -> {
+            knjigaService.onKnjizenjeEvent(new KnjizenjeEvent(1L, List.of(datum(DAN))));
+            return List.<Object[]>of(red("2000", 100, 0));
+        }).thenReturn(List.<Object[]>of(red("2000", 150, 0)));
+
+        knjigaService.getKonsolidacija(DAN, List.of(), true);
+        KonsolidacijaResponse konsolidacija = knjigaService.getKonsolidacija(DAN, List.of(), true);
+        knjigaService.getKonsolidacija(DAN, List.of(), true);
+
+        assertEquals(150.0, konsolidacija.getStavke().get(0).getDuguje());
+        verify(kontoRepository, times(2)).findPrometPoKontimaKnjigeDo(isNull(), any());
+    }
+
+    @Test
+    void testKesProteklihDanaJeOgranicen() {
+        properties.setKesDana(2);
+        when(kontoRepository.findPrometPoKontimaKnjigeDo(isNull(), any())).thenReturn(List.of());
+
+        knjigaService.getKonsolidacija(DAN.minusDays(2), List.of(), true);
+        knjigaService.getKonsolidacija(DAN.minusDays(1), List.of(), true);
+        knjigaService.getKonsolidacija(DAN, List.of(), true);
+        knjigaService.getKonsolidacija(DAN.minusDays(1), List.of(), true);
+        verify(kontoRepository, times(3)).findPrometPoKontimaKnjigeDo(isNull(), any());
+
+        knjigaService.getKonsolidacija(DAN.minusDays(2), List.of(), true);
+        verify(kontoRepository, times(4)).findPrometPoKontimaKnjigeDo(isNull(), any());
+    }
+
+    @Test
+    void testZaustaviGasiPul() {
+        knjigaService.zaustavi();
+
+        assertTrue(((ForkJoinPool) ReflectionTestUtils.getField(knjigaService, "izvrsilac")).isShutdown());
+    }
+
+    private static Knjiga knjiga(Long id, String sifra) {
+        Knjiga knjiga = new Knjiga();
+        knjiga.setKnjigaId(id);
+        knjiga.setSifra(sifra);
+        return knjiga;
+    }
+
+    private static Object[] red(String brojKonta, double duguje, double potrazuje) {
+        return new Object[]{brojKonta, BigDecimal.valueOf(duguje), BigDecimal.valueOf(potrazuje)};
+    }
+
+    private static Map<String, Double> mapa(Object... parovi) {
+        Map<String, Double> mapa = new LinkedHashMap<>();
+        for (int i = 0; i < parovi.length; i += 2) {
+            mapa.put((String) parovi[i], (Double) parovi[i + 1]);
+        }
+        return mapa;
+    }
+
+    private static Date datum(LocalDate dan) {
+        return Date.from(dan.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import rs.raf.demo.model.Knjizenje;
 import rs.raf.demo.model.Konto;
 import rs.raf.demo.repositories.KnjizenjeRepository;
@@ -28,6 +29,12 @@ class KnjizenjeServiceTest {
     @Mock
     private KnjizenjeRepository knjizenjeRepository;
 
+    @Mock
+    private ObracunskiPeriodService obracunskiPeriodService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     private Konto konto1;
 
     private Konto konto2;
@@ -0,0 +1,142 @@
+package rs.raf.demo.services.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import rs.raf.demo.events.KnjizenjeEvent;
+import rs.raf.demo.model.PromenaKnjizenja;
+import rs.raf.demo.repositories.KontoRepository;
+import rs.raf.demo.repositories.PromenaKnjizenjaRepository;
+import rs.raf.demo.utils.KolonskaKnjiga;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KolonskaKnjigaServiceTest {
+
+    private static final LocalDate DAN = LocalDate.of(2026, 3, 10);
+
+    @Mock
+    private KontoRepository kontoRepository;
+
+    @Mock
+    private PromenaKnjizenjaRepository promenaKnjizenjaRepository;
+
+    @TempDir
+    Path direktorijum;
+
+    private KolonskaKnjigaService service;
+
+    @BeforeEach
+    void setUp() {
+        AtomicLong sledeciId = new AtomicLong(10);
+        lenient().when(promenaKnjizenjaRepository.save(any())).then(i -> {
+            PromenaKnjizenja promena = i.getArgument(0);
+            promena.setPromenaId(sledeciId.incrementAndGet());
+            return promena;
+        });
+        service = noviServis();
+    }
+
+    @Test
+    void testOznakaOstajeIspodNepotvrdjenePromene() {
+        when(promenaKnjizenjaRepository.findPoslednjaOznaka()).thenReturn(10L);
+        service.pripremi();
+        KnjizenjeEvent prvo = new KnjizenjeEvent(1L, List.of());
+        KnjizenjeEvent drugo = new KnjizenjeEvent(2L, List.of());
+
+        service.zabeleziPromenu(prvo);
+        service.zabeleziPromenu(drugo);
+        service.onKnjizenjeEvent(drugo);
+        assertEquals(10, service.oznakaSnimka());
+
+        service.onKnjizenjeEvent(prvo);
+        assertEquals(12, service.oznakaSnimka());
+
+        KnjizenjeEvent odbaceno = new KnjizenjeEvent(3L, List.of());
+        service.zabeleziPromenu(odbaceno);
+        assertEquals(12, service.oznakaSnimka());
+        service.onKnjizenjeOdbaceno(odbaceno);
+        assertEquals(13, service.oznakaSnimka());
+    }
+
+    @Test
+    void testSnimakSePunePromenamaPosleOznake() {
+        when(promenaKnjizenjaRepository.findPoslednjaOznaka()).thenReturn(10L);
+        service.pripremi();
+        KnjizenjeEvent event = new KnjizenjeEvent(1L, List.of());
+        service.zabeleziPromenu(event);
+        service.onKnjizenjeEvent(event);
+        service.snimi();
+        verify(promenaKnjizenjaRepository).obrisiDo(11);
+        assertTrue(Files.exists(direktorijum.resolve("knjiga.snimak")));
+
+        KolonskaKnjigaService posleRestarta = noviServis();
+        when(promenaKnjizenjaRepository.findKnjizenjaPosle(11)).thenReturn(List.of(4L));
+        posleRestarta.pripremi();
+
+        verify(kontoRepository).findStavkeKnjizenja(4L);
+        verify(kontoRepository, times(1)).findStavkePosle(any(), any());
+    }
+
+    @Test
+    void testKnjigaSeUcitavaUPozadiniSaIzmenamaIzMedjuvremena() throws Exception {
+        when(promenaKnjizenjaRepository.findPoslednjaOznaka()).thenReturn(10L);
+        CountDownLatch ucitavanje = new CountDownLatch(1);
+        when(kontoRepository.findStavkePosle(any(), any())).thenReturn(List.of()).then(i -> {
+            ucitavanje.await();
+            return List.<Object[]>of(red(3L, 1L, "2020", 50.0));
+        });
+        service.pripremi();
+        when(kontoRepository.findStavkeKnjizenja(1L))
+                .thenReturn(List.of(red(1L, 1L, "2020", 100.0), red(2L, 1L, "2020", 20.0)))
+                .thenReturn(List.<Object[]>of(red(3L, 1L, "2020", 50.0)));
+        when(kontoRepository.findStavkeKnjizenja(2L)).thenReturn(List.<Object[]>of(red(4L, 2L, "2020", 7.0)));
+
+        service.onKnjizenjeEvent(new KnjizenjeEvent(1L, List.of()));
+        // Dva od tri reda su obrisana, pa se knjiga ucitava u pozadini, a potvrda ne ceka.
+        service.onKnjizenjeEvent(new KnjizenjeEvent(1L, List.of()));
+        service.onKnjizenjeEvent(new KnjizenjeEvent(2L, List.of()));
+        assertEquals(57.0, service.getPrometPoKontima(DAN, DAN.plusDays(1), null).get(0).getDuguje());
+
+        ucitavanje.countDown();
+        ExecutorService izvrsilac = (ExecutorService) ReflectionTestUtils.getField(service, "izvrsilac");
+        izvrsilac.shutdown();
+        assertTrue(izvrsilac.awaitTermination(5, TimeUnit.SECONDS));
+
+        KolonskaKnjiga knjiga = (KolonskaKnjiga) ReflectionTestUtils.getField(service, "knjiga");
+        assertEquals(2, knjiga.getBrojRedova());
+        assertEquals(0, knjiga.getBrojObrisanih());
+        assertEquals(57.0, service.getPrometPoKontima(DAN, DAN.plusDays(1), null).get(0).getDuguje());
+        verify(kontoRepository, times(2)).findStavkeKnjizenja(1L);
+        verify(kontoRepository, times(2)).findStavkeKnjizenja(2L);
+    }
+
+    private static Object[] red(Long kontoId, Long knjizenjeId, String brojKonta, Double duguje) {
+        Date datum = Date.from(DAN.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        return new Object[]{kontoId, knjizenjeId, datum, brojKonta, duguje, 0.0, null, null, null};
+    }
+
+    private KolonskaKnjigaService noviServis() {
+        return new KolonskaKnjigaService(kontoRepository, promenaKnjizenjaRepository, 16, 100,
+                direktorijum.resolve("knjiga.snimak").toString());
+    }
+}
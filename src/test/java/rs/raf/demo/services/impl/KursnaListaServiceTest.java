@@ -0,0 +1,68 @@
+package rs.raf.demo.services.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import rs.raf.demo.model.KursnaLista;
+import rs.raf.demo.repositories.KursnaListaRepository;
+
+import javax.persistence.EntityNotFoundException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KursnaListaServiceTest {
+
+    private static final LocalDate DAN = LocalDate.of(2026, 3, 10);
+
+    @InjectMocks
+    private KursnaListaService kursnaListaService;
+
+    @Mock
+    private KursnaListaRepository kursnaListaRepository;
+
+    @Test
+    void testNoviKursSeDodajeUIndeks() {
+        when(kursnaListaRepository.findAll()).thenReturn(List.of());
+        when(kursnaListaRepository.save(any())).then(i -> i.getArgument(0));
+
+        kursnaListaService.save(kurs(null, "EUR", DAN, 117.2));
+
+        assertEquals(117.2, kursnaListaService.getKurs("EUR", DAN.plusDays(3)));
+        verify(kursnaListaRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testIzmenaKursaUklanjaStariDan() {
+        KursnaLista kurs = kurs(1L, "EUR", DAN, 117.2);
+        when(kursnaListaRepository.findAll()).thenReturn(List.of(kurs));
+        kursnaListaService.ucitaj();
+        assertEquals(117.2, kursnaListaService.getKurs("EUR", DAN));
+
+        KursnaLista izmenjen = kurs(1L, "EUR", DAN.plusDays(5), 117.4);
+        when(kursnaListaRepository.save(izmenjen)).thenReturn(izmenjen);
+        when(kursnaListaRepository.findAll()).thenReturn(List.of(izmenjen));
+        kursnaListaService.save(izmenjen);
+
+        assertThrows(EntityNotFoundException.class, () -> kursnaListaService.getKurs("EUR", DAN));
+        assertEquals(117.4, kursnaListaService.getKurs("EUR", DAN.plusDays(5)));
+    }
+
+    private static KursnaLista kurs(Long id, String valuta, LocalDate dan, double vrednost) {
+        KursnaLista kurs = new KursnaLista();
+        kurs.setKursnaListaId(id);
+        kurs.setValuta(valuta);
+        kurs.setDatumVazenja(Date.from(dan.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        kurs.setKurs(vrednost);
+        return kurs;
+    }
+}
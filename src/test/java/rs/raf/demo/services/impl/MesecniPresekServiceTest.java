@@ -0,0 +1,150 @@
+package rs.raf.demo.services.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import rs.raf.demo.events.KnjizenjeEvent;
+import rs.raf.demo.model.MesecniPresek;
+import rs.raf.demo.repositories.KnjizenjeRepository;
+import rs.raf.demo.repositories.KontoRepository;
+import rs.raf.demo.repositories.MesecniPresekRepository;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MesecniPresekServiceTest {
+
+    @InjectMocks
+    private MesecniPresekService mesecniPresekService;
+
+    @Mock
+    private KontoRepository kontoRepository;
+
+    @Mock
+    private KnjizenjeRepository knjizenjeRepository;
+
+    @Mock
+    private MesecniPresekRepository mesecniPresekRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TenantService tenantService;
+
+    private final YearMonth januar = YearMonth.of(2025, 1);
+
+    private final YearMonth februar = YearMonth.of(2025, 2);
+
+    private final Map<Integer, MesecniPresek> preseci = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(mesecniPresekRepository.findAllById(any())).then(i -> {
+            List<MesecniPresek> nadjeni = new ArrayList<>();
+            for (Integer period : i.<Iterable<Integer>>getArgument(0)) {
+                if (preseci.containsKey(period)) {
+                    nadjeni.add(preseci.get(period));
+                }
+            }
+            return nadjeni;
+        });
+        lenient().when(mesecniPresekRepository.saveAll(anyList())).then(i -> {
+            i.<List<MesecniPresek>>getArgument(0).forEach(presek -> preseci.put(presek.getPeriod(), presek));
+            return i.getArgument(0);
+        });
+        preseci.put(202501, presek(202501, 1000, 20));
+        preseci.put(202502, presek(202502, 500, 0));
+    }
+
+    @Test
+    void testIzmenaPonovoRacunaSamoSvojMesec() {
+        when(kontoRepository.findPrometPoMesecimaIKontima(datum(januar, 1), datum(februar, 1))).thenReturn(List.of(
+                red(januar, "6010", 0, 1050.25),
+                red(januar, "2040", 300, 0),
+                red(januar, "4700", 0, 20)));
+
+        mesecniPresekService.onKnjizenjeEvent(new KnjizenjeEvent(5L, List.of(datum(januar, 10))));
+
+        assertEquals(1050.25, preseci.get(202501).getPrihodi());
+        assertEquals(20.0, preseci.get(202501).getIzlazniPdv());
+        assertEquals(500.0, preseci.get(202502).getPrihodi());
+        verify(kontoRepository, times(1)).findPrometPoMesecimaIKontima(any(), any());
+    }
+
+    @Test
+    void testPomeranjeUDrugiMesecRacunaOba() {
+        when(kontoRepository.findPrometPoMesecimaIKontima(datum(januar, 1), datum(februar, 1)))
+                .thenReturn(List.<Object[]>of(red(januar, "6010", 0, 900)));
+        when(kontoRepository.findPrometPoMesecimaIKontima(datum(februar, 1), datum(februar.plusMonths(1), 1)))
+                .thenReturn(List.<Object[]>of(red(februar, "6010", 0, 600)));
+
+        mesecniPresekService.onKnjizenjeEvent(new KnjizenjeEvent(5L, List.of(datum(februar, 10), datum(januar, 10))));
+
+        assertEquals(900.0, preseci.get(202501).getPrihodi());
+        assertEquals(0.0, preseci.get(202501).getIzlazniPdv());
+        assertEquals(600.0, preseci.get(202502).getPrihodi());
+    }
+
+    @Test
+    void testTekuciMesecNemaPresek() {
+        mesecniPresekService.onKnjizenjeEvent(new KnjizenjeEvent(5L, List.of(datum(YearMonth.now(), 1))));
+
+        verifyNoInteractions(kontoRepository);
+        verify(mesecniPresekRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void testPokretanjeRacunaSamoMeseceBezPreseka() {
+        YearMonth mart = februar.plusMonths(1);
+        when(knjizenjeRepository.findPrviDatumKnjizenja()).thenReturn(datum(januar, 10));
+        doAnswer(i -> {
+            ((Runnable) i.getArgument(0)).run();
+            return null;
+        }).when(tenantService).zaSvakog(any());
+        for (YearMonth mesec = mart; mesec.isBefore(YearMonth.now()); mesec = mesec.plusMonths(1)) {
+            int period = mesec.getYear() * 100 + mesec.getMonthValue();
+            preseci.put(period, presek(period, 0, 0));
+        }
+        preseci.remove(202502);
+
+        mesecniPresekService.popuni();
+
+        verify(kontoRepository).findPrometPoMesecimaIKontima(datum(februar, 1), datum(mart, 1));
+        assertEquals(0.0, preseci.get(202502).getPrihodi());
+        assertEquals(1000.0, preseci.get(202501).getPrihodi());
+    }
+
+    private static Object[] red(YearMonth mesec, String brojKonta, double duguje, double potrazuje) {
+        return new Object[]{mesec.getYear(), mesec.getMonthValue(), brojKonta,
+                BigDecimal.valueOf(duguje), BigDecimal.valueOf(potrazuje)};
+    }
+
+    private static MesecniPresek presek(int period, double prihodi, double izlazniPdv) {
+        MesecniPresek presek = new MesecniPresek();
+        presek.setPeriod(period);
+        presek.setGodina(period / 100);
+        presek.setMesec(period % 100);
+        presek.setPrihodi(prihodi);
+        presek.setRashodi(0.0);
+        presek.setIzlazniPdv(izlazniPdv);
+        presek.setUlazniPdv(0.0);
+        return presek;
+    }
+
+    private static Date datum(YearMonth mesec, int dan) {
+        return Date.from(mesec.atDay(dan).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
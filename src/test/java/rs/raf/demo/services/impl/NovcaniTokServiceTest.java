@@ -0,0 +1,112 @@
+package rs.raf.demo.services.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import rs.raf.demo.events.FakturaEvent;
+import rs.raf.demo.model.Faktura;
+import rs.raf.demo.model.enums.IntervalGrupisanja;
+import rs.raf.demo.model.enums.TipFakture;
+import rs.raf.demo.repositories.FakturaRepository;
+import rs.raf.demo.responses.NovcaniTokResponse;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NovcaniTokServiceTest {
+
+    @InjectMocks
+    private NovcaniTokService novcaniTokService;
+
+    @Mock
+    private FakturaRepository fakturaRepository;
+
+    private final LocalDate danas = LocalDate.now();
+
+    private Faktura izlazna;
+
+    private Faktura ulazna;
+
+    @BeforeEach
+    void setUp() {
+        izlazna = faktura(1L, TipFakture.IZLAZNA_FAKTURA, danas.plusDays(3), 100.0, 1.0);
+        izlazna.setNaplata(40.0);
+        ulazna = faktura(2L, TipFakture.ULAZNA_FAKTURA, danas.plusDays(10), 10.0, 117.5);
+
+        when(fakturaRepository.findOtvorene(eq(0L), any())).thenReturn(List.of(izlazna, ulazna));
+        novcaniTokService.izgradi();
+    }
+
+    @Test
+    void testProjekcijaPoDanimaINedeljama() {
+        List<NovcaniTokResponse> dani = novcaniTokService.getProjekcija(14, IntervalGrupisanja.DAN);
+
+        assertEquals(14, dani.size());
+        assertEquals(60.0, dani.get(3).getPriliv());
+        assertEquals(1175.0, dani.get(10).getOdliv());
+        assertEquals(-1175.0, dani.get(10).getNeto());
+        assertEquals(0.0, dani.get(0).getPriliv());
+
+        List<NovcaniTokResponse> nedelje = novcaniTokService.getProjekcija(14, IntervalGrupisanja.NEDELJA);
+
+        assertEquals(2, nedelje.size());
+        assertEquals(60.0, nedelje.get(0).getPriliv());
+        assertEquals(0.0, nedelje.get(0).getOdliv());
+        assertEquals(1175.0, nedelje.get(1).getOdliv());
+        assertEquals(danas.plusDays(13), nedelje.get(1).getDoDatuma());
+    }
+
+    @Test
+    void testDospeloUlaziUPrviInterval() {
+        Faktura dospela = faktura(3L, TipFakture.IZLAZNA_FAKTURA, danas.minusDays(20), 25.0, 1.0);
+
+        novcaniTokService.onFakturaEvent(new FakturaEvent(3L, dospela, null, null));
+
+        assertEquals(25.0, novcaniTokService.getProjekcija(7, IntervalGrupisanja.DAN).get(0).getPriliv());
+    }
+
+    @Test
+    void testIzmenaPomeraDoprinosIBrisanjeGaUklanja() {
+        izlazna.setDatumPlacanja(datum(danas.plusDays(5)));
+        novcaniTokService.onFakturaEvent(new FakturaEvent(1L, izlazna, null, null));
+
+        List<NovcaniTokResponse> dani = novcaniTokService.getProjekcija(14, IntervalGrupisanja.DAN);
+        assertEquals(0.0, dani.get(3).getPriliv());
+        assertEquals(60.0, dani.get(5).getPriliv());
+
+        izlazna.setNaplata(100.0);
+        novcaniTokService.onFakturaEvent(new FakturaEvent(1L, izlazna, null, null));
+        novcaniTokService.onFakturaEvent(new FakturaEvent(2L, null, null, null));
+
+        for (NovcaniTokResponse interval : novcaniTokService.getProjekcija(14, IntervalGrupisanja.DAN)) {
+            assertEquals(0.0, interval.getPriliv());
+            assertEquals(0.0, interval.getOdliv());
+        }
+    }
+
+    private static Faktura faktura(Long id, TipFakture tip, LocalDate dospece, double iznos, double kurs) {
+        Faktura faktura = new Faktura();
+        faktura.setDokumentId(id);
+        faktura.setTipFakture(tip);
+        faktura.setDatumPlacanja(datum(dospece));
+        faktura.setIznos(iznos);
+        faktura.setNaplata(0.0);
+        faktura.setKurs(kurs);
+        return faktura;
+    }
+
+    private static Date datum(LocalDate dan) {
+        return Date.from(dan.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
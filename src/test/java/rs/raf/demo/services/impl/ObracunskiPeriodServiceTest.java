@@ -0,0 +1,101 @@
+package rs.raf.demo.services.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import rs.raf.demo.exceptions.OperationNotSupportedException;
+import rs.raf.demo.model.Knjizenje;
+import rs.raf.demo.model.Konto;
+import rs.raf.demo.model.enums.StatusPerioda;
+import rs.raf.demo.repositories.KnjizenjeRepository;
+import rs.raf.demo.repositories.KontoRepository;
+import rs.raf.demo.repositories.ObracunskiPeriodRepository;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ObracunskiPeriodServiceTest {
+
+    @InjectMocks
+    private ObracunskiPeriodService obracunskiPeriodService;
+
+    @Mock
+    private ObracunskiPeriodRepository obracunskiPeriodRepository;
+
+    @Mock
+    private KontoRepository kontoRepository;
+
+    @Mock
+    private KnjizenjeRepository knjizenjeRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(obracunskiPeriodRepository.findGodineByStatus(StatusPerioda.ZATVOREN)).thenReturn(Set.of(2023, 2024));
+    }
+
+    @Test
+    void testProveraStarogINovogDatuma() {
+        assertDoesNotThrow(() -> obracunskiPeriodService.proveri(Arrays.asList(null, datum(2025, 3, 1))));
+        assertThrows(OperationNotSupportedException.class,
+                () -> obracunskiPeriodService.proveri(Arrays.asList(datum(2024, 12, 31), datum(2025, 3, 1))));
+        assertThrows(OperationNotSupportedException.class,
+                () -> obracunskiPeriodService.proveri(Arrays.asList(datum(2025, 3, 1), datum(2023, 5, 1))));
+    }
+
+    @Test
+    void testAutomatskoKnjizenjeIdeUPrvuOtvorenuGodinu() {
+        assertEquals(datum(2025, 1, 1), obracunskiPeriodService.uOtvoreniPeriod(datum(2023, 6, 15)));
+        assertEquals(datum(2022, 6, 15), obracunskiPeriodService.uOtvoreniPeriod(datum(2022, 6, 15)));
+        assertNull(obracunskiPeriodService.uOtvoreniPeriod(null));
+    }
+
+    @Test
+    void testStavkaSeNePremestaIzZatvoreneGodine() {
+        KontoService kontoService = new KontoService(kontoRepository, knjizenjeRepository, obracunskiPeriodService, eventPublisher);
+        Knjizenje staro = knjizenje(1L, datum(2024, 12, 1));
+        Knjizenje novo = knjizenje(2L, null);
+        Konto stari = konto(10L, staro);
+        when(kontoRepository.findById(10L)).thenReturn(Optional.of(stari));
+        when(knjizenjeRepository.findById(2L)).thenReturn(Optional.of(knjizenje(2L, datum(2025, 2, 1))));
+
+        assertThrows(OperationNotSupportedException.class, () -> kontoService.save(konto(10L, novo)));
+        assertThrows(OperationNotSupportedException.class, () -> kontoService.deleteById(10L));
+        verify(kontoRepository, never()).save(any());
+        verify(kontoRepository, never()).deleteById(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private static Knjizenje knjizenje(Long id, Date datum) {
+        Knjizenje knjizenje = new Knjizenje();
+        knjizenje.setKnjizenjeId(id);
+        knjizenje.setDatumKnjizenja(datum);
+        return knjizenje;
+    }
+
+    private static Konto konto(Long id, Knjizenje knjizenje) {
+        Konto konto = new Konto();
+        konto.setKontoId(id);
+        konto.setKnjizenje(knjizenje);
+        return konto;
+    }
+
+    private static Date datum(int godina, int mesec, int dan) {
+        return Date.from(LocalDate.of(godina, mesec, dan).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
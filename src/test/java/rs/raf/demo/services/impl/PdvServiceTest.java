@@ -0,0 +1,83 @@
+package rs.raf.demo.services.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import rs.raf.demo.events.FakturaEvent;
+import rs.raf.demo.model.Faktura;
+import rs.raf.demo.model.enums.TipFakture;
+import rs.raf.demo.repositories.FakturaRepository;
+
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PdvServiceTest {
+
+    @InjectMocks
+    private PdvService pdvService;
+
+    @Mock
+    private FakturaRepository fakturaRepository;
+
+    private final YearMonth januar = YearMonth.of(2025, 1);
+
+    private final YearMonth mart = YearMonth.of(2025, 3);
+
+    @Test
+    void testIzmenaDatumaPonistavaStariINoviMesec() {
+        when(fakturaRepository.findPdvPoMesecimaIStopama(any(), any())).thenReturn(List.of());
+        pdvService.getPdv(januar, mart);
+        pdvService.getPdv(januar, mart);
+        verify(fakturaRepository, times(1)).findPdvPoMesecimaIStopama(any(), any());
+
+        Faktura faktura = new Faktura();
+        faktura.setTipFakture(TipFakture.IZLAZNA_FAKTURA);
+        faktura.setDatumIzdavanja(datum(mart));
+        pdvService.onFakturaEvent(new FakturaEvent(1L, faktura, datum(januar), TipFakture.IZLAZNA_FAKTURA));
+
+        pdvService.getPdv(januar, mart);
+        verify(fakturaRepository, times(2)).findPdvPoMesecimaIStopama(datum(januar), datum(mart.plusMonths(1)));
+
+        // Februar nije menjan, pa ostaje u kesu.
+        pdvService.getPdv(januar.plusMonths(1), januar.plusMonths(1));
+        verify(fakturaRepository, times(2)).findPdvPoMesecimaIStopama(any(), any());
+    }
+
+    @Test
+    void testBrisanjePonistavaMesecObrisaneFakture() {
+        when(fakturaRepository.findPdvPoMesecimaIStopama(any(), any())).thenReturn(List.of());
+        pdvService.getPdv(januar, mart);
+
+        pdvService.onFakturaEvent(new FakturaEvent(1L, null, datum(mart), TipFakture.ULAZNA_FAKTURA));
+        pdvService.getPdv(januar, mart);
+
+        verify(fakturaRepository).findPdvPoMesecimaIStopama(datum(mart), datum(mart.plusMonths(1)));
+    }
+
+    @Test
+    void testMesecIzracunatPrePotvrdeIzmeneSeNeCuva() {
+        // Izmena fakture iz marta se potvrdi dok se mesec racuna iz stanja pre nje.
+        when(fakturaRepository.findPdvPoMesecimaIStopama(any(), any())).then(i -> {
+            pdvService.onFakturaEvent(new FakturaEvent(1L, null, datum(mart), TipFakture.IZLAZNA_FAKTURA));
+            return List.of();
+        }).thenReturn(List.of());
+
+        pdvService.getPdv(mart, mart);
+        pdvService.getPdv(mart, mart);
+        pdvService.getPdv(mart, mart);
+
+        verify(fakturaRepository, times(2)).findPdvPoMesecimaIStopama(any(), any());
+    }
+
+    private static Date datum(YearMonth mesec) {
+        return Date.from(mesec.atDay(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,211 @@
+package rs.raf.demo.services.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import rs.raf.demo.configuration.PreracunFakturaProperties;
+import rs.raf.demo.model.PreracunFaktura;
+import rs.raf.demo.model.PreracunRazlika;
+import rs.raf.demo.model.enums.StatusPreracuna;
+import rs.raf.demo.repositories.FakturaRepository;
+import rs.raf.demo.repositories.PreracunFakturaRepository;
+import rs.raf.demo.repositories.PreracunRazlikaRepository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PreracunFakturaServiceTest {
+
+    @Mock
+    private PreracunFakturaRepository preracunFakturaRepository;
+
+    @Mock
+    private PreracunRazlikaRepository preracunRazlikaRepository;
+
+    @Mock
+    private FakturaRepository fakturaRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ObracunskiPeriodService obracunskiPeriodService;
+
+    private PreracunFakturaService preracunFakturaService;
+
+    private final PreracunFaktura preracun = new PreracunFaktura();
+
+    /**
+     * Id, valuta, kurs, prodajna vrednost, upisani porez, upisani iznos i godina izdavanja.
+     * Porez je 20%, pa su prva i treca faktura pogresno upisane, a druga je u zatvorenoj 2020.
+     */
+    private final List<Object[]> fakture = List.of(
+            new Object[]{1L, "EUR", 117.5, 100.0, 19.0, 119.0, 2026},
+            new Object[]{2L, "RSD", null, 1000.0, 100.0, 1100.0, 2020},
+            new Object[]{3L, "RSD", null, 1000.0, 190.0, 1190.0, 2026});
+
+    private final AtomicInteger neuspesnihCitanja = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        PreracunFakturaProperties properties = new PreracunFakturaProperties();
+        properties.setNiti(1);
+        properties.setSerija(2);
+        preracunFakturaService = new PreracunFakturaService(preracunFakturaRepository, preracunRazlikaRepository,
+                fakturaRepository, properties, jdbcTemplate, transactionManager, eventPublisher, obracunskiPeriodService);
+
+        preracun.setPreracunId(1L);
+        preracun.setStatus(StatusPreracuna.U_TOKU);
+        preracun.setPoslednjiDokumentId(0L);
+        preracun.setObradjeno(0L);
+        preracun.setIzmenjeno(0L);
+        preracun.setPreskoceno(0L);
+        preracun.setRazlikaPoreza(0.0);
+        preracun.setRazlikaIznosa(0.0);
+        when(preracunFakturaRepository.findById(1L)).thenReturn(Optional.of(preracun));
+        lenient().when(obracunskiPeriodService.getZatvoreneGodine()).thenReturn(Set.of(2020));
+
+        List<ResultSet> redovi = new ArrayList<>();
+        for (Object[] faktura : fakture) {
+            redovi.add(red(faktura));
+        }
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), any())).then(i -> {
+            long posle = i.getArgument(2);
+            int serija = i.getArgument(3);
+            if (posle > 0 && neuspesnihCitanja.getAndDecrement() > 0) {
+                throw new IllegalStateException("Veza sa bazom je prekinuta");
+            }
+            RowMapper<?> mapper = i.getArgument(1);
+            List<Object> procitani = new ArrayList<>();
+            for (int j = 0; j < fakture.size() && procitani.size() < serija; j++) {
+                if ((Long) fakture.get(j)[0] > posle) {
+                    procitani.add(mapper.mapRow(redovi.get(j), j));
+                }
+            }
+            return procitani;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        preracunFakturaService.zaustavi();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testProbniRadBeleziRazlikeUDinarima() {
+        preracun.setProbniRad(true);
+
+        preracunaj();
+
+        assertEquals(StatusPreracuna.ZAVRSEN, preracun.getStatus());
+        assertEquals(3, preracun.getObradjeno());
+        assertEquals(2, preracun.getIzmenjeno());
+        assertEquals(1, preracun.getPreskoceno());
+        // 1 EUR po kursu 117.5 i 10 RSD.
+        assertEquals(127.5, preracun.getRazlikaPoreza());
+        assertEquals(127.5, preracun.getRazlikaIznosa());
+        ArgumentCaptor<List<PreracunRazlika>> razlike = ArgumentCaptor.forClass(List.class);
+        verify(preracunRazlikaRepository, times(2)).saveAll(razlike.capture());
+        assertEquals(List.of(1L, 3L), razlike.getAllValues().stream().flatMap(List::stream)
+                .map(PreracunRazlika::getDokumentId).collect(Collectors.toList()));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void testPraviRadUpisujeIzmenjeneFakture() {
+        preracun.setProbniRad(false);
+
+        preracunaj();
+
+        assertEquals(StatusPreracuna.ZAVRSEN, preracun.getStatus());
+        assertEquals(List.of(1L, 3L), upisaneFakture());
+        verify(fakturaRepository).findAllById(List.of(1L));
+        verify(fakturaRepository).findAllById(List.of(3L));
+        verifyNoInteractions(preracunRazlikaRepository);
+    }
+
+    @Test
+    void testNastavakOdPoslednjeUpisaneSerije() {
+        preracun.setProbniRad(false);
+        neuspesnihCitanja.set(1);
+
+        preracunaj();
+        assertEquals(StatusPreracuna.GRESKA, preracun.getStatus());
+        assertEquals(2, preracun.getPoslednjiDokumentId());
+        assertEquals(1, preracun.getIzmenjeno());
+
+        preracun.setStatus(StatusPreracuna.U_TOKU);
+        preracunaj();
+
+        assertEquals(StatusPreracuna.ZAVRSEN, preracun.getStatus());
+        assertEquals(3, preracun.getObradjeno());
+        assertEquals(2, preracun.getIzmenjeno());
+        assertEquals(127.5, preracun.getRazlikaPoreza());
+        assertEquals(List.of(1L, 3L), upisaneFakture());
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowMapper.class), eq(0L), any());
+    }
+
+    private void preracunaj() {
+        ReflectionTestUtils.invokeMethod(preracunFakturaService, "preracunaj", 1L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> upisaneFakture() {
+        ArgumentCaptor<Collection<Object>> serije = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(startsWith("update Faktura"), serije.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        List<Long> ids = new ArrayList<>();
+        for (Collection<Object> serija : serije.getAllValues()) {
+            serija.forEach(red -> ids.add((Long) ReflectionTestUtils.getField(red, "fakturaId")));
+        }
+        return ids;
+    }
+
+    private static ResultSet red(Object[] faktura) throws SQLException {
+        double prodajnaVrednost = (Double) faktura[3];
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn((Long) faktura[0]);
+        when(rs.getString(2)).thenReturn("F-" + faktura[0]);
+        when(rs.getDouble(3)).thenReturn(prodajnaVrednost);
+        when(rs.getObject(4, Double.class)).thenReturn(null);
+        when(rs.getObject(5, Double.class)).thenReturn(0.0);
+        when(rs.getDouble(6)).thenReturn(20.0);
+        when(rs.getObject(7, Double.class)).thenReturn((Double) faktura[4]);
+        when(rs.getObject(8, Double.class)).thenReturn((Double) faktura[5]);
+        when(rs.getString(9)).thenReturn((String) faktura[1]);
+        when(rs.getObject(10, Double.class)).thenReturn((Double) faktura[2]);
+        when(rs.getTimestamp(11)).thenReturn(Timestamp.valueOf(LocalDateTime.of((Integer) faktura[6], 3, 1, 0, 0)));
+        return rs;
+    }
+}
@@ -0,0 +1,107 @@
+package rs.raf.demo.services.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import rs.raf.demo.events.FakturaEvent;
+import rs.raf.demo.model.Faktura;
+import rs.raf.demo.model.enums.TipFakture;
+import rs.raf.demo.repositories.FakturaRepository;
+import rs.raf.demo.requests.PromenaStopeRequest;
+import rs.raf.demo.requests.SimulacijaPorezaRequest;
+import rs.raf.demo.responses.SimulacijaPorezaResponse;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SimulacijaPorezaServiceTest {
+
+    private static final Date DATUM = Date.from(LocalDate.of(2026, 1, 10).atStartOfDay(ZoneId.systemDefault()).toInstant());
+
+    @Mock
+    private FakturaRepository fakturaRepository;
+
+    private SimulacijaPorezaService simulacijaPorezaService;
+
+    @BeforeEach
+    void setUp() {
+        simulacijaPorezaService = new SimulacijaPorezaService(fakturaRepository, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        simulacijaPorezaService.zaustavi();
+    }
+
+    @Test
+    void testIzmeneFakturaSeUpisujuBezPonovnogUcitavanja() {
+        when(fakturaRepository.findIznoseZaSimulaciju(eq(0L), any())).thenReturn(List.of(
+                red(faktura(1L, TipFakture.IZLAZNA_FAKTURA, 1000.0)),
+                red(faktura(2L, TipFakture.IZLAZNA_FAKTURA, 500.0))));
+
+        SimulacijaPorezaResponse pre = simuliraj();
+        assertEquals(2, pre.getBrojFaktura());
+        assertEquals(300.0, pre.getIzlazniPdv());
+        assertEquals(150.0, pre.getSimuliraniIzlazniPdv());
+
+        simulacijaPorezaService.onFakturaEvent(new FakturaEvent(1L, faktura(1L, TipFakture.IZLAZNA_FAKTURA, 2000.0),
+                DATUM, TipFakture.IZLAZNA_FAKTURA));
+        simulacijaPorezaService.onFakturaEvent(new FakturaEvent(2L, null, DATUM, TipFakture.IZLAZNA_FAKTURA));
+        simulacijaPorezaService.onFakturaEvent(new FakturaEvent(3L, faktura(3L, TipFakture.ULAZNA_FAKTURA, 100.0), null, null));
+
+        SimulacijaPorezaResponse posle = simuliraj();
+        assertEquals(2, posle.getBrojFaktura());
+        assertEquals(400.0, posle.getIzlazniPdv());
+        assertEquals(200.0, posle.getSimuliraniIzlazniPdv());
+        assertEquals(20.0, posle.getUlazniPdv());
+        assertEquals(10.0, posle.getSimuliraniUlazniPdv());
+        verify(fakturaRepository, times(1)).findIznoseZaSimulaciju(any(), any());
+    }
+
+    @Test
+    void testIzmenaPreUcitavanjaSeNePamti() {
+        simulacijaPorezaService.onFakturaEvent(new FakturaEvent(1L, faktura(1L, TipFakture.IZLAZNA_FAKTURA, 1000.0), null, null));
+        when(fakturaRepository.findIznoseZaSimulaciju(eq(0L), any())).thenReturn(List.<Object[]>of(
+                red(faktura(1L, TipFakture.IZLAZNA_FAKTURA, 1000.0))));
+
+        assertEquals(1, simuliraj().getBrojFaktura());
+    }
+
+    private SimulacijaPorezaResponse simuliraj() {
+        PromenaStopeRequest promena = new PromenaStopeRequest();
+        promena.setNovaStopa(10.0);
+        SimulacijaPorezaRequest request = new SimulacijaPorezaRequest();
+        request.setPromene(List.of(promena));
+        return simulacijaPorezaService.simuliraj(request);
+    }
+
+    private static Faktura faktura(Long id, TipFakture tipFakture, double prodajnaVrednost) {
+        Faktura faktura = new Faktura();
+        faktura.setDokumentId(id);
+        faktura.setTipFakture(tipFakture);
+        faktura.setValuta("RSD");
+        faktura.setKurs(1.0);
+        faktura.setDatumIzdavanja(DATUM);
+        faktura.setProdajnaVrednost(prodajnaVrednost);
+        faktura.setPorezProcenat(20.0);
+        faktura.setPorez(prodajnaVrednost * 0.2);
+        faktura.setIznos(prodajnaVrednost * 1.2);
+        return faktura;
+    }
+
+    private static Object[] red(Faktura f) {
+        return new Object[]{f.getTipFakture(), f.getValuta(), null, f.getDatumIzdavanja(), f.getKurs(), f.getProdajnaVrednost(),
+                null, null, f.getPorezProcenat(), f.getPorez(), f.getIznos(), f.getDokumentId()};
+    }
+}
@@ -0,0 +1,84 @@
+package rs.raf.demo.services.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import rs.raf.demo.model.Preduzece;
+import rs.raf.demo.model.enums.TipFakture;
+import rs.raf.demo.repositories.PreduzeceRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaQuery;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StarosnaStrukturaServiceTest {
+
+    @InjectMocks
+    private StarosnaStrukturaService starosnaStrukturaService;
+
+    @Mock
+    private PreduzeceRepository preduzeceRepository;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    private EntityManager entityManager;
+
+    @Mock
+    private TypedQuery<Tuple> upit;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(starosnaStrukturaService, "entityManager", entityManager);
+        when(entityManager.createQuery(any(CriteriaQuery.class))).thenReturn(upit);
+    }
+
+    @Test
+    void testCsvSeStrujiIEscapeuje() {
+        Stream<Tuple> redovi = Stream.of(
+                red(1L, 100.0, 0.0, 50.255, 0.0, 0.0),
+                red(null, 0.0, 0.0, 0.0, 0.0, 10.0));
+        when(upit.getResultStream()).thenReturn(redovi);
+        when(preduzeceRepository.findAllById(Set.of(1L))).thenReturn(List.of(preduzece(1L, "Kuca \"Dom\"; Beograd")));
+
+        ByteArrayOutputStream izlaz = new ByteArrayOutputStream();
+        starosnaStrukturaService.izveziCsv(TipFakture.IZLAZNA_FAKTURA, LocalDate.of(2026, 3, 1), izlaz);
+
+        assertEquals("preduzeceId;naziv;tekuce;1-30;31-60;61-90;>90;ukupno\r\n"
+                        + "1;\"Kuca \"\"Dom\"\"; Beograd\";100.0;0.0;50.26;0.0;0.0;150.26\r\n"
+                        + ";;0.0;0.0;0.0;0.0;10.0;10.0\r\n",
+                izlaz.toString(StandardCharsets.UTF_8));
+        verify(upit, never()).getResultList();
+    }
+
+    private static Tuple red(Long preduzeceId, Double... iznosi) {
+        Tuple red = mock(Tuple.class);
+        when(red.get(0, Long.class)).thenReturn(preduzeceId);
+        for (int i = 0; i < iznosi.length; i++) {
+            lenient().when(red.get(i + 1)).thenReturn(iznosi[i]);
+        }
+        return red;
+    }
+
+    private static Preduzece preduzece(Long id, String naziv) {
+        Preduzece preduzece = new Preduzece();
+        preduzece.setPreduzeceId(id);
+        preduzece.setNaziv(naziv);
+        return preduzece;
+    }
+}
@@ -0,0 +1,50 @@
+package rs.raf.demo.services.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import rs.raf.demo.configuration.TenantProperties;
+import rs.raf.demo.utils.TenantKontekst;
+import rs.raf.demo.utils.TenantMetrike;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TenantServiceTest {
+
+    private final TenantMetrike metrike = new TenantMetrike();
+
+    private TenantService tenantService;
+
+    @BeforeEach
+    void setUp() {
+        TenantProperties properties = new TenantProperties();
+        properties.setUkljuceni(true);
+        properties.setSeme(Map.of("a", "sema_a", "b", "sema_b"));
+        tenantService = new TenantService(properties, metrike);
+    }
+
+    @Test
+    void testMetrikeSamoZaTenantaIzKonteksta() {
+        metrike.zahtev("a", 10, false);
+        metrike.zahtev("b", 20, true);
+
+        TenantKontekst.uz("a", () -> assertEquals(Map.of("a", metrike.presek().get("a")), tenantService.getMetrike()));
+        TenantKontekst.uz("b", () -> assertEquals(1L, tenantService.getMetrike().get("b").get("gresaka")));
+        assertEquals(Map.of(), tenantService.getMetrike());
+    }
+
+    @Test
+    void testZaSvakogProlaziKrozSveSeme() {
+        List<String> tenanti = new ArrayList<>();
+
+        tenantService.zaSvakog(() -> tenanti.add(TenantKontekst.kljuc()));
+
+        assertEquals(3, tenanti.size());
+        assertEquals(TenantKontekst.PODRAZUMEVANI, tenanti.get(0));
+        assertEquals(Set.of("a", "b"), Set.copyOf(tenanti.subList(1, 3)));
+    }
+}
@@ -0,0 +1,100 @@
+package rs.raf.demo.services.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import rs.raf.demo.events.FakturaEvent;
+import rs.raf.demo.model.Faktura;
+import rs.raf.demo.model.enums.TipFakture;
+import rs.raf.demo.repositories.FakturaRepository;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TopPreduzecaServiceTest {
+
+    @InjectMocks
+    private TopPreduzecaService topPreduzecaService;
+
+    @Mock
+    private FakturaRepository fakturaRepository;
+
+    private final YearMonth januar = YearMonth.of(2025, 1);
+
+    private final YearMonth mart = YearMonth.of(2025, 3);
+
+    @BeforeEach
+    void setUp() {
+        when(fakturaRepository.findTopPreduzeca(any(), any(), any(), any())).thenReturn(List.of());
+        for (TipFakture tip : TipFakture.values()) {
+            for (YearMonth mesec : List.of(januar, mart)) {
+                procitaj(tip, mesec);
+            }
+        }
+        clearInvocations(fakturaRepository);
+    }
+
+    @Test
+    void testIzmenaDatumaITipaPonistavaObeListe() {
+        Faktura faktura = new Faktura();
+        faktura.setTipFakture(TipFakture.ULAZNA_FAKTURA);
+        faktura.setDatumIzdavanja(datum(mart));
+
+        topPreduzecaService.onFakturaEvent(new FakturaEvent(1L, faktura, datum(januar), TipFakture.IZLAZNA_FAKTURA));
+        for (TipFakture tip : TipFakture.values()) {
+            for (YearMonth mesec : List.of(januar, mart)) {
+                procitaj(tip, mesec);
+            }
+        }
+
+        verify(fakturaRepository).findTopPreduzeca(eq(TipFakture.IZLAZNA_FAKTURA), eq(datum(januar)), any(), any());
+        verify(fakturaRepository).findTopPreduzeca(eq(TipFakture.ULAZNA_FAKTURA), eq(datum(mart)), any(), any());
+        verify(fakturaRepository, times(2)).findTopPreduzeca(any(), any(), any(), any());
+    }
+
+    @Test
+    void testBrisanjePonistavaSamoListuObrisaneFakture() {
+        topPreduzecaService.onFakturaEvent(new FakturaEvent(1L, null, datum(mart), TipFakture.IZLAZNA_FAKTURA));
+        procitaj(TipFakture.IZLAZNA_FAKTURA, januar);
+        procitaj(TipFakture.IZLAZNA_FAKTURA, mart);
+
+        verify(fakturaRepository, times(1)).findTopPreduzeca(any(), any(), any(), any());
+        verify(fakturaRepository).findTopPreduzeca(eq(TipFakture.IZLAZNA_FAKTURA), eq(datum(mart)), any(), any());
+    }
+
+    @Test
+    void testListaIzracunataPrePotvrdeIzmeneSeNeCuva() {
+        topPreduzecaService.onFakturaEvent(new FakturaEvent(1L, null, datum(mart), TipFakture.IZLAZNA_FAKTURA));
+        // Nova izmena iz marta se potvrdi dok se lista racuna iz stanja pre nje.
+        when(fakturaRepository.findTopPreduzeca(any(), any(), any(), any())).then(i -> {
+            topPreduzecaService.onFakturaEvent(new FakturaEvent(2L, null, datum(mart), TipFakture.IZLAZNA_FAKTURA));
+            return List.of();
+        }).thenReturn(List.of());
+
+        procitaj(TipFakture.IZLAZNA_FAKTURA, mart);
+        procitaj(TipFakture.IZLAZNA_FAKTURA, mart);
+        procitaj(TipFakture.IZLAZNA_FAKTURA, mart);
+
+        verify(fakturaRepository, times(2)).findTopPreduzeca(any(), any(), any(), any());
+    }
+
+    private void procitaj(TipFakture tip, YearMonth mesec) {
+        topPreduzecaService.getTopPreduzeca(tip, mesec.atDay(1), mesec.atEndOfMonth(), 10);
+    }
+
+    private static Date datum(YearMonth mesec) {
+        LocalDate dan = mesec.atDay(1);
+        return Date.from(dan.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
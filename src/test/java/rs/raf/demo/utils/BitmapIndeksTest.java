@@ -0,0 +1,41 @@
+package rs.raf.demo.utils;
+
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitmapIndeksTest {
+
+    @Test
+    void testPostaviPremestaRedUNovuVrednost() {
+        BitmapIndeks<String> indeks = new BitmapIndeks<>();
+        indeks.dodaj(1, "RSD");
+        indeks.dodaj(2, "RSD");
+        indeks.dodaj(3, "EUR");
+
+        indeks.postavi(2, "EUR");
+        indeks.ukloni(3);
+
+        assertEquals(RoaringBitmap.bitmapOf(1), indeks.jednako("RSD"));
+        assertEquals(RoaringBitmap.bitmapOf(2), indeks.jednako("EUR"));
+        assertTrue(indeks.jednako("USD").isEmpty());
+        assertEquals(RoaringBitmap.bitmapOf(1, 2), indeks.gde(v -> v.contains("R")));
+    }
+
+    @Test
+    void testIzmedjuUkljucujeGranice() {
+        BitmapIndeks<Integer> indeks = new BitmapIndeks<>();
+        indeks.dodaj(1, 202301);
+        indeks.dodaj(2, 202302);
+        indeks.dodaj(3, 202303);
+
+        assertEquals(RoaringBitmap.bitmapOf(2, 3), indeks.izmedju(202302, null));
+        assertEquals(RoaringBitmap.bitmapOf(1, 2), indeks.izmedju(null, 202302));
+        assertEquals(RoaringBitmap.bitmapOf(2), indeks.izmedju(202302, 202302));
+
+        RoaringBitmap rezultat = indeks.izmedju(202302, null);
+        rezultat.remove(3);
+        assertEquals(RoaringBitmap.bitmapOf(3), indeks.jednako(202303));
+    }
+}
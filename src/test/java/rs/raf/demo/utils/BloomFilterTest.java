@@ -0,0 +1,37 @@
+package rs.raf.demo.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void testDodatiKljuceviSuUvekPronadjeni() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.add("1|" + i + "|19000");
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(filter.mightContain("1|" + i + "|19000"));
+        }
+    }
+
+    @Test
+    void testLazniPozitiviUOkviruGreske() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.add("1|" + i + "|19000");
+        }
+
+        int lazniPozitivi = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (filter.mightContain("2|" + i + "|19000")) {
+                lazniPozitivi++;
+            }
+        }
+
+        assertTrue(lazniPozitivi < 300);
+    }
+}
@@ -0,0 +1,31 @@
+package rs.raf.demo.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CsvUtilTest {
+
+    @Test
+    void testPolje() {
+        assertEquals("", CsvUtil.polje(null));
+        assertEquals("Preduzece doo", CsvUtil.polje("Preduzece doo"));
+        assertEquals("12.5", CsvUtil.polje(12.5));
+        assertEquals("\"A;B\"", CsvUtil.polje("A;B"));
+        assertEquals("\"Kuca \"\"Dom\"\"\"", CsvUtil.polje("Kuca \"Dom\""));
+        assertEquals("\"prvi\ndrugi\"", CsvUtil.polje("prvi\ndrugi"));
+    }
+
+    @Test
+    void testRed() throws IOException {
+        StringWriter writer = new StringWriter();
+
+        CsvUtil.red(writer, Arrays.asList(1L, "A;B", null, 2.0));
+
+        assertEquals("1;\"A;B\";;2.0\r\n", writer.toString());
+    }
+}
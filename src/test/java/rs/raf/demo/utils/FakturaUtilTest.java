@@ -43,4 +43,13 @@ class FakturaUtilTest {
 
         assertEquals(ocekivaniResultat, vraceniRezultat);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFormatirajBrojFakture() {
+        String ocekivaniResultat = "IF/2026/000042";
+
+        String vraceniRezultat = FakturaUtil.formatirajBrojFakture("{serija}/{godina}/{broj}", "IF", 2026, 42, 6);
+
+        assertEquals(ocekivaniResultat, vraceniRezultat);
+    }
+}
@@ -0,0 +1,67 @@
+package rs.raf.demo.utils;
+
+import org.junit.jupiter.api.Test;
+import rs.raf.demo.model.enums.TipFakture;
+
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IznosiFakturaTest {
+
+    @Test
+    void testIzmenaNeMenjaOriginal() {
+        IznosiFaktura.Graditelj graditelj = new IznosiFaktura.Graditelj(1);
+        for (int i = 0; i < 10000; i++) {
+            graditelj.dodaj(TipFakture.IZLAZNA_FAKTURA, "RSD", null, 19000, 1.0, 1000.0, 10.0, 100.0,
+                    i % 2 == 0 ? 20.0 : 10.0, i % 2 == 0 ? 180.0 : 90.0, i % 2 == 0 ? 1080.0 : 990.0);
+        }
+        IznosiFaktura original = graditelj.izgradi();
+
+        IznosiFaktura izmenjen = original.izmeni(ForkJoinPool.commonPool(),
+                red -> original.getPorezProcenat(red) == 20.0 ? 22.0 : Double.NaN);
+
+        assertEquals(10000, izmenjen.getBrojRedova());
+        assertEquals(20.0, original.getPorezProcenat(0));
+        assertEquals(180.0, original.getPorez(0));
+        assertEquals(22.0, izmenjen.getPorezProcenat(0));
+        assertEquals(198.0, izmenjen.getPorez(0), 1e-9);
+        assertEquals(1098.0, izmenjen.getIznos(0), 1e-9);
+        assertEquals(10.0, izmenjen.getPorezProcenat(9999));
+        assertEquals(990.0, izmenjen.getIznos(9999));
+    }
+
+    @Test
+    void testBezProcentaRabataZadrzavaUpisaniRabat() {
+        IznosiFaktura original = new IznosiFaktura.Graditelj(1)
+                .dodaj(TipFakture.ULAZNA_FAKTURA, "EUR", 7L, 19000, 117.5, 500.0, null, 50.0, 20.0, 90.0, 540.0)
+                .izgradi();
+
+        IznosiFaktura izmenjen = original.izmeni(ForkJoinPool.commonPool(), red -> 0.0);
+
+        assertEquals(7L, izmenjen.getPreduzece(0));
+        assertEquals(450.0, izmenjen.getOsnovica(0));
+        assertEquals(0.0, izmenjen.getPorez(0));
+        assertEquals(450.0, izmenjen.getIznos(0));
+    }
+
+    @Test
+    void testNovaVerzijaBezIzostavljenihFaktura() {
+        IznosiFaktura original = new IznosiFaktura.Graditelj(1)
+                .dodaj(1L, TipFakture.IZLAZNA_FAKTURA, "RSD", null, 19000, 1.0, 1000.0, null, 0.0, 20.0, 200.0, 1200.0)
+                .dodaj(2L, TipFakture.IZLAZNA_FAKTURA, "RSD", null, 19000, 1.0, 500.0, null, 0.0, 20.0, 100.0, 600.0)
+                .izgradi();
+
+        IznosiFaktura nova = new IznosiFaktura.Graditelj(original, Set.of(1L))
+                .dodaj(1L, TipFakture.IZLAZNA_FAKTURA, "RSD", null, 19000, 1.0, 2000.0, null, 0.0, 20.0, 400.0, 2400.0)
+                .izgradi();
+
+        assertEquals(2, nova.getBrojRedova());
+        assertEquals(2L, nova.getDokumentId(0));
+        assertEquals(600.0, nova.getIznos(0));
+        assertEquals(1L, nova.getDokumentId(1));
+        assertEquals(2400.0, nova.getIznos(1));
+        assertEquals(1200.0, original.getIznos(0));
+    }
+}
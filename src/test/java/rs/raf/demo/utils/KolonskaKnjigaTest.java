@@ -0,0 +1,169 @@
+package rs.raf.demo.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import rs.raf.demo.model.enums.Grupisanje;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KolonskaKnjigaTest {
+
+    @Test
+    void testPrometPoKontimaPrekoProsirenja() {
+        KolonskaKnjiga knjiga = new KolonskaKnjiga(16);
+        for (int i = 0; i < 100; i++) {
+            knjiga.dodaj(i, 1000 + i % 10, i % 2 == 0 ? "2020" : "6120", 150, 25);
+        }
+
+        assertEquals(100, knjiga.getBrojRedova());
+        Map<String, long[]> promet = knjiga.prometPoKontima(1000, 1005, null);
+        assertArrayEquals(new long[]{30 * 150, 30 * 25}, promet.get("2020"));
+        assertArrayEquals(new long[]{20 * 150, 20 * 25}, promet.get("6120"));
+        assertEquals(Map.of(), knjiga.prometPoKontima(2000, 3000, null));
+        assertEquals(1, knjiga.prometPoKontima(1000, 1010, "6").size());
+    }
+
+    @Test
+    void testObrisanoKnjizenjeSePreskace() {
+        KolonskaKnjiga knjiga = new KolonskaKnjiga(16);
+        knjiga.dodaj(1, 1000, "2020", 1000, 0);
+        knjiga.dodaj(1, 1000, "6120", 0, 1000);
+        knjiga.dodaj(2, 1001, "2020", 500, 0);
+
+        assertEquals(2, knjiga.obrisiKnjizenje(1));
+        assertEquals(0, knjiga.obrisiKnjizenje(1));
+        knjiga.dodaj(1, 1002, "2020", 300, 0);
+
+        assertArrayEquals(new long[]{800, 0}, knjiga.prometPoKontima(1000, 1010, null).get("2020"));
+        assertNull(knjiga.prometPoKontima(1000, 1010, null).get("6120"));
+        long[][] poDanima = knjiga.prometPoDanima(1000, 1003, "2");
+        assertArrayEquals(new long[]{0, 0}, poDanima[0]);
+        assertArrayEquals(new long[]{500, 0}, poDanima[1]);
+        assertArrayEquals(new long[]{300, 0}, poDanima[2]);
+    }
+
+    @Test
+    void testZamenaKnjizenjaSeVidiOdjednom() throws Exception {
+        KolonskaKnjiga knjiga = new KolonskaKnjiga(16);
+        knjiga.dodaj(1, 1000, "2020", 100, 0);
+        knjiga.dodaj(1, 1000, "6120", 0, 100);
+        Thread zamena = new Thread(() -> {
+            for (int i = 0; i < 5_000; i++) {
+                knjiga.zameniKnjizenje(1, List.of(
+                        new KolonskaKnjiga.Stavka(1000, "2020", 0, 0, 0, 60, 0),
+                        new KolonskaKnjiga.Stavka(1000, "2020", 0, 0, 0, 40, 0),
+                        new KolonskaKnjiga.Stavka(1000, "6120", 0, 0, 0, 0, 100)));
+            }
+        });
+        zamena.start();
+        try {
+            // Citalac nikad ne vidi knjizenje bez stavki ni sa starim i novim stavkama zajedno.
+            while (zamena.isAlive()) {
+                Map<String, long[]> promet = knjiga.prometPoKontima(0, 2000, null);
+                assertArrayEquals(new long[]{100, 0}, promet.get("2020"));
+                assertArrayEquals(new long[]{0, 100}, promet.get("6120"));
+            }
+        } finally {
+            zamena.join();
+        }
+        assertEquals(3, knjiga.getBrojRedova() - knjiga.getBrojObrisanih());
+    }
+
+    @Test
+    void testGrupisanjePoMesecuIDimenzijama() {
+        int januar = (int) LocalDate.of(2021, 1, 31).toEpochDay();
+        int februar = januar + 1;
+        KolonskaKnjiga knjiga = new KolonskaKnjiga(16);
+        knjiga.dodaj(1, januar, "5500", 3, 7, 0, 100, 0);
+        knjiga.dodaj(1, januar, "5500", 3, 0, 0, 50, 0);
+        knjiga.dodaj(2, februar, "5500", 3, 7, 0, 200, 0);
+        knjiga.dodaj(2, februar, "2020", 4, 7, 0, 0, 200);
+
+        List<KolonskaKnjiga.Grupa> grupe = knjiga.grupisi(januar, februar + 1, null, new int[]{3, 0, 0},
+                List.of(Grupisanje.MESEC, Grupisanje.PROJEKAT));
+        Map<String, long[]> poKljucu = new HashMap<>();
+        for (KolonskaKnjiga.Grupa grupa : grupe) {
+            poKljucu.put(grupa.getVrednost(0) + "/" + grupa.getVrednost(1),
+                    new long[]{grupa.getDuguje(), grupa.getPotrazuje(), grupa.getStavki()});
+        }
+        assertEquals(3, poKljucu.size());
+        assertArrayEquals(new long[]{100, 0, 1}, poKljucu.get("202101/7"));
+        assertArrayEquals(new long[]{50, 0, 1}, poKljucu.get("202101/0"));
+        assertArrayEquals(new long[]{200, 0, 1}, poKljucu.get("202102/7"));
+
+        grupe = knjiga.grupisi(januar, februar + 1, "2", new int[]{0, 7, 0}, List.of(Grupisanje.KONTO));
+        assertEquals(1, grupe.size());
+        assertEquals("2020", knjiga.getBrojKonta(grupe.get(0).getVrednost(0)));
+        assertEquals(200, grupe.get(0).getPotrazuje());
+    }
+
+    @Test
+    void testSnimakSeUcitavaBezObrisanihRedova(@TempDir Path direktorijum) throws IOException {
+        KolonskaKnjiga knjiga = new KolonskaKnjiga(16);
+        knjiga.dodaj(1, 1000, "2020", 1000, 0);
+        knjiga.dodaj(1, 1000, "6120", 0, 1000);
+        knjiga.dodaj(2, 1001, "2020", 500, 0);
+        knjiga.obrisiKnjizenje(2);
+        Path snimak = direktorijum.resolve("knjiga.snimak");
+        knjiga.snimi(snimak, 42);
+
+        KolonskaKnjiga ucitana = KolonskaKnjiga.ucitaj(snimak);
+        assertEquals(42, ucitana.getOznakaSnimka());
+        assertEquals(2, ucitana.getBrojRedova());
+        assertEquals(knjiga.prometPoKontima(0, 2000, null).keySet(), ucitana.prometPoKontima(0, 2000, null).keySet());
+
+        ucitana.dodaj(3, 1002, "2020", 300, 0);
+        ucitana.obrisiKnjizenje(1);
+        assertArrayEquals(new long[]{300, 0}, ucitana.prometPoKontima(0, 2000, null).get("2020"));
+        assertEquals(2, KolonskaKnjiga.ucitaj(snimak).getBrojRedova());
+    }
+
+    @Test
+    void testOstecenSnimakSeOdbija(@TempDir Path direktorijum) throws IOException {
+        KolonskaKnjiga knjiga = new KolonskaKnjiga(16);
+        knjiga.dodaj(1, 1000, "2020", 1000, 0);
+        Path snimak = direktorijum.resolve("knjiga.snimak");
+        knjiga.snimi(snimak, 1);
+
+        byte[] bajtovi = Files.readAllBytes(snimak);
+        bajtovi[bajtovi.length - 1] ^= 1;
+        Files.write(snimak, bajtovi);
+        assertThrows(IOException.class, () -> KolonskaKnjiga.ucitaj(snimak));
+    }
+
+    @Test
+    void testSnimakTokomBrisanjaImaSamoCelaKnjizenja(@TempDir Path direktorijum) throws Exception {
+        KolonskaKnjiga knjiga = new KolonskaKnjiga(16);
+        for (int i = 0; i < 20_000; i++) {
+            knjiga.dodaj(i, 1000, "2020", 100, 0);
+            knjiga.dodaj(i, 1000, "6120", 0, 100);
+        }
+        Thread brisanje = new Thread(() -> {
+            for (int i = 0; i < 20_000; i += 2) {
+                knjiga.obrisiKnjizenje(i);
+            }
+        });
+        brisanje.start();
+        Path snimak = direktorijum.resolve("knjiga.snimak");
+        try {
+            for (int i = 0; i < 5; i++) {
+                knjiga.snimi(snimak, i);
+                KolonskaKnjiga ucitana = KolonskaKnjiga.ucitaj(snimak);
+                Map<String, long[]> promet = ucitana.prometPoKontima(0, 2000, null);
+                assertEquals(ucitana.getBrojRedova() / 2 * 100L, promet.get("2020")[0]);
+                assertEquals(promet.get("2020")[0], promet.get("6120")[1]);
+            }
+        } finally {
+            brisanje.join();
+        }
+        assertEquals(20_000, knjiga.getBrojObrisanih());
+    }
+}
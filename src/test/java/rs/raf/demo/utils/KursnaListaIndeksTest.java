@@ -0,0 +1,36 @@
+package rs.raf.demo.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KursnaListaIndeksTest {
+
+    @Test
+    void testKursVaziDoSledecegDatuma() {
+        KursnaListaIndeks indeks = KursnaListaIndeks.prazan()
+                .dodaj("EUR", 100, 117.5)
+                .dodaj("EUR", 110, 117.2);
+
+        assertTrue(Double.isNaN(indeks.kurs("EUR", 99)));
+        assertEquals(117.5, indeks.kurs("EUR", 100));
+        assertEquals(117.5, indeks.kurs("EUR", 109));
+        assertEquals(117.2, indeks.kurs("EUR", 110));
+        assertEquals(117.2, indeks.kurs("EUR", 500));
+        assertTrue(Double.isNaN(indeks.kurs("USD", 110)));
+    }
+
+    @Test
+    void testDodajNeMenjaPostojeciIndeks() {
+        KursnaListaIndeks stari = KursnaListaIndeks.izgradi(Map.of("EUR", new TreeMap<>(Map.of(100L, 117.5, 120L, 117.0))));
+        KursnaListaIndeks novi = stari.dodaj("EUR", 110, 117.3).dodaj("EUR", 120, 116.9);
+
+        assertEquals(117.5, stari.kurs("EUR", 115));
+        assertEquals(117.0, stari.kurs("EUR", 120));
+        assertEquals(117.3, novi.kurs("EUR", 115));
+        assertEquals(116.9, novi.kurs("EUR", 120));
+    }
+}
@@ -0,0 +1,47 @@
+package rs.raf.demo.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NovacTest {
+
+    @Test
+    void testSkalaValute() {
+        assertEquals(2, Novac.skala("RSD"));
+        assertEquals(0, Novac.skala("JPY"));
+        assertEquals(3, Novac.skala("KWD"));
+        assertEquals(2, Novac.skala(null));
+    }
+
+    @Test
+    void testJediniceIZaokruzivanje() {
+        assertEquals(1999, Novac.uJedinice(19.99, 2));
+        assertEquals(12, Novac.uJedinice(0.125, 2));
+        assertEquals(-12, Novac.uJedinice(-0.125, 2));
+        assertEquals(19.99, Novac.uIznos(1999, 2));
+        assertEquals(1234, Novac.uJedinice(1234.5, 0));
+        assertEquals(1236, Novac.uJedinice(1235.5, 0));
+        assertThrows(ArithmeticException.class, () -> Novac.uJedinice(Double.NaN, 2));
+    }
+
+    @Test
+    void testProcenatIKonverzija() {
+        assertEquals(56500, Novac.procenat(1130000, 5.0));
+        assertEquals(1175, Novac.konvertuj(10, 2, 117.5, 2));
+        assertEquals(-1050, Novac.uJedinice(-1.05, Novac.skala("KWD")));
+        assertEquals(1000, Novac.uJedinice(4.1, 2) + Novac.uJedinice(5.9, 2));
+    }
+
+    @Test
+    void testSumBezGreskeZaokruzivanja() {
+        List<Double> iznosi = Collections.nCopies(1_000_000, 0.1);
+
+        assertEquals(100000.0, Utils.sum(iznosi));
+        assertEquals(0.3, Utils.sum(Arrays.asList(0.1, null, 0.2)));
+    }
+}